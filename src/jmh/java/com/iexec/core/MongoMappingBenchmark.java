@@ -0,0 +1,103 @@
+package com.iexec.core;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.core.replicate.Replicate;
+import com.iexec.core.replicate.ReplicatesList;
+import com.iexec.core.task.Task;
+import com.iexec.core.task.TaskStatus;
+import com.mongodb.MongoClient;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.SimpleMongoDbFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of the documents written and read at each status update, without the round trip to the database (the
+ * client only connects on the first command, no server is needed).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MongoMappingBenchmark {
+
+    private final static String CHAIN_DEAL_ID = "0xd82223e5feff6720792ffed1665e980da95e5d32b177332013eaba8edc07f31c";
+
+    @Param({"1", "10", "100"})
+    private int nbReplicates;
+
+    private MongoClient mongoClient;
+    private MappingMongoConverter converter;
+    private Task task;
+    private ReplicatesList replicatesList;
+    private Document taskDocument;
+    private Document replicatesListDocument;
+
+    @Setup
+    public void setup() {
+        mongoClient = new MongoClient();
+        converter = new MappingMongoConverter(
+                new DefaultDbRefResolver(new SimpleMongoDbFactory(mongoClient, "benchmark")),
+                new MongoMappingContext());
+        converter.afterPropertiesSet();
+
+        task = new Task(CHAIN_DEAL_ID, 0, "dappName", "commandLine", 3, new Date(), "");
+        task.changeStatus(TaskStatus.INITIALIZED);
+        task.changeStatus(TaskStatus.RUNNING);
+        task.setContributionDeadline(new Date());
+
+        List<Replicate> replicates = new ArrayList<>();
+        for (int i = 0; i < nbReplicates; i++) {
+            Replicate replicate = new Replicate("0xworker" + i, task.getChainTaskId());
+            replicate.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
+            replicate.updateStatus(ReplicateStatus.COMPUTED, ReplicateStatusModifier.WORKER);
+            replicate.updateStatus(ReplicateStatus.CONTRIBUTED, ReplicateStatusModifier.WORKER);
+            replicates.add(replicate);
+        }
+        replicatesList = new ReplicatesList();
+        replicatesList.setChainTaskId(task.getChainTaskId());
+        replicatesList.setReplicates(replicates);
+
+        taskDocument = writeTask();
+        replicatesListDocument = writeReplicatesList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public Document writeTask() {
+        Document document = new Document();
+        converter.write(task, document);
+        return document;
+    }
+
+    @Benchmark
+    public Task readTask() {
+        return converter.read(Task.class, taskDocument);
+    }
+
+    @Benchmark
+    public Document writeReplicatesList() {
+        Document document = new Document();
+        converter.write(replicatesList, document);
+        return document;
+    }
+
+    @Benchmark
+    public ReplicatesList readReplicatesList() {
+        return converter.read(ReplicatesList.class, replicatesListDocument);
+    }
+}
@@ -0,0 +1,36 @@
+package com.iexec.core.chain;
+
+import com.iexec.common.chain.ContributionAuthorization;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signature of the contribution authorization handed out with each replicate (wallet of the scheduler shipped in the
+ * resources, the benchmarks are run from the root of the project).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureServiceBenchmark {
+
+    private final static String WALLET_PATH = "./src/main/resources/wallet/encrypted-wallet_scheduler.json";
+    private final static String WALLET_PASSWORD = "whatever";
+    private final static String WORKER_WALLET = "0x748e091bf16048cb5103E0E10F9D5a8b7fBDd860";
+    private final static String CHAIN_TASK_ID = "0xd94b63fc2d3ec4b96daf84b403bbafdc8c8517e8e2addd51fec0fa4e67801be8";
+
+    private SignatureService signatureService;
+
+    @Setup
+    public void setup() throws Exception {
+        signatureService = new SignatureService(new CredentialsService(new WalletDetails(WALLET_PATH, WALLET_PASSWORD)));
+    }
+
+    @Benchmark
+    public ContributionAuthorization createAuthorization() {
+        return signatureService.createAuthorization(WORKER_WALLET, CHAIN_TASK_ID, false);
+    }
+}
@@ -0,0 +1,53 @@
+package com.iexec.core.replicate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in of the Mongo stores for the benchmarks: the cost measured is the one of the services, not of the database.
+ * A reserved replicate is not added to its task so that every benchmark invocation sees the same replicates.
+ */
+class InMemoryReplicatesStore implements ReplicatesStore {
+
+    private final Map<String, ReplicatesList> replicatesByChainTaskId = new ConcurrentHashMap<>();
+    @Override
+    public void createEmptyReplicateList(String chainTaskId) {
+        replicatesByChainTaskId.putIfAbsent(chainTaskId, new ReplicatesList(chainTaskId, new ArrayList<>()));
+    }
+
+    @Override
+    public Optional<ReplicatesList> getReplicatesList(String chainTaskId) {
+        ReplicatesList replicatesList = replicatesByChainTaskId.get(chainTaskId);
+        if (replicatesList == null) {
+            return Optional.empty();
+        }
+        // a copy, as read from the database
+        return Optional.of(new ReplicatesList(chainTaskId, new ArrayList<>(replicatesList.getReplicates())));
+    }
+
+    @Override
+    public boolean hasReplicate(String chainTaskId, String walletAddress) {
+        return getReplicatesList(chainTaskId).map(list -> list.getReplicateOfWorker(walletAddress).isPresent())
+                .orElse(false);
+    }
+
+    @Override
+    public boolean reserveReplicate(String chainTaskId, int nbReplicates, Replicate replicate) {
+        ReplicatesList replicatesList = replicatesByChainTaskId.get(chainTaskId);
+        return replicatesList != null && replicatesList.getReplicates().size() == nbReplicates;
+    }
+
+    @Override
+    public void updateReplicate(ReplicatesList replicatesList, Replicate replicate) {
+        replicatesByChainTaskId.put(replicatesList.getChainTaskId(), replicatesList);
+    }
+
+    @Override
+    public void archiveReplicatesList(String chainTaskId) {
+        replicatesByChainTaskId.remove(chainTaskId);
+    }
+
+    void put(ReplicatesList replicatesList) {
+        replicatesByChainTaskId.put(replicatesList.getChainTaskId(), replicatesList);
+    }
+}
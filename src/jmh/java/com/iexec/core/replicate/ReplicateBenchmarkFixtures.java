@@ -0,0 +1,58 @@
+package com.iexec.core.replicate;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.core.history.StatusHistoryService;
+import com.iexec.core.worker.WorkerStatsService;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A ReplicatesService on top of an in-memory store, for the benchmarks of this package and of the ones using the
+ * replicates (the store and the replicates lists can only be created from here).
+ */
+public class ReplicateBenchmarkFixtures {
+
+    private InMemoryReplicatesStore replicatesStore;
+    private ReplicatesService replicatesService;
+
+    public ReplicateBenchmarkFixtures() {
+        replicatesStore = new InMemoryReplicatesStore();
+        replicatesService = new ReplicatesService(replicatesStore, null, null, null, new NoOpStatusHistoryService(),
+                new WorkerStatsService(), null);
+    }
+
+    public ReplicatesService getReplicatesService() {
+        return replicatesService;
+    }
+
+    /*
+     * The replicates of the task go through the given statuses in turn: the first replicate only has the first one,
+     * the second one the first two, and so on.
+     */
+    public void addReplicates(String chainTaskId, int nbReplicates, ReplicateStatus... statuses) {
+        List<Replicate> replicates = new ArrayList<>();
+        for (int i = 0; i < nbReplicates; i++) {
+            Replicate replicate = new Replicate("0xworker" + i, chainTaskId);
+            int nbStatuses = statuses.length == 0 ? 0 : 1 + i % statuses.length;
+            for (int j = 0; j < nbStatuses; j++) {
+                replicate.updateStatus(statuses[j], ReplicateStatusModifier.WORKER);
+            }
+            replicates.add(replicate);
+        }
+        replicatesStore.put(new ReplicatesList(chainTaskId, replicates));
+    }
+
+    private static class NoOpStatusHistoryService extends StatusHistoryService {
+
+        NoOpStatusHistoryService() {
+            super(null);
+        }
+
+        @Override
+        public void addReplicateStatusChange(String chainTaskId, String walletAddress, Enum<?> status, Date date) {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.iexec.core.replicate;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting methods called by the task state machine at each update of a task, with the replicates already read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplicatesServiceBenchmark {
+
+    private final static String CHAIN_TASK_ID = "0x65bc5e94ed1486b940bd6cc0013c418efad58a0a52a3d08cee89faaa21970426";
+
+    @Param({"1", "10", "100"})
+    private int nbReplicates;
+
+    private ReplicatesService replicatesService;
+    private Date timeRef;
+
+    @Setup
+    public void setup() {
+        ReplicateBenchmarkFixtures fixtures = new ReplicateBenchmarkFixtures();
+        fixtures.addReplicates(CHAIN_TASK_ID, nbReplicates, ReplicateStatus.RUNNING, ReplicateStatus.COMPUTED,
+                ReplicateStatus.CONTRIBUTING, ReplicateStatus.CONTRIBUTED, ReplicateStatus.WORKER_LOST);
+        replicatesService = fixtures.getReplicatesService();
+        timeRef = new Date(60000);
+    }
+
+    @Benchmark
+    public int getNbReplicatesWithCurrentStatus() {
+        return replicatesService.getNbReplicatesWithCurrentStatus(CHAIN_TASK_ID,
+                ReplicateStatus.RUNNING, ReplicateStatus.COMPUTED);
+    }
+
+    @Benchmark
+    public int getNbReplicatesContainingStatus() {
+        return replicatesService.getNbReplicatesContainingStatus(CHAIN_TASK_ID, ReplicateStatus.CONTRIBUTED);
+    }
+
+    @Benchmark
+    public int getNbOffChainReplicatesWithStatus() {
+        return replicatesService.getNbOffChainReplicatesWithStatus(CHAIN_TASK_ID, ReplicateStatus.CONTRIBUTED);
+    }
+
+    @Benchmark
+    public boolean moreReplicatesNeeded() {
+        return replicatesService.moreReplicatesNeeded(CHAIN_TASK_ID, nbReplicates, timeRef);
+    }
+}
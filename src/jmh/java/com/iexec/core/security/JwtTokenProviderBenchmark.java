@@ -0,0 +1,35 @@
+package com.iexec.core.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of the bearer token carried by every request of a worker (signature check, then challenge lookup).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private final static String WALLET_ADDRESS = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String bearerToken;
+
+    @Setup
+    public void setup() {
+        AuthStore authStore = new LocalAuthStore();
+        jwtTokenProvider = new JwtTokenProvider(new ChallengeService(authStore), authStore);
+        jwtTokenProvider.init();
+        bearerToken = "Bearer " + jwtTokenProvider.createToken(WALLET_ADDRESS);
+    }
+
+    @Benchmark
+    public String getWalletAddressFromBearerToken() {
+        return jwtTokenProvider.getWalletAddressFromBearerToken(bearerToken);
+    }
+}
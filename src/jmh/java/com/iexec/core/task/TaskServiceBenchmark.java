@@ -0,0 +1,90 @@
+package com.iexec.core.task;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.core.cluster.ClusterConfiguration;
+import com.iexec.core.cluster.PartitionService;
+import com.iexec.core.replicate.Replicate;
+import com.iexec.core.replicate.ReplicateBenchmarkFixtures;
+import com.iexec.core.task.placement.DeadlineFirstPlacementPolicy;
+import com.iexec.core.worker.Worker;
+import com.iexec.core.worker.WorkerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replicate supply (/tasks/available) with nbTasks open tasks: all of them are full but the one with the latest
+ * deadline, so that the whole priority queue is walked before a replicate is reserved. The workers and the replicates
+ * are held in memory, the cost measured is the one of the scheduling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    private final static String CHAIN_DEAL_ID = "0xd82223e5feff6720792ffed1665e980da95e5d32b177332013eaba8edc07f31c";
+    private final static String WALLET_ADDRESS = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static int TRUST = 3;
+
+    @Param({"10", "100", "1000"})
+    private int nbTasks;
+
+    private TaskService taskService;
+
+    @Setup
+    public void setup() {
+        ReplicateBenchmarkFixtures fixtures = new ReplicateBenchmarkFixtures();
+        TaskRegistry taskRegistry = new TaskRegistry();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < nbTasks; i++) {
+            Task task = new Task(CHAIN_DEAL_ID, i, "dappName", "commandLine", TRUST, new Date(3600000), "");
+            task.changeStatus(TaskStatus.INITIALIZED);
+            task.changeStatus(TaskStatus.RUNNING);
+            task.setContributionDeadline(new Date(now + 60000 + i));
+            boolean isLastTask = i == nbTasks - 1;
+            fixtures.addReplicates(task.getChainTaskId(), isLastTask ? 0 : task.getNumWorkersNeeded(),
+                    ReplicateStatus.RUNNING);
+            taskRegistry.put(task);
+        }
+
+        taskService = new TaskService(null, new InMemoryWorkerService(), null, fixtures.getReplicatesService(),
+                null, taskRegistry, null, null, new DeadlineFirstPlacementPolicy(), null, null,
+                new PartitionService(new ClusterConfiguration(), null, null), null, null);
+    }
+
+    @Benchmark
+    public Optional<Replicate> getAvailableReplicate() {
+        return taskService.getAvailableReplicate(WALLET_ADDRESS);
+    }
+
+    // a registered worker with free slots, whose assignments are not kept
+    private static class InMemoryWorkerService extends WorkerService {
+
+        private final Worker worker;
+
+        InMemoryWorkerService() {
+            super(null, null, null, null);
+            worker = Worker.builder().walletAddress(WALLET_ADDRESS).cpuNb(4).build();
+        }
+
+        @Override
+        public Optional<Worker> getWorker(String walletAddress) {
+            return Optional.of(worker);
+        }
+
+        @Override
+        public boolean canAcceptMoreWorks(String walletAddress) {
+            return true;
+        }
+
+        @Override
+        public Optional<Worker> addChainTaskIdToWorker(String chainTaskId, String walletAddress) {
+            return Optional.of(worker);
+        }
+    }
+}
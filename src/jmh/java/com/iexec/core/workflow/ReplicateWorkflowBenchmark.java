@@ -0,0 +1,42 @@
+package com.iexec.core.workflow;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Check of each status update sent by a worker, for a valid and an invalid transition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplicateWorkflowBenchmark {
+
+    private ReplicateWorkflow replicateWorkflow;
+    private ReplicateStatus from;
+    private ReplicateStatus validTo;
+    private ReplicateStatus invalidTo;
+
+    @Setup
+    public void setup() {
+        replicateWorkflow = ReplicateWorkflow.getInstance();
+        // fields rather than constants, so that the JIT doesn't fold the lookups
+        from = ReplicateStatus.CONTRIBUTING;
+        validTo = ReplicateStatus.CONTRIBUTED;
+        invalidTo = ReplicateStatus.REVEALED;
+    }
+
+    @Benchmark
+    public boolean isValidTransition() {
+        return replicateWorkflow.isValidTransition(from, validTo);
+    }
+
+    @Benchmark
+    public boolean isInvalidTransition() {
+        return replicateWorkflow.isValidTransition(from, invalidTo);
+    }
+}
@@ -0,0 +1,337 @@
+package com.iexec.core.chain;
+
+import com.iexec.common.chain.*;
+import com.iexec.core.task.Task;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+import rx.Observable;
+import rx.subjects.PublishSubject;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * In-memory stand-in of the chain for the load harness. Blocks are mined every blockTime ms and each call to the node
+ * costs rpcLatency ms. A transaction is mined in the block following its sending, after the previous transactions of
+ * the same wallet (nonce order): the scheduler sends its transactions one at a time, as it does on a real chain.
+ *
+ * Only the part of the PoCo the scheduler relies on is simulated: a task is initialized by the scheduler, the
+ * consensus is reached when enough workers contributed the same result hash, then the winners reveal and the
+ * scheduler finalizes (or reopens when no one revealed in time). Deadlines follow the ratios of the PoCo.
+ */
+@Slf4j
+public class SimulatedChain {
+
+    public static final String DAPP_NAME = "docker.io/iexechub/loadtest:1.0.0";
+    // no TEE
+    private static final String TAG = Numeric.toHexStringWithPrefixZeroPadded(BigInteger.ZERO, 64);
+    private static final String SCHEDULER_WALLET = "scheduler";
+
+    // ratios of the category max execution time
+    private static final int CONTRIBUTION_DEADLINE_RATIO = 7;
+    private static final int REVEAL_DEADLINE_RATIO = 2;
+    private static final int FINAL_DEADLINE_RATIO = 10;
+
+    private final long blockTime;
+    private final long rpcLatency;
+    private final long startTime;
+
+    private final Map<String, ChainDeal> deals = new ConcurrentHashMap<>();
+    private final Map<String, SimulatedTask> tasks = new ConcurrentHashMap<>();
+    private final List<DealEvent> dealEvents = new CopyOnWriteArrayList<>();
+    private final PublishSubject<Optional<DealEvent>> dealEventSubject = PublishSubject.create();
+    private final Map<String, Object> walletLocks = new ConcurrentHashMap<>();
+    private final AtomicLong dealNonce = new AtomicLong();
+
+    public SimulatedChain(long blockTime, long rpcLatency) {
+        this.blockTime = blockTime;
+        this.rpcLatency = rpcLatency;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public long getLatestBlockNumber() {
+        return (System.currentTimeMillis() - startTime) / blockTime;
+    }
+
+    /*
+     * A deal of nbTasks tasks, announced to the scheduler with a deal event (the watcher of the scheduler handles it
+     * on the calling thread). Returns the chainTaskIds of the deal.
+     */
+    public List<String> createDeal(int nbTasks, int trust, long maxExecutionTime) {
+        String chainDealId = Numeric.toHexStringWithPrefixZeroPadded(
+                BigInteger.valueOf(dealNonce.incrementAndGet()), 64);
+
+        ChainApp chainApp = new ChainApp();
+        chainApp.setUri(Numeric.toHexString(DAPP_NAME.getBytes(StandardCharsets.UTF_8)));
+        ChainCategory chainCategory = new ChainCategory();
+        chainCategory.setMaxExecutionTime(new Date(maxExecutionTime));
+        deals.put(chainDealId, ChainDeal.builder()
+                .botFirst(BigInteger.ZERO)
+                .botSize(BigInteger.valueOf(nbTasks))
+                .chainApp(chainApp)
+                .chainCategory(chainCategory)
+                .params(Collections.nCopies(nbTasks, "loadtest"))
+                .trust(BigInteger.valueOf(trust))
+                .tag(TAG)
+                .build());
+
+        // same number of winners as the replicates the scheduler asks for
+        int nbWinnersNeeded = new Task(DAPP_NAME, "", trust).getNumWorkersNeeded();
+        long now = System.currentTimeMillis();
+        List<String> chainTaskIds = new ArrayList<>();
+        for (int taskIndex = 0; taskIndex < nbTasks; taskIndex++) {
+            String chainTaskId = ChainUtils.generateChainTaskId(chainDealId, BigInteger.valueOf(taskIndex));
+            tasks.put(chainTaskId, new SimulatedTask(chainDealId, nbWinnersNeeded, maxExecutionTime, now));
+            chainTaskIds.add(chainTaskId);
+        }
+
+        DealEvent dealEvent = new DealEvent(chainDealId, BigInteger.valueOf(getLatestBlockNumber()));
+        dealEvents.add(dealEvent);
+        log.info("Deal created [chainDealId:{}, nbTasks:{}, trust:{}]", chainDealId, nbTasks, trust);
+        dealEventSubject.onNext(Optional.of(dealEvent));
+        return chainTaskIds;
+    }
+
+    // time from the deal to the finalization of the task (ms)
+    public Optional<Long> getCompletionDuration(String chainTaskId) {
+        SimulatedTask task = tasks.get(chainTaskId);
+        return task != null ? task.getCompletionDuration() : Optional.empty();
+    }
+
+    // what a worker checks before contributing (task still active, no contribution yet)
+    public boolean canContribute(String chainTaskId, String walletAddress) {
+        rpc();
+        SimulatedTask task = tasks.get(chainTaskId);
+        return task != null && task.canContribute(walletAddress);
+    }
+
+    public SimulatedReceipt contribute(String chainTaskId, String walletAddress) {
+        SimulatedTask task = tasks.get(chainTaskId);
+        return sendTransaction(walletAddress, () -> task != null
+                && task.contribute(walletAddress, Hash.sha3String(chainTaskId)));
+    }
+
+    public SimulatedReceipt reveal(String chainTaskId, String walletAddress) {
+        SimulatedTask task = tasks.get(chainTaskId);
+        return sendTransaction(walletAddress, () -> task != null && task.reveal(walletAddress));
+    }
+
+    Observable<Optional<DealEvent>> getDealEventObservable() {
+        return dealEventSubject.asObservable();
+    }
+
+    // deal events already sent, for the replay of the watcher
+    Observable<Optional<DealEvent>> getDealEventObservable(BigInteger from, BigInteger to) {
+        List<Optional<DealEvent>> events = new ArrayList<>();
+        for (DealEvent dealEvent : dealEvents) {
+            if (dealEvent.getBlockNumber().compareTo(from) >= 0 && (to == null || dealEvent.getBlockNumber().compareTo(to) <= 0)) {
+                events.add(Optional.of(dealEvent));
+            }
+        }
+        return Observable.from(events);
+    }
+
+    Optional<ChainDeal> getChainDeal(String chainDealId) {
+        rpc();
+        return Optional.ofNullable(deals.get(chainDealId));
+    }
+
+    Optional<ChainTask> getChainTask(String chainTaskId) {
+        rpc();
+        SimulatedTask task = tasks.get(chainTaskId);
+        return task != null ? Optional.of(task.toChainTask()) : Optional.empty();
+    }
+
+    Optional<ChainContribution> getContribution(String chainTaskId, String walletAddress) {
+        rpc();
+        SimulatedTask task = tasks.get(chainTaskId);
+        return task != null ? Optional.of(task.toChainContribution(walletAddress)) : Optional.empty();
+    }
+
+    SimulatedReceipt initialize(String chainDealId, int taskIndex) {
+        SimulatedTask task = tasks.get(ChainUtils.generateChainTaskId(chainDealId, BigInteger.valueOf(taskIndex)));
+        return sendTransaction(SCHEDULER_WALLET, () -> task != null && task.initialize());
+    }
+
+    SimulatedReceipt finalizeTask(String chainTaskId) {
+        SimulatedTask task = tasks.get(chainTaskId);
+        return sendTransaction(SCHEDULER_WALLET, () -> task != null && task.finalizeTask());
+    }
+
+    SimulatedReceipt reopen(String chainTaskId) {
+        SimulatedTask task = tasks.get(chainTaskId);
+        return sendTransaction(SCHEDULER_WALLET, () -> task != null && task.reopen());
+    }
+
+    // waits for the block like a node catching up, false after maxWaitingTime
+    boolean waitForBlock(long blockNumber, long maxWaitingTime) {
+        rpc();
+        long blockTimestamp = startTime + blockNumber * blockTime;
+        if (blockTimestamp - System.currentTimeMillis() > maxWaitingTime) {
+            return false;
+        }
+        sleepUntil(blockTimestamp);
+        return true;
+    }
+
+    // the change is applied when the transaction is mined, a reverted transaction is mined anyway
+    private SimulatedReceipt sendTransaction(String walletAddress, BooleanSupplier change) {
+        synchronized (walletLocks.computeIfAbsent(walletAddress.toLowerCase(), key -> new Object())) {
+            rpc();
+            long blockNumber = getLatestBlockNumber() + 1;
+            sleepUntil(startTime + blockNumber * blockTime);
+            return new SimulatedReceipt(blockNumber, change.getAsBoolean());
+        }
+    }
+
+    private void rpc() {
+        sleepUntil(System.currentTimeMillis() + rpcLatency);
+    }
+
+    private static void sleepUntil(long timestamp) {
+        long duration = timestamp - System.currentTimeMillis();
+        if (duration <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SimulatedReceipt {
+
+        private long blockNumber;
+        private boolean success;
+    }
+
+    private static class SimulatedTask {
+
+        private final String chainDealId;
+        private final int nbWinnersNeeded;
+        private final long maxExecutionTime;
+        private final long dealTime;
+
+        private ChainTaskStatus status = ChainTaskStatus.UNSET;
+        private long contributionDeadline;
+        private long revealDeadline;
+        private long finalDeadline;
+        private String consensusValue;
+        private int winnerCounter;
+        private int revealCounter;
+        private long completionTime;
+        private final Map<String, ChainContributionStatus> contributionStatuses = new HashMap<>();
+        private final Map<String, String> resultHashes = new HashMap<>();
+
+        SimulatedTask(String chainDealId, int nbWinnersNeeded, long maxExecutionTime, long dealTime) {
+            this.chainDealId = chainDealId;
+            this.nbWinnersNeeded = nbWinnersNeeded;
+            this.maxExecutionTime = maxExecutionTime;
+            this.dealTime = dealTime;
+        }
+
+        synchronized boolean initialize() {
+            if (status != ChainTaskStatus.UNSET) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            status = ChainTaskStatus.ACTIVE;
+            contributionDeadline = now + CONTRIBUTION_DEADLINE_RATIO * maxExecutionTime;
+            finalDeadline = now + FINAL_DEADLINE_RATIO * maxExecutionTime;
+            return true;
+        }
+
+        synchronized boolean canContribute(String walletAddress) {
+            return status == ChainTaskStatus.ACTIVE && System.currentTimeMillis() < contributionDeadline
+                    && !contributionStatuses.containsKey(walletAddress);
+        }
+
+        synchronized boolean contribute(String walletAddress, String resultHash) {
+            if (!canContribute(walletAddress)) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            contributionStatuses.put(walletAddress, ChainContributionStatus.CONTRIBUTED);
+            resultHashes.put(walletAddress, resultHash);
+
+            int nbSameResult = Collections.frequency(resultHashes.values(), resultHash);
+            if (nbSameResult >= nbWinnersNeeded) {
+                status = ChainTaskStatus.REVEALING;
+                consensusValue = resultHash;
+                winnerCounter = nbSameResult;
+                revealDeadline = now + REVEAL_DEADLINE_RATIO * maxExecutionTime;
+            }
+            return true;
+        }
+
+        synchronized boolean reveal(String walletAddress) {
+            boolean isWinner = ChainContributionStatus.CONTRIBUTED.equals(contributionStatuses.get(walletAddress))
+                    && resultHashes.get(walletAddress).equals(consensusValue);
+            if (status != ChainTaskStatus.REVEALING || !isWinner || System.currentTimeMillis() >= revealDeadline) {
+                return false;
+            }
+            contributionStatuses.put(walletAddress, ChainContributionStatus.REVEALED);
+            revealCounter++;
+            return true;
+        }
+
+        synchronized boolean finalizeTask() {
+            long now = System.currentTimeMillis();
+            boolean hasEnoughRevealors = revealCounter == winnerCounter || (revealCounter > 0 && now >= revealDeadline);
+            if (status != ChainTaskStatus.REVEALING || !hasEnoughRevealors || now >= finalDeadline) {
+                return false;
+            }
+            status = ChainTaskStatus.COMPLETED;
+            completionTime = now;
+            return true;
+        }
+
+        // the winners which didn't reveal can't contribute again
+        synchronized boolean reopen() {
+            long now = System.currentTimeMillis();
+            if (status != ChainTaskStatus.REVEALING || now < revealDeadline || revealCounter > 0) {
+                return false;
+            }
+            status = ChainTaskStatus.ACTIVE;
+            consensusValue = null;
+            winnerCounter = 0;
+            revealDeadline = 0;
+            return true;
+        }
+
+        synchronized Optional<Long> getCompletionDuration() {
+            return status == ChainTaskStatus.COMPLETED ? Optional.of(completionTime - dealTime) : Optional.empty();
+        }
+
+        synchronized ChainTask toChainTask() {
+            return ChainTask.builder()
+                    .dealid(chainDealId)
+                    .status(status)
+                    .contributionDeadline(contributionDeadline)
+                    .revealDeadline(revealDeadline)
+                    .finalDeadline(finalDeadline)
+                    .consensusValue(consensusValue)
+                    .winnerCounter(winnerCounter)
+                    .revealCounter(revealCounter)
+                    .build();
+        }
+
+        synchronized ChainContribution toChainContribution(String walletAddress) {
+            return ChainContribution.builder()
+                    .status(contributionStatuses.getOrDefault(walletAddress, ChainContributionStatus.UNSET))
+                    .resultHash(resultHashes.get(walletAddress))
+                    .build();
+        }
+    }
+}
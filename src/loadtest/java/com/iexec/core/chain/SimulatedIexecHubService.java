@@ -0,0 +1,110 @@
+package com.iexec.core.chain;
+
+import com.iexec.common.chain.*;
+import com.iexec.core.chain.SimulatedChain.SimulatedReceipt;
+import com.iexec.core.metrics.MetricsService;
+import com.iexec.core.tracing.TracingService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.Pair;
+import org.web3j.crypto.Hash;
+import rx.Observable;
+
+import java.math.BigInteger;
+import java.util.Optional;
+
+/**
+ * IexecHubService of the load harness: contracts are replaced by the SimulatedChain, the checks done by the
+ * scheduler before sending a transaction (canFinalize, canReopen, ...) are the ones of the real service.
+ */
+@Slf4j
+public class SimulatedIexecHubService extends IexecHubService {
+
+    private final SimulatedChain chain;
+    private final MetricsService metricsService;
+
+    public SimulatedIexecHubService(SimulatedChain chain,
+                                    ChainConfig chainConfig,
+                                    MetricsService metricsService,
+                                    TracingService tracingService) {
+        super(chainConfig, metricsService, tracingService);
+        this.chain = chain;
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public Optional<ChainContribution> getContribution(String chainTaskId, String workerWalletAddress) {
+        return metricsService.timeRpcCall("viewContribution", () -> chain.getContribution(chainTaskId, workerWalletAddress));
+    }
+
+    // the deal of the harness is always before its contribution deadline
+    @Override
+    public boolean canInitialize(String chainDealId, int taskIndex) {
+        String chainTaskId = ChainUtils.generateChainTaskId(chainDealId, BigInteger.valueOf(taskIndex));
+        return getChainTask(chainTaskId)
+                .map(chainTask -> chainTask.getStatus().equals(ChainTaskStatus.UNSET))
+                .orElse(false);
+    }
+
+    @Override
+    public Optional<Pair<String, ChainReceipt>> initialize(String chainDealId, int taskIndex) {
+        String chainTaskId = ChainUtils.generateChainTaskId(chainDealId, BigInteger.valueOf(taskIndex));
+        SimulatedReceipt receipt = metricsService.timeRpcCall("initialize", () -> chain.initialize(chainDealId, taskIndex));
+        if (!receipt.isSuccess()) {
+            log.error("Failed initialize [chainDealId:{}, taskIndex:{}]", chainDealId, taskIndex);
+            return Optional.empty();
+        }
+        return Optional.of(Pair.of(chainTaskId, toChainReceipt(chainTaskId, receipt)));
+    }
+
+    @Override
+    public Optional<ChainReceipt> finalizeTask(String chainTaskId, String resultUri) {
+        SimulatedReceipt receipt = metricsService.timeRpcCall("finalize", () -> chain.finalizeTask(chainTaskId));
+        if (!receipt.isSuccess()) {
+            log.error("Failed finalize [chainTaskId:{}, resultUri:{}]", chainTaskId, resultUri);
+            return Optional.empty();
+        }
+        return Optional.of(toChainReceipt(chainTaskId, receipt));
+    }
+
+    @Override
+    public Optional<ChainReceipt> reOpen(String chainTaskId) {
+        SimulatedReceipt receipt = metricsService.timeRpcCall("reopen", () -> chain.reopen(chainTaskId));
+        if (!receipt.isSuccess()) {
+            log.error("Failed reopen [chainTaskId:{}]", chainTaskId);
+            return Optional.empty();
+        }
+        return Optional.of(toChainReceipt(chainTaskId, receipt));
+    }
+
+    @Override
+    public Optional<ChainDeal> getChainDeal(String chainDealId) {
+        return metricsService.timeRpcCall("viewDeal", () -> chain.getChainDeal(chainDealId));
+    }
+
+    @Override
+    public Optional<ChainTask> getChainTask(String chainTaskId) {
+        return metricsService.timeRpcCall("viewTask", () -> chain.getChainTask(chainTaskId));
+    }
+
+    @Override
+    Observable<Optional<DealEvent>> getDealEventObservableToLatest(BigInteger from) {
+        return chain.getDealEventObservable();
+    }
+
+    @Override
+    Observable<Optional<DealEvent>> getDealEventObservable(BigInteger from, BigInteger to) {
+        return chain.getDealEventObservable(from, to);
+    }
+
+    @Override
+    public boolean hasEnoughGas() {
+        return true;
+    }
+
+    private static ChainReceipt toChainReceipt(String chainTaskId, SimulatedReceipt receipt) {
+        return ChainReceipt.builder()
+                .blockNumber(receipt.getBlockNumber())
+                .txHash(Hash.sha3String(chainTaskId + receipt.getBlockNumber()))
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.iexec.core.chain;
+
+/**
+ * Web3jService of the load harness, the blocks are the ones of the SimulatedChain.
+ */
+public class SimulatedWeb3jService extends Web3jService {
+
+    private static final long MAX_WAITING_TIME = 2 * 60 * 1000;
+
+    private final SimulatedChain chain;
+
+    public SimulatedWeb3jService(SimulatedChain chain, ChainConfig chainConfig) {
+        super(chainConfig);
+        this.chain = chain;
+    }
+
+    @Override
+    public boolean isBlockNumberAvailable(long blockNumber) {
+        return chain.waitForBlock(blockNumber, MAX_WAITING_TIME);
+    }
+}
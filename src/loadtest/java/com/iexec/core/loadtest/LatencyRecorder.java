@@ -0,0 +1,59 @@
+package com.iexec.core.loadtest;
+
+import com.iexec.core.task.lifecycle.PhaseStatistics;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SynchronizedHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Latencies (ms) seen by the simulated workers, one histogram per request sent to the scheduler.
+ */
+@Component
+public class LatencyRecorder {
+
+    // same precision as the histograms of the task lifecycle
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public <T> T time(String operation, Supplier<T> call) {
+        long start = System.currentTimeMillis();
+        try {
+            return call.get();
+        } finally {
+            record(operation, System.currentTimeMillis() - start);
+        }
+    }
+
+    public void record(String operation, long duration) {
+        histograms.computeIfAbsent(operation, key -> new SynchronizedHistogram(SIGNIFICANT_DIGITS))
+                .recordValue(Math.max(0, duration));
+    }
+
+    public Map<String, PhaseStatistics> getStatistics() {
+        Map<String, PhaseStatistics> statistics = new TreeMap<>();
+        histograms.forEach((operation, histogram) -> statistics.put(operation, toStatistics(histogram)));
+        return statistics;
+    }
+
+    // each run of the harness has its own latencies
+    public void reset() {
+        histograms.clear();
+    }
+
+    static PhaseStatistics toStatistics(Histogram histogram) {
+        Histogram copy = histogram.copy();
+        return PhaseStatistics.builder()
+                .count(copy.getTotalCount())
+                .p50(copy.getValueAtPercentile(50))
+                .p90(copy.getValueAtPercentile(90))
+                .p99(copy.getValueAtPercentile(99))
+                .max(copy.getMaxValue())
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.iexec.core.loadtest;
+
+import com.iexec.core.Application;
+import com.iexec.core.chain.IexecHubService;
+import com.iexec.core.chain.Web3jService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+/**
+ * The scheduler with the chain replaced by a simulated one (see LoadTestConfiguration), an embedded mongo and the
+ * "loadtest" profile, driven by the LoadTestRunner. Exits once the report is written.
+ */
+@Slf4j
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackages = "com.iexec.core", excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {Application.class, IexecHubService.class, Web3jService.class})})
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        SpringApplication application = new SpringApplication(LoadTestApplication.class);
+        application.setAdditionalProfiles("loadtest");
+        ConfigurableApplicationContext context = application.run(args);
+        int exitCode = 0;
+        try {
+            context.getBean(LoadTestRunner.class).run();
+        } catch (Exception e) {
+            log.error("Load test failed [error:{}]", e.getMessage());
+            exitCode = 1;
+        }
+        System.exit(SpringApplication.exit(context, () -> 0) + exitCode);
+    }
+}
@@ -0,0 +1,30 @@
+package com.iexec.core.loadtest;
+
+import com.iexec.core.chain.*;
+import com.iexec.core.metrics.MetricsService;
+import com.iexec.core.tracing.TracingService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// the chain of the harness and the services of the scheduler reaching it
+@Configuration
+public class LoadTestConfiguration {
+
+    @Bean
+    public SimulatedChain simulatedChain(LoadTestSettings settings) {
+        return new SimulatedChain(settings.getBlockTime(), settings.getRpcLatency());
+    }
+
+    @Bean
+    public IexecHubService iexecHubService(SimulatedChain chain,
+                                           ChainConfig chainConfig,
+                                           MetricsService metricsService,
+                                           TracingService tracingService) {
+        return new SimulatedIexecHubService(chain, chainConfig, metricsService, tracingService);
+    }
+
+    @Bean
+    public Web3jService web3jService(SimulatedChain chain, ChainConfig chainConfig) {
+        return new SimulatedWeb3jService(chain, chainConfig);
+    }
+}
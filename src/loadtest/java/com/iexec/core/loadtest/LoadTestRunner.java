@@ -0,0 +1,153 @@
+package com.iexec.core.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iexec.core.chain.SimulatedChain;
+import com.iexec.core.task.lifecycle.TaskLifecycleService;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Runs the scales of the harness one after the other against the scheduler started in the same JVM: the simulated
+ * workers register once, then for each scale the deals are sent to the chain and the run lasts until all the tasks
+ * are finalized on the chain (or until the timeout of the scale, which grows with the chain bound of the scale).
+ */
+@Slf4j
+@Component
+public class LoadTestRunner {
+
+    private static final long PROGRESS_PERIOD = 1000;
+
+    private final LoadTestSettings settings;
+    private final SimulatedChain chain;
+    private final LatencyRecorder latencyRecorder;
+    private final TaskLifecycleService taskLifecycleService;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+
+    public LoadTestRunner(LoadTestSettings settings,
+                          SimulatedChain chain,
+                          LatencyRecorder latencyRecorder,
+                          TaskLifecycleService taskLifecycleService,
+                          ObjectMapper objectMapper,
+                          Environment environment) {
+        this.settings = settings;
+        this.chain = chain;
+        this.latencyRecorder = latencyRecorder;
+        this.taskLifecycleService = taskLifecycleService;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+    }
+
+    // the server is started, its port is known
+    public List<ScaleReport> run() throws IOException {
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port");
+        ExecutorService replicateExecutor = Executors.newCachedThreadPool();
+        ScheduledExecutorService pingExecutor = Executors.newScheduledThreadPool(4);
+
+        List<SimulatedWorker> workers = new ArrayList<>();
+        for (int workerIndex = 0; workerIndex < settings.getWorkersCount(); workerIndex++) {
+            SimulatedWorker worker = new SimulatedWorker(workerIndex, baseUrl, settings, chain, latencyRecorder,
+                    replicateExecutor, pingExecutor);
+            if (worker.start()) {
+                workers.add(worker);
+            }
+        }
+        log.info("Simulated workers started [started:{}, expected:{}]", workers.size(), settings.getWorkersCount());
+
+        List<ScaleReport> reports = new ArrayList<>();
+        try {
+            for (int nbTasks : settings.getNbTasks()) {
+                reports.add(runScale(nbTasks));
+            }
+        } finally {
+            workers.forEach(SimulatedWorker::stop);
+            replicateExecutor.shutdownNow();
+            pingExecutor.shutdownNow();
+        }
+
+        File reportFile = new File(settings.getReportFile());
+        if (reportFile.getParentFile() != null) {
+            reportFile.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile, reports);
+        log.info("Load test report written [reportFile:{}]", reportFile.getAbsolutePath());
+        return reports;
+    }
+
+    private ScaleReport runScale(int nbTasks) {
+        long chainBound = settings.getChainBound(nbTasks);
+        long timeout = settings.getScaleTimeout(nbTasks);
+        log.info("Load test scale started [nbTasks:{}, workers:{}, cpuNb:{}, blockTime:{}, rpcLatency:{}, " +
+                        "chainBound:{}, timeout:{}]", nbTasks, settings.getWorkersCount(), settings.getWorkersCpuNb(),
+                settings.getBlockTime(), settings.getRpcLatency(), chainBound, timeout);
+        latencyRecorder.reset();
+        long start = System.currentTimeMillis();
+
+        List<String> chainTaskIds = new ArrayList<>();
+        for (int nbSent = 0; nbSent < nbTasks; nbSent += settings.getTasksPerDeal()) {
+            int nbTasksOfDeal = Math.min(settings.getTasksPerDeal(), nbTasks - nbSent);
+            chainTaskIds.addAll(chain.createDeal(nbTasksOfDeal, settings.getTrust(), settings.getMaxExecutionTime()));
+        }
+
+        Histogram taskLatencies = new Histogram(2);
+        long lastCompletion = start;
+        while (System.currentTimeMillis() - start < timeout) {
+            taskLatencies.reset();
+            for (String chainTaskId : chainTaskIds) {
+                Optional<Long> completionDuration = chain.getCompletionDuration(chainTaskId);
+                completionDuration.ifPresent(taskLatencies::recordValue);
+            }
+            long nbCompleted = taskLatencies.getTotalCount();
+            if (nbCompleted > 0) {
+                lastCompletion = start + taskLatencies.getMaxValue();
+            }
+            if (nbCompleted == chainTaskIds.size()) {
+                break;
+            }
+            log.info("Load test in progress [nbTasks:{}, nbCompletedTasks:{}]", nbTasks, nbCompleted);
+            sleep(PROGRESS_PERIOD);
+        }
+
+        // throughput over the time needed to complete the tasks, the whole run when some of them are missing
+        int nbCompletedTasks = (int) taskLatencies.getTotalCount();
+        long duration = nbCompletedTasks == chainTaskIds.size()
+                ? lastCompletion - start
+                : System.currentTimeMillis() - start;
+        ScaleReport report = ScaleReport.builder()
+                .nbTasks(nbTasks)
+                .nbCompletedTasks(nbCompletedTasks)
+                .duration(duration)
+                .throughput(duration > 0 ? nbCompletedTasks * 1000.0 / duration : 0)
+                .blockTime(settings.getBlockTime())
+                .chainBound(chainBound)
+                .timeout(timeout)
+                .taskLatency(LatencyRecorder.toStatistics(taskLatencies))
+                .requestLatencies(latencyRecorder.getStatistics())
+                .taskLifecycle(taskLifecycleService.getTaskLifecycle())
+                .build();
+        log.info("Load test scale done [nbTasks:{}, nbCompletedTasks:{}, duration:{}, throughput:{}, " +
+                        "taskLatencyP50:{}, taskLatencyP99:{}]", nbTasks, nbCompletedTasks, duration,
+                String.format("%.2f", report.getThroughput()),
+                report.getTaskLatency().getP50(), report.getTaskLatency().getP99());
+        return report;
+    }
+
+    private static void sleep(long duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
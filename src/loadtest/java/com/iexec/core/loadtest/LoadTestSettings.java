@@ -0,0 +1,76 @@
+package com.iexec.core.loadtest;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+// durations in milliseconds
+@Getter
+@Component
+public class LoadTestSettings {
+
+    // one run per scale, in this order, against the same scheduler
+    @Value("${loadtest.nbTasks}")
+    private int[] nbTasks;
+
+    @Value("${loadtest.tasksPerDeal}")
+    private int tasksPerDeal;
+
+    @Value("${loadtest.trust}")
+    private int trust;
+
+    // time reference of the category, the deadlines of the tasks are ratios of it
+    @Value("${loadtest.maxExecutionTime}")
+    private long maxExecutionTime;
+
+    // a run is stopped after this time on top of its chain bound, the tasks not completed yet are counted as such
+    @Value("${loadtest.timeout}")
+    private long timeout;
+
+    @Value("${loadtest.workers.count}")
+    private int workersCount;
+
+    @Value("${loadtest.workers.cpuNb}")
+    private int workersCpuNb;
+
+    @Value("${loadtest.workers.computeTime}")
+    private long computeTime;
+
+    @Value("${loadtest.workers.pingPeriod}")
+    private long pingPeriod;
+
+    @Value("${loadtest.workers.pollPeriod}")
+    private long pollPeriod;
+
+    // waitTimeout of /tasks/available
+    @Value("${loadtest.workers.replicateWaitTimeout}")
+    private long replicateWaitTimeout;
+
+    @Value("${loadtest.chain.blockTime}")
+    private long blockTime;
+
+    @Value("${loadtest.chain.rpcLatency}")
+    private long rpcLatency;
+
+    @Value("${loadtest.reportFile}")
+    private String reportFile;
+
+    /*
+     * The scheduler sends its transactions one at a time and the chain mines them one per block: with an initialize
+     * and a finalize per task, a scale can't complete before nbTasks * 2 * blockTime, whatever the scheduler does.
+     */
+    public long getChainBound(int nbTasks) {
+        return nbTasks * 2L * blockTime;
+    }
+
+    public long getScaleTimeout(int nbTasks) {
+        return getChainBound(nbTasks) + timeout;
+    }
+
+    // the longest a run of any scale may last
+    public long getMaxScaleTimeout() {
+        return getScaleTimeout(Arrays.stream(nbTasks).max().orElse(0));
+    }
+}
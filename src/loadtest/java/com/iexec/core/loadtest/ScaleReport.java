@@ -0,0 +1,32 @@
+package com.iexec.core.loadtest;
+
+import com.iexec.core.task.lifecycle.PhaseStatistics;
+import com.iexec.core.task.lifecycle.TaskLifecycleModel;
+import lombok.*;
+
+import java.util.Map;
+
+// durations in milliseconds, throughput in completed tasks per second
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScaleReport {
+
+    private int nbTasks;
+    private int nbCompletedTasks;
+    private long duration;
+    private double throughput;
+    // the scheduler transactions are mined one per block: the duration can't be below chainBound
+    // (nbTasks * 2 * blockTime), a throughput close to nbTasks * 1000 / chainBound is bound by the chain
+    private long blockTime;
+    private long chainBound;
+    private long timeout;
+    // from the deal to the finalization of the task
+    private PhaseStatistics taskLatency;
+    // as seen by the workers, per request
+    private Map<String, PhaseStatistics> requestLatencies;
+    // cumulative since the scheduler started (previous scales included)
+    private TaskLifecycleModel taskLifecycle;
+}
@@ -0,0 +1,305 @@
+package com.iexec.core.loadtest;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.common.result.eip712.Eip712Challenge;
+import com.iexec.common.result.eip712.Eip712ChallengeUtils;
+import com.iexec.common.utils.BytesUtils;
+import com.iexec.core.chain.SimulatedChain;
+import com.iexec.core.chain.SimulatedChain.SimulatedReceipt;
+import com.iexec.core.task.TaskStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.*;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static com.iexec.common.replicate.ReplicateStatus.*;
+
+/**
+ * A worker as seen by the scheduler: it logs in, registers, pings and asks for replicates (long polling) as long as
+ * it has a free cpu, then takes each replicate through the statuses sent by a real worker. Computing is a sleep,
+ * contributions and reveals are sent to the SimulatedChain with the wallet of the worker.
+ *
+ * Instead of subscribing to the notifications of the scheduler, the worker polls /tasks/{chainTaskId} to know when to
+ * reveal, upload and complete.
+ */
+@Slf4j
+class SimulatedWorker {
+
+    private static final int CHAIN_ID = 17;
+    private static final List<TaskStatus> REVEAL_STATUSES = TaskStatus.getWaitingRevealStatuses();
+
+    private final String walletAddress;
+    private final ECKeyPair ecKeyPair;
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final SimulatedChain chain;
+    private final LatencyRecorder latencyRecorder;
+    private final ExecutorService replicateExecutor;
+    private final ScheduledExecutorService pingExecutor;
+    private final RestTemplate restTemplate = new RestTemplate();
+    // a replicate holds a cpu until its contribution is sent
+    private final Semaphore cpus;
+
+    private volatile boolean running;
+    private String token;
+    private ScheduledFuture<?> pingFuture;
+
+    SimulatedWorker(int workerIndex,
+                    String baseUrl,
+                    LoadTestSettings settings,
+                    SimulatedChain chain,
+                    LatencyRecorder latencyRecorder,
+                    ExecutorService replicateExecutor,
+                    ScheduledExecutorService pingExecutor) {
+        // deterministic wallets, the workers of a run are the same from one run to the other
+        this.ecKeyPair = ECKeyPair.create(Hash.sha3(("loadtest-worker-" + workerIndex).getBytes(StandardCharsets.UTF_8)));
+        this.walletAddress = Numeric.prependHexPrefix(Keys.getAddress(ecKeyPair));
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.chain = chain;
+        this.latencyRecorder = latencyRecorder;
+        this.replicateExecutor = replicateExecutor;
+        this.pingExecutor = pingExecutor;
+        this.cpus = new Semaphore(settings.getWorkersCpuNb());
+    }
+
+    String getWalletAddress() {
+        return walletAddress;
+    }
+
+    boolean start() {
+        if (!login() || !register()) {
+            log.error("Simulated worker failed to start [walletAddress:{}]", walletAddress);
+            return false;
+        }
+        running = true;
+        pingFuture = pingExecutor.scheduleAtFixedRate(this::ping, 0, settings.getPingPeriod(), TimeUnit.MILLISECONDS);
+        replicateExecutor.execute(this::askForReplicates);
+        return true;
+    }
+
+    void stop() {
+        running = false;
+        if (pingFuture != null) {
+            pingFuture.cancel(false);
+        }
+    }
+
+    private boolean login() {
+        String challenge = latencyRecorder.time("challenge", () -> restTemplate.getForObject(
+                baseUrl + "/workers/challenge?walletAddress={walletAddress}", String.class, walletAddress));
+        if (challenge == null) {
+            return false;
+        }
+        byte[] hash = Hash.sha3(BytesUtils.stringToBytes(challenge));
+        Sign.SignatureData signature = Sign.signMessage(hash, ecKeyPair, false);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("signR", signature.getR());
+        body.put("signS", signature.getS());
+        token = latencyRecorder.time("login", () -> restTemplate.postForObject(
+                baseUrl + "/workers/login?walletAddress={walletAddress}", body, String.class, walletAddress));
+        return token != null;
+    }
+
+    private boolean register() {
+        Map<String, Object> model = new HashMap<>();
+        model.put("name", "loadtest-" + walletAddress);
+        model.put("os", "Linux");
+        model.put("cpu", "x86");
+        model.put("cpuNb", settings.getWorkersCpuNb());
+        return exchange("register", HttpMethod.POST, "/workers/register", model, Map.class).isPresent();
+    }
+
+    private void ping() {
+        exchange("ping", HttpMethod.POST, "/workers/ping", null, String.class);
+    }
+
+    private void askForReplicates() {
+        while (running) {
+            try {
+                cpus.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Optional<Map> authorization = exchange("available", HttpMethod.GET,
+                    "/tasks/available?waitTimeout=" + settings.getReplicateWaitTimeout(), null, Map.class)
+                    .map(ResponseEntity::getBody);
+            if (authorization.isPresent() && authorization.get().get("chainTaskId") != null) {
+                String chainTaskId = (String) authorization.get().get("chainTaskId");
+                replicateExecutor.execute(() -> runReplicate(chainTaskId));
+            } else {
+                cpus.release();
+                sleep(settings.getPollPeriod());
+            }
+        }
+    }
+
+    private void runReplicate(String chainTaskId) {
+        boolean isCpuReleased = false;
+        try {
+            if (!updateStatus(chainTaskId, RUNNING, APP_DOWNLOADING, APP_DOWNLOADED, COMPUTING)) {
+                return;
+            }
+            sleep(settings.getComputeTime());
+            if (!updateStatus(chainTaskId, COMPUTED)) {
+                return;
+            }
+            if (!chain.canContribute(chainTaskId, walletAddress)) {
+                updateStatus(chainTaskId, CANT_CONTRIBUTE_SINCE_TASK_NOT_ACTIVE);
+                return;
+            }
+            updateStatus(chainTaskId, CAN_CONTRIBUTE, CONTRIBUTING);
+            SimulatedReceipt contributeReceipt = chain.contribute(chainTaskId, walletAddress);
+            updateStatus(chainTaskId, contributeReceipt.isSuccess() ? CONTRIBUTED : CONTRIBUTE_FAILED, contributeReceipt);
+            cpus.release();
+            isCpuReleased = true;
+            if (!contributeReceipt.isSuccess()) {
+                return;
+            }
+
+            Optional<Map> task = waitForTask(chainTaskId, model -> REVEAL_STATUSES.contains(getStatus(model)));
+            if (!task.isPresent() || !REVEAL_STATUSES.contains(getStatus(task.get()))) {
+                return;
+            }
+            updateStatus(chainTaskId, REVEALING);
+            SimulatedReceipt revealReceipt = chain.reveal(chainTaskId, walletAddress);
+            updateStatus(chainTaskId, revealReceipt.isSuccess() ? REVEALED : REVEAL_FAILED, revealReceipt);
+            if (!revealReceipt.isSuccess()) {
+                return;
+            }
+
+            task = waitForTask(chainTaskId, this::isUploadingWorker);
+            if (task.isPresent() && isUploadingWorker(task.get())) {
+                updateStatus(chainTaskId, RESULT_UPLOADING);
+                updateStatus(chainTaskId, uploadResult(chainTaskId) ? RESULT_UPLOADED : RESULT_UPLOAD_REQUEST_FAILED);
+                task = waitForTask(chainTaskId, model -> false);
+            }
+            if (task.isPresent() && TaskStatus.COMPLETED.equals(getStatus(task.get()))) {
+                updateStatus(chainTaskId, COMPLETED);
+            }
+        } catch (RuntimeException e) {
+            log.error("Simulated replicate failed [chainTaskId:{}, walletAddress:{}, error:{}]",
+                    chainTaskId, walletAddress, e.getMessage());
+        } finally {
+            if (!isCpuReleased) {
+                cpus.release();
+            }
+        }
+    }
+
+    // polls the task until the condition holds or the task is in a final status (empty after the timeout of the runs)
+    private Optional<Map> waitForTask(String chainTaskId, Predicate<Map> condition) {
+        long deadline = System.currentTimeMillis() + settings.getMaxScaleTimeout();
+        while (running && System.currentTimeMillis() < deadline) {
+            Optional<Map> task = exchange("getTask", HttpMethod.GET, "/tasks/" + chainTaskId, null, Map.class)
+                    .map(ResponseEntity::getBody);
+            if (task.isPresent() && (condition.test(task.get()) || TaskStatus.isFinalStatus(getStatus(task.get())))) {
+                return task;
+            }
+            sleep(settings.getPollPeriod());
+        }
+        return Optional.empty();
+    }
+
+    private boolean isUploadingWorker(Map task) {
+        return TaskStatus.RESULT_UPLOAD_REQUESTED.equals(getStatus(task))
+                && walletAddress.equalsIgnoreCase((String) task.get("uploadingWorkerWalletAddress"));
+    }
+
+    private boolean uploadResult(String chainTaskId) {
+        Eip712Challenge challenge = latencyRecorder.time("resultChallenge", () -> restTemplate.getForObject(
+                baseUrl + "/results/challenge?chainId={chainId}", Eip712Challenge.class, CHAIN_ID));
+        if (challenge == null) {
+            return false;
+        }
+        String challengeString = Eip712ChallengeUtils.getEip712ChallengeString(challenge);
+        Sign.SignatureData signature = Sign.signMessage(BytesUtils.stringToBytes(challengeString), ecKeyPair, false);
+        String signatureString = Numeric.toHexString(signature.getR())
+                + Numeric.cleanHexPrefix(Numeric.toHexString(signature.getS()))
+                + String.format("%02x", signature.getV());
+
+        Map<String, Object> model = new HashMap<>();
+        model.put("chainTaskId", chainTaskId);
+        model.put("image", SimulatedChain.DAPP_NAME);
+        model.put("cmd", "loadtest");
+        model.put("deterministHash", Hash.sha3String(chainTaskId));
+        model.put("zip", chainTaskId.getBytes(StandardCharsets.UTF_8));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", challengeString + "_" + signatureString + "_" + walletAddress);
+        return send("upload", HttpMethod.POST, "/results", new HttpEntity<>(model, headers), String.class).isPresent();
+    }
+
+    private boolean updateStatus(String chainTaskId, ReplicateStatus... statuses) {
+        for (ReplicateStatus status : statuses) {
+            if (!updateStatus(chainTaskId, status, null)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean updateStatus(String chainTaskId, ReplicateStatus status, SimulatedReceipt receipt) {
+        Map<String, Object> chainReceipt = new HashMap<>();
+        if (receipt != null) {
+            chainReceipt.put("blockNumber", receipt.getBlockNumber());
+            chainReceipt.put("txHash", Hash.sha3String(chainTaskId + walletAddress + status));
+        }
+        return exchange("updateStatus", HttpMethod.POST,
+                "/replicates/" + chainTaskId + "/updateStatus?replicateStatus=" + status, chainReceipt, String.class)
+                .isPresent();
+    }
+
+    private <T> Optional<ResponseEntity<T>> exchange(String operation, HttpMethod method, String path, Object body,
+                                                     Class<T> type) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + token);
+        return send(operation, method, path, new HttpEntity<>(body, headers), type);
+    }
+
+    // empty on an error or with no content
+    private <T> Optional<ResponseEntity<T>> send(String operation, HttpMethod method, String path, HttpEntity<?> entity,
+                                                 Class<T> type) {
+        try {
+            ResponseEntity<T> response = latencyRecorder.time(operation,
+                    () -> restTemplate.exchange(baseUrl + path, method, entity, type));
+            if (response.getStatusCode().equals(HttpStatus.NO_CONTENT)) {
+                return Optional.empty();
+            }
+            return Optional.of(response);
+        } catch (RestClientException e) {
+            log.warn("Simulated worker request failed [walletAddress:{}, operation:{}, error:{}]",
+                    walletAddress, operation, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static TaskStatus getStatus(Map task) {
+        Object status = task.get("currentStatus");
+        return status != null ? TaskStatus.valueOf(status.toString()) : null;
+    }
+
+    private static void sleep(long duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
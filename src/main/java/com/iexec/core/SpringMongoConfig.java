@@ -1,6 +1,12 @@
 package com.iexec.core;
 
+import com.iexec.core.metrics.MetricsService;
+import com.iexec.core.metrics.MongoMetricsCommandListener;
+import com.iexec.core.tracing.MongoTracingCommandListener;
+import com.iexec.core.tracing.TracingService;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ServerAddress;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,6 +23,18 @@ public class SpringMongoConfig extends AbstractMongoConfiguration {
     @Value("${spring.data.mongodb.host}")
     private String databaseHost;
 
+    @Value("${spring.data.mongodb.port}")
+    private int databasePort;
+
+    private MetricsService metricsService;
+    private TracingService tracingService;
+
+    public SpringMongoConfig(MetricsService metricsService,
+                             TracingService tracingService) {
+        this.metricsService = metricsService;
+        this.tracingService = tracingService;
+    }
+
     @Bean
     public GridFsTemplate gridFsTemplate() throws Exception {
         return new GridFsTemplate(mongoDbFactory(), mappingMongoConverter());
@@ -29,6 +47,10 @@ public class SpringMongoConfig extends AbstractMongoConfiguration {
 
     @Override
     public MongoClient mongoClient() {
-        return new MongoClient(databaseHost);
+        MongoClientOptions options = MongoClientOptions.builder()
+                .addCommandListener(new MongoMetricsCommandListener(metricsService))
+                .addCommandListener(new MongoTracingCommandListener(tracingService))
+                .build();
+        return new MongoClient(new ServerAddress(databaseHost, databasePort), options);
     }
 }
\ No newline at end of file
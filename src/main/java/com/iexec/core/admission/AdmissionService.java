@@ -0,0 +1,122 @@
+package com.iexec.core.admission;
+
+import com.iexec.core.metrics.MetricsService;
+import lombok.extern.slf4j.Slf4j;
+import net.jodah.expiringmap.ExpirationPolicy;
+import net.jodah.expiringmap.ExpiringMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.iexec.core.utils.DateTimeUtils.now;
+
+/**
+ * Admission control of the worker endpoints, so that one worker can't degrade the scheduling of the whole pool:
+ * - each worker has a token bucket per endpoint (admission.wallet.rate requests per second, bursts of
+ * admission.wallet.burst)
+ * - the expensive endpoints (reading and writing tasks and replicates) are handled admission.maxConcurrentRequests at
+ * a time, the others are rejected rather than queued
+ * - the expensive endpoints are shed while the recent latency of MongoDB or of the chain node is above its threshold
+ *
+ * A rejected request is answered 429 with a Retry-After of admission.retryAfter seconds. The pings don't go through
+ * the admission control (neither rate limited nor shed): a worker which can't ping would be taken for lost.
+ */
+@Slf4j
+@Service
+public class AdmissionService {
+
+    static final String RATE_LIMITED = "rate-limited";
+    static final String TOO_MANY_CONCURRENT = "too-many-concurrent";
+    static final String OVERLOADED = "overloaded";
+
+    @Value("${admission.enabled}")
+    private boolean enabled;
+
+    @Value("${admission.wallet.rate}")
+    private double walletRate;
+
+    @Value("${admission.wallet.burst}")
+    private int walletBurst;
+
+    @Value("${admission.maxConcurrentRequests}")
+    private int maxConcurrentRequests;
+
+    @Value("${admission.shedding.mongoLatency}")
+    private long maxMongoLatency;
+
+    @Value("${admission.shedding.rpcLatency}")
+    private long maxRpcLatency;
+
+    @Value("${admission.retryAfter}")
+    private long retryAfter;
+
+    private MetricsService metricsService;
+    // Map <endpoint:walletAddress, TokenBucket>, the buckets of the workers gone are removed
+    private ExpiringMap<String, TokenBucket> buckets;
+    private Semaphore concurrentRequests;
+
+    public AdmissionService(MetricsService metricsService) {
+        this.metricsService = metricsService;
+        this.buckets = ExpiringMap.builder()
+                .expiration(10, TimeUnit.MINUTES)
+                .expirationPolicy(ExpirationPolicy.ACCESSED)
+                .build();
+    }
+
+    @PostConstruct
+    void init() {
+        concurrentRequests = new Semaphore(maxConcurrentRequests);
+    }
+
+    /*
+     * Empty when the request is admitted. An expensive request then holds a slot until release() is called, which the
+     * caller must do once the request is handled (in a finally block).
+     */
+    public Optional<ResponseEntity> admit(String endpoint, String walletAddress, boolean isExpensive) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long now = now();
+        TokenBucket bucket = buckets.computeIfAbsent(endpoint + ":" + walletAddress,
+                key -> new TokenBucket(walletBurst, walletRate, now));
+        if (!bucket.tryConsume(now)) {
+            return reject(endpoint, walletAddress, RATE_LIMITED);
+        }
+        if (!isExpensive) {
+            return Optional.empty();
+        }
+        if (isOverloaded()) {
+            return reject(endpoint, walletAddress, OVERLOADED);
+        }
+        if (!concurrentRequests.tryAcquire()) {
+            return reject(endpoint, walletAddress, TOO_MANY_CONCURRENT);
+        }
+        return Optional.empty();
+    }
+
+    public void release() {
+        if (enabled) {
+            concurrentRequests.release();
+        }
+    }
+
+    boolean isOverloaded() {
+        return metricsService.getRecentMongoLatencyMillis() > maxMongoLatency
+                || metricsService.getRecentRpcLatencyMillis() > maxRpcLatency;
+    }
+
+    private Optional<ResponseEntity> reject(String endpoint, String walletAddress, String reason) {
+        log.debug("Request rejected [endpoint:{}, walletAddress:{}, reason:{}]", endpoint, walletAddress, reason);
+        metricsService.incrementAdmissionRejections(endpoint, reason);
+        return Optional.of(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .build());
+    }
+}
@@ -0,0 +1,30 @@
+package com.iexec.core.admission;
+
+/**
+ * Holds up to capacity tokens, refilled at ratePerSecond. A request is admitted when it can take a token: bursts of
+ * capacity requests are allowed, while the sustained rate can't exceed ratePerSecond.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerMilli;
+    private double tokens;
+    private long lastRefillDate;
+
+    TokenBucket(double capacity, double ratePerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerMilli = ratePerSecond / 1000;
+        this.tokens = capacity;
+        this.lastRefillDate = now;
+    }
+
+    synchronized boolean tryConsume(long now) {
+        tokens = Math.min(capacity, tokens + Math.max(0, now - lastRefillDate) * tokensPerMilli);
+        lastRefillDate = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
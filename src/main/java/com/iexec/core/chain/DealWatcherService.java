@@ -2,6 +2,8 @@ package com.iexec.core.chain;
 
 import com.iexec.common.chain.ChainDeal;
 import com.iexec.common.utils.BytesUtils;
+import com.iexec.core.cluster.LeaderElectionService;
+import com.iexec.core.cluster.LeadershipChangedEvent;
 import com.iexec.core.configuration.ConfigurationService;
 import com.iexec.core.task.Task;
 import com.iexec.core.task.TaskService;
@@ -9,6 +11,7 @@ import com.iexec.core.task.event.TaskCreatedEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import rx.Subscription;
@@ -17,6 +20,10 @@ import javax.annotation.PostConstruct;
 import java.math.BigInteger;
 import java.util.Optional;
 
+/**
+ * With the cluster enabled, the deals are only watched by the leader (see LeaderElectionService): the subscriptions
+ * start when the leadership is won, from the last block seen by the previous leader, and stop when it is lost.
+ */
 @Slf4j
 @Service
 public class DealWatcherService {
@@ -25,23 +32,48 @@ public class DealWatcherService {
     private final ConfigurationService configurationService;
     private final ApplicationEventPublisher applicationEventPublisher;
     private final TaskService taskService;
+    private final LeaderElectionService leaderElectionService;
     // internal variables
+    private Subscription dealEventSubscription;
     private Subscription dealEventSubscriptionReplay;
 
     @Autowired
     public DealWatcherService(IexecHubService iexecHubService,
                               ConfigurationService configurationService,
                               ApplicationEventPublisher applicationEventPublisher,
-                              TaskService taskService) {
+                              TaskService taskService,
+                              LeaderElectionService leaderElectionService) {
         this.iexecHubService = iexecHubService;
         this.configurationService = configurationService;
         this.applicationEventPublisher = applicationEventPublisher;
         this.taskService = taskService;
+        this.leaderElectionService = leaderElectionService;
     }
 
     @PostConstruct
     void run() {
-        subscribeToDealEventFromOneBlockToLatest(configurationService.getLastSeenBlockWithDeal());
+        if (leaderElectionService.isLeader()) {
+            dealEventSubscription = subscribeToDealEventFromOneBlockToLatest(configurationService.getLastSeenBlockWithDeal());
+        }
+    }
+
+    @EventListener
+    public synchronized void onLeadershipChangedEvent(LeadershipChangedEvent event) {
+        unsubscribe();
+        if (event.isLeader()) {
+            run();
+        }
+    }
+
+    private void unsubscribe() {
+        if (dealEventSubscription != null) {
+            dealEventSubscription.unsubscribe();
+            dealEventSubscription = null;
+        }
+        if (dealEventSubscriptionReplay != null) {
+            dealEventSubscriptionReplay.unsubscribe();
+            dealEventSubscriptionReplay = null;
+        }
     }
 
     Subscription subscribeToDealEventFromOneBlockToLatest(BigInteger from) {
@@ -89,7 +121,10 @@ public class DealWatcherService {
      * so we decide to replay events from times to times (already saved events will be ignored)
      * */
     @Scheduled(fixedRateString = "${detector.dealwatcherreplay.period}")
-    void replayDealEvent() {
+    synchronized void replayDealEvent() {
+        if (!leaderElectionService.isLeader()) {
+            return;
+        }
         if (configurationService.getFromReplay().intValue() < configurationService.getLastSeenBlockWithDeal().intValue()) {
             if (dealEventSubscriptionReplay != null) {
                 this.dealEventSubscriptionReplay.unsubscribe();
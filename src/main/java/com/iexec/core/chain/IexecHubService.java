@@ -5,6 +5,9 @@ import com.iexec.common.contract.generated.App;
 import com.iexec.common.contract.generated.IexecClerkABILegacy;
 import com.iexec.common.contract.generated.IexecHubABILegacy;
 import com.iexec.common.utils.BytesUtils;
+import com.iexec.core.cluster.LeaderElectionService;
+import com.iexec.core.metrics.MetricsService;
+import com.iexec.core.tracing.TracingService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,10 +24,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
 
 import static com.iexec.common.chain.ChainContributionStatus.*;
 import static com.iexec.core.utils.DateTimeUtils.now;
@@ -39,21 +44,46 @@ public class IexecHubService {
     private final Credentials credentials;
     private final Web3j web3j;
     private ChainConfig chainConfig;
+    private MetricsService metricsService;
+    private TracingService tracingService;
+    private LeaderElectionService leaderElectionService;
 
     @Autowired
     public IexecHubService(CredentialsService credentialsService,
                            Web3jService web3jService,
-                           ChainConfig chainConfig) {
+                           ChainConfig chainConfig,
+                           MetricsService metricsService,
+                           TracingService tracingService,
+                           LeaderElectionService leaderElectionService) {
         this.chainConfig = chainConfig;
+        this.metricsService = metricsService;
+        this.tracingService = tracingService;
+        this.leaderElectionService = leaderElectionService;
         this.credentials = credentialsService.getCredentials();
         this.web3j = web3jService.getWeb3j();
         this.iexecHub = ChainUtils.loadHubContract(credentials, web3j, chainConfig.getHubAddress());
         this.iexecClerk = ChainUtils.loadClerkContract(credentials, web3j, chainConfig.getHubAddress());
         this.executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        metricsService.registerWaitingTransactionCountGauge(this, IexecHubService::getWaitingTransactionCount);
+    }
+
+    // for the stand-ins of the chain (e.g. load harness): no contract is loaded, the chain is reached through overrides
+    protected IexecHubService(ChainConfig chainConfig,
+                              MetricsService metricsService,
+                              TracingService tracingService) {
+        this.chainConfig = chainConfig;
+        this.metricsService = metricsService;
+        this.tracingService = tracingService;
+        this.credentials = null;
+        this.web3j = null;
+        this.iexecHub = null;
+        this.iexecClerk = null;
+        this.executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
     }
 
     public Optional<ChainContribution> getContribution(String chainTaskId, String workerWalletAddress) {
-        return ChainUtils.getChainContribution(iexecHub, chainTaskId, workerWalletAddress);
+        return rpcCall("viewContribution",
+                () -> ChainUtils.getChainContribution(iexecHub, chainTaskId, workerWalletAddress));
     }
 
     public boolean doesWishedStatusMatchesOnChainStatus(String chainTaskId, String walletAddress, ChainContributionStatus wishedStatus) {
@@ -113,7 +143,8 @@ public class IexecHubService {
 
     private long getMaxNbOfPeriodsForConsensus() {
         try {
-            return iexecHub.CONSENSUS_DURATION_RATIO().send().longValue();
+            return rpcCallable("CONSENSUS_DURATION_RATIO",
+                    () -> iexecHub.CONSENSUS_DURATION_RATIO().send()).longValue();
         } catch (Exception e) {
             log.error("Failed to getMaxNbOfPeriodsForConsensus");
         }
@@ -123,20 +154,31 @@ public class IexecHubService {
     public Optional<Pair<String, ChainReceipt>> initialize(String chainDealId, int taskIndex) {
         log.info("Requested  initialize [chainDealId:{}, taskIndex:{}, waitingTxCount:{}]", chainDealId, taskIndex, getWaitingTransactionCount());
         try {
-            return CompletableFuture.supplyAsync(() -> sendInitializeTransaction(chainDealId, taskIndex), executor).get();
+            return CompletableFuture.supplyAsync(() -> sendInitializeTransaction(chainDealId, taskIndex),
+                    tracingService.wrap(executor)).get();
         } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
         }
         return Optional.empty();
     }
 
+    /*
+     * The transactions are sent with the wallet shared by the schedulers of a cluster. Leadership is checked when the
+     * task update starts but may be lost while the transaction waits for the executor: it is checked again right before
+     * sending, so that no transaction is sent next to the ones of the new leader (their nonces would conflict).
+     */
     private Optional<Pair<String, ChainReceipt>> sendInitializeTransaction(String chainDealId, int taskIndex) {
         byte[] chainDealIdBytes = BytesUtils.stringToBytes(chainDealId);
         BigInteger taskIndexBigInteger = BigInteger.valueOf(taskIndex);
 
+        if (!leaderElectionService.isLeader()) {
+            log.warn("Not the leader anymore, initialize not sent [chainDealId:{}, taskIndex:{}]", chainDealId, taskIndex);
+            return Optional.empty();
+        }
         TransactionReceipt receipt;
         try {
-            receipt = iexecHub.initialize(chainDealIdBytes, taskIndexBigInteger).send();
+            receipt = rpcCallable("initialize",
+                    () -> iexecHub.initialize(chainDealIdBytes, taskIndexBigInteger).send());
         } catch (Exception e) {
             log.error("Failed initialize [chainDealId:{}, taskIndex:{}, error:{}]",
                     chainDealId, taskIndex, e.getMessage());
@@ -184,7 +226,8 @@ public class IexecHubService {
     public Optional<ChainReceipt> finalizeTask(String chainTaskId, String resultUri) {
         log.info("Requested  finalize [chainTaskId:{}, waitingTxCount:{}]", chainTaskId, getWaitingTransactionCount());
         try {
-            return CompletableFuture.supplyAsync(() -> sendFinalizeTransaction(chainTaskId, resultUri), executor).get();
+            return CompletableFuture.supplyAsync(() -> sendFinalizeTransaction(chainTaskId, resultUri),
+                    tracingService.wrap(executor)).get();
         } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
         }
@@ -195,9 +238,14 @@ public class IexecHubService {
         byte[] chainTaskIdBytes = BytesUtils.stringToBytes(chainTaskId);
         byte[] resultUriBytes = resultUri.getBytes(StandardCharsets.UTF_8);
 
+        if (!leaderElectionService.isLeader()) {
+            log.warn("Not the leader anymore, finalize not sent [chainTaskId:{}]", chainTaskId);
+            return Optional.empty();
+        }
         TransactionReceipt receipt;
         try {
-            receipt = iexecHub.finalize(chainTaskIdBytes, resultUriBytes).send();
+            receipt = rpcCallable("finalize",
+                    () -> iexecHub.finalize(chainTaskIdBytes, resultUriBytes).send());
         } catch (Exception e) {
             log.error("Failed finalize [chainTaskId:{}, resultUri:{}, error:{}]]", chainTaskId, resultUri, e.getMessage());
             return Optional.empty();
@@ -243,7 +291,8 @@ public class IexecHubService {
     public Optional<ChainReceipt> reOpen(String chainTaskId) {
         log.info("Requested  reopen [chainTaskId:{}, waitingTxCount:{}]", chainTaskId, getWaitingTransactionCount());
         try {
-            return CompletableFuture.supplyAsync(() -> sendReopenTransaction(chainTaskId), executor).get();
+            return CompletableFuture.supplyAsync(() -> sendReopenTransaction(chainTaskId),
+                    tracingService.wrap(executor)).get();
         } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
         }
@@ -251,9 +300,14 @@ public class IexecHubService {
     }
 
     private Optional<ChainReceipt> sendReopenTransaction(String chainTaskId) {
+        if (!leaderElectionService.isLeader()) {
+            log.warn("Not the leader anymore, reopen not sent [chainTaskId:{}]", chainTaskId);
+            return Optional.empty();
+        }
         TransactionReceipt receipt;
         try {
-            receipt = iexecHub.reopen(BytesUtils.stringToBytes(chainTaskId)).send();
+            receipt = rpcCallable("reopen",
+                    () -> iexecHub.reopen(BytesUtils.stringToBytes(chainTaskId)).send());
         } catch (Exception e) {
             log.error("Failed reopen [chainTaskId:{}, error:{}]", chainTaskId, e.getMessage());
             return Optional.empty();
@@ -275,17 +329,27 @@ public class IexecHubService {
         return executor.getTaskCount() - executor.getCompletedTaskCount();
     }
 
+    // each call is timed and traced under the name of the contract method
+    private <T> T rpcCall(String method, Supplier<T> call) {
+        return metricsService.timeRpcCall(method, () -> tracingService.inSpan("rpc " + method, call));
+    }
+
+    private <T> T rpcCallable(String method, Callable<T> call) throws Exception {
+        return metricsService.timeRpcCallable(method, () -> tracingService.inSpanCallable("rpc " + method, call));
+    }
+
     public Optional<ChainDeal> getChainDeal(String chainDealId) {
-        return ChainUtils.getChainDeal(credentials, web3j, iexecHub.getContractAddress(), chainDealId);
+        return rpcCall("viewDeal",
+                () -> ChainUtils.getChainDeal(credentials, web3j, iexecHub.getContractAddress(), chainDealId));
     }
 
     public Optional<ChainTask> getChainTask(String chainTaskId) {
-        return ChainUtils.getChainTask(iexecHub, chainTaskId);
+        return rpcCall("viewTask", () -> ChainUtils.getChainTask(iexecHub, chainTaskId));
     }
 
     Optional<ChainApp> getChainApp(String address) {
         App app = ChainUtils.loadDappContract(credentials, web3j, address);
-        return ChainUtils.getChainApp(app);
+        return rpcCall("viewApp", () -> ChainUtils.getChainApp(app));
     }
 
     Observable<Optional<DealEvent>> getDealEventObservableToLatest(BigInteger from) {
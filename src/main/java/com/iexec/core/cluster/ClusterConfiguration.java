@@ -0,0 +1,47 @@
+package com.iexec.core.cluster;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.UUID;
+
+// durations in milliseconds
+@Getter
+@Component
+public class ClusterConfiguration {
+
+    // when enabled, the tasks are partitioned across the schedulers sharing the database
+    @Value("${cluster.enabled}")
+    private boolean enabled;
+
+    // unique per scheduler, a random one is used when empty
+    @Value("${cluster.instanceId}")
+    private String instanceId;
+
+    // same value on every scheduler of the cluster
+    @Value("${cluster.partitions}")
+    private int nbPartitions;
+
+    @Value("${cluster.lease.duration}")
+    private long leaseDuration;
+
+    @Value("${cluster.lease.renewPeriod}")
+    private long leaseRenewPeriod;
+
+    // a lease is only trusted until this long before it expires: the other schedulers check it with their own clocks
+    @Value("${cluster.lease.safetyMargin}")
+    private long leaseSafetyMargin;
+
+    // shorter than the partition leases: the deal watcher and the transactions stop while there is no leader
+    @Value("${cluster.leader.lease.duration}")
+    private long leaderLeaseDuration;
+
+    @PostConstruct
+    void init() {
+        if (instanceId == null || instanceId.isEmpty()) {
+            instanceId = UUID.randomUUID().toString();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.iexec.core.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Date;
+
+import static com.iexec.core.utils.DateTimeUtils.now;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * One scheduler of the cluster is the leader: it watches the deals, archives the finished tasks and is the only one
+ * sending transactions with the shared wallet (so that their nonces don't conflict). The leader holds the single lease
+ * of the "leader_lease" collection, taken like the partition leases (see PartitionService) but with a shorter duration.
+ *
+ * Leadership is only trusted until cluster.lease.safetyMargin before the lease expires (the other schedulers check it
+ * with their own clocks) and a LeadershipChangedEvent is published whenever it is won or
+ * lost. With the cluster disabled, the scheduler is always the leader.
+ */
+@Slf4j
+@Service
+public class LeaderElectionService {
+
+    static final String LEADER_COLLECTION = "leader_lease";
+    private static final String LEADER_LEASE_ID = "leader";
+
+    private ClusterConfiguration clusterConfiguration;
+    private MongoTemplate mongoTemplate;
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    // date until which the lease is trusted, 0 when not the leader
+    private volatile long leaseExpirationDate;
+    // leadership as last published
+    private boolean leader;
+
+    public LeaderElectionService(ClusterConfiguration clusterConfiguration,
+                                 MongoTemplate mongoTemplate,
+                                 ApplicationEventPublisher applicationEventPublisher) {
+        this.clusterConfiguration = clusterConfiguration;
+        this.mongoTemplate = mongoTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    public boolean isLeader() {
+        return !clusterConfiguration.isEnabled() || now() < leaseExpirationDate;
+    }
+
+    @Scheduled(fixedRateString = "${cluster.leader.lease.renewPeriod}")
+    void renewLease() {
+        if (!clusterConfiguration.isEnabled()) {
+            return;
+        }
+        long now = now();
+        long expirationDate = now + clusterConfiguration.getLeaderLeaseDuration();
+        leaseExpirationDate = tryLease(now, expirationDate)
+                ? expirationDate - clusterConfiguration.getLeaseSafetyMargin() : 0;
+
+        if (isLeader() != leader) {
+            leader = !leader;
+            log.info("Leadership changed [instanceId:{}, leader:{}]", clusterConfiguration.getInstanceId(), leader);
+            applicationEventPublisher.publishEvent(new LeadershipChangedEvent(leader));
+        }
+    }
+
+    // the lease is released on a clean shutdown, another scheduler takes over on its next renewal
+    @PreDestroy
+    void releaseLease() {
+        if (!clusterConfiguration.isEnabled() || leaseExpirationDate == 0) {
+            return;
+        }
+        leaseExpirationDate = 0;
+        leader = false;
+        mongoTemplate.updateFirst(query(where("_id").is(LEADER_LEASE_ID).and("owner").is(clusterConfiguration.getInstanceId())),
+                new Update().set("expirationDate", new Date(0)), LEADER_COLLECTION);
+        log.info("Leadership released [instanceId:{}]", clusterConfiguration.getInstanceId());
+    }
+
+    private boolean tryLease(long now, long expirationDate) {
+        String instanceId = clusterConfiguration.getInstanceId();
+        try {
+            mongoTemplate.upsert(query(where("_id").is(LEADER_LEASE_ID).orOperator(
+                    where("owner").is(instanceId),
+                    where("expirationDate").lt(new Date(now)))),
+                    new Update().set("owner", instanceId).set("expirationDate", new Date(expirationDate)),
+                    LEADER_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        } catch (RuntimeException e) {
+            log.error("Failed to renew leadership [instanceId:{}, exception:{}]", instanceId, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.iexec.core.cluster;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class LeadershipChangedEvent {
+
+    private boolean leader;
+}
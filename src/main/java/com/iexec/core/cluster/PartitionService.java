@@ -0,0 +1,166 @@
+package com.iexec.core.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+
+import static com.iexec.core.utils.DateTimeUtils.now;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * The chainTaskIds are hashed into cluster.partitions partitions. A scheduler drives (updates, detectors) the tasks of
+ * the partitions it holds a lease on. Leases are documents of the "partition_lease" collection, taken when free or
+ * expired and renewed every renew period. Each scheduler aims at an equal share of the partitions: the alive schedulers
+ * are counted from the "cluster_member" collection, where each one records when it was last seen.
+ *
+ * A lease is only trusted until cluster.lease.safetyMargin before its expiration date: a scheduler which can't renew in
+ * time stops driving the tasks of the partition before another one may take it, even with a clock a bit behind. With the cluster disabled, the scheduler owns every task.
+ */
+@Slf4j
+@Service
+public class PartitionService {
+
+    static final String LEASE_COLLECTION = "partition_lease";
+    static final String MEMBER_COLLECTION = "cluster_member";
+
+    private ClusterConfiguration clusterConfiguration;
+    private MongoTemplate mongoTemplate;
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    // partitions held, with the date until which their lease is trusted
+    private volatile Map<Integer, Long> leases = Collections.emptyMap();
+
+    public PartitionService(ClusterConfiguration clusterConfiguration,
+                            MongoTemplate mongoTemplate,
+                            ApplicationEventPublisher applicationEventPublisher) {
+        this.clusterConfiguration = clusterConfiguration;
+        this.mongoTemplate = mongoTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    public boolean isClusterEnabled() {
+        return clusterConfiguration.isEnabled();
+    }
+
+    public boolean isOwner(String chainTaskId) {
+        if (!clusterConfiguration.isEnabled()) {
+            return true;
+        }
+        Long expirationDate = leases.get(getPartition(chainTaskId));
+        return expirationDate != null && now() < expirationDate;
+    }
+
+    public int getPartition(String chainTaskId) {
+        return getPartition(chainTaskId, clusterConfiguration.getNbPartitions());
+    }
+
+    static int getPartition(String chainTaskId, int nbPartitions) {
+        return Math.floorMod(chainTaskId.toLowerCase().hashCode(), nbPartitions);
+    }
+
+    public Set<Integer> getOwnedPartitions() {
+        long now = now();
+        Set<Integer> partitions = new TreeSet<>();
+        leases.forEach((partition, expirationDate) -> {
+            if (now < expirationDate) {
+                partitions.add(partition);
+            }
+        });
+        return partitions;
+    }
+
+    @Scheduled(fixedRateString = "${cluster.lease.renewPeriod}")
+    void renewLeases() {
+        if (!clusterConfiguration.isEnabled()) {
+            return;
+        }
+        String instanceId = clusterConfiguration.getInstanceId();
+        int nbPartitions = clusterConfiguration.getNbPartitions();
+        long now = now();
+        long expirationDate = now + clusterConfiguration.getLeaseDuration();
+        long trustedUntil = expirationDate - clusterConfiguration.getLeaseSafetyMargin();
+
+        mongoTemplate.upsert(query(where("_id").is(instanceId)), new Update().set("lastSeenDate", new Date(now)),
+                MEMBER_COLLECTION);
+        long nbMembers = Math.max(1, mongoTemplate.count(query(where("lastSeenDate")
+                .gt(new Date(now - clusterConfiguration.getLeaseDuration()))), MEMBER_COLLECTION));
+        long fairShare = (nbPartitions + nbMembers - 1) / nbMembers;
+
+        // the held partitions are renewed first, the ones above the share are released for the newcomers
+        Map<Integer, Long> renewedLeases = new TreeMap<>();
+        for (int partition : new TreeSet<>(leases.keySet())) {
+            if (renewedLeases.size() < fairShare && tryLease(partition, now, expirationDate)) {
+                renewedLeases.put(partition, trustedUntil);
+            } else {
+                releaseLease(partition);
+            }
+        }
+        // each scheduler starts looking at a different partition, so that they don't all compete for the first ones
+        int offset = Math.floorMod(instanceId.hashCode(), nbPartitions);
+        for (int i = 0; i < nbPartitions && renewedLeases.size() < fairShare; i++) {
+            int partition = (offset + i) % nbPartitions;
+            if (!renewedLeases.containsKey(partition) && tryLease(partition, now, expirationDate)) {
+                renewedLeases.put(partition, trustedUntil);
+            }
+        }
+
+        Set<Integer> acquired = new TreeSet<>(renewedLeases.keySet());
+        acquired.removeAll(leases.keySet());
+        Set<Integer> lost = new TreeSet<>(leases.keySet());
+        lost.removeAll(renewedLeases.keySet());
+        leases = Collections.unmodifiableMap(renewedLeases);
+
+        if (!acquired.isEmpty() || !lost.isEmpty()) {
+            log.info("Partitions changed [instanceId:{}, nbMembers:{}, owned:{}, acquired:{}, released:{}]",
+                    instanceId, nbMembers, renewedLeases.keySet(), acquired, lost);
+        }
+        // the tasks of a new partition may have been left halfway by its previous owner
+        if (!acquired.isEmpty()) {
+            applicationEventPublisher.publishEvent(new PartitionsAcquiredEvent(acquired));
+        }
+    }
+
+    // the leases are released on a clean shutdown, the other schedulers don't wait for them to expire
+    @PreDestroy
+    void releaseLeases() {
+        if (!clusterConfiguration.isEnabled()) {
+            return;
+        }
+        Set<Integer> partitions = new TreeSet<>(leases.keySet());
+        leases = Collections.emptyMap();
+        partitions.forEach(this::releaseLease);
+        mongoTemplate.remove(query(where("_id").is(clusterConfiguration.getInstanceId())), MEMBER_COLLECTION);
+        log.info("Partitions released [instanceId:{}, partitions:{}]", clusterConfiguration.getInstanceId(), partitions);
+    }
+
+    /*
+     * The lease is taken if it is held by this scheduler, expired or missing. When it is held by another scheduler, the
+     * upsert tries to insert a second lease with the same _id and fails on the duplicate key.
+     */
+    private boolean tryLease(int partition, long now, long expirationDate) {
+        String instanceId = clusterConfiguration.getInstanceId();
+        try {
+            mongoTemplate.upsert(query(where("_id").is(partition).orOperator(
+                    where("owner").is(instanceId),
+                    where("expirationDate").lt(new Date(now)))),
+                    new Update().set("owner", instanceId).set("expirationDate", new Date(expirationDate)),
+                    LEASE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void releaseLease(int partition) {
+        mongoTemplate.updateFirst(query(where("_id").is(partition).and("owner").is(clusterConfiguration.getInstanceId())),
+                new Update().set("expirationDate", new Date(0)), LEASE_COLLECTION);
+    }
+}
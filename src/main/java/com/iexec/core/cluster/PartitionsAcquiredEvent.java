@@ -0,0 +1,16 @@
+package com.iexec.core.cluster;
+
+import lombok.*;
+
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PartitionsAcquiredEvent {
+
+    private Set<Integer> partitions;
+}
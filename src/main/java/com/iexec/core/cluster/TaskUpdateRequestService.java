@@ -0,0 +1,90 @@
+package com.iexec.core.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * A worker may send its replicate updates to any scheduler of the cluster, while only the owner of the task (see
+ * PartitionService) drives it. The update of a task owned by another scheduler is requested through the
+ * "task_update_request" collection: one document per task (later requests are merged into it), taken by the owner
+ * every cluster.updateRequestPeriod.
+ *
+ * A task waiting for a transaction is driven by the leader instead (see LeaderElectionService): its update is requested
+ * on the LEADER_PARTITION. A request replaced by a later one for another scheduler is not lost, the update is handed
+ * over again by the scheduler receiving it if the task isn't its to drive.
+ */
+@Slf4j
+@Service
+public class TaskUpdateRequestService {
+
+    static final String UPDATE_REQUEST_COLLECTION = "task_update_request";
+    static final int LEADER_PARTITION = -1;
+
+    private PartitionService partitionService;
+    private LeaderElectionService leaderElectionService;
+    private MongoTemplate mongoTemplate;
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    public TaskUpdateRequestService(PartitionService partitionService,
+                                    LeaderElectionService leaderElectionService,
+                                    MongoTemplate mongoTemplate,
+                                    ApplicationEventPublisher applicationEventPublisher) {
+        this.partitionService = partitionService;
+        this.leaderElectionService = leaderElectionService;
+        this.mongoTemplate = mongoTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    public void requestUpdate(String chainTaskId) {
+        request(chainTaskId, partitionService.getPartition(chainTaskId));
+    }
+
+    public void requestLeaderUpdate(String chainTaskId) {
+        request(chainTaskId, LEADER_PARTITION);
+    }
+
+    private void request(String chainTaskId, int partition) {
+        mongoTemplate.upsert(query(where("_id").is(chainTaskId)), new Update()
+                        .set("partition", partition)
+                        .set("requestDate", new Date()),
+                UPDATE_REQUEST_COLLECTION);
+    }
+
+    @Scheduled(fixedRateString = "${cluster.updateRequestPeriod}")
+    void takeUpdateRequests() {
+        if (!partitionService.isClusterEnabled()) {
+            return;
+        }
+        Set<Integer> partitions = partitionService.getOwnedPartitions();
+        if (leaderElectionService.isLeader()) {
+            partitions.add(LEADER_PARTITION);
+        }
+        if (partitions.isEmpty()) {
+            return;
+        }
+        List<Document> requests = mongoTemplate.find(query(where("partition").in(partitions)), Document.class,
+                UPDATE_REQUEST_COLLECTION);
+        for (Document request : requests) {
+            String chainTaskId = request.getString("_id");
+            // a request made again in the meantime is kept for the next round
+            mongoTemplate.remove(query(where("_id").is(chainTaskId).and("requestDate").is(request.getDate("requestDate"))),
+                    UPDATE_REQUEST_COLLECTION);
+            applicationEventPublisher.publishEvent(new TaskUpdateRequestedEvent(chainTaskId));
+        }
+        if (!requests.isEmpty()) {
+            log.debug("Took task update requests [nbRequests:{}]", requests.size());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.iexec.core.cluster;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class TaskUpdateRequestedEvent {
+
+    private String chainTaskId;
+}
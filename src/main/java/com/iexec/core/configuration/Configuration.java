@@ -25,6 +25,9 @@ class Configuration {
 
     private BigInteger fromReplay;
 
+    // only kept with a persistent session (see SessionService)
+    private String sessionId;
+
 
 }
 
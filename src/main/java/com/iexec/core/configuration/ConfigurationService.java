@@ -51,4 +51,14 @@ public class ConfigurationService {
         configurationRepository.save(configuration);
     }
 
+    public String getSessionId() {
+        return this.getConfiguration().getSessionId();
+    }
+
+    public void setSessionId(String sessionId) {
+        Configuration configuration = this.getConfiguration();
+        configuration.setSessionId(sessionId);
+        configurationRepository.save(configuration);
+    }
+
 }
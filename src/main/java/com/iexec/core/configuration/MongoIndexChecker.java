@@ -0,0 +1,77 @@
+package com.iexec.core.configuration;
+
+import com.iexec.core.history.StatusHistoryEntry;
+import com.iexec.core.replicate.ReplicatesList;
+import com.iexec.core.task.Task;
+import com.iexec.core.worker.Worker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver.IndexDefinitionHolder;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.util.ClassTypeInformation;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Indexes declared on the documents are created by Spring Data when the mapping context starts. Their creation can
+ * fail silently (ex: duplicated values for a unique index), so once the application is ready, each declared index is
+ * checked and created if it is missing.
+ */
+@Slf4j
+@Component
+public class MongoIndexChecker {
+
+    static final List<Class<?>> INDEXED_DOCUMENTS = Arrays.asList(Task.class, Worker.class,
+            ReplicatesList.class, StatusHistoryEntry.class);
+
+    private MongoTemplate mongoTemplate;
+    private MongoMappingContext mongoMappingContext;
+
+    public MongoIndexChecker(MongoTemplate mongoTemplate,
+                             MongoMappingContext mongoMappingContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoMappingContext = mongoMappingContext;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIndexes() {
+        MongoPersistentEntityIndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        for (Class<?> documentClass : INDEXED_DOCUMENTS) {
+            IndexOperations indexOperations = mongoTemplate.indexOps(documentClass);
+            Set<Set<String>> existingIndexes = indexOperations.getIndexInfo().stream()
+                    .map(MongoIndexChecker::getIndexKeys)
+                    .collect(Collectors.toSet());
+
+            for (IndexDefinitionHolder holder : indexResolver.resolveIndexFor(ClassTypeInformation.from(documentClass))) {
+                Set<String> keys = holder.getIndexKeys().keySet();
+                if (existingIndexes.contains(keys)) {
+                    continue;
+                }
+                log.warn("Missing index, creating it [collection:{}, keys:{}]", holder.getCollection(), keys);
+                try {
+                    indexOperations.ensureIndex(holder.getIndexDefinition());
+                } catch (RuntimeException e) {
+                    log.error("Failed to create index [collection:{}, keys:{}, exception:{}]",
+                            holder.getCollection(), keys, e.getMessage());
+                }
+            }
+        }
+        log.info("Mongo indexes checked [documents:{}]", INDEXED_DOCUMENTS.size());
+    }
+
+    private static Set<String> getIndexKeys(IndexInfo indexInfo) {
+        return indexInfo.getIndexFields().stream()
+                .map(IndexField::getKey)
+                .collect(Collectors.toSet());
+    }
+}
@@ -1,16 +1,61 @@
 package com.iexec.core.configuration;
 
+import com.iexec.core.cluster.ClusterConfiguration;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
 
 /**
- * This simple service will generate a random session id when the scheduler is started, it will be send to workers when
- * they ping the scheduler. If they see that the session id has changed, it means that the scheduler has restarted.
+ * The session id is sent to workers when they ping the scheduler. If they see that the session id has changed, it
+ * means that the scheduler has restarted and they register again.
+ *
+ * A random session id is generated when the scheduler is started, unless the session is persistent: the session id is
+ * then kept in the database, the scheduler state being there too, so that a restart goes unnoticed by the workers.
+ * The session is always persistent with the cluster enabled, the workers may ping any scheduler. A persistent session
+ * also keeps the JWT signing key in the database (see MongoAuthStore): the workers, which don't log in again, still
+ * hold valid tokens after a restart.
  */
+@Slf4j
+@Service
 public class SessionService {
 
-    private static final String sessionId = RandomStringUtils.randomAlphanumeric(10);
+    @Value("${session.persistent}")
+    private boolean persistent;
+
+    private ConfigurationService configurationService;
+    private ClusterConfiguration clusterConfiguration;
+    private String sessionId;
+
+    public SessionService(ConfigurationService configurationService,
+                          ClusterConfiguration clusterConfiguration) {
+        this.configurationService = configurationService;
+        this.clusterConfiguration = clusterConfiguration;
+    }
+
+    @PostConstruct
+    void init() {
+        String newSessionId = RandomStringUtils.randomAlphanumeric(10);
+        if (!persistent && !clusterConfiguration.isEnabled()) {
+            sessionId = newSessionId;
+            return;
+        }
+        sessionId = configurationService.getSessionId();
+        if (sessionId == null) {
+            try {
+                configurationService.setSessionId(newSessionId);
+            } catch (OptimisticLockingFailureException e) {
+                log.info("Session id set concurrently by another scheduler");
+            }
+            sessionId = configurationService.getSessionId();
+        }
+        log.info("Persistent session [sessionId:{}]", sessionId);
+    }
 
-    public static String getSessionId(){
+    public String getSessionId() {
         return sessionId;
     }
 }
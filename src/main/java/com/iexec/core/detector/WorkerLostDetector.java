@@ -2,6 +2,7 @@ package com.iexec.core.detector;
 
 import com.iexec.common.replicate.ReplicateStatus;
 import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.core.cluster.PartitionService;
 import com.iexec.core.replicate.ReplicatesService;
 import com.iexec.core.worker.Worker;
 import com.iexec.core.worker.WorkerService;
@@ -15,11 +16,14 @@ public class WorkerLostDetector implements Detector {
 
     private ReplicatesService replicatesService;
     private WorkerService workerService;
+    private PartitionService partitionService;
 
     public WorkerLostDetector(ReplicatesService replicatesService,
-                              WorkerService workerService) {
+                              WorkerService workerService,
+                              PartitionService partitionService) {
         this.replicatesService = replicatesService;
         this.workerService = workerService;
+        this.partitionService = partitionService;
     }
 
     @Scheduled(fixedRateString = "${detector.workerlost.period}")
@@ -29,6 +33,10 @@ public class WorkerLostDetector implements Detector {
             String workerWallet = worker.getWalletAddress();
 
             for (String chainTaskId : worker.getParticipatingChainTaskIds()) {
+                // the replicates of the other tasks are handled by the schedulers owning them
+                if (!partitionService.isOwner(chainTaskId)) {
+                    continue;
+                }
                 replicatesService.getReplicate(chainTaskId, workerWallet).ifPresent(replicate -> {
                     if (!replicate.getCurrentStatus().equals(ReplicateStatus.WORKER_LOST)) {
                         workerService.removeChainTaskIdFromWorker(chainTaskId, workerWallet);
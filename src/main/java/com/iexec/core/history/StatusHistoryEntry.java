@@ -0,0 +1,32 @@
+package com.iexec.core.history;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One status change of a task (empty walletAddress) or of a replicate. Entries are only appended, they are never
+ * updated.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document
+@CompoundIndex(name = "chainTaskId_walletAddress_date", def = "{'chainTaskId': 1, 'walletAddress': 1, 'date': 1}")
+public class StatusHistoryEntry {
+
+    @Id
+    private String id;
+
+    private String chainTaskId;
+    private String walletAddress;
+    private String status;
+    private Date date;
+}
@@ -0,0 +1,10 @@
+package com.iexec.core.history;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+interface StatusHistoryRepository extends MongoRepository<StatusHistoryEntry, String> {
+
+    List<StatusHistoryEntry> findByChainTaskIdAndWalletAddressOrderByDateAsc(String chainTaskId, String walletAddress);
+}
@@ -0,0 +1,51 @@
+package com.iexec.core.history;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+
+@Slf4j
+@Service
+public class StatusHistoryService {
+
+    private static final String TASK_WALLET_ADDRESS = "";
+
+    private StatusHistoryRepository statusHistoryRepository;
+
+    public StatusHistoryService(StatusHistoryRepository statusHistoryRepository) {
+        this.statusHistoryRepository = statusHistoryRepository;
+    }
+
+    public void addTaskStatusChange(String chainTaskId, Enum<?> status, Date date) {
+        addStatusChange(chainTaskId, TASK_WALLET_ADDRESS, status, date);
+    }
+
+    public void addReplicateStatusChange(String chainTaskId, String walletAddress, Enum<?> status, Date date) {
+        addStatusChange(chainTaskId, walletAddress, status, date);
+    }
+
+    public List<StatusHistoryEntry> getTaskStatusHistory(String chainTaskId) {
+        return statusHistoryRepository.findByChainTaskIdAndWalletAddressOrderByDateAsc(chainTaskId, TASK_WALLET_ADDRESS);
+    }
+
+    public List<StatusHistoryEntry> getReplicateStatusHistory(String chainTaskId, String walletAddress) {
+        return statusHistoryRepository.findByChainTaskIdAndWalletAddressOrderByDateAsc(chainTaskId, walletAddress);
+    }
+
+    // the history is informative only, failing to append to it never fails the status change itself
+    private void addStatusChange(String chainTaskId, String walletAddress, Enum<?> status, Date date) {
+        try {
+            statusHistoryRepository.insert(StatusHistoryEntry.builder()
+                    .chainTaskId(chainTaskId)
+                    .walletAddress(walletAddress)
+                    .status(status.name())
+                    .date(date)
+                    .build());
+        } catch (RuntimeException e) {
+            log.error("Failed to add status change to history [chainTaskId:{}, walletAddress:{}, status:{}, exception:{}]",
+                    chainTaskId, walletAddress, status, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.iexec.core.metrics;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.core.task.TaskStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Single entry point of the core instrumentation: the services report what happens (status changes, requests,
+ * calls) and this class maps it to Micrometer meters, exported on /actuator/prometheus. Meter names follow the
+ * Micrometer dot convention (iexec.tasks is exported as iexec_tasks).
+ */
+@Service
+public class MetricsService {
+
+    static final String TASKS = "iexec.tasks";
+    static final String TASK_STATUS_DURATION = "iexec.tasks.status.duration";
+    static final String REPLICATE_TRANSITIONS = "iexec.replicates.transitions";
+    static final String AVAILABLE_REPLICATE_REQUESTS = "iexec.replicates.available.requests";
+    static final String CHAIN_RPC = "iexec.chain.rpc";
+    static final String CHAIN_WAITING_TRANSACTIONS = "iexec.chain.transactions.waiting";
+    static final String TASK_EXECUTORS = "iexec.tasks.executors";
+    static final String TASK_EXECUTORS_QUEUED = "iexec.tasks.executors.queued";
+    static final String MONGO_COMMANDS = "iexec.mongo.commands";
+    static final String ADMISSION_REJECTIONS = "iexec.admission.rejections";
+    static final String NOTIFICATIONS = "iexec.notifications";
+    static final String NOTIFICATIONS_OUTBOX = "iexec.notifications.outbox";
+
+    private MeterRegistry meterRegistry;
+    // recent levels, read by the admission control to shed load
+    private RecentLatency mongoLatency = new RecentLatency();
+    private RecentLatency rpcLatency = new RecentLatency();
+
+    public MetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /*
+     * A gauge reads its value from the given object each time it is scraped. Micrometer only keeps a weak reference to
+     * the object: it has to be held elsewhere (a bean or one of its fields), not a lambda created for the occasion.
+     */
+    public <T> void registerTaskCountGauge(TaskStatus status, T obj, ToDoubleFunction<T> count) {
+        registerGauge(TASKS, obj, count, "status", status.name());
+    }
+
+    public <T> void registerWaitingTransactionCountGauge(T obj, ToDoubleFunction<T> count) {
+        registerGauge(CHAIN_WAITING_TRANSACTIONS, obj, count);
+    }
+
+    public <T> void registerTaskExecutorGauges(T obj, ToDoubleFunction<T> executorCount, ToDoubleFunction<T> queuedCount) {
+        registerGauge(TASK_EXECUTORS, obj, executorCount);
+        registerGauge(TASK_EXECUTORS_QUEUED, obj, queuedCount);
+    }
+
+    // the counts are read from the source as well, they only ever increase
+    public <T> void registerNotificationMeters(T obj, ToDoubleFunction<T> outboxDepth, ToDoubleFunction<T> sentCount,
+                                               ToDoubleFunction<T> coalescedCount, ToDoubleFunction<T> overflowCount) {
+        registerGauge(NOTIFICATIONS_OUTBOX, obj, outboxDepth);
+        registerFunctionCounter(NOTIFICATIONS, obj, sentCount, "result", "sent");
+        registerFunctionCounter(NOTIFICATIONS, obj, coalescedCount, "result", "coalesced");
+        registerFunctionCounter(NOTIFICATIONS, obj, overflowCount, "result", "overflow");
+    }
+
+    public void recordTaskStatusDuration(TaskStatus status, long durationMillis) {
+        meterRegistry.timer(TASK_STATUS_DURATION, "status", status.name())
+                .record(durationMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void incrementReplicateTransitions(ReplicateStatus newStatus) {
+        meterRegistry.counter(REPLICATE_TRANSITIONS, "status", newStatus.name()).increment();
+    }
+
+    public void recordAvailableReplicateRequest(long durationNanos, boolean isReplicateFound) {
+        meterRegistry.timer(AVAILABLE_REPLICATE_REQUESTS, "result", isReplicateFound ? "hit" : "miss")
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // a transaction is timed until its receipt
+    public <T> T timeRpcCall(String method, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return getRpcTimer(method).record(call);
+        } finally {
+            // only the view calls, a transaction waiting for its block is not a slow node
+            rpcLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    public <T> T timeRpcCallable(String method, Callable<T> call) throws Exception {
+        return getRpcTimer(method).recordCallable(call);
+    }
+
+    public void recordMongoCommand(String command, boolean isSuccess, long durationNanos) {
+        meterRegistry.timer(MONGO_COMMANDS, "command", command, "status", isSuccess ? "success" : "failure")
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        mongoLatency.record(durationNanos);
+    }
+
+    public double getRecentMongoLatencyMillis() {
+        return mongoLatency.getMillis();
+    }
+
+    public double getRecentRpcLatencyMillis() {
+        return rpcLatency.getMillis();
+    }
+
+    public void incrementAdmissionRejections(String endpoint, String reason) {
+        meterRegistry.counter(ADMISSION_REJECTIONS, "endpoint", endpoint, "reason", reason).increment();
+    }
+
+    private <T> void registerGauge(String name, T obj, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, obj, value).tags(tags).register(meterRegistry);
+    }
+
+    private <T> void registerFunctionCounter(String name, T obj, ToDoubleFunction<T> count, String... tags) {
+        FunctionCounter.builder(name, obj, count).tags(tags).register(meterRegistry);
+    }
+
+    private Timer getRpcTimer(String method) {
+        return meterRegistry.timer(CHAIN_RPC, "method", method);
+    }
+}
@@ -0,0 +1,36 @@
+package com.iexec.core.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of each command sent to Mongo (find, insert, update, findAndModify...) as reported by the
+ * driver, whatever the repository or template issuing it.
+ */
+public class MongoMetricsCommandListener implements CommandListener {
+
+    private MetricsService metricsService;
+
+    public MongoMetricsCommandListener(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        // the driver gives the elapsed time on completion
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        metricsService.recordMongoCommand(event.getCommandName(), true, event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        metricsService.recordMongoCommand(event.getCommandName(), false, event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+}
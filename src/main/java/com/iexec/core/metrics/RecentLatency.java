@@ -0,0 +1,29 @@
+package com.iexec.core.metrics;
+
+import static com.iexec.core.utils.DateTimeUtils.now;
+
+/**
+ * Exponentially weighted moving average of a latency, following its recent level rather than the average since the
+ * start (as the timers do). Without any sample for MAX_SAMPLE_AGE, the latency is considered back to normal.
+ */
+class RecentLatency {
+
+    private static final double WEIGHT = 0.1;
+    private static final long MAX_SAMPLE_AGE = 10000;
+
+    private double averageMillis;
+    private long lastSampleDate;
+
+    synchronized void record(long durationNanos) {
+        double durationMillis = durationNanos / 1e6;
+        long now = now();
+        averageMillis = now - lastSampleDate > MAX_SAMPLE_AGE
+                ? durationMillis
+                : averageMillis + WEIGHT * (durationMillis - averageMillis);
+        lastSampleDate = now;
+    }
+
+    synchronized double getMillis() {
+        return now() - lastSampleDate > MAX_SAMPLE_AGE ? 0 : averageMillis;
+    }
+}
@@ -0,0 +1,26 @@
+package com.iexec.core.pubsub;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Component
+public class BrokerConfiguration {
+
+    // when enabled, the fan-out of notifications is delegated to an external STOMP broker
+    @Value("${broker.relay.enabled}")
+    private boolean relayEnabled;
+
+    @Value("${broker.relay.host}")
+    private String relayHost;
+
+    @Value("${broker.relay.port}")
+    private int relayPort;
+
+    @Value("${broker.relay.login}")
+    private String relayLogin;
+
+    @Value("${broker.relay.passcode}")
+    private String relayPasscode;
+}
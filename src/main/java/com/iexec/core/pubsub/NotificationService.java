@@ -1,38 +1,356 @@
 package com.iexec.core.pubsub;
 
+import brave.propagation.TraceContext;
+import com.iexec.common.chain.ContributionAuthorization;
 import com.iexec.common.result.TaskNotification;
+import com.iexec.common.result.TaskNotificationType;
+import com.iexec.core.metrics.MetricsService;
+import com.iexec.core.tracing.TracingService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notifications are not sent on the thread of the caller (which is usually the thread updating the task) but pushed
+ * to a bounded outbox. A dedicated dispatcher drains the outbox by batches, drops the notifications superseded by a
+ * more recent one of the same batch and sends the remaining ones grouped by destination: a worker subscribed to
+ * /user/queue/task-batch receives a single message with all its notifications of the batch, the others (and the task
+ * topics) one message per notification.
+ *
+ * When the outbox is full, the caller never waits for some room: a notification targeting workers (please reveal,
+ * upload, abort...) is sent right away on the thread of the caller, since a worker would otherwise wait for it until
+ * a timeout, and a broadcast notification is dropped (counted as overflow). A notification sent right away may reach
+ * its workers before older ones still in the outbox.
+ *
+ * The trace context of the caller is kept with each notification of the outbox: a batch is dispatched in a span
+ * child of the trace of its oldest notification (the batch mixes several traces, the others are only found back by
+ * chainTaskId).
+ */
 @Slf4j
 @Service
 public class NotificationService {
 
+    static final String TASK_TOPIC_PREFIX = "/topic/task/";
+    static final String WORKER_USER_PREFIX = "/user/";
+    static final String WORKER_TASK_QUEUE = "/queue/task";
+    static final String WORKER_TASK_BATCH_QUEUE = "/queue/task-batch";
+    static final String WORKER_REPLICATE_QUEUE = "/queue/replicate";
+    // destination a worker subscribes to in order to receive its task notifications by batches
+    public static final String WORKER_TASK_BATCH_SUBSCRIPTION = "/user" + WORKER_TASK_BATCH_QUEUE;
+    // destination a worker subscribes to in order to be offered replicates instead of asking for them
+    public static final String WORKER_REPLICATE_SUBSCRIPTION = "/user" + WORKER_REPLICATE_QUEUE;
+
+    private static final String COALESCING_KEY_SEPARATOR = "|";
+
+    @Value("${notification.outbox.capacity}")
+    private int outboxCapacity;
+
+    @Value("${notification.outbox.batchSize}")
+    private int outboxBatchSize;
+
     private SimpMessagingTemplate sender;
+    private SimpUserRegistry simpUserRegistry;
+    private TracingService tracingService;
+    private MetricsService metricsService;
+
+    private BlockingQueue<OutboxEntry> outbox;
+    private Thread dispatcher;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
 
-    public NotificationService(SimpMessagingTemplate sender) {
+    public NotificationService(SimpMessagingTemplate sender,
+                               SimpUserRegistry simpUserRegistry,
+                               TracingService tracingService,
+                               MetricsService metricsService) {
         this.sender = sender;
+        this.simpUserRegistry = simpUserRegistry;
+        this.tracingService = tracingService;
+        this.metricsService = metricsService;
+    }
+
+    @PostConstruct
+    void start() {
+        outbox = new ArrayBlockingQueue<>(outboxCapacity);
+        dispatcher = new Thread(this::dispatchLoop, "notification-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        metricsService.registerNotificationMeters(this, NotificationService::getOutboxDepth,
+                NotificationService::getSentCount, NotificationService::getCoalescedCount,
+                NotificationService::getOverflowCount);
+        log.info("Notification outbox started [capacity:{}, batchSize:{}]", outboxCapacity, outboxBatchSize);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (dispatcher == null) {
+            return;
+        }
+        dispatcher.interrupt();
+        try {
+            // the batch being dispatched is sent before the flush, not concurrently
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // what is still in the outbox is flushed before leaving
+        List<OutboxEntry> remaining = new ArrayList<>();
+        outbox.drainTo(remaining);
+        dispatch(getNotifications(remaining));
+        log.info("Notification outbox stopped [flushed:{}]", remaining.size());
     }
 
     public void sendTaskNotification(TaskNotification taskNotification) {
-        sender.convertAndSend("/topic/task/" + taskNotification.getChainTaskId(), taskNotification);
-        log.info("Sent TaskNotification [chainTaskId:{}, type:{}, workers:{}]",
-                taskNotification.getChainTaskId(), taskNotification.getTaskNotificationType(), taskNotification.getWorkersAddress());
+        // before the dispatcher is started, the notification is sent right away
+        if (outbox == null) {
+            dispatch(Collections.singletonList(taskNotification));
+            return;
+        }
+
+        OutboxEntry entry = new OutboxEntry(taskNotification, tracingService.getCurrentContext());
+        if (outbox.offer(entry)) {
+            return;
+        }
+        if (!isBroadcast(taskNotification)) {
+            log.warn("Notification outbox is full, notification sent right away [chainTaskId:{}, type:{}, capacity:{}]",
+                    taskNotification.getChainTaskId(), taskNotification.getTaskNotificationType(), outboxCapacity);
+            dispatch(Collections.singletonList(taskNotification));
+            return;
+        }
+        overflowCount.incrementAndGet();
+        log.error("Notification outbox is full, notification dropped [chainTaskId:{}, type:{}, capacity:{}]",
+                taskNotification.getChainTaskId(), taskNotification.getTaskNotificationType(), outboxCapacity);
+    }
+
+    // an offer is sent right away (not through the outbox) since the replicate is already reserved for the worker
+    public void sendContributionAuthorization(String walletAddress, ContributionAuthorization authorization) {
+        try {
+            sender.convertAndSendToUser(walletAddress, WORKER_REPLICATE_QUEUE, authorization);
+            sentCount.incrementAndGet();
+            log.info("Sent ContributionAuthorization [chainTaskId:{}, walletAddress:{}]",
+                    authorization.getChainTaskId(), walletAddress);
+        } catch (RuntimeException e) {
+            log.error("Failed to send ContributionAuthorization [chainTaskId:{}, walletAddress:{}, exception:{}]",
+                    authorization.getChainTaskId(), walletAddress, e.getMessage());
+        }
     }
 
-    /* Test PubSub method
-    @Scheduled(fixedRate = 3000)
-    public void run(){
-        log.info("Check if results need to be uploaded");
+    public int getOutboxDepth() {
+        return outbox != null ? outbox.size() : 0;
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<OutboxEntry> batch = new ArrayList<>();
+                batch.add(outbox.take());
+                outbox.drainTo(batch, Math.max(0, outboxBatchSize - 1));
+                tracingService.runInSpan("dispatch-notifications", batch.get(0).getTraceContext(),
+                        () -> dispatch(getNotifications(batch)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Failed to dispatch notifications [exception:{}]", e.getMessage());
+            }
+        }
+    }
+
+    private static List<TaskNotification> getNotifications(List<OutboxEntry> entries) {
+        List<TaskNotification> notifications = new ArrayList<>(entries.size());
+        for (OutboxEntry entry : entries) {
+            notifications.add(entry.getTaskNotification());
+        }
+        return notifications;
+    }
+
+    void dispatch(List<TaskNotification> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<TaskNotification> notifications = coalesce(batch);
+        coalescedCount.addAndGet(batch.size() - (long) notifications.size());
 
-        //List<ReplicatesList> uploadableReplicates = taskService.getUploadableReplicates();
-        UploadResultMessage uploadResultMessage = UploadResultMessage.builder()
-                .taskId(null)
-                .workerAddress(null)
+        // each payload is serialized once, the notifications of a worker listening to batches are kept aside
+        Map<String, Boolean> listeningToBatches = new HashMap<>();
+        Map<String, List<TaskNotification>> batchesByWorker = new LinkedHashMap<>();
+        Map<String, List<Message<?>>> messagesByDestination = new LinkedHashMap<>();
+        for (TaskNotification taskNotification : notifications) {
+            List<String> destinations = new ArrayList<>();
+            if (isBroadcast(taskNotification)) {
+                destinations.add(getTaskTopic(taskNotification.getChainTaskId()));
+            } else {
+                for (String walletAddress : taskNotification.getWorkersAddress()) {
+                    if (listeningToBatches.computeIfAbsent(walletAddress, this::isListeningToTaskBatches)) {
+                        batchesByWorker.computeIfAbsent(walletAddress, key -> new ArrayList<>()).add(taskNotification);
+                    } else {
+                        destinations.add(getWorkerDestination(walletAddress));
+                    }
+                }
+            }
+            if (!destinations.isEmpty()) {
+                Message<?> message = sender.getMessageConverter().toMessage(taskNotification, null);
+                if (message == null) {
+                    log.error("Failed to convert TaskNotification [chainTaskId:{}, type:{}]",
+                            taskNotification.getChainTaskId(), taskNotification.getTaskNotificationType());
+                    continue;
+                }
+                for (String destination : destinations) {
+                    messagesByDestination.computeIfAbsent(destination, key -> new ArrayList<>()).add(message);
+                }
+            }
+            log.info("Sent TaskNotification [chainTaskId:{}, type:{}, workers:{}]",
+                    taskNotification.getChainTaskId(), taskNotification.getTaskNotificationType(),
+                    taskNotification.getWorkersAddress());
+        }
+
+        for (Map.Entry<String, List<TaskNotification>> entry : batchesByWorker.entrySet()) {
+            Message<?> message = sender.getMessageConverter().toMessage(entry.getValue(), null);
+            if (message == null) {
+                log.error("Failed to convert TaskNotification batch [walletAddress:{}]", entry.getKey());
+                continue;
+            }
+            send(getWorkerBatchDestination(entry.getKey()), message);
+        }
+        for (Map.Entry<String, List<Message<?>>> entry : messagesByDestination.entrySet()) {
+            for (Message<?> message : entry.getValue()) {
+                send(entry.getKey(), message);
+            }
+        }
+    }
+
+    private void send(String destination, Message<?> message) {
+        try {
+            sender.send(destination, message);
+            sentCount.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.error("Failed to send notification [destination:{}, exception:{}]", destination, e.getMessage());
+        }
+    }
+
+    boolean isListeningToTaskBatches(String walletAddress) {
+        SimpUser user = simpUserRegistry.getUser(walletAddress);
+        if (user == null) {
+            return false;
+        }
+        return user.getSessions().stream()
+                .flatMap(session -> session.getSubscriptions().stream())
+                .anyMatch(subscription -> WORKER_TASK_BATCH_SUBSCRIPTION.equals(subscription.getDestination()));
+    }
+
+    /*
+     * Within a batch:
+     * - notifications of the same type for the same task are merged (their targeted workers are joined)
+     * - a COMPLETED notification supersedes every previous notification of the same task
+     * A merged notification keeps the place of the first one, so a notification is only merged into a previous one
+     * when nothing in between could reach the same workers: each worker still receives its notifications in the order
+     * they were emitted.
+     */
+    static List<TaskNotification> coalesce(List<TaskNotification> batch) {
+        List<TaskNotification> coalesced = new ArrayList<>(batch.size());
+        for (TaskNotification taskNotification : batch) {
+            String chainTaskId = taskNotification.getChainTaskId();
+            if (TaskNotificationType.COMPLETED.equals(taskNotification.getTaskNotificationType())) {
+                coalesced.removeIf(previous -> Objects.equals(chainTaskId, previous.getChainTaskId()));
+            }
+
+            int index = getMergeableIndex(coalesced, taskNotification);
+            if (index < 0) {
+                coalesced.add(taskNotification);
+            } else {
+                coalesced.set(index, merge(coalesced.get(index), taskNotification));
+            }
+        }
+        return coalesced;
+    }
+
+    private static int getMergeableIndex(List<TaskNotification> coalesced, TaskNotification taskNotification) {
+        String key = getCoalescingKey(taskNotification);
+        for (int i = coalesced.size() - 1; i >= 0; i--) {
+            TaskNotification previous = coalesced.get(i);
+            if (key.equals(getCoalescingKey(previous))) {
+                return i;
+            }
+            if (isReachingSameWorkers(previous, taskNotification)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // a broadcast reaches the workers of its task, whichever they are
+    private static boolean isReachingSameWorkers(TaskNotification first, TaskNotification second) {
+        if (isBroadcast(first) || isBroadcast(second)) {
+            return Objects.equals(first.getChainTaskId(), second.getChainTaskId());
+        }
+        return !Collections.disjoint(first.getWorkersAddress(), second.getWorkersAddress());
+    }
+
+    private static String getCoalescingKey(TaskNotification taskNotification) {
+        return taskNotification.getChainTaskId() + COALESCING_KEY_SEPARATOR +
+                taskNotification.getTaskNotificationType() + COALESCING_KEY_SEPARATOR +
+                (isBroadcast(taskNotification) ? "broadcast" : "workers");
+    }
+
+    private static TaskNotification merge(TaskNotification previous, TaskNotification latest) {
+        if (isBroadcast(latest)) {
+            return latest;
+        }
+        Set<String> workersAddress = new LinkedHashSet<>(previous.getWorkersAddress());
+        workersAddress.addAll(latest.getWorkersAddress());
+        return TaskNotification.builder()
+                .chainTaskId(latest.getChainTaskId())
+                .taskNotificationType(latest.getTaskNotificationType())
+                .workersAddress(new ArrayList<>(workersAddress))
                 .build();
-        sendTaskNotification(uploadResultMessage);
+    }
+
+    private static boolean isBroadcast(TaskNotification taskNotification) {
+        return taskNotification.getWorkersAddress() == null || taskNotification.getWorkersAddress().isEmpty();
+    }
 
-    }*/
+    static String getTaskTopic(String chainTaskId) {
+        return TASK_TOPIC_PREFIX + chainTaskId;
+    }
+
+    // resolved by the user destination handler to the session(s) opened by this wallet
+    static String getWorkerDestination(String walletAddress) {
+        return WORKER_USER_PREFIX + walletAddress + WORKER_TASK_QUEUE;
+    }
 
+    static String getWorkerBatchDestination(String walletAddress) {
+        return WORKER_USER_PREFIX + walletAddress + WORKER_TASK_BATCH_QUEUE;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class OutboxEntry {
+        private final TaskNotification taskNotification;
+        private final TraceContext traceContext;
+    }
 }
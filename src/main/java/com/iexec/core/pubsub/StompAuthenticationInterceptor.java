@@ -0,0 +1,52 @@
+package com.iexec.core.pubsub;
+
+import com.iexec.core.security.JwtTokenProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * This interceptor reads the JWT sent by a worker in the headers of the STOMP CONNECT frame and binds the STOMP session
+ * to the wallet address of the worker. It allows the scheduler to send notifications to the user destination of a
+ * given worker instead of broadcasting them to every worker.
+ */
+@Slf4j
+@Component
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    public StompAuthenticationInterceptor(JwtTokenProvider jwtTokenProvider) {
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String bearerToken = accessor.getFirstNativeHeader(AUTHORIZATION_HEADER);
+        String walletAddress = jwtTokenProvider.getWalletAddressFromBearerToken(bearerToken);
+        if (walletAddress.isEmpty()) {
+            // the session is kept open but it can only receive broadcast notifications
+            log.warn("Anonymous STOMP connection [sessionId:{}]", accessor.getSessionId());
+            return message;
+        }
+
+        Principal principal = () -> walletAddress;
+        accessor.setUser(principal);
+        log.info("Authenticated STOMP connection [sessionId:{}, walletAddress:{}]", accessor.getSessionId(), walletAddress);
+        return message;
+    }
+}
@@ -1,35 +1,70 @@
 package com.iexec.core.pubsub;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
-import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private TaskScheduler messageBrokerTaskScheduler;
+    private StompAuthenticationInterceptor stompAuthenticationInterceptor;
+    private BrokerConfiguration brokerConfiguration;
 
     @Autowired
     public void setMessageBrokerTaskScheduler(TaskScheduler taskScheduler) {
         this.messageBrokerTaskScheduler = taskScheduler;
     }
 
+    @Autowired
+    public void setStompAuthenticationInterceptor(StompAuthenticationInterceptor stompAuthenticationInterceptor) {
+        this.stompAuthenticationInterceptor = stompAuthenticationInterceptor;
+    }
+
+    @Autowired
+    public void setBrokerConfiguration(BrokerConfiguration brokerConfiguration) {
+        this.brokerConfiguration = brokerConfiguration;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic")
-                .setHeartbeatValue(new long[]{5000, 5000})
-                .setTaskScheduler(this.messageBrokerTaskScheduler);
+        // "/topic" is used for broadcast notifications, "/queue" for the notifications targeting a single worker
+        if (brokerConfiguration.isRelayEnabled()) {
+            // the fan-out is done by the external broker, the scheduler publishes each message only once.
+            // Unresolved user destinations and user registries are shared through the broker so a worker can be
+            // connected to any scheduler instance
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(brokerConfiguration.getRelayHost())
+                    .setRelayPort(brokerConfiguration.getRelayPort())
+                    .setClientLogin(brokerConfiguration.getRelayLogin())
+                    .setClientPasscode(brokerConfiguration.getRelayPasscode())
+                    .setSystemLogin(brokerConfiguration.getRelayLogin())
+                    .setSystemPasscode(brokerConfiguration.getRelayPasscode())
+                    .setSystemHeartbeatSendInterval(5000)
+                    .setSystemHeartbeatReceiveInterval(5000)
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[]{5000, 5000})
+                    .setTaskScheduler(this.messageBrokerTaskScheduler);
+        }
+        config.setUserDestinationPrefix(NotificationService.WORKER_USER_PREFIX);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthenticationInterceptor);
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/connect");
     }
-}
\ No newline at end of file
+}
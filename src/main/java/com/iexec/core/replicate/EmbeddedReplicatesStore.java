@@ -0,0 +1,93 @@
+package com.iexec.core.replicate;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * All the replicates of a task are in a single versioned document: concurrent updates of the same task raise an
+ * OptimisticLockingFailureException and are retried.
+ */
+@Component
+@ConditionalOnProperty(name = "replicates.storage", havingValue = "embedded", matchIfMissing = true)
+class EmbeddedReplicatesStore implements ReplicatesStore {
+
+    static final String ARCHIVE_COLLECTION = "replicatesList_archive";
+
+    private ReplicatesRepository replicatesRepository;
+    private MongoTemplate mongoTemplate;
+
+    EmbeddedReplicatesStore(ReplicatesRepository replicatesRepository,
+                            MongoTemplate mongoTemplate) {
+        this.replicatesRepository = replicatesRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    void createIndexes() {
+        mongoTemplate.indexOps(ARCHIVE_COLLECTION).ensureIndex(new Index()
+                .on("chainTaskId", Sort.Direction.ASC)
+                .unique()
+                .named("chainTaskId"));
+    }
+
+    @Override
+    public void createEmptyReplicateList(String chainTaskId) {
+        replicatesRepository.save(new ReplicatesList(chainTaskId));
+    }
+
+    @Override
+    public Optional<ReplicatesList> getReplicatesList(String chainTaskId) {
+        Optional<ReplicatesList> replicatesList = replicatesRepository.findByChainTaskId(chainTaskId);
+        if (replicatesList.isPresent()) {
+            return replicatesList;
+        }
+        return Optional.ofNullable(mongoTemplate.findOne(getReplicatesListQuery(chainTaskId),
+                ReplicatesList.class, ARCHIVE_COLLECTION));
+    }
+
+    @Override
+    public boolean hasReplicate(String chainTaskId, String walletAddress) {
+        return replicatesRepository.existsByChainTaskIdAndReplicatesWalletAddress(chainTaskId, walletAddress);
+    }
+
+    // the version is incremented so that a concurrent save of the list read before the push fails and is retried
+    @Override
+    public boolean reserveReplicate(String chainTaskId, int nbReplicates, Replicate replicate) {
+        Query query = query(where("chainTaskId").is(chainTaskId)
+                .and("replicates").size(nbReplicates)
+                .and("replicates.walletAddress").ne(replicate.getWalletAddress()));
+        Update update = new Update().push("replicates", replicate).inc("version", 1);
+        return mongoTemplate.updateFirst(query, update, ReplicatesList.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public void updateReplicate(ReplicatesList replicatesList, Replicate replicate) {
+        replicatesRepository.save(replicatesList);
+    }
+
+    @Override
+    public void archiveReplicatesList(String chainTaskId) {
+        Optional<ReplicatesList> replicatesList = replicatesRepository.findByChainTaskId(chainTaskId);
+        if (!replicatesList.isPresent()) {
+            return;
+        }
+        mongoTemplate.remove(getReplicatesListQuery(chainTaskId), ARCHIVE_COLLECTION);
+        mongoTemplate.insert(replicatesList.get(), ARCHIVE_COLLECTION);
+        replicatesRepository.delete(replicatesList.get());
+    }
+
+    private static Query getReplicatesListQuery(String chainTaskId) {
+        return query(where("chainTaskId").is(chainTaskId));
+    }
+}
@@ -5,6 +5,7 @@ import com.iexec.common.chain.ChainReceipt;
 import com.iexec.common.replicate.ReplicateStatus;
 import com.iexec.common.replicate.ReplicateStatusChange;
 import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.core.utils.StatusHistoryUtils;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -24,6 +25,9 @@ public class Replicate {
     private String chainTaskId;
     private String contributionHash;
     private int credibility;
+    // version of the replicate document in the split store, incremented by each update (null when never updated)
+    @JsonIgnore
+    private Long version;
 
     public Replicate(String walletAddress, String chainTaskId) {
         this.chainTaskId = chainTaskId;
@@ -51,11 +55,25 @@ public class Replicate {
 
 
     public boolean updateStatus(ReplicateStatus newStatus, ReplicateStatusModifier modifier) {
-        return statusChangeList.add(new ReplicateStatusChange(newStatus, modifier));
+        boolean isAdded = statusChangeList.add(new ReplicateStatusChange(newStatus, modifier));
+        StatusHistoryUtils.compact(statusChangeList, ReplicateStatusChange::getStatus);
+        return isAdded;
     }
 
     public boolean updateStatus(ReplicateStatus newStatus, ReplicateStatusModifier modifier, ChainReceipt  chainReceipt) {
-        return statusChangeList.add(new ReplicateStatusChange(newStatus, modifier, chainReceipt));
+        boolean isAdded = statusChangeList.add(new ReplicateStatusChange(newStatus, modifier, chainReceipt));
+        StatusHistoryUtils.compact(statusChangeList, ReplicateStatusChange::getStatus);
+        return isAdded;
+    }
+
+    @JsonIgnore
+    Date getLatestStatusChangeDate() {
+        return this.getLatestStatusChange().getDate();
+    }
+
+    @JsonIgnore
+    Date getCreationDate() {
+        return this.getStatusChangeList().get(0).getDate();
     }
 
     public String getContributionHash() {
@@ -88,7 +106,7 @@ public class Replicate {
     }
 
     public boolean isCreatedMoreThanNPeriodsAgo(int numberPeriod, Date timeRef) {
-        Date creationDate = this.getStatusChangeList().get(0).getDate();
+        Date creationDate = getCreationDate();
         Date numberPeriodsAfterCreationDate = new Date(creationDate.getTime() + numberPeriod * timeRef.getTime());
         Date now = new Date();
 
@@ -3,23 +3,29 @@ package com.iexec.core.replicate;
 import com.iexec.common.chain.ChainReceipt;
 import com.iexec.common.replicate.ReplicateStatus;
 import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.core.admission.AdmissionService;
 import com.iexec.core.security.JwtTokenProvider;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @Slf4j
 @RestController
 public class ReplicatesController {
 
     private ReplicatesService replicatesService;
     private JwtTokenProvider jwtTokenProvider;
+    private AdmissionService admissionService;
 
     public ReplicatesController(ReplicatesService replicatesService,
-                                JwtTokenProvider jwtTokenProvider) {
+                                JwtTokenProvider jwtTokenProvider,
+                                AdmissionService admissionService) {
         this.replicatesService = replicatesService;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.admissionService = admissionService;
     }
 
     @PostMapping("/replicates/{chainTaskId}/updateStatus")
@@ -35,10 +41,19 @@ public class ReplicatesController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED.value()).build();
         }
 
+        Optional<ResponseEntity> rejection = admissionService.admit("/replicates/updateStatus", walletAddress, true);
+        if (rejection.isPresent()) {
+            return rejection.get();
+        }
+
         log.info("UpdateReplicateStatus requested [chainTaskId:{}, replicateStatus:{}, walletAddress:{}, blockNumber:{}]",
                 chainTaskId, replicateStatus, walletAddress, chainReceipt.getBlockNumber());
 
-        replicatesService.updateReplicateStatus(chainTaskId, walletAddress, replicateStatus, ReplicateStatusModifier.WORKER, chainReceipt);
+        try {
+            replicatesService.updateReplicateStatus(chainTaskId, walletAddress, replicateStatus, ReplicateStatusModifier.WORKER, chainReceipt);
+        } finally {
+            admissionService.release();
+        }
         return ResponseEntity.ok().build();
     }
 }
@@ -7,4 +7,6 @@ import java.util.Optional;
 interface ReplicatesRepository extends MongoRepository<ReplicatesList, String> {
 
     Optional<ReplicatesList> findByChainTaskId(String chainTaskId);
+
+    boolean existsByChainTaskIdAndReplicatesWalletAddress(String chainTaskId, String walletAddress);
 }
@@ -8,8 +8,12 @@ import com.iexec.common.replicate.ReplicateStatusChange;
 import com.iexec.common.replicate.ReplicateStatusModifier;
 import com.iexec.core.chain.IexecHubService;
 import com.iexec.core.chain.Web3jService;
+import com.iexec.core.history.StatusHistoryService;
+import com.iexec.core.metrics.MetricsService;
+import com.iexec.core.worker.WorkerStatsService;
 import com.iexec.core.workflow.ReplicateWorkflow;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.retry.annotation.Recover;
@@ -25,42 +29,79 @@ import static com.iexec.common.replicate.ReplicateStatus.*;
 @Service
 public class ReplicatesService {
 
-    private ReplicatesRepository replicatesRepository;
+    private static final int MAX_RESERVATION_ATTEMPTS = 3;
+
+    private ReplicatesStore replicatesStore;
     private IexecHubService iexecHubService;
     private ApplicationEventPublisher applicationEventPublisher;
     private Web3jService web3jService;
+    private StatusHistoryService statusHistoryService;
+    private WorkerStatsService workerStatsService;
+    private MetricsService metricsService;
+
+    @Value("${replicates.speculative.enabled}")
+    private boolean speculativeEnabled;
 
-    public ReplicatesService(ReplicatesRepository replicatesRepository,
+    @Value("${replicates.speculative.maxReplicates}")
+    private int speculativeMaxReplicates;
+
+    public ReplicatesService(ReplicatesStore replicatesStore,
                              IexecHubService iexecHubService,
                              ApplicationEventPublisher applicationEventPublisher,
-                             Web3jService web3jService) {
-        this.replicatesRepository = replicatesRepository;
+                             Web3jService web3jService,
+                             StatusHistoryService statusHistoryService,
+                             WorkerStatsService workerStatsService,
+                             MetricsService metricsService) {
+        this.replicatesStore = replicatesStore;
         this.iexecHubService = iexecHubService;
         this.applicationEventPublisher = applicationEventPublisher;
         this.web3jService = web3jService;
+        this.statusHistoryService = statusHistoryService;
+        this.workerStatsService = workerStatsService;
+        this.metricsService = metricsService;
     }
 
-    public void addNewReplicate(String chainTaskId, String walletAddress) {
-        if (!getReplicate(chainTaskId, walletAddress).isPresent()) {
+    /*
+     * The replicate is reserved in a single conditional update: it is only added if no other replicate has been added
+     * to the task since its replicates were read. When another worker took a slot first, the decision is made again on
+     * the up-to-date replicates (a few times at most, the task may be full by then).
+     */
+    public Optional<Replicate> reserveReplicate(String chainTaskId, String walletAddress, int nbWorkersNeeded,
+                                                Date timeRef, Date contributionDeadline) {
+        for (int attempt = 0; attempt < MAX_RESERVATION_ATTEMPTS; attempt++) {
             Optional<ReplicatesList> optional = getReplicatesList(chainTaskId);
-            if (optional.isPresent()) {
-                ReplicatesList replicatesList = optional.get();
-                replicatesList.getReplicates().add(new Replicate(walletAddress, chainTaskId));
-                replicatesRepository.save(replicatesList);
-                log.info("New replicate saved [chainTaskId:{}, walletAddress:{}]", chainTaskId, walletAddress);
+            if (!optional.isPresent()) {
+                return Optional.empty();
+            }
+            List<Replicate> replicates = optional.get().getReplicates();
+            if (optional.get().getReplicateOfWorker(walletAddress).isPresent()
+                    || !moreReplicatesNeeded(replicates, nbWorkersNeeded, timeRef, contributionDeadline)) {
+                return Optional.empty();
             }
-        } else {
-            log.error("Replicate already saved [chainTaskId:{}, walletAddress:{}]", chainTaskId, walletAddress);
-        }
 
+            Replicate replicate = new Replicate(walletAddress, chainTaskId);
+            if (replicatesStore.reserveReplicate(chainTaskId, replicates.size(), replicate)) {
+                statusHistoryService.addReplicateStatusChange(chainTaskId, walletAddress,
+                        replicate.getCurrentStatus(), replicate.getLatestStatusChangeDate());
+                log.info("New replicate reserved [chainTaskId:{}, walletAddress:{}]", chainTaskId, walletAddress);
+                return Optional.of(replicate);
+            }
+            log.info("Replicate slot taken by another worker [chainTaskId:{}, walletAddress:{}, attempt:{}]",
+                    chainTaskId, walletAddress, attempt);
+        }
+        return Optional.empty();
     }
 
     public synchronized void createEmptyReplicateList(String chainTaskId) {
-        replicatesRepository.save(new ReplicatesList(chainTaskId));
+        replicatesStore.createEmptyReplicateList(chainTaskId);
+    }
+
+    public void archiveReplicatesList(String chainTaskId) {
+        replicatesStore.archiveReplicatesList(chainTaskId);
     }
 
     public Optional<ReplicatesList> getReplicatesList(String chainTaskId) {
-        return replicatesRepository.findByChainTaskId(chainTaskId);
+        return replicatesStore.getReplicatesList(chainTaskId);
     }
 
     public List<Replicate> getReplicates(String chainTaskId) {
@@ -87,7 +128,7 @@ public class ReplicatesService {
     }
 
     public boolean hasWorkerAlreadyParticipated(String chainTaskId, String walletAddress) {
-        return getReplicate(chainTaskId, walletAddress).isPresent();
+        return replicatesStore.hasReplicate(chainTaskId, walletAddress);
     }
 
     public int getNbReplicatesWithCurrentStatus(String chainTaskId, ReplicateStatus... listStatus) {
@@ -152,8 +193,25 @@ public class ReplicatesService {
     }
 
     public boolean moreReplicatesNeeded(String chainTaskId, int nbWorkersNeeded, Date timeRef) {
+        return moreReplicatesNeeded(getReplicates(chainTaskId), nbWorkersNeeded, timeRef, null);
+    }
+
+    public boolean moreReplicatesNeeded(String chainTaskId, int nbWorkersNeeded, Date timeRef, Date contributionDeadline) {
+        return moreReplicatesNeeded(getReplicates(chainTaskId), nbWorkersNeeded, timeRef, contributionDeadline);
+    }
+
+    /*
+     * In speculative mode, a valid replicate expected (from the statistics of its worker) to contribute after the
+     * contribution deadline is doubled by an extra replicate, while it keeps its own slot: the first contributions
+     * make the consensus and the stragglers are then released. The extra replicates of a task are bounded by
+     * replicates.speculative.maxReplicates, they are the valid replicates in excess of the workers needed.
+     */
+    private boolean moreReplicatesNeeded(List<Replicate> replicates, int nbWorkersNeeded, Date timeRef,
+                                         Date contributionDeadline) {
+        boolean isSpeculative = speculativeEnabled && contributionDeadline != null;
         int nbValidReplicates = 0;
-        for (Replicate replicate : getReplicates(chainTaskId)) {
+        int nbLateReplicates = 0;
+        for (Replicate replicate : replicates) {
             //TODO think: When do we really need more replicates?
             boolean isReplicateSuccessfullSoFar = ReplicateStatus.getSuccessStatuses().contains(replicate.getCurrentStatus());
             boolean doesContributionTakesTooLong = !replicate.containsContributedStatus() &&
@@ -161,11 +219,30 @@ public class ReplicatesService {
 
             if (isReplicateSuccessfullSoFar && !doesContributionTakesTooLong) {
                 nbValidReplicates++;
+                if (isSpeculative && isLikelyToMissDeadline(replicate, contributionDeadline)) {
+                    nbLateReplicates++;
+                }
             }
         }
+
+        if (nbLateReplicates > 0) {
+            int nbSpeculativeReplicates = Math.max(0, nbValidReplicates - nbWorkersNeeded);
+            int nbAllowedReplicates = Math.max(0, speculativeMaxReplicates - nbSpeculativeReplicates);
+            nbValidReplicates -= Math.min(nbLateReplicates, nbAllowedReplicates);
+        }
         return nbValidReplicates < nbWorkersNeeded;
     }
 
+    private boolean isLikelyToMissDeadline(Replicate replicate, Date contributionDeadline) {
+        if (replicate.containsContributedStatus()) {
+            return false;
+        }
+        Optional<Long> expectedContributionTime =
+                workerStatsService.getExpectedContributionTime(replicate.getWalletAddress());
+        return expectedContributionTime.isPresent() && replicate.getCreationDate().getTime()
+                + expectedContributionTime.get() > contributionDeadline.getTime();
+    }
+
     public void updateReplicateStatus(String chainTaskId,
                                       String walletAddress,
                                       ReplicateStatus newStatus,
@@ -236,7 +313,15 @@ public class ReplicatesService {
         }
 
         replicate.updateStatus(newStatus, modifier, chainReceipt);
-        replicatesRepository.save(optionalReplicates.get());
+        replicatesStore.updateReplicate(optionalReplicates.get(), replicate);
+        statusHistoryService.addReplicateStatusChange(chainTaskId, walletAddress, newStatus,
+                replicate.getLatestStatusChangeDate());
+        metricsService.incrementReplicateTransitions(newStatus);
+
+        if (newStatus.equals(CONTRIBUTED)) {
+            workerStatsService.addContributionTime(walletAddress,
+                    replicate.getLatestStatusChangeDate().getTime() - replicate.getCreationDate().getTime());
+        }
 
         // if replicate is not busy anymore, it can notify it
         if (!replicate.isBusyComputing()) {
@@ -0,0 +1,33 @@
+package com.iexec.core.replicate;
+
+import java.util.Optional;
+
+/**
+ * Storage layout of the replicates, selected with the "replicates.storage" property:
+ * - embedded (default): one ReplicatesList document per task holding all its replicates
+ * - split: one document per replicate, so that the updates of different workers never conflict
+ */
+interface ReplicatesStore {
+
+    void createEmptyReplicateList(String chainTaskId);
+
+    // the archived replicates are returned when the task has no replicates in the hot collection
+    Optional<ReplicatesList> getReplicatesList(String chainTaskId);
+
+    boolean hasReplicate(String chainTaskId, String walletAddress);
+
+    /*
+     * Adds the replicate in a single atomic operation, only if the task still has nbReplicates replicates (no other
+     * replicate has been added since they were read) and none of them belongs to the worker of the replicate.
+     */
+    boolean reserveReplicate(String chainTaskId, int nbReplicates, Replicate replicate);
+
+    /*
+     * The replicate has already been updated in the replicatesList read from the store. Throws an
+     * OptimisticLockingFailureException when it has been updated in the store since it was read.
+     */
+    void updateReplicate(ReplicatesList replicatesList, Replicate replicate);
+
+    // moves the replicates of the task to the archive collection (a previous archived copy is replaced)
+    void archiveReplicatesList(String chainTaskId);
+}
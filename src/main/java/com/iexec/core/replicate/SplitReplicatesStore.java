@@ -0,0 +1,152 @@
+package com.iexec.core.replicate;
+
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Each replicate is a document of the "replicate" collection, unique per (chainTaskId, walletAddress). A replicate
+ * update only sets the fields of this replicate: updates from different workers never conflict. The replicates list
+ * of a task is built from its replicate documents (it is empty until the first replicate is added).
+ *
+ * Each replicate also holds its slot: the number of replicates the task had when it was reserved. Replicates are
+ * never removed from the collection (they are only archived with their task), so the slots of a task are 0..n-1 and
+ * the unique (chainTaskId, slot) index only accepts a new replicate in slot n.
+ *
+ * Each update increments the version of the replicate and only applies to the version read: a worker and a detector
+ * updating the same replicate at once would otherwise overwrite each other's status change.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "replicates.storage", havingValue = "split")
+class SplitReplicatesStore implements ReplicatesStore {
+
+    static final String REPLICATE_COLLECTION = "replicate";
+    static final String ARCHIVE_COLLECTION = "replicate_archive";
+    static final String SLOT_FIELD = "slot";
+    static final String VERSION_FIELD = "version";
+
+    private MongoTemplate mongoTemplate;
+
+    SplitReplicatesStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    void createIndexes() {
+        mongoTemplate.indexOps(REPLICATE_COLLECTION).ensureIndex(new Index()
+                .on("chainTaskId", Sort.Direction.ASC)
+                .on("walletAddress", Sort.Direction.ASC)
+                .unique()
+                .named("chainTaskId_walletAddress"));
+        mongoTemplate.indexOps(REPLICATE_COLLECTION).ensureIndex(new Index()
+                .on("chainTaskId", Sort.Direction.ASC)
+                .on(SLOT_FIELD, Sort.Direction.ASC)
+                .unique()
+                .partial(PartialIndexFilter.of(where(SLOT_FIELD).exists(true)))
+                .named("chainTaskId_slot"));
+        mongoTemplate.indexOps(ARCHIVE_COLLECTION).ensureIndex(new Index()
+                .on("chainTaskId", Sort.Direction.ASC)
+                .on("walletAddress", Sort.Direction.ASC)
+                .unique()
+                .named("chainTaskId_walletAddress"));
+    }
+
+    @Override
+    public void createEmptyReplicateList(String chainTaskId) {
+        // nothing to create, the list of a task is made of its replicate documents
+    }
+
+    @Override
+    public Optional<ReplicatesList> getReplicatesList(String chainTaskId) {
+        List<Replicate> replicates = mongoTemplate.find(getReplicatesQuery(chainTaskId),
+                Replicate.class, REPLICATE_COLLECTION);
+        if (replicates.isEmpty()) {
+            replicates = mongoTemplate.find(getReplicatesQuery(chainTaskId), Replicate.class, ARCHIVE_COLLECTION);
+        }
+        return Optional.of(new ReplicatesList(chainTaskId, replicates));
+    }
+
+    @Override
+    public boolean hasReplicate(String chainTaskId, String walletAddress) {
+        return mongoTemplate.exists(getReplicateQuery(chainTaskId, walletAddress), REPLICATE_COLLECTION);
+    }
+
+    /*
+     * A single insert: it fails on the unique (chainTaskId, slot) index when another replicate was added since the
+     * nbReplicates were read, and on the unique (chainTaskId, walletAddress) index when the worker already has one.
+     */
+    @Override
+    public boolean reserveReplicate(String chainTaskId, int nbReplicates, Replicate replicate) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(replicate, document);
+        document.put(SLOT_FIELD, nbReplicates);
+        try {
+            mongoTemplate.insert(document, REPLICATE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void updateReplicate(ReplicatesList replicatesList, Replicate replicate) {
+        Update update = new Update()
+                .set("statusChangeList", replicate.getStatusChangeList())
+                .set("resultUri", replicate.getResultUri())
+                .set("contributionHash", replicate.getContributionHash())
+                .set("credibility", replicate.getCredibility())
+                .inc(VERSION_FIELD, 1);
+        Query replicateQuery = getReplicateQuery(replicate.getChainTaskId(), replicate.getWalletAddress());
+        // a null version also matches the replicates never updated
+        Query readVersionQuery = getReplicateQuery(replicate.getChainTaskId(), replicate.getWalletAddress())
+                .addCriteria(where(VERSION_FIELD).is(replicate.getVersion()));
+        UpdateResult result = mongoTemplate.updateFirst(readVersionQuery, update, REPLICATE_COLLECTION);
+        if (result.getMatchedCount() > 0) {
+            return;
+        }
+        if (mongoTemplate.exists(replicateQuery, REPLICATE_COLLECTION)) {
+            throw new OptimisticLockingFailureException("Replicate updated since it was read [chainTaskId:" +
+                    replicate.getChainTaskId() + ", walletAddress:" + replicate.getWalletAddress() + "]");
+        }
+        log.warn("Replicate archived before its update [chainTaskId:{}, walletAddress:{}]",
+                replicate.getChainTaskId(), replicate.getWalletAddress());
+    }
+
+    @Override
+    public void archiveReplicatesList(String chainTaskId) {
+        List<Replicate> replicates = mongoTemplate.find(getReplicatesQuery(chainTaskId),
+                Replicate.class, REPLICATE_COLLECTION);
+        if (replicates.isEmpty()) {
+            return;
+        }
+        mongoTemplate.remove(getReplicatesQuery(chainTaskId), ARCHIVE_COLLECTION);
+        mongoTemplate.insert(replicates, ARCHIVE_COLLECTION);
+        mongoTemplate.remove(getReplicatesQuery(chainTaskId), REPLICATE_COLLECTION);
+    }
+
+    private static Query getReplicatesQuery(String chainTaskId) {
+        return query(where("chainTaskId").is(chainTaskId));
+    }
+
+    private static Query getReplicateQuery(String chainTaskId, String walletAddress) {
+        return query(where("chainTaskId").is(chainTaskId).and("walletAddress").is(walletAddress));
+    }
+}
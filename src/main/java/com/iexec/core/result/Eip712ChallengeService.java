@@ -2,29 +2,22 @@ package com.iexec.core.result;
 
 import com.iexec.common.result.eip712.Eip712Challenge;
 import com.iexec.common.result.eip712.Eip712ChallengeUtils;
+import com.iexec.core.security.AuthStore;
 import lombok.extern.slf4j.Slf4j;
-import net.jodah.expiringmap.ExpirationPolicy;
-import net.jodah.expiringmap.ExpiringMap;
 import org.apache.tomcat.util.codec.binary.Base64;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class Eip712ChallengeService {
 
-    private int challengeId;
-    private ExpiringMap<Integer, String> challengeMap;
+    // the challenges are kept by the AuthStore for an hour, so that a result may be downloaded from any scheduler
+    private AuthStore authStore;
 
-    Eip712ChallengeService() {
-        this.challengeMap = ExpiringMap.builder()
-                .expiration(60, TimeUnit.MINUTES)
-                .expirationPolicy(ExpirationPolicy.CREATED)
-                .build();
-        challengeId = 0;
+    Eip712ChallengeService(AuthStore authStore) {
+        this.authStore = authStore;
     }
 
     private static String generateRandomToken() {
@@ -41,20 +34,16 @@ public class Eip712ChallengeService {
     }
 
     private void saveEip712ChallengeString(String eip712ChallengeString) {
-        challengeId++;
-        challengeMap.put(challengeId, eip712ChallengeString);
+        authStore.addEip712Challenge(eip712ChallengeString);
     }
 
     boolean containsEip712ChallengeString(String eip712ChallengeString) {
-        return challengeMap.containsValue(eip712ChallengeString);
+        return authStore.containsEip712Challenge(eip712ChallengeString);
     }
 
-    void invalidateEip712ChallengeString(String eip712ChallengeString) {
-        for (Map.Entry<Integer, String> entry : challengeMap.entrySet()) {
-            if (entry.getValue().equals(eip712ChallengeString)) {
-                challengeMap.remove(entry.getKey());
-            }
-        }
+    // false when the challenge has already been used (or has expired) in the meantime
+    boolean invalidateEip712ChallengeString(String eip712ChallengeString) {
+        return authStore.removeEip712Challenge(eip712ChallengeString);
     }
 
 }
@@ -39,7 +39,8 @@ public class ResultController {
         
         // TODO check if the result to be added is the correct result for that task
         
-        if (!authorizedAndCanUploadResult) {
+        // the challenge is used once: a concurrent request with the same one (even on another scheduler) is refused
+        if (!authorizedAndCanUploadResult || !challengeService.invalidateEip712ChallengeString(auth.getChallenge())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED.value()).build();
         }
 
@@ -59,8 +60,6 @@ public class ResultController {
         log.info("Result uploaded successfully [chainTaskId:{}, uploadRequester:{}]",
                 model.getChainTaskId(), auth.getWalletAddress());
 
-        challengeService.invalidateEip712ChallengeString(auth.getChallenge());
-
         return ok(filename);
     }
 
@@ -80,8 +79,10 @@ public class ResultController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND.value()).build();
         }
 
-        challengeService.invalidateEip712ChallengeString(auth.getChallenge());
-        
+        if (!challengeService.invalidateEip712ChallengeString(auth.getChallenge())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED.value()).build();
+        }
+
         return ResponseEntity.status(HttpStatus.NO_CONTENT.value()).build();
     }
 
@@ -115,7 +116,9 @@ public class ResultController {
             return new ResponseEntity(HttpStatus.UNAUTHORIZED);
         }
 
-        challengeService.invalidateEip712ChallengeString(auth.getChallenge());
+        if (!challengeService.invalidateEip712ChallengeString(auth.getChallenge())) {
+            return new ResponseEntity(HttpStatus.UNAUTHORIZED);
+        }
 
         byte[] zip = resultService.getResultByChainTaskId(chainTaskId);
         return ResponseEntity.ok()
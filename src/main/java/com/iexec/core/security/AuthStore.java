@@ -0,0 +1,27 @@
+package com.iexec.core.security;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication state of the scheduler, selected with the "auth.store" property:
+ * - local (default): held in memory, lost on restart
+ * - mongo: shared by the schedulers of a cluster and kept across restarts, so that a worker logged in on one scheduler
+ * is accepted by the others (always used with the cluster enabled or a persistent session)
+ */
+public interface AuthStore {
+
+    long CHALLENGE_VALIDITY = TimeUnit.MINUTES.toMillis(60);
+
+    // the challenge already given to the worker if it is still valid, otherwise the given one once stored
+    String putChallengeIfAbsent(String walletAddress, String challenge);
+
+    // the key signing the JWTs if there is one already, otherwise the given one once stored
+    String putSigningKeyIfAbsent(String signingKey);
+
+    void addEip712Challenge(String eip712Challenge);
+
+    boolean containsEip712Challenge(String eip712Challenge);
+
+    // true only for the call which removed the (still valid) challenge: a challenge is used once, even across schedulers
+    boolean removeEip712Challenge(String eip712Challenge);
+}
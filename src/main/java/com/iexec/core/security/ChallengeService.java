@@ -1,29 +1,19 @@
 package com.iexec.core.security;
 
-import net.jodah.expiringmap.ExpirationPolicy;
-import net.jodah.expiringmap.ExpiringMap;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
-
 @Service
 public class ChallengeService {
 
-    // Map <WorkerWalletAdress, Challenge>
-    // this map will automatically delete entries older than one hour, ExpiringMap is thread-safe
-    private ExpiringMap<String, String> challengeMap;
+    // the challenge of a worker is kept by the AuthStore for an hour after it was created
+    private AuthStore authStore;
 
-    ChallengeService() {
-        this.challengeMap = ExpiringMap.builder()
-                .expiration(60, TimeUnit.MINUTES)
-                .expirationPolicy(ExpirationPolicy.CREATED)
-                .build();
+    ChallengeService(AuthStore authStore) {
+        this.authStore = authStore;
     }
 
     public String getChallenge(String workerWallet) {
-        String challenge = RandomStringUtils.randomAlphabetic(10);
-        challengeMap.putIfAbsent(workerWallet, challenge);
-        return challengeMap.get(workerWallet);
+        return authStore.putChallengeIfAbsent(workerWallet, RandomStringUtils.randomAlphabetic(10));
     }
 }
@@ -5,10 +5,10 @@ import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.Date;
 
@@ -17,16 +17,21 @@ import java.util.Date;
 public class JwtTokenProvider {
 
     private ChallengeService challengeService;
+    private AuthStore authStore;
     private String secretKey;
 
-    public JwtTokenProvider(ChallengeService challengeService) {
+    public JwtTokenProvider(ChallengeService challengeService,
+                            AuthStore authStore) {
         this.challengeService = challengeService;
-        this.secretKey = RandomStringUtils.randomAlphanumeric(10);
+        this.authStore = authStore;
     }
 
+    // the key is shared through the AuthStore: the tokens are accepted by every scheduler, and after a restart
     @PostConstruct
     protected void init() {
-        secretKey = Base64.getEncoder().encodeToString(secretKey.getBytes());
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        secretKey = authStore.putSigningKeyIfAbsent(Base64.getEncoder().encodeToString(key));
     }
 
     public String createToken(String walletAddress) {
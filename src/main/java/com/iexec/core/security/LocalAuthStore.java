@@ -0,0 +1,59 @@
+package com.iexec.core.security;
+
+import net.jodah.expiringmap.ExpirationPolicy;
+import net.jodah.expiringmap.ExpiringMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+// the authentication state is always kept in the database with the cluster enabled or a persistent session
+@ConditionalOnExpression("'${auth.store:local}' == 'local' and !${cluster.enabled:false} and !${session.persistent:false}")
+class LocalAuthStore implements AuthStore {
+
+    // these maps will automatically delete entries older than the challenge validity, ExpiringMap is thread-safe
+    private ExpiringMap<String, String> challengeMap;
+    private ExpiringMap<String, Boolean> eip712ChallengeMap;
+    private String signingKey;
+
+    LocalAuthStore() {
+        this.challengeMap = ExpiringMap.builder()
+                .expiration(CHALLENGE_VALIDITY, TimeUnit.MILLISECONDS)
+                .expirationPolicy(ExpirationPolicy.CREATED)
+                .build();
+        this.eip712ChallengeMap = ExpiringMap.builder()
+                .expiration(CHALLENGE_VALIDITY, TimeUnit.MILLISECONDS)
+                .expirationPolicy(ExpirationPolicy.CREATED)
+                .build();
+    }
+
+    @Override
+    public String putChallengeIfAbsent(String walletAddress, String challenge) {
+        String existingChallenge = challengeMap.putIfAbsent(walletAddress, challenge);
+        return existingChallenge != null ? existingChallenge : challenge;
+    }
+
+    @Override
+    public synchronized String putSigningKeyIfAbsent(String signingKey) {
+        if (this.signingKey == null) {
+            this.signingKey = signingKey;
+        }
+        return this.signingKey;
+    }
+
+    @Override
+    public void addEip712Challenge(String eip712Challenge) {
+        eip712ChallengeMap.put(eip712Challenge, true);
+    }
+
+    @Override
+    public boolean containsEip712Challenge(String eip712Challenge) {
+        return eip712ChallengeMap.containsKey(eip712Challenge);
+    }
+
+    @Override
+    public boolean removeEip712Challenge(String eip712Challenge) {
+        return eip712ChallengeMap.remove(eip712Challenge) != null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.iexec.core.security;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jodah.expiringmap.ExpirationPolicy;
+import net.jodah.expiringmap.ExpiringMap;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static com.iexec.core.utils.DateTimeUtils.now;
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * The challenges and the signing key are documents of the "auth_store" collection, removed by a TTL index once
+ * expired (the signing key has no expiration date). A stored value never changes during its validity: it is cached
+ * locally until it expires, so that checking the JWT of a worker doesn't read the database. The EIP712 challenges are
+ * used once, they are always read from the database and are consumed by a single remove, so that two schedulers
+ * can't both accept the same one.
+ *
+ * It is also the store of a scheduler with the cluster enabled or a persistent session, whatever "auth.store": the JWTs
+ * of the workers must stay valid as long as the session does.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${auth.store:local}' == 'mongo' or ${cluster.enabled:false} or ${session.persistent:false}")
+class MongoAuthStore implements AuthStore {
+
+    static final String AUTH_COLLECTION = "auth_store";
+    private static final String CHALLENGE_PREFIX = "challenge:";
+    private static final String EIP712_CHALLENGE_PREFIX = "eip712:";
+    private static final String SIGNING_KEY_ID = "signingKey";
+
+    private MongoTemplate mongoTemplate;
+    private ExpiringMap<String, String> cache;
+    private volatile String signingKey;
+
+    MongoAuthStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.cache = ExpiringMap.builder()
+                .variableExpiration()
+                .build();
+    }
+
+    @PostConstruct
+    void createIndexes() {
+        mongoTemplate.indexOps(AUTH_COLLECTION).ensureIndex(new Index()
+                .on("expirationDate", Sort.Direction.ASC)
+                .expire(0)
+                .named("expirationDate"));
+    }
+
+    @Override
+    public String putChallengeIfAbsent(String walletAddress, String challenge) {
+        String id = CHALLENGE_PREFIX + walletAddress;
+        String cachedChallenge = cache.get(id);
+        if (cachedChallenge != null) {
+            return cachedChallenge;
+        }
+        Document stored = putIfAbsent(id, challenge, new Date(now() + CHALLENGE_VALIDITY));
+        long validity = stored.getDate("expirationDate").getTime() - now();
+        if (validity > 0) {
+            cache.put(id, stored.getString("value"), ExpirationPolicy.CREATED, validity, TimeUnit.MILLISECONDS);
+        }
+        return stored.getString("value");
+    }
+
+    @Override
+    public String putSigningKeyIfAbsent(String signingKey) {
+        if (this.signingKey == null) {
+            this.signingKey = putIfAbsent(SIGNING_KEY_ID, signingKey, null).getString("value");
+        }
+        return this.signingKey;
+    }
+
+    @Override
+    public void addEip712Challenge(String eip712Challenge) {
+        mongoTemplate.upsert(query(where("_id").is(EIP712_CHALLENGE_PREFIX + eip712Challenge)), new Update()
+                        .set("value", eip712Challenge)
+                        .set("expirationDate", new Date(now() + CHALLENGE_VALIDITY)),
+                AUTH_COLLECTION);
+    }
+
+    @Override
+    public boolean containsEip712Challenge(String eip712Challenge) {
+        return mongoTemplate.exists(query(where("_id").is(EIP712_CHALLENGE_PREFIX + eip712Challenge)
+                .and("expirationDate").gt(new Date())), AUTH_COLLECTION);
+    }
+
+    @Override
+    public boolean removeEip712Challenge(String eip712Challenge) {
+        return mongoTemplate.remove(query(where("_id").is(EIP712_CHALLENGE_PREFIX + eip712Challenge)
+                .and("expirationDate").gt(new Date())), AUTH_COLLECTION).getDeletedCount() == 1;
+    }
+
+    /*
+     * The TTL index only removes the expired documents every minute: an expired value still there is removed first.
+     * When two schedulers insert the same value at once, the one failing on the duplicate key reads the other's.
+     */
+    private Document putIfAbsent(String id, String value, Date expirationDate) {
+        mongoTemplate.remove(query(where("_id").is(id).and("expirationDate").lt(new Date())), AUTH_COLLECTION);
+        Update update = new Update().setOnInsert("value", value);
+        if (expirationDate != null) {
+            update.setOnInsert("expirationDate", expirationDate);
+        }
+        try {
+            return mongoTemplate.findAndModify(query(where("_id").is(id)), update,
+                    options().upsert(true).returnNew(true), Document.class, AUTH_COLLECTION);
+        } catch (DuplicateKeyException e) {
+            log.debug("Value stored concurrently [id:{}]", id);
+            return mongoTemplate.findOne(query(where("_id").is(id)), Document.class, AUTH_COLLECTION);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.iexec.core.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Priority queue of the tasks open to new replicates (INITIALIZED or RUNNING): the task closest to its contribution
+ * deadline comes first and, for the same deadline, the one still missing the most replicates. It is maintained
+ * incrementally by the TaskRegistry (each change is a removal and an insertion in a sorted set, O(log n)) under its
+ * write lock, whereas the tasks to supply are walked without lock (the walk is weakly consistent: a task updated in
+ * the meantime may be missed or met twice).
+ *
+ * The number of missing replicates is an estimate (needed workers minus replicates reserved and not failed since the
+ * task was opened): whether a task really needs a replicate is decided when reserving it. A task missing no replicate
+ * is not supplied, it is only checked again once per period (a replicate taking too long is then doubled).
+ */
+class OpenTaskQueue {
+
+    private static final List<TaskStatus> OPEN_STATUSES = Arrays.asList(TaskStatus.INITIALIZED, TaskStatus.RUNNING);
+
+    private static final Comparator<Entry> PRIORITY = Comparator.comparingLong(Entry::getContributionDeadline)
+            .thenComparing(Comparator.comparingInt(Entry::getNbMissingReplicates).reversed())
+            .thenComparing(Entry::getChainTaskId);
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(PRIORITY);
+    private final Map<String, Entry> entriesByChainTaskId = new ConcurrentHashMap<>();
+
+    static boolean isOpen(TaskStatus status) {
+        return OPEN_STATUSES.contains(status);
+    }
+
+    void put(Task task) {
+        String chainTaskId = task.getChainTaskId();
+        Entry previous = entriesByChainTaskId.remove(chainTaskId);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+        if (!isOpen(task.getCurrentStatus())) {
+            return;
+        }
+
+        // a task coming back to an open status (reopened) left the queue in between: it needs all its replicates again
+        if (previous != null) {
+            add(previous.withDeadline(getDeadline(task), task.getNumWorkersNeeded(), getPeriod(task)));
+        } else {
+            add(new Entry(chainTaskId, getDeadline(task), task.getNumWorkersNeeded(), getPeriod(task), 0, 0));
+        }
+    }
+
+    void remove(String chainTaskId) {
+        Entry previous = entriesByChainTaskId.remove(chainTaskId);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+    }
+
+    void onReplicateReserved(String chainTaskId, long now) {
+        Entry previous = entriesByChainTaskId.remove(chainTaskId);
+        if (previous == null) {
+            return;
+        }
+        entries.remove(previous);
+        add(previous.withNbReservedReplicates(previous.getNbReservedReplicates() + 1, now + previous.getPeriod()));
+    }
+
+    // a failed replicate (or one of a lost worker) no longer counts for the task
+    void onReplicateReleased(String chainTaskId) {
+        Entry previous = entriesByChainTaskId.remove(chainTaskId);
+        if (previous == null) {
+            return;
+        }
+        entries.remove(previous);
+        add(previous.withNbReservedReplicates(Math.max(0, previous.getNbReservedReplicates() - 1),
+                previous.getNextCheckTime()));
+    }
+
+    // the check of a task missing no replicate found it still full: it is checked again in a period
+    void onNoReplicateNeeded(String chainTaskId, long now) {
+        Entry previous = entriesByChainTaskId.get(chainTaskId);
+        if (previous == null || previous.getNbMissingReplicates() > 0) {
+            return;
+        }
+        entriesByChainTaskId.remove(chainTaskId);
+        entries.remove(previous);
+        add(previous.withNbReservedReplicates(previous.getNbReservedReplicates(), now + previous.getPeriod()));
+    }
+
+    Optional<String> peek() {
+        return entries.isEmpty() ? Optional.empty() : Optional.of(entries.first().getChainTaskId());
+    }
+
+    // walked lazily, the caller usually stops at one of the first tasks
+    Stream<String> getChainTaskIdsToSupply(long now) {
+        return entries.stream()
+                .filter(entry -> entry.getNbMissingReplicates() > 0 || now >= entry.getNextCheckTime())
+                .map(Entry::getChainTaskId);
+    }
+
+    List<String> getChainTaskIds() {
+        List<String> chainTaskIds = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            chainTaskIds.add(entry.getChainTaskId());
+        }
+        return chainTaskIds;
+    }
+
+    void clear() {
+        entries.clear();
+        entriesByChainTaskId.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void add(Entry entry) {
+        entries.add(entry);
+        entriesByChainTaskId.put(entry.getChainTaskId(), entry);
+    }
+
+    // a task without deadline yet goes after the others
+    private static long getDeadline(Task task) {
+        return task.getContributionDeadline() != null ? task.getContributionDeadline().getTime() : Long.MAX_VALUE;
+    }
+
+    private static long getPeriod(Task task) {
+        return task.getTimeRef() != null ? task.getTimeRef().getTime() : 0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class Entry {
+        private final String chainTaskId;
+        private final long contributionDeadline;
+        private final int nbWorkersNeeded;
+        private final long period;
+        private final int nbReservedReplicates;
+        // only for a task missing no replicate: when it is checked again
+        private final long nextCheckTime;
+
+        int getNbMissingReplicates() {
+            return Math.max(0, nbWorkersNeeded - nbReservedReplicates);
+        }
+
+        Entry withDeadline(long contributionDeadline, int nbWorkersNeeded, long period) {
+            return new Entry(chainTaskId, contributionDeadline, nbWorkersNeeded, period, nbReservedReplicates,
+                    nextCheckTime);
+        }
+
+        Entry withNbReservedReplicates(int nbReservedReplicates, long nextCheckTime) {
+            return new Entry(chainTaskId, contributionDeadline, nbWorkersNeeded, period, nbReservedReplicates,
+                    nextCheckTime);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.iexec.core.task;
+
+import com.iexec.common.chain.ContributionAuthorization;
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.common.tee.TeeUtils;
+import com.iexec.core.chain.SignatureService;
+import com.iexec.core.pubsub.NotificationService;
+import com.iexec.core.replicate.Replicate;
+import com.iexec.core.replicate.ReplicatesService;
+import com.iexec.core.utils.ThreadPoolExecutorUtils;
+import com.iexec.core.worker.Worker;
+import com.iexec.core.worker.WorkerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.springframework.http.ResponseEntity.ok;
+import static org.springframework.http.ResponseEntity.status;
+
+/**
+ * Hands out replicates to workers, either when a worker asks for one (GET /tasks/available) or, in push mode, by
+ * offering them to the idle workers listening to their replicate queue as soon as a task needs more replicates.
+ * Workers that did not subscribe to the replicate queue keep on polling. A worker asking with a wait timeout while
+ * nothing is available has its request parked until a task needs more replicates (or until the timeout).
+ */
+@Slf4j
+@Service
+public class ReplicateSupplyService {
+
+    @Value("${workers.pushReplicates}")
+    private boolean pushReplicates;
+
+    @Value("${workers.maxReplicateWaitTimeout}")
+    private long maxReplicateWaitTimeout;
+
+    private TaskService taskService;
+    private WorkerService workerService;
+    private ReplicatesService replicatesService;
+    private SignatureService signatureService;
+    private NotificationService notificationService;
+    private SimpUserRegistry simpUserRegistry;
+
+    // a single offering round at a time, with at most one round waiting: a waiting round sees every change made before
+    // it starts so any additional request can be dropped
+    private ThreadPoolExecutor offeringExecutor;
+
+    // at most one parked request per worker, served in arrival order
+    private final Map<String, DeferredResult<ResponseEntity>> parkedRequests =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public ReplicateSupplyService(TaskService taskService,
+                                  WorkerService workerService,
+                                  ReplicatesService replicatesService,
+                                  SignatureService signatureService,
+                                  NotificationService notificationService,
+                                  SimpUserRegistry simpUserRegistry) {
+        this.taskService = taskService;
+        this.workerService = workerService;
+        this.replicatesService = replicatesService;
+        this.signatureService = signatureService;
+        this.notificationService = notificationService;
+        this.simpUserRegistry = simpUserRegistry;
+        this.offeringExecutor = ThreadPoolExecutorUtils.singleThreadExecutorWithFixedSizeQueue(1);
+    }
+
+    @PreDestroy
+    void stop() {
+        offeringExecutor.shutdownNow();
+        for (DeferredResult<ResponseEntity> deferredResult : getParkedRequestsSnapshot().values()) {
+            deferredResult.setResult(status(HttpStatus.NO_CONTENT).build());
+        }
+    }
+
+    public Optional<ContributionAuthorization> getAuthorizationOfAvailableReplicate(String walletAddress) {
+        Optional<Replicate> optional = taskService.getAvailableReplicate(walletAddress);
+        if (!optional.isPresent()) {
+            return Optional.empty();
+        }
+        Replicate replicate = optional.get();
+
+        Optional<Task> taskOptional = taskService.getTaskByChainTaskId(replicate.getChainTaskId());
+        if (!taskOptional.isPresent()) {
+            return Optional.empty();
+        }
+        Task task = taskOptional.get();
+
+        return Optional.of(signatureService.createAuthorization(
+                walletAddress, task.getChainTaskId(), TeeUtils.isTrustedExecutionTag(task.getTag())));
+    }
+
+    /*
+     * The request is answered with 204 when its wait timeout expires. A replicate freed between the first attempt and
+     * the parking of the request is only seen on the next offering round, at worst the worker asks again after the
+     * timeout.
+     */
+    public DeferredResult<ResponseEntity> parkRequest(String walletAddress, long waitTimeout) {
+        long timeout = Math.min(waitTimeout, maxReplicateWaitTimeout);
+        DeferredResult<ResponseEntity> deferredResult = new DeferredResult<>(timeout);
+        deferredResult.onTimeout(() -> deferredResult.setResult(status(HttpStatus.NO_CONTENT).build()));
+        deferredResult.onCompletion(() -> parkedRequests.remove(walletAddress, deferredResult));
+
+        DeferredResult<ResponseEntity> previous;
+        synchronized (parkedRequests) {
+            previous = parkedRequests.remove(walletAddress);
+            parkedRequests.put(walletAddress, deferredResult);
+        }
+        if (previous != null) {
+            previous.setResult(status(HttpStatus.NO_CONTENT).build());
+        }
+        log.debug("Parked replicate request [walletAddress:{}, timeout:{}]", walletAddress, timeout);
+        return deferredResult;
+    }
+
+    public int getNbParkedRequests() {
+        return parkedRequests.size();
+    }
+
+    public void offerAvailableReplicates() {
+        offeringExecutor.execute(() -> {
+            serveParkedRequests();
+            if (pushReplicates) {
+                pushReplicatesToListeningWorkers();
+            }
+        });
+    }
+
+    void serveParkedRequests() {
+        int nbServed = 0;
+        for (Map.Entry<String, DeferredResult<ResponseEntity>> entry : getParkedRequestsSnapshot().entrySet()) {
+            String walletAddress = entry.getKey();
+            DeferredResult<ResponseEntity> deferredResult = entry.getValue();
+            if (deferredResult.isSetOrExpired()) {
+                continue;
+            }
+
+            Optional<ContributionAuthorization> authorization = getAuthorizationOfAvailableReplicate(walletAddress);
+            if (!authorization.isPresent()) {
+                continue;
+            }
+            if (deferredResult.setResult(ok(authorization.get()))) {
+                parkedRequests.remove(walletAddress, deferredResult);
+                nbServed++;
+            } else {
+                // expired in the meantime: the worker will never know about its replicate, the slots are freed
+                String chainTaskId = authorization.get().getChainTaskId();
+                log.warn("Parked replicate request expired before being served [chainTaskId:{}, walletAddress:{}]",
+                        chainTaskId, walletAddress);
+                releaseReplicate(chainTaskId, walletAddress);
+            }
+        }
+        if (nbServed > 0) {
+            log.info("Served parked replicate requests [nbServed:{}]", nbServed);
+        }
+    }
+
+    // like a lost worker: the replicate no longer counts for the task and the worker gets its computing slot back
+    private void releaseReplicate(String chainTaskId, String walletAddress) {
+        workerService.removeChainTaskIdFromWorker(chainTaskId, walletAddress);
+        replicatesService.updateReplicateStatus(chainTaskId, walletAddress,
+                ReplicateStatus.WORKER_LOST, ReplicateStatusModifier.POOL_MANAGER);
+    }
+
+    private Map<String, DeferredResult<ResponseEntity>> getParkedRequestsSnapshot() {
+        synchronized (parkedRequests) {
+            return new LinkedHashMap<>(parkedRequests);
+        }
+    }
+
+    void pushReplicatesToListeningWorkers() {
+        int nbOffers = 0;
+        for (Worker worker : workerService.getAliveWorkers()) {
+            String walletAddress = worker.getWalletAddress();
+            if (!isListeningToReplicateOffers(walletAddress)) {
+                continue;
+            }
+
+            // at most one offer per free slot of the worker
+            int nbFreeSlots = worker.getCpuNb() - worker.getComputingChainTaskIds().size();
+            for (int i = 0; i < nbFreeSlots; i++) {
+                Optional<ContributionAuthorization> authorization = getAuthorizationOfAvailableReplicate(walletAddress);
+                if (!authorization.isPresent()) {
+                    break;
+                }
+                notificationService.sendContributionAuthorization(walletAddress, authorization.get());
+                nbOffers++;
+            }
+        }
+        log.info("Offered available replicates [nbOffers:{}]", nbOffers);
+    }
+
+    boolean isListeningToReplicateOffers(String walletAddress) {
+        SimpUser user = simpUserRegistry.getUser(walletAddress);
+        if (user == null) {
+            return false;
+        }
+        return user.getSessions().stream()
+                .flatMap(session -> session.getSubscriptions().stream())
+                .anyMatch(subscription ->
+                        NotificationService.WORKER_REPLICATE_SUBSCRIPTION.equals(subscription.getDestination()));
+    }
+}
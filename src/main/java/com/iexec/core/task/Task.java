@@ -4,9 +4,14 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.iexec.common.chain.ChainReceipt;
 import com.iexec.common.chain.ChainUtils;
 import com.iexec.common.dapp.DappType;
+import com.iexec.core.utils.StatusHistoryUtils;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -20,7 +25,13 @@ import static com.iexec.core.task.TaskStatus.CONSENSUS_REACHED;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
+@Document
+@CompoundIndexes({
+        @CompoundIndex(name = "chainDealId_taskIndex", def = "{'chainDealId': 1, 'taskIndex': 1}"),
+        // finished tasks to archive (see TaskArchiveService)
+        @CompoundIndex(name = "currentStatus_statusDate", def = "{'currentStatus': 1, 'dateStatusList.date': 1}")
+})
 public class Task {
 
     @Id
@@ -33,11 +44,15 @@ public class Task {
     private int taskIndex;
     private Date timeRef;
     private String tag;
+    @Indexed(unique = true)
     private String chainTaskId;
+
     private DappType dappType;
     private String dappName;
     private String commandLine;
+    @Indexed
     private TaskStatus currentStatus;
+
     private List<TaskStatusChange> dateStatusList;
     private int trust;
     private int numWorkersNeeded;
@@ -84,6 +99,7 @@ public class Task {
     public void changeStatus(TaskStatus status, ChainReceipt chainReceipt) {
         setCurrentStatus(status);
         this.getDateStatusList().add(new TaskStatusChange(status, chainReceipt));
+        StatusHistoryUtils.compact(this.getDateStatusList(), TaskStatusChange::getStatus);
     }
 
     @JsonIgnore
@@ -0,0 +1,125 @@
+package com.iexec.core.task;
+
+import com.iexec.core.cluster.LeaderElectionService;
+import com.iexec.core.replicate.ReplicatesService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static com.iexec.core.utils.DateTimeUtils.now;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Once a task has been in a final status for longer than the retention, it is moved (with its replicates) from the
+ * collections queried by the scheduler to archive collections. Archived tasks and replicates are still returned by
+ * the TaskService and the ReplicatesService when they are not found in the hot collections. With the cluster enabled,
+ * only the leader archives.
+ */
+@Slf4j
+@Service
+public class TaskArchiveService {
+
+    static final String TASK_ARCHIVE_COLLECTION = "task_archive";
+
+    @Value("${archive.retention}")
+    private long retention;
+
+    @Value("${archive.batchSize}")
+    private int batchSize;
+
+    private TaskRepository taskRepository;
+    private ReplicatesService replicatesService;
+    private MongoTemplate mongoTemplate;
+    private LeaderElectionService leaderElectionService;
+
+    public TaskArchiveService(TaskRepository taskRepository,
+                              ReplicatesService replicatesService,
+                              MongoTemplate mongoTemplate,
+                              LeaderElectionService leaderElectionService) {
+        this.taskRepository = taskRepository;
+        this.replicatesService = replicatesService;
+        this.mongoTemplate = mongoTemplate;
+        this.leaderElectionService = leaderElectionService;
+    }
+
+    @PostConstruct
+    void createIndexes() {
+        mongoTemplate.indexOps(TASK_ARCHIVE_COLLECTION).ensureIndex(new Index()
+                .on("chainTaskId", Sort.Direction.ASC)
+                .unique()
+                .named("chainTaskId"));
+        mongoTemplate.indexOps(TASK_ARCHIVE_COLLECTION).ensureIndex(new Index()
+                .on("chainDealId", Sort.Direction.ASC)
+                .on("taskIndex", Sort.Direction.ASC)
+                .named("chainDealId_taskIndex"));
+    }
+
+    @Scheduled(fixedRateString = "${archive.period}")
+    public void archiveFinishedTasks() {
+        if (!leaderElectionService.isLeader()) {
+            return;
+        }
+        int nbArchived = 0;
+        for (Task task : mongoTemplate.find(getTasksToArchiveQuery(new Date(now() - retention)), Task.class)) {
+            if (archiveTask(task)) {
+                nbArchived++;
+            }
+        }
+        if (nbArchived > 0) {
+            log.info("Archived finished tasks [nbTasks:{}, retention:{}]", nbArchived, retention);
+        }
+    }
+
+    /*
+     * The replicates are archived first and the task is removed from the hot collection last: if anything fails in
+     * between, the task is archived again on the next run (a previous archived copy is replaced).
+     */
+    boolean archiveTask(Task task) {
+        String chainTaskId = task.getChainTaskId();
+        try {
+            replicatesService.archiveReplicatesList(chainTaskId);
+            mongoTemplate.remove(getTaskQuery(chainTaskId), TASK_ARCHIVE_COLLECTION);
+            mongoTemplate.insert(task, TASK_ARCHIVE_COLLECTION);
+            taskRepository.delete(task);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to archive task [chainTaskId:{}, exception:{}]", chainTaskId, e.getMessage());
+            return false;
+        }
+    }
+
+    /*
+     * A final status is the last one of a task: the task reached it before the retention limit when its final status
+     * change is older. Only a batch is read, with the currentStatus_statusDate index of the Task.
+     */
+    Query getTasksToArchiveQuery(Date retentionLimit) {
+        List<TaskStatus> finalStatuses = TaskStatus.getFinalStatuses();
+        return query(where("currentStatus").in(finalStatuses)
+                .and("dateStatusList").elemMatch(where("status").in(finalStatuses).and("date").lt(retentionLimit)))
+                .limit(batchSize);
+    }
+
+    Optional<Task> getArchivedTask(String chainTaskId) {
+        return Optional.ofNullable(mongoTemplate.findOne(getTaskQuery(chainTaskId), Task.class, TASK_ARCHIVE_COLLECTION));
+    }
+
+    boolean isArchived(String chainDealId, int taskIndex) {
+        return mongoTemplate.exists(query(where("chainDealId").is(chainDealId).and("taskIndex").is(taskIndex)),
+                TASK_ARCHIVE_COLLECTION);
+    }
+
+    private static Query getTaskQuery(String chainTaskId) {
+        return query(where("chainTaskId").is(chainTaskId));
+    }
+}
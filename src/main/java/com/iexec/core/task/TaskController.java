@@ -1,16 +1,18 @@
 package com.iexec.core.task;
 
 import com.iexec.common.chain.ContributionAuthorization;
-import com.iexec.common.tee.TeeUtils;
-import com.iexec.core.chain.SignatureService;
-import com.iexec.core.replicate.Replicate;
+import com.iexec.core.admission.AdmissionService;
+import com.iexec.core.metrics.MetricsService;
 import com.iexec.core.replicate.ReplicatesList;
 import com.iexec.core.replicate.ReplicatesService;
 import com.iexec.core.security.JwtTokenProvider;
+import com.iexec.core.task.lifecycle.TaskLifecycleModel;
+import com.iexec.core.task.lifecycle.TaskLifecycleService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.Optional;
 
@@ -21,18 +23,33 @@ import static org.springframework.http.ResponseEntity.status;
 public class TaskController {
 
     private TaskService taskService;
-    private SignatureService signatureService;
+    private ReplicateSupplyService replicateSupplyService;
     private ReplicatesService replicatesService;
     private JwtTokenProvider jwtTokenProvider;
+    private MetricsService metricsService;
+    private TaskLifecycleService taskLifecycleService;
+    private AdmissionService admissionService;
 
     public TaskController(TaskService taskService,
-                          SignatureService signatureService,
+                          ReplicateSupplyService replicateSupplyService,
                           ReplicatesService replicatesService,
-                          JwtTokenProvider jwtTokenProvider) {
+                          JwtTokenProvider jwtTokenProvider,
+                          MetricsService metricsService,
+                          TaskLifecycleService taskLifecycleService,
+                          AdmissionService admissionService) {
         this.taskService = taskService;
-        this.signatureService = signatureService;
+        this.replicateSupplyService = replicateSupplyService;
         this.replicatesService = replicatesService;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.metricsService = metricsService;
+        this.taskLifecycleService = taskLifecycleService;
+        this.admissionService = admissionService;
+    }
+
+    // percentiles of the duration of each phase of the tasks (ms), globally and per dapp, and the latest slow phases
+    @GetMapping("/tasks/lifecycle")
+    public ResponseEntity<TaskLifecycleModel> getTaskLifecycle() {
+        return ResponseEntity.ok(taskLifecycleService.getTaskLifecycle());
     }
 
     @GetMapping("/tasks/{chainTaskId}")
@@ -55,34 +72,43 @@ public class TaskController {
                 orElseGet(() -> status(HttpStatus.NO_CONTENT).build());
     }
 
+    /*
+     * With a waitTimeout (in ms), a worker asking while no replicate is available is not answered right away: its
+     * request is parked until a replicate can be given to it or until the timeout (then 204).
+     */
     @RequestMapping(method = RequestMethod.GET, path = "/tasks/available")
-    public ResponseEntity getAvailableReplicate(@RequestHeader("Authorization") String bearerToken) {
+    public DeferredResult<ResponseEntity> getAvailableReplicate(@RequestHeader("Authorization") String bearerToken,
+                                                                @RequestParam(name = "waitTimeout", required = false, defaultValue = "0") long waitTimeout) {
+        DeferredResult<ResponseEntity> result = new DeferredResult<>();
         String workerWalletAddress = jwtTokenProvider.getWalletAddressFromBearerToken(bearerToken);
         if (workerWalletAddress.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED.value()).build();
+            result.setResult(ResponseEntity.status(HttpStatus.UNAUTHORIZED.value()).build());
+            return result;
         }
 
-        // get available replicate
-        Optional<Replicate> optional = taskService.getAvailableReplicate(workerWalletAddress);
-        if (!optional.isPresent()) {
-            return status(HttpStatus.NO_CONTENT).build();
+        Optional<ResponseEntity> rejection = admissionService.admit("/tasks/available", workerWalletAddress, true);
+        if (rejection.isPresent()) {
+            result.setResult(rejection.get());
+            return result;
         }
-        Replicate replicate = optional.get();
 
-        // get associated task
-        Optional<Task> taskOptional = taskService.getTaskByChainTaskId(replicate.getChainTaskId());
-        if (!taskOptional.isPresent()) {
-            return status(HttpStatus.NO_CONTENT).build();
+        // the time to find a replicate, not the time spent parked (which doesn't hold an admission slot either)
+        long start = System.nanoTime();
+        Optional<ContributionAuthorization> authorization;
+        try {
+            authorization = replicateSupplyService.getAuthorizationOfAvailableReplicate(workerWalletAddress);
+        } finally {
+            admissionService.release();
+        }
+        metricsService.recordAvailableReplicateRequest(System.nanoTime() - start, authorization.isPresent());
+        if (!authorization.isPresent() && waitTimeout > 0) {
+            return replicateSupplyService.parkRequest(workerWalletAddress, waitTimeout);
         }
-        Task task = taskOptional.get();
-
-        // generate contribution authorization
-        ContributionAuthorization authorization = signatureService.createAuthorization(
-                workerWalletAddress, task.getChainTaskId(), TeeUtils.isTrustedExecutionTag(task.getTag()));
 
-        return Optional.of(authorization).
+        result.setResult(authorization.
                 <ResponseEntity>map(ResponseEntity::ok)
-                .orElseGet(() -> status(HttpStatus.NO_CONTENT).build());
+                .orElseGet(() -> status(HttpStatus.NO_CONTENT).build()));
+        return result;
     }
 
     private Optional<TaskModel> createTaskModel(Task task,
@@ -1,35 +1,102 @@
 package com.iexec.core.task;
 
+import com.iexec.core.cluster.LeaderElectionService;
+import com.iexec.core.cluster.PartitionService;
+import com.iexec.core.cluster.TaskUpdateRequestService;
+import com.iexec.core.metrics.MetricsService;
+import com.iexec.core.tracing.TracingService;
 import com.iexec.core.utils.ThreadPoolExecutorUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is used to perform updates on a task one by one. It also ensures that no extra update is
  * performed for no reason (in the case of multiple replicate updates in a short time, the task update will only be called
  * once)
+ *
+ * With the cluster enabled, a task is only updated by the scheduler owning its partition: the update of a task owned
+ * by another scheduler is handed over to it. The leader updates any task, as it drives the ones waiting for a
+ * transaction (TaskService hands the update over again when the task turns out to be driven by another scheduler).
+ *
+ * On shutdown, the updates in progress are given task.shutdownTimeout to finish: a task isn't left in a status waiting
+ * for a transaction result (INITIALIZING, FINALIZING, ...) by a restart.
  */
+@Slf4j
 @Service
 public class TaskExecutorEngine {
 
+    @Value("${task.shutdownTimeout}")
+    private long shutdownTimeout;
+
     private TaskService taskService;
+    private TracingService tracingService;
+    private PartitionService partitionService;
+    private LeaderElectionService leaderElectionService;
+    private TaskUpdateRequestService taskUpdateRequestService;
     private Map<String, ThreadPoolExecutor> executorMap;
+    private volatile boolean stopping;
 
-    public TaskExecutorEngine(TaskService taskService) {
+    public TaskExecutorEngine(TaskService taskService,
+                              MetricsService metricsService,
+                              TracingService tracingService,
+                              PartitionService partitionService,
+                              LeaderElectionService leaderElectionService,
+                              TaskUpdateRequestService taskUpdateRequestService) {
         this.taskService = taskService;
+        this.tracingService = tracingService;
+        this.partitionService = partitionService;
+        this.leaderElectionService = leaderElectionService;
+        this.taskUpdateRequestService = taskUpdateRequestService;
         executorMap = new ConcurrentHashMap<>();
+        metricsService.registerTaskExecutorGauges(executorMap, Map::size,
+                executors -> executors.values().stream().mapToInt(executor -> executor.getQueue().size()).sum());
     }
 
     public void updateTask(String chainTaskId) {
+        if (stopping) {
+            return;
+        }
+        if (!partitionService.isOwner(chainTaskId) && !leaderElectionService.isLeader()) {
+            taskUpdateRequestService.requestUpdate(chainTaskId);
+            return;
+        }
 
         executorMap.putIfAbsent(chainTaskId, ThreadPoolExecutorUtils.singleThreadExecutorWithFixedSizeQueue(1));
 
+        // the update is traced as part of the request or event asking for it, with its wait in the executor queue
         Executor executor = executorMap.get(chainTaskId);
-        executor.execute(() -> taskService.tryUpgradeTaskStatus(chainTaskId));
+        long queuedAt = System.currentTimeMillis();
+        executor.execute(tracingService.wrap(() -> tracingService.runInSpan("update-task",
+                () -> taskService.tryUpgradeTaskStatus(chainTaskId),
+                "chainTaskId", chainTaskId, "queue.wait.ms", String.valueOf(System.currentTimeMillis() - queuedAt))));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // the updates submitted from now on are dropped, they are made again by the detectors after the restart
+        stopping = true;
+        executorMap.values().forEach(ThreadPoolExecutor::shutdown);
+        long deadline = System.currentTimeMillis() + shutdownTimeout;
+        try {
+            for (ThreadPoolExecutor executor : executorMap.values()) {
+                long timeout = deadline - System.currentTimeMillis();
+                if (timeout <= 0 || !executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long nbUnfinished = executorMap.values().stream().filter(executor -> !executor.isTerminated()).count();
+        log.info("Task updates stopped [nbExecutors:{}, nbUnfinished:{}]", executorMap.size(), nbUnfinished);
     }
 
     public void removeTaskExecutor(Task task){
@@ -0,0 +1,214 @@
+package com.iexec.core.task;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory copy of the tasks which are not in a final status, bucketed by current status. It is written through by
+ * the TaskService each time a task is saved, so that frequent lookups by status (detectors, replicate supply) don't
+ * hit the database. The database remains the source of truth: the registry is loaded from it at startup.
+ *
+ * The registry only holds and hands out copies, a task read from it can't be modified by another thread.
+ *
+ * The tasks open to new replicates are also kept in an OpenTaskQueue, ordered by priority for the replicate supply.
+ */
+@Component
+class TaskRegistry {
+
+    private final Map<String, Task> tasksByChainTaskId = new HashMap<>();
+    private final Map<TaskStatus, Set<String>> chainTaskIdsByStatus = new EnumMap<>(TaskStatus.class);
+    private final OpenTaskQueue openTaskQueue = new OpenTaskQueue();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    TaskRegistry() {
+        for (TaskStatus status : TaskStatus.values()) {
+            chainTaskIdsByStatus.put(status, new LinkedHashSet<>());
+        }
+    }
+
+    void load(List<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            tasksByChainTaskId.clear();
+            chainTaskIdsByStatus.values().forEach(Set::clear);
+            openTaskQueue.clear();
+            tasks.forEach(this::putWithoutLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Merges the non-final tasks read from the database after the given chainTaskIds were listed from the registry. A
+     * task only replaces its copy when its version is newer, so that a more recent put() isn't overwritten, and keeps
+     * the replicates reserved in the OpenTaskQueue. A listed task missing from the database tasks has reached a final
+     * status, whereas a task removed from the registry since it was listed must not come back from the older read.
+     */
+    void merge(Set<String> chainTaskIdsBeforeRead, List<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            Set<String> readChainTaskIds = new HashSet<>();
+            for (Task task : tasks) {
+                String chainTaskId = task.getChainTaskId();
+                readChainTaskIds.add(chainTaskId);
+                Task current = tasksByChainTaskId.get(chainTaskId);
+                if (current == null ? !chainTaskIdsBeforeRead.contains(chainTaskId) : isNewer(task, current)) {
+                    putWithoutLock(task);
+                }
+            }
+            for (String chainTaskId : chainTaskIdsBeforeRead) {
+                if (!readChainTaskIds.contains(chainTaskId)) {
+                    removeWithoutLock(chainTaskId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // a task reaching a final status leaves the registry
+    void put(Task task) {
+        lock.writeLock().lock();
+        try {
+            putWithoutLock(task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Task> findByCurrentStatus(List<TaskStatus> statusList) {
+        List<Task> tasks = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (TaskStatus status : new LinkedHashSet<>(statusList)) {
+                for (String chainTaskId : chainTaskIdsByStatus.get(status)) {
+                    tasks.add(copy(tasksByChainTaskId.get(chainTaskId)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return tasks;
+    }
+
+    /*
+     * Open tasks (INITIALIZED or RUNNING) which may still need replicates, the most urgent first. The queue is walked
+     * lazily and a task is only copied when reached: a worker is usually given one of the first tasks.
+     */
+    Iterable<Task> getOpenTasksByPriority() {
+        return () -> openTaskQueue.getChainTaskIdsToSupply(System.currentTimeMillis())
+                .map(this::getCopy)
+                .filter(Objects::nonNull)
+                .iterator();
+    }
+
+    // open tasks (INITIALIZED or RUNNING), the most urgent first
+    List<String> getOpenChainTaskIds() {
+        lock.readLock().lock();
+        try {
+            return openTaskQueue.getChainTaskIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void onReplicateReserved(String chainTaskId) {
+        lock.writeLock().lock();
+        try {
+            openTaskQueue.onReplicateReserved(chainTaskId, System.currentTimeMillis());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void onReplicateReleased(String chainTaskId) {
+        lock.writeLock().lock();
+        try {
+            openTaskQueue.onReplicateReleased(chainTaskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void onNoReplicateNeeded(String chainTaskId) {
+        lock.writeLock().lock();
+        try {
+            openTaskQueue.onNoReplicateNeeded(chainTaskId, System.currentTimeMillis());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Set<String> getChainTaskIds() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(tasksByChainTaskId.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int countByCurrentStatus(TaskStatus status) {
+        lock.readLock().lock();
+        try {
+            return chainTaskIdsByStatus.get(status).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return tasksByChainTaskId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putWithoutLock(Task task) {
+        String chainTaskId = task.getChainTaskId();
+        openTaskQueue.put(task);
+        Task previous = tasksByChainTaskId.remove(chainTaskId);
+        if (previous != null) {
+            chainTaskIdsByStatus.get(previous.getCurrentStatus()).remove(chainTaskId);
+        }
+        if (TaskStatus.isFinalStatus(task.getCurrentStatus())) {
+            return;
+        }
+        tasksByChainTaskId.put(chainTaskId, copy(task));
+        chainTaskIdsByStatus.get(task.getCurrentStatus()).add(chainTaskId);
+    }
+
+    private void removeWithoutLock(String chainTaskId) {
+        openTaskQueue.remove(chainTaskId);
+        Task previous = tasksByChainTaskId.remove(chainTaskId);
+        if (previous != null) {
+            chainTaskIdsByStatus.get(previous.getCurrentStatus()).remove(chainTaskId);
+        }
+    }
+
+    // null when the task left the registry since the open task queue was walked
+    private Task getCopy(String chainTaskId) {
+        lock.readLock().lock();
+        try {
+            Task task = tasksByChainTaskId.get(chainTaskId);
+            return task != null ? copy(task) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isNewer(Task task, Task current) {
+        return task.getVersion() != null && (current.getVersion() == null || task.getVersion() > current.getVersion());
+    }
+
+    private static Task copy(Task task) {
+        return task.toBuilder()
+                .dateStatusList(task.getDateStatusList() != null ? new ArrayList<>(task.getDateStatusList()) : null)
+                .build();
+    }
+}
@@ -12,6 +12,8 @@ interface TaskRepository extends MongoRepository<Task, String> {
 
     List<Task> findByChainDealIdAndTaskIndex(String chainDealId, int taskIndex);
 
+    boolean existsByChainDealIdAndTaskIndex(String chainDealId, int taskIndex);
+
     @Query("{ 'chainTaskId': {$in: ?0} }")
     List<Task> findByChainTaskId(List<String> ids);
 
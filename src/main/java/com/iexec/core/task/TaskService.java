@@ -5,26 +5,32 @@ import com.iexec.common.chain.ChainTask;
 import com.iexec.common.chain.ChainTaskStatus;
 import com.iexec.common.replicate.ReplicateStatus;
 import com.iexec.core.chain.IexecHubService;
+import com.iexec.core.cluster.LeaderElectionService;
+import com.iexec.core.cluster.PartitionService;
+import com.iexec.core.cluster.TaskUpdateRequestService;
+import com.iexec.core.history.StatusHistoryService;
+import com.iexec.core.metrics.MetricsService;
 import com.iexec.core.replicate.Replicate;
 import com.iexec.core.replicate.ReplicatesService;
 import com.iexec.core.task.event.ConsensusReachedEvent;
 import com.iexec.core.task.event.ContributionTimeoutEvent;
 import com.iexec.core.task.event.PleaseUploadEvent;
+import com.iexec.core.task.event.ReplicatesNeededEvent;
 import com.iexec.core.task.event.TaskCompletedEvent;
+import com.iexec.core.task.lifecycle.TaskLifecycleService;
+import com.iexec.core.task.placement.PlacementPolicy;
 import com.iexec.core.worker.Worker;
 import com.iexec.core.worker.WorkerService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.dao.OptimisticLockingFailureException;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.iexec.core.task.TaskStatus.*;
 
@@ -47,24 +53,86 @@ public class TaskService {
     private IexecHubService iexecHubService;
     private ReplicatesService replicatesService;
     private ApplicationEventPublisher applicationEventPublisher;
+    private TaskRegistry taskRegistry;
+    private StatusHistoryService statusHistoryService;
+    private TaskArchiveService taskArchiveService;
+    private PlacementPolicy placementPolicy;
+    private MetricsService metricsService;
+    private TaskLifecycleService taskLifecycleService;
+    private PartitionService partitionService;
+    private LeaderElectionService leaderElectionService;
+    private TaskUpdateRequestService taskUpdateRequestService;
 
     public TaskService(TaskRepository taskRepository,
                        WorkerService workerService,
                        IexecHubService iexecHubService,
                        ReplicatesService replicatesService,
-                       ApplicationEventPublisher applicationEventPublisher) {
+                       ApplicationEventPublisher applicationEventPublisher,
+                       TaskRegistry taskRegistry,
+                       StatusHistoryService statusHistoryService,
+                       TaskArchiveService taskArchiveService,
+                       PlacementPolicy placementPolicy,
+                       MetricsService metricsService,
+                       TaskLifecycleService taskLifecycleService,
+                       PartitionService partitionService,
+                       LeaderElectionService leaderElectionService,
+                       TaskUpdateRequestService taskUpdateRequestService) {
         this.taskRepository = taskRepository;
         this.workerService = workerService;
         this.iexecHubService = iexecHubService;
         this.replicatesService = replicatesService;
         this.applicationEventPublisher = applicationEventPublisher;
+        this.taskRegistry = taskRegistry;
+        this.statusHistoryService = statusHistoryService;
+        this.taskArchiveService = taskArchiveService;
+        this.placementPolicy = placementPolicy;
+        this.metricsService = metricsService;
+        this.taskLifecycleService = taskLifecycleService;
+        this.partitionService = partitionService;
+        this.leaderElectionService = leaderElectionService;
+        this.taskUpdateRequestService = taskUpdateRequestService;
+    }
+
+    /*
+     * With the tasks partitioned across schedulers (cluster.enabled), the tasks driven by the other schedulers aren't
+     * saved through this one: the tasks read from the database are merged into the registry, so that any scheduler can
+     * hand out replicates of any task. The parked requests are served with the tasks opened in the meantime.
+     */
+    @Scheduled(fixedRateString = "${cluster.registryRefreshPeriod}")
+    void refreshTaskRegistry() {
+        if (!partitionService.isClusterEnabled()) {
+            return;
+        }
+        Set<String> previousOpenTasks = new HashSet<>(taskRegistry.getOpenChainTaskIds());
+        Set<String> chainTaskIdsBeforeRead = taskRegistry.getChainTaskIds();
+        taskRegistry.merge(chainTaskIdsBeforeRead, taskRepository.findByCurrentStatus(TaskStatus.getNonFinalStatuses()));
+        for (String chainTaskId : taskRegistry.getOpenChainTaskIds()) {
+            if (!previousOpenTasks.contains(chainTaskId)) {
+                applicationEventPublisher.publishEvent(new ReplicatesNeededEvent(chainTaskId));
+            }
+        }
+    }
+
+    @PostConstruct
+    void loadTaskRegistry() {
+        taskRegistry.load(taskRepository.findByCurrentStatus(TaskStatus.getNonFinalStatuses()));
+        log.info("Loaded task registry [nbTasks:{}]", taskRegistry.size());
+        // the tasks in a final status leave the registry, they are counted in the database
+        for (TaskStatus status : TaskStatus.getNonFinalStatuses()) {
+            metricsService.registerTaskCountGauge(status, taskRegistry, registry -> registry.countByCurrentStatus(status));
+        }
     }
 
     public Optional<Task> addTask(String chainDealId, int taskIndex, String imageName, String commandLine, int trust, Date timeRef, String tag) {
-        if (getTasksByChainDealIdAndTaskIndex(chainDealId, taskIndex).isEmpty()) {
+        // an archived task has already been added (the deals may be replayed long after their tasks are finished)
+        if (!taskRepository.existsByChainDealIdAndTaskIndex(chainDealId, taskIndex)
+                && !taskArchiveService.isArchived(chainDealId, taskIndex)) {
             log.info("Add new task [chainDealId:{}, taskIndex:{}, imageName:{}, commandLine:{}, trust:{}]",
                     chainDealId, taskIndex, imageName, commandLine, trust);
-            return Optional.of(taskRepository.save(new Task(chainDealId, taskIndex, imageName, commandLine, trust, timeRef, tag)));
+            Task savedTask = taskRepository.save(new Task(chainDealId, taskIndex, imageName, commandLine, trust, timeRef, tag));
+            taskRegistry.put(savedTask);
+            addLatestStatusChangeToHistory(savedTask);
+            return Optional.of(savedTask);
         }
         log.info("Task already added [chainDealId:{}, taskIndex:{}, imageName:{}, commandLine:{}, trust:{}]",
                 chainDealId, taskIndex, imageName, commandLine, trust);
@@ -72,27 +140,30 @@ public class TaskService {
     }
 
     public Optional<Task> getTaskByChainTaskId(String chainTaskId) {
-        return taskRepository.findByChainTaskId(chainTaskId);
+        Optional<Task> task = taskRepository.findByChainTaskId(chainTaskId);
+        return task.isPresent() ? task : taskArchiveService.getArchivedTask(chainTaskId);
     }
 
     public List<Task> findByCurrentStatus(TaskStatus status) {
-        return taskRepository.findByCurrentStatus(status);
+        return findByCurrentStatus(Collections.singletonList(status));
     }
 
+    /*
+     * Tasks in a final status are not kept in the registry, they are read from the database. Only the tasks driven by
+     * this scheduler are returned (all of them unless the cluster is enabled).
+     */
     public List<Task> findByCurrentStatus(List<TaskStatus> statusList) {
-        return taskRepository.findByCurrentStatus(statusList);
-    }
-
-    private List<Task> getTasksByChainDealIdAndTaskIndex(String chainDealId, int taskIndex) {
-        return taskRepository.findByChainDealIdAndTaskIndex(chainDealId, taskIndex);
-    }
-
-    private List<Task> getAllRunningTasks() {
-        return taskRepository.findByCurrentStatus(Arrays.asList(INITIALIZED, RUNNING));
+        List<Task> tasks = statusList.stream().anyMatch(TaskStatus::isFinalStatus)
+                ? taskRepository.findByCurrentStatus(statusList)
+                : taskRegistry.findByCurrentStatus(statusList);
+        if (!partitionService.isClusterEnabled()) {
+            return tasks;
+        }
+        return tasks.stream()
+                .filter(task -> partitionService.isOwner(task.getChainTaskId()))
+                .collect(Collectors.toList());
     }
 
-    // in case the task has been modified between reading and writing it, it is retried up to 5 times
-    @Retryable(value = {OptimisticLockingFailureException.class}, maxAttempts = 5)
     Optional<Replicate> getAvailableReplicate(String walletAddress) {
         // return empty if the worker is not registered
         Optional<Worker> optional = workerService.getWorker(walletAddress);
@@ -101,8 +172,8 @@ public class TaskService {
         }
 
         // return empty if there is no task to contribute
-        List<Task> runningTasks = getAllRunningTasks();
-        if (runningTasks.isEmpty()) {
+        Iterable<Task> runningTasks = taskRegistry.getOpenTasksByPriority();
+        if (!runningTasks.iterator().hasNext()) {
             return Optional.empty();
         }
 
@@ -111,19 +182,36 @@ public class TaskService {
             return Optional.empty();
         }
 
-        for (Task task : runningTasks) {
+        // the open tasks are only all read when the policy reorders them
+        Iterable<Task> orderedTasks = placementPolicy.keepsPriorityOrder()
+                ? runningTasks
+                : placementPolicy.order(optional.get(), toList(runningTasks));
+        for (Task task : orderedTasks) {
             String chainTaskId = task.getChainTaskId();
-            if (!replicatesService.hasWorkerAlreadyParticipated(chainTaskId, walletAddress) &&
-                    replicatesService.moreReplicatesNeeded(chainTaskId, task.getNumWorkersNeeded(), task.getTimeRef())) {
-                replicatesService.addNewReplicate(chainTaskId, walletAddress);
+            Optional<Replicate> replicate = replicatesService.reserveReplicate(chainTaskId, walletAddress,
+                    task.getNumWorkersNeeded(), task.getTimeRef(), task.getContributionDeadline());
+            if (replicate.isPresent()) {
+                taskRegistry.onReplicateReserved(chainTaskId);
                 workerService.addChainTaskIdToWorker(chainTaskId, walletAddress);
-                return replicatesService.getReplicate(chainTaskId, walletAddress);
+                return replicate;
             }
+            taskRegistry.onNoReplicateNeeded(chainTaskId);
         }
 
         return Optional.empty();
     }
 
+    // a failed replicate (or one of a lost worker) leaves its slot to another worker
+    public void onReplicateFailed(String chainTaskId) {
+        taskRegistry.onReplicateReleased(chainTaskId);
+    }
+
+    private static List<Task> toList(Iterable<Task> tasks) {
+        List<Task> list = new ArrayList<>();
+        tasks.forEach(list::add);
+        return list;
+    }
+
     void tryUpgradeTaskStatus(String chainTaskId) {
         Optional<Task> optional = getTaskByChainTaskId(chainTaskId);
         if (!optional.isPresent()) {
@@ -131,6 +219,10 @@ public class TaskService {
         }
         Task task = optional.get();
 
+        if (!isDrivenHere(task)) {
+            return;
+        }
+
         switch (task.getCurrentStatus()) {
             case RECEIVED:
                 received2Initialized(task);
@@ -159,18 +251,68 @@ public class TaskService {
         }
     }
 
+    /*
+     * With the cluster enabled, a task waiting for a transaction is driven by the leader (the only scheduler sending
+     * transactions with the wallet) and any other task by the owner of its partition. The update of a task driven by
+     * another scheduler is handed over to it.
+     */
+    private boolean isDrivenHere(Task task) {
+        if (!partitionService.isClusterEnabled()) {
+            return true;
+        }
+        String chainTaskId = task.getChainTaskId();
+        if (TaskStatus.getTransactionStatuses().contains(task.getCurrentStatus())) {
+            if (!leaderElectionService.isLeader()) {
+                taskUpdateRequestService.requestLeaderUpdate(chainTaskId);
+                return false;
+            }
+        } else if (!partitionService.isOwner(chainTaskId)) {
+            taskUpdateRequestService.requestUpdate(chainTaskId);
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * A scheduler which lost the leadership while its transaction was waiting doesn't send it (see IexecHubService):
+     * the missing receipt isn't a failed transaction, the task goes back to the status preceding the transaction and
+     * the new leader is asked to send it. False when this scheduler is still the leader.
+     */
+    private boolean handOverToLeader(Task task, TaskStatus statusBeforeTransaction) {
+        if (!partitionService.isClusterEnabled() || leaderElectionService.isLeader()) {
+            return false;
+        }
+        log.warn("Transaction not sent, not the leader anymore [chainTaskId:{}, currentStatus:{}, newStatus:{}]",
+                task.getChainTaskId(), task.getCurrentStatus(), statusBeforeTransaction);
+        updateTaskStatusAndSave(task, statusBeforeTransaction);
+        taskUpdateRequestService.requestLeaderUpdate(task.getChainTaskId());
+        return true;
+    }
+
     private Task updateTaskStatusAndSave(Task task, TaskStatus newStatus) {
         return updateTaskStatusAndSave(task, newStatus, null);
     }
 
     private Task updateTaskStatusAndSave(Task task, TaskStatus newStatus, ChainReceipt chainReceipt) {
         TaskStatus currentStatus = task.getCurrentStatus();
+        Date currentStatusDate = task.getLatestStatusChange().getDate();
         task.changeStatus(newStatus, chainReceipt);
         Task savedTask = taskRepository.save(task);
+        taskRegistry.put(task);
+        addLatestStatusChangeToHistory(task);
+        metricsService.recordTaskStatusDuration(currentStatus,
+                task.getLatestStatusChange().getDate().getTime() - currentStatusDate.getTime());
+        taskLifecycleService.onTaskStatusChange(task);
         log.info("UpdateTaskStatus suceeded [chainTaskId:{}, currentStatus:{}, newStatus:{}]", task.getChainTaskId(), currentStatus, newStatus);
         return savedTask;
     }
 
+    private void addLatestStatusChangeToHistory(Task task) {
+        TaskStatusChange latestStatusChange = task.getLatestStatusChange();
+        statusHistoryService.addTaskStatusChange(task.getChainTaskId(),
+                latestStatusChange.getStatus(), latestStatusChange.getDate());
+    }
+
     private void received2Initialized(Task task) {
         boolean isCurrentStatusReceived = task.getCurrentStatus().equals(RECEIVED);
 
@@ -189,12 +331,16 @@ public class TaskService {
             return;
         }
 
+        if (!isDrivenHere(task)) {
+            return;
+        }
         updateTaskStatusAndSave(task, INITIALIZING);
 
         Optional<Pair<String, ChainReceipt>> optionalPair = iexecHubService.initialize(
                 task.getChainDealId(), task.getTaskIndex());
 
         if (!optionalPair.isPresent()) {
+            handOverToLeader(task, RECEIVED);
             return;
         }
 
@@ -220,6 +366,7 @@ public class TaskService {
 
         updateTaskStatusAndSave(task, INITIALIZED, chainReceipt);
         replicatesService.createEmptyReplicateList(chainTaskId);
+        applicationEventPublisher.publishEvent(new ReplicatesNeededEvent(chainTaskId));
     }
 
     private void initialized2Running(Task task) {
@@ -311,9 +458,15 @@ public class TaskService {
             return;
         }
 
+        if (!isDrivenHere(task)) {
+            return;
+        }
         updateTaskStatusAndSave(task, TaskStatus.REOPENING);
         Optional<ChainReceipt> optionalChainReceipt = iexecHubService.reOpen(task.getChainTaskId());
 
+        if (!optionalChainReceipt.isPresent() && handOverToLeader(task, CONSENSUS_REACHED)) {
+            return;
+        }
         if (!optionalChainReceipt.isPresent()) {
             log.error("Reopen failed [chainTaskId:{}, canReopen:{}, hasEnoughGas:{}]",
                     task.getChainTaskId(), canReopen, hasEnoughGas);
@@ -325,6 +478,7 @@ public class TaskService {
         task.setRevealDeadline(new Date(0));
         updateTaskStatusAndSave(task, TaskStatus.REOPENED, optionalChainReceipt.get());
         updateTaskStatusAndSave(task, TaskStatus.INITIALIZED, optionalChainReceipt.get());
+        applicationEventPublisher.publishEvent(new ReplicatesNeededEvent(task.getChainTaskId()));
     }
 
     private void uploadRequested2UploadingResult(Task task) {
@@ -346,7 +500,10 @@ public class TaskService {
 
         if (condition1 && condition2) {
             updateTaskStatusAndSave(task, RESULT_UPLOADED);
-            updateResultUploaded2Finalized(task);
+            // the owner driving the upload may not be the leader, which alone sends the finalize transaction
+            if (isDrivenHere(task)) {
+                updateResultUploaded2Finalized(task);
+            }
         } else if (replicatesService.getNbReplicatesWithCurrentStatus(task.getChainTaskId(), ReplicateStatus.RESULT_UPLOAD_REQUEST_FAILED) > 0 &&
                 replicatesService.getNbReplicatesWithCurrentStatus(task.getChainTaskId(), ReplicateStatus.RESULT_UPLOADING) == 0) {
             // need to request upload again
@@ -390,10 +547,16 @@ public class TaskService {
             return;
         }
 
+        if (!isDrivenHere(task)) {
+            return;
+        }
         updateTaskStatusAndSave(task, FINALIZING);
         String resultUri = resultRepositoryProtocol + "://" + resultRepositoryIp + ":" + resultRepositoryPort + "/results/" + task.getChainTaskId();
         Optional<ChainReceipt> optionalChainReceipt = iexecHubService.finalizeTask(task.getChainTaskId(), resultUri);
 
+        if (!optionalChainReceipt.isPresent() && handOverToLeader(task, RESULT_UPLOADED)) {
+            return;
+        }
         if (!optionalChainReceipt.isPresent()) {
             log.error("Finalize failed [chainTaskId:{} canFinalize:{}, isAfterRevealDeadline:{}, hasAtLeastOneReveal:{}]",
                     task.getChainTaskId(), isTaskInResultUploaded, canFinalize, offChainRevealEqualsOnChainReveal);
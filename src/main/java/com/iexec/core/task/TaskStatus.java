@@ -1,5 +1,6 @@
 package com.iexec.core.task;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -35,4 +36,35 @@ public enum TaskStatus {
         );
     }
 
+    // the transitions leaving these statuses may send a transaction (initialize, reopen, finalize)
+    public static List<TaskStatus> getTransactionStatuses() {
+        return Arrays.asList(
+                RECEIVED,
+                CONSENSUS_REACHED,
+                RESULT_UPLOADED
+        );
+    }
+
+    // no transition leaves these statuses
+    public static List<TaskStatus> getFinalStatuses() {
+        return Arrays.asList(
+                INITIALIZE_FAILED,
+                CONTRIBUTION_TIMEOUT,
+                REOPEN_FAILED,
+                FINALIZE_FAILED,
+                COMPLETED,
+                ERROR
+        );
+    }
+
+    public static List<TaskStatus> getNonFinalStatuses() {
+        List<TaskStatus> statuses = new ArrayList<>(Arrays.asList(values()));
+        statuses.removeAll(getFinalStatuses());
+        return statuses;
+    }
+
+    public static boolean isFinalStatus(TaskStatus status) {
+        return getFinalStatuses().contains(status);
+    }
+
 }
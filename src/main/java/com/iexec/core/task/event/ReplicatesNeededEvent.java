@@ -0,0 +1,14 @@
+package com.iexec.core.task.event;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class ReplicatesNeededEvent {
+
+    private String chainTaskId;
+}
@@ -0,0 +1,18 @@
+package com.iexec.core.task.lifecycle;
+
+import lombok.*;
+
+// durations in milliseconds
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PhaseStatistics {
+
+    private long count;
+    private long p50;
+    private long p90;
+    private long p99;
+    private long max;
+}
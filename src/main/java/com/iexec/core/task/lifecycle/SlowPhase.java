@@ -0,0 +1,21 @@
+package com.iexec.core.task.lifecycle;
+
+import lombok.*;
+
+import java.util.Date;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlowPhase {
+
+    private String chainTaskId;
+    private String chainDealId;
+    private String dappName;
+    private TaskPhase phase;
+    private long duration;
+    private long medianDuration;
+    private Date date;
+}
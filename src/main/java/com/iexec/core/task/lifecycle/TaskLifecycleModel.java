@@ -0,0 +1,18 @@
+package com.iexec.core.task.lifecycle;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskLifecycleModel {
+
+    private Map<TaskPhase, PhaseStatistics> phases;
+    private Map<String, Map<TaskPhase, PhaseStatistics>> phasesByDapp;
+    private List<SlowPhase> slowPhases;
+}
@@ -0,0 +1,166 @@
+package com.iexec.core.task.lifecycle;
+
+import com.iexec.core.task.Task;
+import com.iexec.core.task.TaskStatus;
+import com.iexec.core.task.TaskStatusChange;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SynchronizedHistogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Where the wall-clock time of the tasks goes: each time a task ends a phase (see TaskPhase), the duration of the
+ * phase is computed from the dates of its status changes and recorded in a HDR histogram of the phase, globally and
+ * for the dapp of the task. A phase lasting more than lifecycle.slowFactor times the median of the phase is flagged
+ * as slow (logged and kept in a bounded list with its deal and dapp).
+ *
+ * The histograms are kept in memory only, they describe the tasks seen since the core started.
+ */
+@Slf4j
+@Service
+public class TaskLifecycleService {
+
+    // durations are in ms, 2 digits keep the percentiles within 1%
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    @Value("${lifecycle.slowFactor}")
+    private double slowFactor;
+
+    @Value("${lifecycle.minSamples}")
+    private int minSamples;
+
+    @Value("${lifecycle.maxDapps}")
+    private int maxDapps;
+
+    @Value("${lifecycle.slowPhasesCapacity}")
+    private int slowPhasesCapacity;
+
+    private final Map<TaskPhase, Histogram> histograms = createHistograms();
+    private final Map<String, Map<TaskPhase, Histogram>> histogramsByDapp = new ConcurrentHashMap<>();
+    private final Deque<SlowPhase> slowPhases = new ArrayDeque<>();
+
+    public void onTaskStatusChange(Task task) {
+        TaskStatusChange latestStatusChange = task.getLatestStatusChange();
+        for (TaskPhase phase : TaskPhase.values()) {
+            if (!phase.getEndStatus().equals(latestStatusChange.getStatus())) {
+                continue;
+            }
+            Optional<Date> startDate = getLatestDateOfStatus(task, phase.getStartStatus());
+            if (startDate.isPresent()) {
+                long duration = latestStatusChange.getDate().getTime() - startDate.get().getTime();
+                record(task, phase, Math.max(0, duration));
+            }
+        }
+    }
+
+    public TaskLifecycleModel getTaskLifecycle() {
+        Map<TaskPhase, PhaseStatistics> phases = new EnumMap<>(TaskPhase.class);
+        histograms.forEach((phase, histogram) -> phases.put(phase, toStatistics(histogram)));
+
+        Map<String, Map<TaskPhase, PhaseStatistics>> phasesByDapp = new TreeMap<>();
+        histogramsByDapp.forEach((dappName, dappHistograms) -> {
+            Map<TaskPhase, PhaseStatistics> dappPhases = new EnumMap<>(TaskPhase.class);
+            dappHistograms.forEach((phase, histogram) -> {
+                PhaseStatistics statistics = toStatistics(histogram);
+                if (statistics.getCount() > 0) {
+                    dappPhases.put(phase, statistics);
+                }
+            });
+            phasesByDapp.put(dappName, dappPhases);
+        });
+
+        return TaskLifecycleModel.builder()
+                .phases(phases)
+                .phasesByDapp(phasesByDapp)
+                .slowPhases(getSlowPhases())
+                .build();
+    }
+
+    List<SlowPhase> getSlowPhases() {
+        synchronized (slowPhases) {
+            return new ArrayList<>(slowPhases);
+        }
+    }
+
+    private void record(Task task, TaskPhase phase, long duration) {
+        Histogram histogram = histograms.get(phase);
+        // read before recording, so that a slow phase isn't compared to a median it has shifted
+        long medianDuration = histogram.getTotalCount() >= minSamples ? histogram.getValueAtPercentile(50) : 0;
+        histogram.recordValue(duration);
+
+        Map<TaskPhase, Histogram> dappHistograms = getDappHistograms(task.getDappName());
+        if (dappHistograms != null) {
+            dappHistograms.get(phase).recordValue(duration);
+        }
+
+        if (medianDuration > 0 && duration > slowFactor * medianDuration) {
+            flagSlowPhase(task, phase, duration, medianDuration);
+        }
+    }
+
+    private void flagSlowPhase(Task task, TaskPhase phase, long duration, long medianDuration) {
+        log.warn("Slow task phase [chainTaskId:{}, chainDealId:{}, dappName:{}, phase:{}, duration:{}, medianDuration:{}]",
+                task.getChainTaskId(), task.getChainDealId(), task.getDappName(), phase, duration, medianDuration);
+        SlowPhase slowPhase = SlowPhase.builder()
+                .chainTaskId(task.getChainTaskId())
+                .chainDealId(task.getChainDealId())
+                .dappName(task.getDappName())
+                .phase(phase)
+                .duration(duration)
+                .medianDuration(medianDuration)
+                .date(new Date())
+                .build();
+        synchronized (slowPhases) {
+            slowPhases.addLast(slowPhase);
+            while (slowPhases.size() > slowPhasesCapacity) {
+                slowPhases.removeFirst();
+            }
+        }
+    }
+
+    // the number of dapps followed is bounded, the tasks of the next dapps only count globally
+    private Map<TaskPhase, Histogram> getDappHistograms(String dappName) {
+        if (dappName == null) {
+            return null;
+        }
+        Map<TaskPhase, Histogram> dappHistograms = histogramsByDapp.get(dappName);
+        if (dappHistograms == null && histogramsByDapp.size() < maxDapps) {
+            dappHistograms = histogramsByDapp.computeIfAbsent(dappName, key -> createHistograms());
+        }
+        return dappHistograms;
+    }
+
+    // a phase may be done more than once (e.g. reopened task), the latest one is measured
+    private static Optional<Date> getLatestDateOfStatus(Task task, TaskStatus status) {
+        List<TaskStatusChange> statusChanges = task.getDateStatusList();
+        for (int i = statusChanges.size() - 1; i >= 0; i--) {
+            if (statusChanges.get(i).getStatus().equals(status)) {
+                return Optional.of(statusChanges.get(i).getDate());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static PhaseStatistics toStatistics(Histogram histogram) {
+        Histogram copy = histogram.copy();
+        return PhaseStatistics.builder()
+                .count(copy.getTotalCount())
+                .p50(copy.getValueAtPercentile(50))
+                .p90(copy.getValueAtPercentile(90))
+                .p99(copy.getValueAtPercentile(99))
+                .max(copy.getMaxValue())
+                .build();
+    }
+
+    private static Map<TaskPhase, Histogram> createHistograms() {
+        Map<TaskPhase, Histogram> phaseHistograms = new EnumMap<>(TaskPhase.class);
+        for (TaskPhase phase : TaskPhase.values()) {
+            phaseHistograms.put(phase, new SynchronizedHistogram(SIGNIFICANT_DIGITS));
+        }
+        return phaseHistograms;
+    }
+}
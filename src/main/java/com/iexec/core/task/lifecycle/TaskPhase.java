@@ -0,0 +1,24 @@
+package com.iexec.core.task.lifecycle;
+
+import com.iexec.core.task.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Phases of the life of a task, each one delimited by the status starting it and the status ending it. The phases
+ * don't overlap (except TOTAL), the statuses not listed (e.g. INITIALIZING) belong to the phase they are in.
+ */
+@Getter
+@AllArgsConstructor
+public enum TaskPhase {
+    INITIALIZATION(TaskStatus.RECEIVED, TaskStatus.INITIALIZED),        // initialize transaction
+    ASSIGNMENT(TaskStatus.INITIALIZED, TaskStatus.RUNNING),             // first replicates given to workers
+    CONTRIBUTION(TaskStatus.RUNNING, TaskStatus.CONSENSUS_REACHED),     // compute and contribute
+    REVEAL(TaskStatus.CONSENSUS_REACHED, TaskStatus.AT_LEAST_ONE_REVEALED),
+    UPLOAD(TaskStatus.RESULT_UPLOAD_REQUESTED, TaskStatus.RESULT_UPLOADED),
+    FINALIZATION(TaskStatus.RESULT_UPLOADED, TaskStatus.COMPLETED),     // finalize transaction
+    TOTAL(TaskStatus.RECEIVED, TaskStatus.COMPLETED);
+
+    private final TaskStatus startStatus;
+    private final TaskStatus endStatus;
+}
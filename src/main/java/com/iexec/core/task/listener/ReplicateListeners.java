@@ -5,11 +5,16 @@ import com.iexec.core.detector.replicate.ContributionUnnotifiedDetector;
 import com.iexec.core.replicate.Replicate;
 import com.iexec.core.replicate.ReplicateComputedEvent;
 import com.iexec.core.replicate.ReplicateUpdatedEvent;
+import com.iexec.core.pubsub.NotificationService;
+import com.iexec.core.task.ReplicateSupplyService;
 import com.iexec.core.task.TaskExecutorEngine;
+import com.iexec.core.task.TaskService;
 import com.iexec.core.worker.WorkerService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
 @Slf4j
 @Component
@@ -18,13 +23,19 @@ public class ReplicateListeners {
     private TaskExecutorEngine taskExecutorEngine;
     private WorkerService workerService;
     private ContributionUnnotifiedDetector contributionUnnotifiedDetector;
+    private ReplicateSupplyService replicateSupplyService;
+    private TaskService taskService;
 
 
     public ReplicateListeners(TaskExecutorEngine taskExecutorEngine,
-                              WorkerService workerService, ContributionUnnotifiedDetector contributionUnnotifiedDetector) {
+                              WorkerService workerService, ContributionUnnotifiedDetector contributionUnnotifiedDetector,
+                              ReplicateSupplyService replicateSupplyService,
+                              TaskService taskService) {
         this.taskExecutorEngine = taskExecutorEngine;
         this.workerService = workerService;
         this.contributionUnnotifiedDetector = contributionUnnotifiedDetector;
+        this.replicateSupplyService = replicateSupplyService;
+        this.taskService = taskService;
     }
 
     @EventListener
@@ -40,6 +51,12 @@ public class ReplicateListeners {
         if (event.getNewReplicateStatus().equals(ReplicateStatus.CANT_CONTRIBUTE_SINCE_TASK_NOT_ACTIVE)) {
             contributionUnnotifiedDetector.detect();
         }
+
+        // a failed replicate no longer counts for the task, another worker may be needed
+        if (!ReplicateStatus.getSuccessStatuses().contains(event.getNewReplicateStatus())) {
+            taskService.onReplicateFailed(event.getChainTaskId());
+            replicateSupplyService.offerAvailableReplicates();
+        }
     }
 
     @EventListener
@@ -48,5 +65,19 @@ public class ReplicateListeners {
         log.info("Received ReplicateComputedEvent [chainTaskId:{}, walletAddress:{}] ",
                 replicate.getChainTaskId(), replicate.getWalletAddress());
         workerService.removeComputedChainTaskIdFromWorker(replicate.getChainTaskId(), replicate.getWalletAddress());
+
+        // the worker has a free slot again
+        replicateSupplyService.offerAvailableReplicates();
+    }
+
+    // a worker starting to listen to its replicate queue can be offered replicates right away
+    @EventListener
+    public void onReplicateQueueSubscription(SessionSubscribeEvent event) {
+        String destination = SimpMessageHeaderAccessor.getDestination(event.getMessage().getHeaders());
+        if (NotificationService.WORKER_REPLICATE_SUBSCRIPTION.equals(destination)) {
+            log.info("Worker subscribed to replicate offers [walletAddress:{}]",
+                    event.getUser() != null ? event.getUser().getName() : "");
+            replicateSupplyService.offerAvailableReplicates();
+        }
     }
 }
@@ -1,12 +1,20 @@
 package com.iexec.core.task.listener;
 
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.common.replicate.ReplicateStatusModifier;
 import com.iexec.common.result.TaskNotification;
 import com.iexec.common.result.TaskNotificationType;
+import com.iexec.core.cluster.PartitionService;
+import com.iexec.core.cluster.PartitionsAcquiredEvent;
+import com.iexec.core.cluster.TaskUpdateRequestedEvent;
 import com.iexec.core.pubsub.NotificationService;
 import com.iexec.core.replicate.Replicate;
 import com.iexec.core.replicate.ReplicatesService;
+import com.iexec.core.task.ReplicateSupplyService;
 import com.iexec.core.task.Task;
 import com.iexec.core.task.TaskExecutorEngine;
+import com.iexec.core.task.TaskService;
+import com.iexec.core.task.TaskStatus;
 import com.iexec.core.task.event.*;
 import com.iexec.core.worker.WorkerService;
 import lombok.extern.slf4j.Slf4j;
@@ -25,15 +33,24 @@ public class TaskListeners {
     private NotificationService notificationService;
     private ReplicatesService replicatesService;
     private WorkerService workerService;
+    private ReplicateSupplyService replicateSupplyService;
+    private TaskService taskService;
+    private PartitionService partitionService;
 
     public TaskListeners(TaskExecutorEngine taskExecutorEngine,
                          NotificationService notificationService,
                          ReplicatesService replicatesService,
-                         WorkerService workerService) {
+                         WorkerService workerService,
+                         ReplicateSupplyService replicateSupplyService,
+                         TaskService taskService,
+                         PartitionService partitionService) {
         this.taskExecutorEngine = taskExecutorEngine;
         this.notificationService = notificationService;
         this.replicatesService = replicatesService;
         this.workerService = workerService;
+        this.replicateSupplyService = replicateSupplyService;
+        this.taskService = taskService;
+        this.partitionService = partitionService;
     }
 
 
@@ -43,6 +60,32 @@ public class TaskListeners {
         taskExecutorEngine.updateTask(event.getChainTaskId());
     }
 
+    // an update asked on another scheduler of the cluster for a task owned by this one
+    @EventListener
+    public void onTaskUpdateRequestedEvent(TaskUpdateRequestedEvent event) {
+        log.debug("Received TaskUpdateRequestedEvent [chainTaskId:{}]", event.getChainTaskId());
+        taskExecutorEngine.updateTask(event.getChainTaskId());
+    }
+
+    // the tasks of partitions taken over from another scheduler are resumed where they were left
+    @EventListener
+    public void onPartitionsAcquiredEvent(PartitionsAcquiredEvent event) {
+        int nbTasks = 0;
+        for (Task task : taskService.findByCurrentStatus(TaskStatus.getNonFinalStatuses())) {
+            if (event.getPartitions().contains(partitionService.getPartition(task.getChainTaskId()))) {
+                taskExecutorEngine.updateTask(task.getChainTaskId());
+                nbTasks++;
+            }
+        }
+        log.info("Received PartitionsAcquiredEvent [partitions:{}, nbTasks:{}]", event.getPartitions(), nbTasks);
+    }
+
+    @EventListener
+    public void onReplicatesNeededEvent(ReplicatesNeededEvent event) {
+        log.info("Received ReplicatesNeededEvent [chainTaskId:{}]", event.getChainTaskId());
+        replicateSupplyService.offerAvailableReplicates();
+    }
+
     @EventListener
     public void onTaskContributionTimeout(ContributionTimeoutEvent event) {
         String chainTaskId = event.getChainTaskId();
@@ -70,11 +113,16 @@ public class TaskListeners {
 
         List<String> winners = new ArrayList<>();
         List<String> losers = new ArrayList<>();
+        List<String> stragglers = new ArrayList<>();
         for (Replicate replicate : replicatesService.getReplicates(chainTaskId)) {
-            if (replicate.getContributionHash().equals(winningHash)) {
+            if (winningHash.equals(replicate.getContributionHash())) {
                 winners.add(replicate.getWalletAddress());
             } else {
                 losers.add(replicate.getWalletAddress());
+                if (!replicate.containsContributedStatus()
+                        && ReplicateStatus.getSuccessStatuses().contains(replicate.getCurrentStatus())) {
+                    stragglers.add(replicate.getWalletAddress());
+                }
             }
         }
 
@@ -95,6 +143,19 @@ public class TaskListeners {
                     .workersAddress(losers).build()
             );
         }
+
+        /*
+         * Stragglers (still running, not contributed yet, e.g. outrun by a speculative replicate) are aborted: they
+         * no longer count as running replicates of the task and their slot is free for other tasks (a replicate no
+         * longer computing is removed from its worker).
+         */
+        for (String walletAddress : stragglers) {
+            replicatesService.updateReplicateStatus(chainTaskId, walletAddress,
+                    ReplicateStatus.ABORTED_ON_CONSENSUS_REACHED, ReplicateStatusModifier.POOL_MANAGER);
+        }
+        if (!stragglers.isEmpty()) {
+            log.info("Stragglers aborted [chainTaskId:{}, stragglers:{}]", chainTaskId, stragglers);
+        }
     }
 
     @EventListener
@@ -127,9 +188,7 @@ public class TaskListeners {
                 .workersAddress(Collections.emptyList())
                 .build());
 
-        for (Replicate replicate : replicatesService.getReplicates(chainTaskId)) {
-            workerService.removeChainTaskIdFromWorker(chainTaskId, replicate.getWalletAddress());
-        }
+        workerService.removeChainTaskIdFromWorkers(chainTaskId);
     }
 
 }
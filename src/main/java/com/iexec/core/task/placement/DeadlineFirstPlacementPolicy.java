@@ -0,0 +1,26 @@
+package com.iexec.core.task.placement;
+
+import com.iexec.core.task.Task;
+import com.iexec.core.worker.Worker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "task.placement", havingValue = "deadline-first", matchIfMissing = true)
+public class DeadlineFirstPlacementPolicy implements PlacementPolicy {
+
+    @Override
+    public List<Task> order(Worker worker, List<Task> openTasks) {
+        List<Task> tasks = new ArrayList<>(openTasks);
+        tasks.sort(EARLIEST_DEADLINE_FIRST);
+        return tasks;
+    }
+
+    @Override
+    public boolean keepsPriorityOrder() {
+        return true;
+    }
+}
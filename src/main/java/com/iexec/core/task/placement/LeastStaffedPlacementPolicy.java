@@ -0,0 +1,41 @@
+package com.iexec.core.task.placement;
+
+import com.iexec.core.task.Task;
+import com.iexec.core.worker.Worker;
+import com.iexec.core.worker.WorkerService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Spreads the workers over the open tasks: the task with the lowest ratio of participating workers to needed workers
+ * comes first. It ranks the tasks by how staffed they are, not by the load of the worker asking for a replicate (which
+ * is the same for every task): whether the worker has a free slot (computing replicates against its cpuNb) is checked
+ * before any policy is called.
+ */
+@Component
+@ConditionalOnProperty(name = "task.placement", havingValue = "least-staffed")
+public class LeastStaffedPlacementPolicy implements PlacementPolicy {
+
+    private WorkerService workerService;
+
+    public LeastStaffedPlacementPolicy(WorkerService workerService) {
+        this.workerService = workerService;
+    }
+
+    @Override
+    public List<Task> order(Worker worker, List<Task> openTasks) {
+        Map<String, Double> staffings = new HashMap<>();
+        for (Task task : openTasks) {
+            int nbWorkersNeeded = Math.max(1, task.getNumWorkersNeeded());
+            staffings.put(task.getChainTaskId(),
+                    (double) workerService.getNbParticipatingWorkers(task.getChainTaskId()) / nbWorkersNeeded);
+        }
+
+        List<Task> tasks = new ArrayList<>(openTasks);
+        tasks.sort(Comparator.<Task>comparingDouble(task -> staffings.get(task.getChainTaskId()))
+                .thenComparing(EARLIEST_DEADLINE_FIRST));
+        return tasks;
+    }
+}
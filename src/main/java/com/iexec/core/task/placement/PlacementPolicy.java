@@ -0,0 +1,26 @@
+package com.iexec.core.task.placement;
+
+import com.iexec.core.task.Task;
+import com.iexec.core.worker.Worker;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Decides which open task a worker asking for a replicate is given: the worker gets a replicate of the first task of
+ * the returned order which still needs one. The policy is selected with the "task.placement" property.
+ */
+public interface PlacementPolicy {
+
+    // tasks closest to their contribution deadline get workers first, it breaks the ties of every policy
+    Comparator<Task> EARLIEST_DEADLINE_FIRST = Comparator.comparing(Task::getContributionDeadline,
+            Comparator.nullsLast(Comparator.<Date>naturalOrder()));
+
+    List<Task> order(Worker worker, List<Task> openTasks);
+
+    // the open tasks are handed out by priority (earliest deadline first): a policy keeping this order isn't called
+    default boolean keepsPriorityOrder() {
+        return false;
+    }
+}
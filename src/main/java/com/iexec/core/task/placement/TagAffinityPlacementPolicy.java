@@ -0,0 +1,49 @@
+package com.iexec.core.task.placement;
+
+import com.iexec.common.tee.TeeUtils;
+import com.iexec.core.task.Task;
+import com.iexec.core.worker.Worker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * A worker is preferably given tasks like the ones it is already running: the same application (its image is likely
+ * to be already pulled) and the same kind of execution (TEE or not, according to the tag of the task).
+ */
+@Component
+@ConditionalOnProperty(name = "task.placement", havingValue = "tag-affinity")
+public class TagAffinityPlacementPolicy implements PlacementPolicy {
+
+    @Override
+    public List<Task> order(Worker worker, List<Task> openTasks) {
+        Set<String> workerChainTaskIds = worker.getParticipatingChainTaskIds() != null
+                ? new HashSet<>(worker.getParticipatingChainTaskIds())
+                : Collections.emptySet();
+        Set<String> dappNames = new HashSet<>();
+        Set<Boolean> trustedExecutions = new HashSet<>();
+        for (Task task : openTasks) {
+            if (workerChainTaskIds.contains(task.getChainTaskId())) {
+                dappNames.add(task.getDappName());
+                trustedExecutions.add(TeeUtils.isTrustedExecutionTag(task.getTag()));
+            }
+        }
+
+        List<Task> tasks = new ArrayList<>(openTasks);
+        tasks.sort(Comparator.<Task>comparingInt(task -> -getAffinity(task, dappNames, trustedExecutions))
+                .thenComparing(EARLIEST_DEADLINE_FIRST));
+        return tasks;
+    }
+
+    private static int getAffinity(Task task, Set<String> dappNames, Set<Boolean> trustedExecutions) {
+        int affinity = 0;
+        if (dappNames.contains(task.getDappName())) {
+            affinity++;
+        }
+        if (trustedExecutions.contains(TeeUtils.isTrustedExecutionTag(task.getTag()))) {
+            affinity++;
+        }
+        return affinity;
+    }
+}
@@ -0,0 +1,27 @@
+package com.iexec.core.task.placement;
+
+import com.iexec.core.task.Task;
+import com.iexec.core.worker.Worker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tasks asking for a higher trust need more contributions to reach a consensus: they come first so that their
+ * consensus is not the one missing the deadline.
+ */
+@Component
+@ConditionalOnProperty(name = "task.placement", havingValue = "trust-weighted")
+public class TrustWeightedPlacementPolicy implements PlacementPolicy {
+
+    @Override
+    public List<Task> order(Worker worker, List<Task> openTasks) {
+        List<Task> tasks = new ArrayList<>(openTasks);
+        tasks.sort(Comparator.comparingInt(Task::getTrust).reversed()
+                .thenComparing(EARLIEST_DEADLINE_FIRST));
+        return tasks;
+    }
+}
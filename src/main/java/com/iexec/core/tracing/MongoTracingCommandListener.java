@@ -0,0 +1,50 @@
+package com.iexec.core.tracing;
+
+import brave.Span;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opens a span for each command sent to Mongo within a trace. The driver notifies the start of a command on the
+ * thread issuing it (the span is then a child of the current one) and its completion with the same request id.
+ */
+public class MongoTracingCommandListener implements CommandListener {
+
+    private TracingService tracingService;
+    private final Map<Integer, Span> spansByRequestId = new ConcurrentHashMap<>();
+
+    public MongoTracingCommandListener(TracingService tracingService) {
+        this.tracingService = tracingService;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        Span span = tracingService.startChildSpan("mongo " + event.getCommandName());
+        if (span != null) {
+            span.tag("mongo.database", event.getDatabaseName());
+            spansByRequestId.put(event.getRequestId(), span);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Span span = spansByRequestId.remove(event.getRequestId());
+        if (span != null) {
+            span.finish();
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Span span = spansByRequestId.remove(event.getRequestId());
+        if (span != null) {
+            span.error(event.getThrowable());
+            span.finish();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.iexec.core.tracing;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.propagation.TraceContext;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Trace context propagation where Sleuth can't do it by itself. Incoming HTTP requests, @Scheduled methods and
+ * synchronous event listeners are traced out of the box, but the hops through executors the core creates itself (per
+ * task executors, transaction sender, notification outbox) lose the context: the work handed to them is wrapped here.
+ * Spans are also opened around the operations a slow transition should be attributed to (RPC, Mongo command, wait
+ * in a task executor).
+ */
+@Service
+public class TracingService {
+
+    private Tracing tracing;
+
+    public TracingService(Tracing tracing) {
+        this.tracing = tracing;
+    }
+
+    // null outside of a trace
+    public TraceContext getCurrentContext() {
+        return tracing.currentTraceContext().get();
+    }
+
+    // the runnable runs in the context of the caller, whatever the thread running it
+    public Runnable wrap(Runnable runnable) {
+        return tracing.currentTraceContext().wrap(runnable);
+    }
+
+    public Executor wrap(Executor executor) {
+        return tracing.currentTraceContext().executor(executor);
+    }
+
+    public <T> T inSpan(String name, Supplier<T> action) {
+        Span span = tracing.tracer().nextSpan().name(name).start();
+        try (Tracer.SpanInScope ignored = tracing.tracer().withSpanInScope(span)) {
+            return action.get();
+        } catch (RuntimeException | Error e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.finish();
+        }
+    }
+
+    public <T> T inSpanCallable(String name, Callable<T> action) throws Exception {
+        Span span = tracing.tracer().nextSpan().name(name).start();
+        try (Tracer.SpanInScope ignored = tracing.tracer().withSpanInScope(span)) {
+            return action.call();
+        } catch (Exception | Error e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.finish();
+        }
+    }
+
+    // tags are given as key, value pairs
+    public void runInSpan(String name, Runnable action, String... tags) {
+        runInScope(tracing.tracer().nextSpan(), name, action, tags);
+    }
+
+    // child of the given context (e.g. captured before a queue), a new trace when null
+    public void runInSpan(String name, TraceContext parent, Runnable action) {
+        Span span = parent != null ? tracing.tracer().newChild(parent) : tracing.tracer().newTrace();
+        runInScope(span, name, action);
+    }
+
+    // only within a trace: an operation out of any trace (e.g. startup) doesn't start one
+    public Span startChildSpan(String name) {
+        if (getCurrentContext() == null) {
+            return null;
+        }
+        return tracing.tracer().nextSpan().name(name).start();
+    }
+
+    private void runInScope(Span span, String name, Runnable action, String... tags) {
+        span.name(name);
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            span.tag(tags[i], tags[i + 1]);
+        }
+        span.start();
+        try (Tracer.SpanInScope ignored = tracing.tracer().withSpanInScope(span)) {
+            action.run();
+        } catch (RuntimeException | Error e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.finish();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.iexec.core.utils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+public class StatusHistoryUtils {
+
+    // most recent status changes, always kept as they are
+    public static final int RECENT_STATUS_CHANGES = 10;
+
+    private StatusHistoryUtils() {
+        throw new UnsupportedOperationException();
+    }
+
+    /*
+     * Keeps the inline history of a task or a replicate bounded: the first change (creation) and the most recent
+     * changes are kept, in between only the latest occurrence of each status is kept. The size of the history is then
+     * bounded by the number of statuses, whatever the number of loops (reopen, upload retries...). Whether a status has
+     * been reached is still answered by the inline history, the complete history is kept in the status history
+     * collection.
+     */
+    public static <T> void compact(List<T> statusChanges, Function<T, ?> statusOf) {
+        int firstRecentIndex = statusChanges.size() - RECENT_STATUS_CHANGES;
+        if (firstRecentIndex <= 1) {
+            return;
+        }
+
+        Set<Object> statusesSeenAfter = new HashSet<>();
+        for (int i = firstRecentIndex; i < statusChanges.size(); i++) {
+            statusesSeenAfter.add(statusOf.apply(statusChanges.get(i)));
+        }
+        for (int i = firstRecentIndex - 1; i >= 1; i--) {
+            if (!statusesSeenAfter.add(statusOf.apply(statusChanges.get(i)))) {
+                statusChanges.remove(i);
+            }
+        }
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -12,36 +14,29 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @Builder
+@Document
 public class Worker {
 
     @Id
     private String id;
     private String name;
+
+    @Indexed(unique = true)
     private String walletAddress;
+
+
     private String os;
     private String cpu;
     private int cpuNb;
+    @Indexed
     private List<String> participatingChainTaskIds;
     private List<String> computingChainTaskIds;
 
+    @Indexed
     private Date lastAliveDate;
 
     public Worker() {
         participatingChainTaskIds = new ArrayList<>();
         computingChainTaskIds = new ArrayList<>();
     }
-
-    void addChainTaskId(String chainTaskId) {
-        participatingChainTaskIds.add(chainTaskId);
-        computingChainTaskIds.add(chainTaskId);
-    }
-
-    void removeChainTaskId(String chainTaskId) {
-        participatingChainTaskIds.remove(chainTaskId);
-        computingChainTaskIds.remove(chainTaskId);
-    }
-
-    void removeComputedChainTaskId(String chainTaskId) {
-        computingChainTaskIds.remove(chainTaskId);
-    }
 }
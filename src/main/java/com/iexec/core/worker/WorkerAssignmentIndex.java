@@ -0,0 +1,142 @@
+package com.iexec.core.worker;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory mirror of the tasks assigned to the workers (worker -> participating and computing tasks, task ->
+ * participating workers) with set semantics. It is written through by the WorkerService after each atomic update of
+ * the worker documents, so that capacity checks don't read the worker from the database. The database remains the
+ * source of truth: the index is loaded from it at startup and a worker unknown to the index is loaded on demand.
+ */
+@Component
+class WorkerAssignmentIndex {
+
+    private final Map<String, Integer> cpuNbByWallet = new HashMap<>();
+    private final Map<String, Set<String>> participatingByWallet = new HashMap<>();
+    private final Map<String, Set<String>> computingByWallet = new HashMap<>();
+    private final Map<String, Set<String>> walletsByChainTaskId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void load(List<Worker> workers) {
+        lock.writeLock().lock();
+        try {
+            for (Worker worker : workers) {
+                String walletAddress = worker.getWalletAddress();
+                removeWorkerWithoutLock(walletAddress);
+                cpuNbByWallet.put(walletAddress, worker.getCpuNb());
+                participatingByWallet.put(walletAddress, new LinkedHashSet<>());
+                computingByWallet.put(walletAddress, new LinkedHashSet<>());
+                if (worker.getParticipatingChainTaskIds() != null) {
+                    worker.getParticipatingChainTaskIds().forEach(id -> addParticipatingWithoutLock(walletAddress, id));
+                }
+                if (worker.getComputingChainTaskIds() != null) {
+                    computingByWallet.get(walletAddress).addAll(worker.getComputingChainTaskIds());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(String walletAddress) {
+        lock.readLock().lock();
+        try {
+            return cpuNbByWallet.containsKey(walletAddress);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void addChainTaskId(String walletAddress, String chainTaskId) {
+        lock.writeLock().lock();
+        try {
+            if (cpuNbByWallet.containsKey(walletAddress)) {
+                addParticipatingWithoutLock(walletAddress, chainTaskId);
+                computingByWallet.get(walletAddress).add(chainTaskId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeChainTaskId(String walletAddress, String chainTaskId) {
+        lock.writeLock().lock();
+        try {
+            removeParticipatingWithoutLock(walletAddress, chainTaskId);
+            Set<String> computing = computingByWallet.get(walletAddress);
+            if (computing != null) {
+                computing.remove(chainTaskId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeComputedChainTaskId(String walletAddress, String chainTaskId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> computing = computingByWallet.get(walletAddress);
+            if (computing != null) {
+                computing.remove(chainTaskId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // -1 when the worker is unknown
+    int getNbFreeSlots(String walletAddress) {
+        lock.readLock().lock();
+        try {
+            Integer cpuNb = cpuNbByWallet.get(walletAddress);
+            return cpuNb != null ? cpuNb - computingByWallet.get(walletAddress).size() : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Set<String> getWalletAddresses(String chainTaskId) {
+        lock.readLock().lock();
+        try {
+            return new LinkedHashSet<>(walletsByChainTaskId.getOrDefault(chainTaskId, Collections.emptySet()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addParticipatingWithoutLock(String walletAddress, String chainTaskId) {
+        participatingByWallet.get(walletAddress).add(chainTaskId);
+        walletsByChainTaskId.computeIfAbsent(chainTaskId, key -> new LinkedHashSet<>()).add(walletAddress);
+    }
+
+    private void removeParticipatingWithoutLock(String walletAddress, String chainTaskId) {
+        Set<String> participating = participatingByWallet.get(walletAddress);
+        if (participating != null) {
+            participating.remove(chainTaskId);
+        }
+        removeWalletOfChainTaskIdWithoutLock(chainTaskId, walletAddress);
+    }
+
+    private void removeWalletOfChainTaskIdWithoutLock(String chainTaskId, String walletAddress) {
+        Set<String> wallets = walletsByChainTaskId.get(chainTaskId);
+        if (wallets != null) {
+            wallets.remove(walletAddress);
+            if (wallets.isEmpty()) {
+                walletsByChainTaskId.remove(chainTaskId);
+            }
+        }
+    }
+
+    private void removeWorkerWithoutLock(String walletAddress) {
+        Set<String> participating = participatingByWallet.remove(walletAddress);
+        if (participating != null) {
+            participating.forEach(chainTaskId -> removeWalletOfChainTaskIdWithoutLock(chainTaskId, walletAddress));
+        }
+        computingByWallet.remove(walletAddress);
+        cpuNbByWallet.remove(walletAddress);
+    }
+}
@@ -33,19 +33,22 @@ public class WorkerController {
     private JwtTokenProvider jwtTokenProvider;
     private ChallengeService challengeService;
     private WorkerConfiguration workerConfiguration;
+    private SessionService sessionService;
 
     public WorkerController(WorkerService workerService,
                             ChainConfig chainConfig,
                             CredentialsService credentialsService,
                             JwtTokenProvider jwtTokenProvider,
                             ChallengeService challengeService,
-                            WorkerConfiguration workerConfiguration) {
+                            WorkerConfiguration workerConfiguration,
+                            SessionService sessionService) {
         this.workerService = workerService;
         this.chainConfig = chainConfig;
         this.credentialsService = credentialsService;
         this.jwtTokenProvider = jwtTokenProvider;
         this.challengeService = challengeService;
         this.workerConfiguration = workerConfiguration;
+        this.sessionService = sessionService;
     }
 
     @RequestMapping(method = RequestMethod.POST, path = "/workers/ping")
@@ -55,9 +58,10 @@ public class WorkerController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED.value()).build();
         }
 
+        // never rate limited: a worker which can't ping would be taken for lost
         Optional<Worker> optional = workerService.updateLastAlive(workerWalletAddress);
         return optional.
-                <ResponseEntity>map(worker -> ok(SessionService.getSessionId()))
+                <ResponseEntity>map(worker -> ok(sessionService.getSessionId()))
                 .orElseGet(() -> status(HttpStatus.NO_CONTENT).build());
     }
 
@@ -11,9 +11,13 @@ interface WorkerRepository extends MongoRepository<Worker, String> {
 
     Optional<Worker> findByWalletAddress(String walletAddress);
 
-    @Query("{'lastAliveDate': {$lt: ?0}}")
+    // the workers are partially loaded (only what is needed to release their tasks), they should never be saved back
+    @Query(value = "{'lastAliveDate': {$lt: ?0}}",
+            fields = "{'walletAddress': 1, 'participatingChainTaskIds': 1, 'lastAliveDate': 1}")
     List<Worker> findByLastAliveDateBefore(Date date);
 
-    @Query("{'lastAliveDate': {$gt: ?0}}")
+    // the workers are partially loaded (only what is needed to give them replicates), they should never be saved back
+    @Query(value = "{'lastAliveDate': {$gt: ?0}}",
+            fields = "{'walletAddress': 1, 'cpuNb': 1, 'computingChainTaskIds': 1, 'lastAliveDate': 1}")
     List<Worker> findByLastAliveDateAfter(Date date);
 }
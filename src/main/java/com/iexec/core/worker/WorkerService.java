@@ -1,23 +1,61 @@
 package com.iexec.core.worker;
 
+import com.iexec.core.cluster.ClusterConfiguration;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 import static com.iexec.core.utils.DateTimeUtils.addMinutesToDate;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Slf4j
 @Service
 public class WorkerService {
 
-    private WorkerRepository workerRepository;
+    private static final String PARTICIPATING_CHAIN_TASK_IDS = "participatingChainTaskIds";
+    private static final String COMPUTING_CHAIN_TASK_IDS = "computingChainTaskIds";
 
-    public WorkerService(WorkerRepository workerRepository) {
+    private WorkerRepository workerRepository;
+    private MongoTemplate mongoTemplate;
+    private WorkerAssignmentIndex workerAssignmentIndex;
+    private ClusterConfiguration clusterConfiguration;
+
+    public WorkerService(WorkerRepository workerRepository,
+                         MongoTemplate mongoTemplate,
+                         WorkerAssignmentIndex workerAssignmentIndex,
+                         ClusterConfiguration clusterConfiguration) {
         this.workerRepository = workerRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.workerAssignmentIndex = workerAssignmentIndex;
+        this.clusterConfiguration = clusterConfiguration;
+    }
+
+    @PostConstruct
+    void loadWorkerAssignmentIndex() {
+        workerAssignmentIndex.load(workerRepository.findAll());
+    }
+
+    /*
+     * With the cluster enabled, the tasks of a worker are also assigned and released by the other schedulers: the index
+     * is reloaded with the task registry, it is only used to order the tasks (see LeastStaffedPlacementPolicy). The
+     * capacity of a worker is always checked on its document.
+     */
+    @Scheduled(fixedRateString = "${cluster.registryRefreshPeriod}")
+    void refreshWorkerAssignmentIndex() {
+        if (clusterConfiguration.isEnabled()) {
+            workerAssignmentIndex.load(workerRepository.findAll());
+        }
     }
 
     public Optional<Worker> getWorker(String walletAddress) {
@@ -28,35 +66,37 @@ public class WorkerService {
         Optional<Worker> optional = workerRepository.findByWalletAddress(worker.getWalletAddress());
         if (optional.isPresent()) {
             log.info("The worker is already registered [workerId:{}]", optional.get().getId());
+            workerAssignmentIndex.load(Collections.singletonList(optional.get()));
             return optional.get();
         } else {
             Worker newWorker = workerRepository.save(worker);
+            workerAssignmentIndex.load(Collections.singletonList(newWorker));
             log.info("A new worker has been registered [workerId:{}]", newWorker.getId());
             return newWorker;
         }
     }
 
+    // only the date is set: saving the whole worker could overwrite a concurrent update of its task lists
     public Optional<Worker> updateLastAlive(String walletAddress) {
-        Optional<Worker> optional = workerRepository.findByWalletAddress(walletAddress);
-        if (optional.isPresent()) {
-            Worker worker = optional.get();
-            worker.setLastAliveDate(new Date());
-            workerRepository.save(worker);
-            return Optional.of(worker);
-        }
-
-        return Optional.empty();
+        return Optional.ofNullable(mongoTemplate.findAndModify(getWorkerQuery(walletAddress),
+                new Update().set("lastAliveDate", new Date()),
+                FindAndModifyOptions.options().returnNew(true), Worker.class));
     }
 
+    /*
+     * The task lists of a worker are only modified with atomic $addToSet/$pull updates (never with a read then a save
+     * of the whole worker), so concurrent assignments and releases of different tasks never overwrite each other.
+     */
     public Optional<Worker> addChainTaskIdToWorker(String chainTaskId, String walletAddress) {
-        Optional<Worker> optional = workerRepository.findByWalletAddress(walletAddress);
-        if (optional.isPresent()) {
-            Worker worker = optional.get();
-            worker.addChainTaskId(chainTaskId);
-            log.info("Added chainTaskId to worker [chainTaskId:{}, workerName:{}]", chainTaskId, walletAddress);
-            return Optional.of(workerRepository.save(worker));
+        Worker worker = mongoTemplate.findAndModify(getWorkerQuery(walletAddress),
+                new Update().addToSet(PARTICIPATING_CHAIN_TASK_IDS, chainTaskId).addToSet(COMPUTING_CHAIN_TASK_IDS, chainTaskId),
+                FindAndModifyOptions.options().returnNew(true), Worker.class);
+        if (worker == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        workerAssignmentIndex.addChainTaskId(walletAddress, chainTaskId);
+        log.info("Added chainTaskId to worker [chainTaskId:{}, workerName:{}]", chainTaskId, walletAddress);
+        return Optional.of(worker);
     }
 
     public List<String> getChainTaskIds(String walletAddress) {
@@ -69,25 +109,38 @@ public class WorkerService {
     }
 
     public Optional<Worker> removeChainTaskIdFromWorker(String chainTaskId, String walletAddress) {
-        Optional<Worker> optional = workerRepository.findByWalletAddress(walletAddress);
-        if (optional.isPresent()) {
-            Worker worker = optional.get();
-            worker.removeChainTaskId(chainTaskId);
-            log.info("Removed chainTaskId from worker [chainTaskId:{}, walletAddress:{}]", chainTaskId, walletAddress);
-            return Optional.of(workerRepository.save(worker));
+        Worker worker = mongoTemplate.findAndModify(getWorkerQuery(walletAddress),
+                new Update().pull(PARTICIPATING_CHAIN_TASK_IDS, chainTaskId).pull(COMPUTING_CHAIN_TASK_IDS, chainTaskId),
+                FindAndModifyOptions.options().returnNew(true), Worker.class);
+        if (worker == null) {
+            return Optional.empty();
+        }
+        workerAssignmentIndex.removeChainTaskId(walletAddress, chainTaskId);
+        log.info("Removed chainTaskId from worker [chainTaskId:{}, walletAddress:{}]", chainTaskId, walletAddress);
+        return Optional.of(worker);
+    }
+
+    // all the workers participating in the task are released with a single update
+    public void removeChainTaskIdFromWorkers(String chainTaskId) {
+        mongoTemplate.updateMulti(query(where(PARTICIPATING_CHAIN_TASK_IDS).is(chainTaskId)),
+                new Update().pull(PARTICIPATING_CHAIN_TASK_IDS, chainTaskId).pull(COMPUTING_CHAIN_TASK_IDS, chainTaskId),
+                Worker.class);
+        for (String walletAddress : workerAssignmentIndex.getWalletAddresses(chainTaskId)) {
+            workerAssignmentIndex.removeChainTaskId(walletAddress, chainTaskId);
         }
-        return Optional.empty();
+        log.info("Removed chainTaskId from workers [chainTaskId:{}]", chainTaskId);
     }
 
     public Optional<Worker> removeComputedChainTaskIdFromWorker(String chainTaskId, String walletAddress) {
-        Optional<Worker> optional = workerRepository.findByWalletAddress(walletAddress);
-        if (optional.isPresent()) {
-            Worker worker = optional.get();
-            worker.removeComputedChainTaskId(chainTaskId);
-            log.info("Removed computed chainTaskId from worker [chainTaskId:{}, walletAddress:{}]", chainTaskId, walletAddress);
-            return Optional.of(workerRepository.save(worker));
+        Worker worker = mongoTemplate.findAndModify(getWorkerQuery(walletAddress),
+                new Update().pull(COMPUTING_CHAIN_TASK_IDS, chainTaskId),
+                FindAndModifyOptions.options().returnNew(true), Worker.class);
+        if (worker == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        workerAssignmentIndex.removeComputedChainTaskId(walletAddress, chainTaskId);
+        log.info("Removed computed chainTaskId from worker [chainTaskId:{}, walletAddress:{}]", chainTaskId, walletAddress);
+        return Optional.of(worker);
     }
 
 
@@ -103,22 +156,30 @@ public class WorkerService {
         return workerRepository.findByLastAliveDateAfter(oneMinuteAgo);
     }
 
+    public int getNbParticipatingWorkers(String chainTaskId) {
+        return workerAssignmentIndex.getWalletAddresses(chainTaskId).size();
+    }
+
     public boolean canAcceptMoreWorks(String walletAddress) {
-        Optional<Worker> optionalWorker = getWorker(walletAddress);
-        if (!optionalWorker.isPresent()){
-            return false;
+        if (clusterConfiguration.isEnabled() || !workerAssignmentIndex.contains(walletAddress)) {
+            Optional<Worker> optionalWorker = getWorker(walletAddress);
+            if (!optionalWorker.isPresent()) {
+                return false;
+            }
+            workerAssignmentIndex.load(Collections.singletonList(optionalWorker.get()));
         }
 
-        Worker worker = optionalWorker.get();
-        int workerCpuNb = worker.getCpuNb();
-        int runningReplicateNb = worker.getComputingChainTaskIds().size();
-
-        if (runningReplicateNb >= workerCpuNb) {
-            log.info("Worker asking for too many replicates [walletAddress: {}, runningReplicateNb:{}, workerCpuNb:{}]",
-                    walletAddress, runningReplicateNb, workerCpuNb);
+        int nbFreeSlots = workerAssignmentIndex.getNbFreeSlots(walletAddress);
+        if (nbFreeSlots <= 0) {
+            log.info("Worker asking for too many replicates [walletAddress: {}, nbFreeSlots:{}]",
+                    walletAddress, nbFreeSlots);
             return false;
         }
 
         return true;
     }
+
+    private static Query getWorkerQuery(String walletAddress) {
+        return query(where("walletAddress").is(walletAddress));
+    }
 }
@@ -0,0 +1,39 @@
+package com.iexec.core.worker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Completion-time statistics of the workers, used to anticipate the replicates which won't contribute before the
+ * contribution deadline. The expected contribution time of a worker is an exponentially weighted moving average of its
+ * past contribution times (from the creation of the replicate to its CONTRIBUTED status), so that recent tasks weigh
+ * more. The statistics are kept in memory only: they are rebuilt from the next contributions after a restart.
+ */
+@Slf4j
+@Service
+public class WorkerStatsService {
+
+    // weight of the latest contribution time in the average
+    static final double SMOOTHING_FACTOR = 0.3;
+
+    private final Map<String, Double> expectedContributionTimeByWallet = new ConcurrentHashMap<>();
+
+    public void addContributionTime(String walletAddress, long contributionTime) {
+        if (contributionTime < 0) {
+            return;
+        }
+        double expected = expectedContributionTimeByWallet.merge(walletAddress, (double) contributionTime,
+                (previous, latest) -> SMOOTHING_FACTOR * latest + (1 - SMOOTHING_FACTOR) * previous);
+        log.debug("Contribution time added [walletAddress:{}, contributionTime:{}, expectedContributionTime:{}]",
+                walletAddress, contributionTime, (long) expected);
+    }
+
+    public Optional<Long> getExpectedContributionTime(String walletAddress) {
+        Double expected = expectedContributionTimeByWallet.get(walletAddress);
+        return expected != null ? Optional.of(Math.round(expected)) : Optional.empty();
+    }
+}
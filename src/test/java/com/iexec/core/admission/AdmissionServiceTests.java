@@ -0,0 +1,105 @@
+package com.iexec.core.admission;
+
+import com.iexec.core.metrics.MetricsService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AdmissionServiceTests {
+
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String WALLET_WORKER_2 = "0x2a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String ENDPOINT = "/tasks/available";
+
+    @Mock
+    private MetricsService metricsService;
+
+    @InjectMocks
+    private AdmissionService admissionService;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(admissionService, "enabled", true);
+        ReflectionTestUtils.setField(admissionService, "walletRate", 1);
+        ReflectionTestUtils.setField(admissionService, "walletBurst", 2);
+        ReflectionTestUtils.setField(admissionService, "maxConcurrentRequests", 1);
+        ReflectionTestUtils.setField(admissionService, "maxMongoLatency", 500);
+        ReflectionTestUtils.setField(admissionService, "maxRpcLatency", 5000);
+        ReflectionTestUtils.setField(admissionService, "retryAfter", 5);
+        admissionService.init();
+    }
+
+    @Test
+    public void shouldAdmitAnyRequestWhenDisabled() {
+        ReflectionTestUtils.setField(admissionService, "enabled", false);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(admissionService.admit(ENDPOINT, WALLET_WORKER_1, true)).isEmpty();
+        }
+    }
+
+    @Test
+    public void shouldRejectWorkerAboveRate() {
+        assertThat(admissionService.admit(ENDPOINT, WALLET_WORKER_1, false)).isEmpty();
+        assertThat(admissionService.admit(ENDPOINT, WALLET_WORKER_1, false)).isEmpty();
+
+        Optional<ResponseEntity> rejection = admissionService.admit(ENDPOINT, WALLET_WORKER_1, false);
+
+        assertThat(rejection).isPresent();
+        assertThat(rejection.get().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejection.get().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+        verify(metricsService).incrementAdmissionRejections(ENDPOINT, AdmissionService.RATE_LIMITED);
+    }
+
+    @Test
+    public void shouldNotRateLimitOtherWorkers() {
+        admissionService.admit(ENDPOINT, WALLET_WORKER_1, false);
+        admissionService.admit(ENDPOINT, WALLET_WORKER_1, false);
+
+        assertThat(admissionService.admit(ENDPOINT, WALLET_WORKER_2, false)).isEmpty();
+    }
+
+    @Test
+    public void shouldRejectExpensiveRequestAboveConcurrency() {
+        assertThat(admissionService.admit(ENDPOINT, WALLET_WORKER_1, true)).isEmpty();
+
+        assertThat(admissionService.admit(ENDPOINT, WALLET_WORKER_2, true)).isPresent();
+        verify(metricsService).incrementAdmissionRejections(ENDPOINT, AdmissionService.TOO_MANY_CONCURRENT);
+    }
+
+    @Test
+    public void shouldAdmitExpensiveRequestOnceReleased() {
+        admissionService.admit(ENDPOINT, WALLET_WORKER_1, true);
+        admissionService.release();
+
+        assertThat(admissionService.admit(ENDPOINT, WALLET_WORKER_2, true)).isEmpty();
+    }
+
+    @Test
+    public void shouldShedExpensiveRequestWhenMongoIsSlow() {
+        when(metricsService.getRecentMongoLatencyMillis()).thenReturn(1000d);
+
+        assertThat(admissionService.admit(ENDPOINT, WALLET_WORKER_1, true)).isPresent();
+        verify(metricsService).incrementAdmissionRejections(ENDPOINT, AdmissionService.OVERLOADED);
+    }
+
+    @Test
+    public void shouldNotShedCheapRequestWhenChainNodeIsSlow() {
+        when(metricsService.getRecentRpcLatencyMillis()).thenReturn(10000d);
+
+        assertThat(admissionService.admit(ENDPOINT, WALLET_WORKER_1, false)).isEmpty();
+    }
+}
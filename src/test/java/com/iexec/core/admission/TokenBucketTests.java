@@ -0,0 +1,28 @@
+package com.iexec.core.admission;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTests {
+
+    @Test
+    public void shouldAllowBurstThenRefillAtRate() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+
+        assertThat(bucket.tryConsume(0)).isTrue();
+        assertThat(bucket.tryConsume(0)).isTrue();
+        assertThat(bucket.tryConsume(0)).isFalse();
+        assertThat(bucket.tryConsume(500)).isFalse();
+        assertThat(bucket.tryConsume(1000)).isTrue();
+    }
+
+    @Test
+    public void shouldNotRefillAboveCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+
+        assertThat(bucket.tryConsume(60000)).isTrue();
+        assertThat(bucket.tryConsume(60000)).isTrue();
+        assertThat(bucket.tryConsume(60000)).isFalse();
+    }
+}
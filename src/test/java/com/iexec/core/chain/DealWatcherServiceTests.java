@@ -4,6 +4,9 @@ import com.iexec.common.chain.ChainApp;
 import com.iexec.common.chain.ChainAppParams;
 import com.iexec.common.chain.ChainCategory;
 import com.iexec.common.chain.ChainDeal;
+import com.iexec.core.cluster.ClusterConfiguration;
+import com.iexec.core.cluster.LeaderElectionService;
+import com.iexec.core.cluster.LeadershipChangedEvent;
 import com.iexec.core.configuration.ConfigurationService;
 import com.iexec.core.task.Task;
 import com.iexec.core.task.TaskService;
@@ -15,6 +18,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.context.ApplicationEventPublisher;
 import rx.Observable;
 
@@ -40,6 +44,10 @@ public class DealWatcherServiceTests {
     @Mock
     private TaskService taskService;
 
+    // standalone scheduler, always the leader
+    @Spy
+    private LeaderElectionService leaderElectionService = new LeaderElectionService(new ClusterConfiguration(), null, null);
+
     @InjectMocks
     private DealWatcherService dealWatcherService;
 
@@ -260,4 +268,30 @@ public class DealWatcherServiceTests {
         Mockito.verify(iexecHubService, Mockito.times(0))
                 .getChainDeal(any());
     }
+
+    @Test
+    public void shouldNotWatchDealsWhenNotLeader() {
+        when(configurationService.getLastSeenBlockWithDeal()).thenReturn(BigInteger.TEN);
+        when(configurationService.getFromReplay()).thenReturn(BigInteger.ZERO);
+        Mockito.doReturn(false).when(leaderElectionService).isLeader();
+
+        dealWatcherService.run();
+        dealWatcherService.replayDealEvent();
+
+        Mockito.verify(iexecHubService, Mockito.never()).getDealEventObservableToLatest(any());
+        Mockito.verify(iexecHubService, Mockito.never()).getDealEventObservable(any(), any());
+    }
+
+    @Test
+    public void shouldWatchDealsWhenLeadershipWon() {
+        BigInteger blockNumber = BigInteger.TEN;
+        when(configurationService.getLastSeenBlockWithDeal()).thenReturn(blockNumber);
+        when(iexecHubService.getDealEventObservableToLatest(blockNumber))
+                .thenReturn(Observable.just(Optional.empty()));
+
+        dealWatcherService.onLeadershipChangedEvent(new LeadershipChangedEvent(true));
+
+        Mockito.verify(iexecHubService, Mockito.times(1))
+                .getDealEventObservableToLatest(blockNumber);
+    }
 }
@@ -0,0 +1,106 @@
+package com.iexec.core.cluster;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class LeaderElectionServiceTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private ClusterConfiguration clusterConfiguration;
+
+    private LeaderElectionService leaderElectionService;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        clusterConfiguration = new ClusterConfiguration();
+        ReflectionTestUtils.setField(clusterConfiguration, "enabled", true);
+        ReflectionTestUtils.setField(clusterConfiguration, "instanceId", "instance1");
+        ReflectionTestUtils.setField(clusterConfiguration, "leaderLeaseDuration", 10000L);
+        leaderElectionService = new LeaderElectionService(clusterConfiguration, mongoTemplate, applicationEventPublisher);
+    }
+
+    @Test
+    public void shouldBeLeaderWhenClusterDisabled() {
+        ReflectionTestUtils.setField(clusterConfiguration, "enabled", false);
+
+        leaderElectionService.renewLease();
+
+        assertThat(leaderElectionService.isLeader()).isTrue();
+        verifyZeroInteractions(mongoTemplate);
+    }
+
+    @Test
+    public void shouldNotBeLeaderBeforeLease() {
+        assertThat(leaderElectionService.isLeader()).isFalse();
+    }
+
+    @Test
+    public void shouldBecomeLeaderOnceOnLease() {
+        leaderElectionService.renewLease();
+        leaderElectionService.renewLease();
+
+        assertThat(leaderElectionService.isLeader()).isTrue();
+        verify(applicationEventPublisher, times(1)).publishEvent(new LeadershipChangedEvent(true));
+    }
+
+    @Test
+    public void shouldNotTrustLeaseWithinSafetyMargin() {
+        ReflectionTestUtils.setField(clusterConfiguration, "leaseSafetyMargin", 10000L);
+
+        leaderElectionService.renewLease();
+
+        assertThat(leaderElectionService.isLeader()).isFalse();
+    }
+
+    @Test
+    public void shouldNotBeLeaderWhenLeaseHeldByAnother() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(LeaderElectionService.LEADER_COLLECTION)))
+                .thenThrow(new DuplicateKeyException("lease held"));
+
+        leaderElectionService.renewLease();
+
+        assertThat(leaderElectionService.isLeader()).isFalse();
+        verify(applicationEventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void shouldLoseLeadershipWhenLeaseTakenOver() {
+        leaderElectionService.renewLease();
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(LeaderElectionService.LEADER_COLLECTION)))
+                .thenThrow(new DuplicateKeyException("lease held"));
+
+        leaderElectionService.renewLease();
+
+        assertThat(leaderElectionService.isLeader()).isFalse();
+        verify(applicationEventPublisher).publishEvent(new LeadershipChangedEvent(false));
+    }
+
+    @Test
+    public void shouldReleaseLeaseOnShutdown() {
+        leaderElectionService.renewLease();
+
+        leaderElectionService.releaseLease();
+
+        assertThat(leaderElectionService.isLeader()).isFalse();
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(LeaderElectionService.LEADER_COLLECTION));
+    }
+}
@@ -0,0 +1,127 @@
+package com.iexec.core.cluster;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PartitionServiceTests {
+
+    private final static String CHAIN_TASK_ID = "0x65bc5e94ed1486b940bd6cc0013c418efad58a0a52a3d08cee89faaa21970426";
+    private final static int NB_PARTITIONS = 8;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private ClusterConfiguration clusterConfiguration;
+
+    private PartitionService partitionService;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        clusterConfiguration = new ClusterConfiguration();
+        ReflectionTestUtils.setField(clusterConfiguration, "enabled", true);
+        ReflectionTestUtils.setField(clusterConfiguration, "instanceId", "instance1");
+        ReflectionTestUtils.setField(clusterConfiguration, "nbPartitions", NB_PARTITIONS);
+        ReflectionTestUtils.setField(clusterConfiguration, "leaseDuration", 30000L);
+        partitionService = new PartitionService(clusterConfiguration, mongoTemplate, applicationEventPublisher);
+    }
+
+    @Test
+    public void shouldGetSamePartitionWhateverTheCase() {
+        int partition = PartitionService.getPartition(CHAIN_TASK_ID, NB_PARTITIONS);
+
+        assertThat(partition).isBetween(0, NB_PARTITIONS - 1);
+        assertThat(PartitionService.getPartition(CHAIN_TASK_ID.toUpperCase(), NB_PARTITIONS)).isEqualTo(partition);
+    }
+
+    @Test
+    public void shouldOwnEveryTaskWhenClusterDisabled() {
+        ReflectionTestUtils.setField(clusterConfiguration, "enabled", false);
+
+        assertThat(partitionService.isOwner(CHAIN_TASK_ID)).isTrue();
+    }
+
+    @Test
+    public void shouldNotRenewLeasesWhenClusterDisabled() {
+        ReflectionTestUtils.setField(clusterConfiguration, "enabled", false);
+
+        partitionService.renewLeases();
+
+        verifyZeroInteractions(mongoTemplate);
+    }
+
+    @Test
+    public void shouldNotOwnTaskBeforeAnyLease() {
+        assertThat(partitionService.isOwner(CHAIN_TASK_ID)).isFalse();
+    }
+
+    @Test
+    public void shouldAcquireEveryPartitionWhenAlone() {
+        when(mongoTemplate.count(any(Query.class), eq(PartitionService.MEMBER_COLLECTION))).thenReturn(1L);
+
+        partitionService.renewLeases();
+
+        assertThat(partitionService.getOwnedPartitions()).hasSize(NB_PARTITIONS);
+        assertThat(partitionService.isOwner(CHAIN_TASK_ID)).isTrue();
+        verify(applicationEventPublisher).publishEvent(any(PartitionsAcquiredEvent.class));
+    }
+
+    @Test
+    public void shouldNotTrustLeasesWithinSafetyMargin() {
+        ReflectionTestUtils.setField(clusterConfiguration, "leaseSafetyMargin", 30000L);
+        when(mongoTemplate.count(any(Query.class), eq(PartitionService.MEMBER_COLLECTION))).thenReturn(1L);
+
+        partitionService.renewLeases();
+
+        assertThat(partitionService.isOwner(CHAIN_TASK_ID)).isFalse();
+    }
+
+    @Test
+    public void shouldAcquireFairShareWhenNotAlone() {
+        when(mongoTemplate.count(any(Query.class), eq(PartitionService.MEMBER_COLLECTION))).thenReturn(2L);
+
+        partitionService.renewLeases();
+
+        assertThat(partitionService.getOwnedPartitions()).hasSize(NB_PARTITIONS / 2);
+    }
+
+    @Test
+    public void shouldNotOwnPartitionLeasedByAnother() {
+        when(mongoTemplate.count(any(Query.class), eq(PartitionService.MEMBER_COLLECTION))).thenReturn(2L);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(PartitionService.LEASE_COLLECTION)))
+                .thenThrow(new DuplicateKeyException("lease held"));
+
+        partitionService.renewLeases();
+
+        assertThat(partitionService.getOwnedPartitions()).isEmpty();
+        assertThat(partitionService.isOwner(CHAIN_TASK_ID)).isFalse();
+        verify(applicationEventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void shouldReleaseLeasesOnShutdown() {
+        when(mongoTemplate.count(any(Query.class), eq(PartitionService.MEMBER_COLLECTION))).thenReturn(1L);
+        partitionService.renewLeases();
+
+        partitionService.releaseLeases();
+
+        assertThat(partitionService.getOwnedPartitions()).isEmpty();
+        verify(mongoTemplate, times(NB_PARTITIONS))
+                .updateFirst(any(Query.class), any(Update.class), eq(PartitionService.LEASE_COLLECTION));
+    }
+}
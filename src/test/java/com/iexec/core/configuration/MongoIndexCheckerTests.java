@@ -0,0 +1,118 @@
+package com.iexec.core.configuration;
+
+import com.iexec.core.task.Task;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver.IndexDefinitionHolder;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.util.ClassTypeInformation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+
+public class MongoIndexCheckerTests {
+
+    private final static String CHAIN_DEAL_ID_TASK_INDEX = "chainDealId_taskIndex";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private MongoMappingContext mongoMappingContext;
+    private Map<Class<?>, IndexOperations> indexOperationsByDocument;
+    private MongoIndexChecker mongoIndexChecker;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        mongoMappingContext = new MongoMappingContext();
+        indexOperationsByDocument = new HashMap<>();
+        for (Class<?> documentClass : MongoIndexChecker.INDEXED_DOCUMENTS) {
+            IndexOperations indexOperations = Mockito.mock(IndexOperations.class);
+            when(mongoTemplate.indexOps(documentClass)).thenReturn(indexOperations);
+            indexOperationsByDocument.put(documentClass, indexOperations);
+        }
+        mongoIndexChecker = new MongoIndexChecker(mongoTemplate, mongoMappingContext);
+    }
+
+    @Test
+    public void shouldNotCreateExistingIndexes() {
+        for (Class<?> documentClass : MongoIndexChecker.INDEXED_DOCUMENTS) {
+            mockExistingIndexes(documentClass, getDeclaredIndexes(documentClass));
+        }
+
+        mongoIndexChecker.checkIndexes();
+
+        for (IndexOperations indexOperations : indexOperationsByDocument.values()) {
+            Mockito.verify(indexOperations, Mockito.never()).ensureIndex(any());
+        }
+    }
+
+    @Test
+    public void shouldCreateMissingIndexOnly() {
+        for (Class<?> documentClass : MongoIndexChecker.INDEXED_DOCUMENTS) {
+            mockExistingIndexes(documentClass, getDeclaredIndexes(documentClass));
+        }
+        List<IndexInfo> taskIndexes = getDeclaredIndexes(Task.class);
+        taskIndexes.removeIf(index -> CHAIN_DEAL_ID_TASK_INDEX.equals(index.getName()));
+        mockExistingIndexes(Task.class, taskIndexes);
+
+        mongoIndexChecker.checkIndexes();
+
+        IndexOperations taskIndexOperations = indexOperationsByDocument.get(Task.class);
+        Mockito.verify(taskIndexOperations).ensureIndex(argThat(MongoIndexCheckerTests::isChainDealIdTaskIndex));
+        Mockito.verify(taskIndexOperations, Mockito.times(1)).ensureIndex(any());
+    }
+
+    @Test
+    public void shouldCheckNextDocumentsWhenIndexCreationFails() {
+        for (Class<?> documentClass : MongoIndexChecker.INDEXED_DOCUMENTS) {
+            mockExistingIndexes(documentClass, new ArrayList<>());
+            when(indexOperationsByDocument.get(documentClass).ensureIndex(any()))
+                    .thenThrow(new IllegalStateException("duplicate key"));
+        }
+
+        mongoIndexChecker.checkIndexes();
+
+        for (IndexOperations indexOperations : indexOperationsByDocument.values()) {
+            Mockito.verify(indexOperations).getIndexInfo();
+        }
+    }
+
+    private void mockExistingIndexes(Class<?> documentClass, List<IndexInfo> indexes) {
+        when(indexOperationsByDocument.get(documentClass).getIndexInfo()).thenReturn(indexes);
+    }
+
+    private List<IndexInfo> getDeclaredIndexes(Class<?> documentClass) {
+        List<IndexInfo> indexes = new ArrayList<>();
+        for (IndexDefinitionHolder holder : new MongoPersistentEntityIndexResolver(mongoMappingContext)
+                .resolveIndexFor(ClassTypeInformation.from(documentClass))) {
+            List<IndexField> fields = holder.getIndexKeys().keySet().stream()
+                    .map(key -> IndexField.create(key, Sort.Direction.ASC))
+                    .collect(Collectors.toList());
+            indexes.add(new IndexInfo(fields, holder.getIndexOptions().getString("name"), false, false, null));
+        }
+        return indexes;
+    }
+
+    private static boolean isChainDealIdTaskIndex(IndexDefinition indexDefinition) {
+        return indexDefinition != null && indexDefinition.getIndexKeys().keySet().contains("chainDealId")
+                && indexDefinition.getIndexKeys().keySet().contains("taskIndex");
+    }
+}
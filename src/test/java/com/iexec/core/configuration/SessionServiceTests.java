@@ -0,0 +1,86 @@
+package com.iexec.core.configuration;
+
+import com.iexec.core.cluster.ClusterConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class SessionServiceTests {
+
+    private final static String SESSION_ID = "sessionId";
+
+    @Mock
+    private ConfigurationService configurationService;
+
+    // standalone scheduler
+    @Spy
+    private ClusterConfiguration clusterConfiguration = new ClusterConfiguration();
+
+    @InjectMocks
+    private SessionService sessionService;
+
+    @Before
+    public void init() { MockitoAnnotations.initMocks(this); }
+
+    @Test
+    public void shouldGenerateSessionIdWhenNotPersistent() {
+        sessionService.init();
+
+        assertThat(sessionService.getSessionId()).isNotEmpty();
+        Mockito.verifyZeroInteractions(configurationService);
+    }
+
+    @Test
+    public void shouldKeepSessionIdWhenPersistent() {
+        ReflectionTestUtils.setField(sessionService, "persistent", true);
+        when(configurationService.getSessionId()).thenReturn(SESSION_ID);
+
+        sessionService.init();
+
+        assertThat(sessionService.getSessionId()).isEqualTo(SESSION_ID);
+        Mockito.verify(configurationService, Mockito.never()).setSessionId(any());
+    }
+
+    @Test
+    public void shouldKeepSessionIdWithClusterEnabled() {
+        ReflectionTestUtils.setField(clusterConfiguration, "enabled", true);
+        when(configurationService.getSessionId()).thenReturn(SESSION_ID);
+
+        sessionService.init();
+
+        assertThat(sessionService.getSessionId()).isEqualTo(SESSION_ID);
+    }
+
+    @Test
+    public void shouldSaveFirstPersistentSessionId() {
+        ReflectionTestUtils.setField(sessionService, "persistent", true);
+        when(configurationService.getSessionId()).thenReturn(null, SESSION_ID);
+
+        sessionService.init();
+
+        Mockito.verify(configurationService).setSessionId(any());
+        assertThat(sessionService.getSessionId()).isEqualTo(SESSION_ID);
+    }
+
+    @Test
+    public void shouldUseSessionIdSavedConcurrently() {
+        ReflectionTestUtils.setField(sessionService, "persistent", true);
+        when(configurationService.getSessionId()).thenReturn(null, SESSION_ID);
+        Mockito.doThrow(new OptimisticLockingFailureException("saved concurrently"))
+                .when(configurationService).setSessionId(any());
+
+        sessionService.init();
+
+        assertThat(sessionService.getSessionId()).isEqualTo(SESSION_ID);
+    }
+}
@@ -2,6 +2,8 @@ package com.iexec.core.detector;
 
 import com.iexec.common.replicate.ReplicateStatus;
 import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.core.cluster.ClusterConfiguration;
+import com.iexec.core.cluster.PartitionService;
 import com.iexec.core.replicate.Replicate;
 import com.iexec.core.replicate.ReplicatesService;
 import com.iexec.core.worker.Worker;
@@ -12,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.util.Collections;
 import java.util.Date;
@@ -31,6 +34,10 @@ public class WorkerLostDetectorTests {
     @Mock
     private ReplicatesService replicatesService;
 
+    // standalone scheduler, owning every task
+    @Spy
+    private PartitionService partitionService = new PartitionService(new ClusterConfiguration(), null, null);
+
     @InjectMocks
     private WorkerLostDetector workerLostDetector;
 
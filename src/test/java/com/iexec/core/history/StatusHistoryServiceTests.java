@@ -0,0 +1,63 @@
+package com.iexec.core.history;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.core.task.TaskStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class StatusHistoryServiceTests {
+
+    private final static String CHAIN_TASK_ID = "0x65bc5e94ed1486b940bd6cc0013c418efad58a0a52a3d08cee89faaa21970426";
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+
+    @Mock
+    private StatusHistoryRepository statusHistoryRepository;
+
+    @InjectMocks
+    private StatusHistoryService statusHistoryService;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void shouldAppendTaskStatusChangeWithoutWallet() {
+        Date date = new Date();
+        statusHistoryService.addTaskStatusChange(CHAIN_TASK_ID, TaskStatus.RUNNING, date);
+
+        ArgumentCaptor<StatusHistoryEntry> captor = ArgumentCaptor.forClass(StatusHistoryEntry.class);
+        Mockito.verify(statusHistoryRepository, Mockito.times(1)).insert(captor.capture());
+        assertThat(captor.getValue().getChainTaskId()).isEqualTo(CHAIN_TASK_ID);
+        assertThat(captor.getValue().getWalletAddress()).isEmpty();
+        assertThat(captor.getValue().getStatus()).isEqualTo("RUNNING");
+        assertThat(captor.getValue().getDate()).isEqualTo(date);
+    }
+
+    @Test
+    public void shouldAppendReplicateStatusChange() {
+        statusHistoryService.addReplicateStatusChange(CHAIN_TASK_ID, WALLET_WORKER_1, ReplicateStatus.RUNNING, new Date());
+
+        ArgumentCaptor<StatusHistoryEntry> captor = ArgumentCaptor.forClass(StatusHistoryEntry.class);
+        Mockito.verify(statusHistoryRepository, Mockito.times(1)).insert(captor.capture());
+        assertThat(captor.getValue().getWalletAddress()).isEqualTo(WALLET_WORKER_1);
+    }
+
+    @Test
+    public void shouldNotFailWhenHistoryCannotBeWritten() {
+        when(statusHistoryRepository.insert(any(StatusHistoryEntry.class))).thenThrow(new RuntimeException("down"));
+
+        statusHistoryService.addReplicateStatusChange(CHAIN_TASK_ID, WALLET_WORKER_1, ReplicateStatus.RUNNING, new Date());
+    }
+}
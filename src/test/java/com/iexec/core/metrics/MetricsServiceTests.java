@@ -0,0 +1,103 @@
+package com.iexec.core.metrics;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.core.task.TaskStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsServiceTests {
+
+    private MeterRegistry meterRegistry;
+    private MetricsService metricsService;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsService = new MetricsService(meterRegistry);
+    }
+
+    @Test
+    public void shouldReadTaskCountGaugeFromSource() {
+        List<String> tasks = new ArrayList<>();
+        metricsService.registerTaskCountGauge(TaskStatus.RUNNING, tasks, List::size);
+
+        tasks.add("chainTaskId");
+
+        assertThat(meterRegistry.get(MetricsService.TASKS).tag("status", "RUNNING").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReadNotificationCountsFromSource() {
+        List<String> outbox = new ArrayList<>();
+        AtomicLong sentCount = new AtomicLong();
+        metricsService.registerNotificationMeters(outbox, List::size, o -> sentCount.get(), o -> 0, o -> 0);
+
+        outbox.add("notification");
+        sentCount.addAndGet(3);
+
+        assertThat(meterRegistry.get(MetricsService.NOTIFICATIONS_OUTBOX).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(MetricsService.NOTIFICATIONS).tag("result", "sent").functionCounter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void shouldRecordTaskStatusDurationPerStatus() {
+        metricsService.recordTaskStatusDuration(TaskStatus.INITIALIZED, 2000);
+        metricsService.recordTaskStatusDuration(TaskStatus.INITIALIZED, 4000);
+
+        assertThat(meterRegistry.get(MetricsService.TASK_STATUS_DURATION).tag("status", "INITIALIZED").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(6000);
+    }
+
+    @Test
+    public void shouldCountReplicateTransitionsPerStatus() {
+        metricsService.incrementReplicateTransitions(ReplicateStatus.CONTRIBUTED);
+        metricsService.incrementReplicateTransitions(ReplicateStatus.CONTRIBUTED);
+        metricsService.incrementReplicateTransitions(ReplicateStatus.REVEALED);
+
+        assertThat(meterRegistry.get(MetricsService.REPLICATE_TRANSITIONS).tag("status", "CONTRIBUTED").counter()
+                .count()).isEqualTo(2);
+        assertThat(meterRegistry.get(MetricsService.REPLICATE_TRANSITIONS).tag("status", "REVEALED").counter()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSplitAvailableReplicateRequestsInHitsAndMisses() {
+        metricsService.recordAvailableReplicateRequest(1000, true);
+        metricsService.recordAvailableReplicateRequest(1000, false);
+        metricsService.recordAvailableReplicateRequest(1000, false);
+
+        assertThat(meterRegistry.get(MetricsService.AVAILABLE_REPLICATE_REQUESTS).tag("result", "hit").timer()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(MetricsService.AVAILABLE_REPLICATE_REQUESTS).tag("result", "miss").timer()
+                .count()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldTimeRpcCallAndReturnItsResult() {
+        assertThat(metricsService.timeRpcCall("viewTask", () -> "chainTask")).isEqualTo("chainTask");
+
+        assertThat(meterRegistry.get(MetricsService.CHAIN_RPC).tag("method", "viewTask").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldFollowRecentMongoLatency() {
+        assertThat(metricsService.getRecentMongoLatencyMillis()).isEqualTo(0);
+
+        metricsService.recordMongoCommand("find", true, TimeUnit.MILLISECONDS.toNanos(100));
+        for (int i = 0; i < 100; i++) {
+            metricsService.recordMongoCommand("find", true, TimeUnit.MILLISECONDS.toNanos(1000));
+        }
+
+        assertThat(metricsService.getRecentMongoLatencyMillis()).isBetween(990d, 1000d);
+    }
+}
@@ -0,0 +1,116 @@
+package com.iexec.core.pubsub;
+
+import com.iexec.core.security.JwtTokenProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.*;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class BrokerRelayTests {
+
+    private final static String HOST = "localhost";
+    private final static String TASK_TOPIC = "/topic/task/chainTaskId";
+
+    private int port;
+    private EmbeddedStompBroker broker;
+    private ThreadPoolTaskScheduler clientScheduler;
+
+    @Before
+    public void init() throws Exception {
+        port = getFreePort();
+        broker = new EmbeddedStompBroker(HOST, port);
+        broker.start();
+        clientScheduler = new ThreadPoolTaskScheduler();
+        clientScheduler.afterPropertiesSet();
+    }
+
+    @After
+    public void stop() throws Exception {
+        clientScheduler.shutdown();
+        broker.stop();
+    }
+
+    @Test
+    public void shouldRelayNotificationToSubscriberOfExternalBroker() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(RelayConfiguration.class)
+                .withPropertyValues("broker.relay.enabled=true", "broker.relay.host=" + HOST,
+                        "broker.relay.port=" + port, "broker.relay.login=guest", "broker.relay.passcode=guest")
+                .run(context -> {
+                    StompBrokerRelayMessageHandler relay = context.getBean(StompBrokerRelayMessageHandler.class);
+                    waitUntilBrokerAvailable(relay);
+
+                    // a worker connected to the external broker, not to this scheduler
+                    ReactorNettyTcpStompClient client = new ReactorNettyTcpStompClient(HOST, port);
+                    client.setMessageConverter(new StringMessageConverter());
+                    client.setTaskScheduler(clientScheduler);
+                    StompHeaders connectHeaders = new StompHeaders();
+                    connectHeaders.setLogin("guest");
+                    connectHeaders.setPasscode("guest");
+                    StompSession session = client.connect(connectHeaders, new StompSessionHandlerAdapter() {})
+                            .get(10, TimeUnit.SECONDS);
+                    session.setAutoReceipt(true);
+                    BlockingQueue<String> received = new LinkedBlockingQueue<>();
+                    CountDownLatch subscribed = new CountDownLatch(1);
+                    session.subscribe(TASK_TOPIC, new StompFrameHandler() {
+                        @Override
+                        public Type getPayloadType(StompHeaders headers) {
+                            return String.class;
+                        }
+
+                        @Override
+                        public void handleFrame(StompHeaders headers, Object payload) {
+                            received.add((String) payload);
+                        }
+                    }).addReceiptTask(subscribed::countDown);
+                    assertThat(subscribed.await(10, TimeUnit.SECONDS)).isTrue();
+
+                    context.getBean(SimpMessagingTemplate.class).convertAndSend(TASK_TOPIC, "notification");
+
+                    assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo("notification");
+                    session.disconnect();
+                    client.shutdown();
+                });
+    }
+
+    private static void waitUntilBrokerAvailable(StompBrokerRelayMessageHandler relay) throws InterruptedException {
+        for (int i = 0; i < 100 && !relay.isBrokerAvailable(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(relay.isBrokerAvailable()).isTrue();
+    }
+
+    private static int getFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Configuration
+    @Import({WebSocketConfig.class, BrokerConfiguration.class})
+    static class RelayConfiguration {
+
+        @Bean
+        StompAuthenticationInterceptor stompAuthenticationInterceptor() {
+            return new StompAuthenticationInterceptor(mock(JwtTokenProvider.class));
+        }
+    }
+}
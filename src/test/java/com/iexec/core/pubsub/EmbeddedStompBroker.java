@@ -0,0 +1,36 @@
+package com.iexec.core.pubsub;
+
+import org.apache.activemq.broker.BrokerService;
+
+/**
+ * In-process stand-in for the external message broker of the relay mode, so that the relay can be tested without
+ * any extra infrastructure. Its dependencies are test only, it is not shipped with the scheduler.
+ */
+class EmbeddedStompBroker {
+
+    private String host;
+    private int port;
+    private BrokerService brokerService;
+
+    EmbeddedStompBroker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    void start() throws Exception {
+        brokerService = new BrokerService();
+        brokerService.setBrokerName("iexec-core-embedded-broker");
+        brokerService.setPersistent(false);
+        brokerService.setUseJmx(false);
+        brokerService.addConnector("stomp://" + host + ":" + port);
+        brokerService.start();
+        brokerService.waitUntilStarted();
+    }
+
+    void stop() throws Exception {
+        if (brokerService != null) {
+            brokerService.stop();
+            brokerService.waitUntilStopped();
+        }
+    }
+}
@@ -7,21 +7,59 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.iexec.common.chain.ContributionAuthorization;
 import com.iexec.common.result.TaskNotification;
+import com.iexec.common.result.TaskNotificationType;
+import com.iexec.core.metrics.MetricsService;
+import com.iexec.core.tracing.TracingService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
 
 public class NotificationServiceTests {
 
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String WALLET_WORKER_2 = "0x2ab2674aa374fe6415d11f0a8fcbd8027fc1e6a9";
+
     @Mock
     private SimpMessagingTemplate sender;
 
+    @Mock
+    private SimpUserRegistry simpUserRegistry;
+
+    @Mock
+    private TracingService tracingService;
+
+    @Mock
+    private MetricsService metricsService;
+
     @Spy
     @InjectMocks
     private NotificationService notificationService;
 
     @Before
-    public void init() { MockitoAnnotations.initMocks(this); }
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        when(sender.getMessageConverter()).thenReturn(new MappingJackson2MessageConverter());
+    }
 
     @Test
     public void shouldSendTaskNotification() {
@@ -35,6 +73,249 @@ public class NotificationServiceTests {
         String destination = "/topic/task/" + taskNotification.getChainTaskId();
 
         Mockito.verify(sender, Mockito.times(1))
-            .convertAndSend(destination, taskNotification);
+            .send(eq(destination), any(Message.class));
+    }
+
+    @Test
+    public void shouldBroadcastTaskNotificationWithoutWorkers() {
+        TaskNotification taskNotification = TaskNotification.builder()
+                .chainTaskId("chainTaskId")
+                .taskNotificationType(TaskNotificationType.COMPLETED)
+                .workersAddress(Collections.emptyList())
+                .build();
+
+        notificationService.sendTaskNotification(taskNotification);
+
+        Mockito.verify(sender, Mockito.times(1)).send(eq("/topic/task/chainTaskId"), any(Message.class));
+        Mockito.verify(sender, Mockito.times(1)).send(anyString(), any(Message.class));
+    }
+
+    @Test
+    public void shouldSendTaskNotificationToEachTargetedWorkerOnly() {
+        TaskNotification taskNotification = TaskNotification.builder()
+                .chainTaskId("chainTaskId")
+                .taskNotificationType(TaskNotificationType.PLEASE_REVEAL)
+                .workersAddress(Arrays.asList(WALLET_WORKER_1, WALLET_WORKER_2))
+                .build();
+
+        notificationService.sendTaskNotification(taskNotification);
+
+        Mockito.verify(sender, Mockito.times(1))
+                .send(eq("/user/" + WALLET_WORKER_1 + "/queue/task"), any(Message.class));
+        Mockito.verify(sender, Mockito.times(1))
+                .send(eq("/user/" + WALLET_WORKER_2 + "/queue/task"), any(Message.class));
+        Mockito.verify(sender, Mockito.never()).send(eq("/topic/task/chainTaskId"), any(Message.class));
+    }
+
+    @Test
+    public void shouldSerializeTaskNotificationOnlyOnce() {
+        MappingJackson2MessageConverter converter = Mockito.spy(new MappingJackson2MessageConverter());
+        when(sender.getMessageConverter()).thenReturn(converter);
+        TaskNotification taskNotification = TaskNotification.builder()
+                .chainTaskId("chainTaskId")
+                .taskNotificationType(TaskNotificationType.PLEASE_ABORT_CONSENSUS_REACHED)
+                .workersAddress(Arrays.asList(WALLET_WORKER_1, WALLET_WORKER_2))
+                .build();
+
+        notificationService.sendTaskNotification(taskNotification);
+
+        Mockito.verify(converter, Mockito.times(1)).toMessage(taskNotification, null);
+        Mockito.verify(sender, Mockito.times(2)).send(anyString(), any(Message.class));
+    }
+
+    @Test
+    public void shouldMergeNotificationsOfSameTypeForSameTask() {
+        List<TaskNotification> batch = Arrays.asList(
+                TaskNotification.builder().chainTaskId("chainTaskId")
+                        .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                        .workersAddress(Collections.singletonList(WALLET_WORKER_1)).build(),
+                TaskNotification.builder().chainTaskId("chainTaskId")
+                        .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                        .workersAddress(Arrays.asList(WALLET_WORKER_1, WALLET_WORKER_2)).build());
+
+        List<TaskNotification> coalesced = NotificationService.coalesce(batch);
+
+        assertThat(coalesced).hasSize(1);
+        assertThat(coalesced.get(0).getWorkersAddress()).containsExactly(WALLET_WORKER_1, WALLET_WORKER_2);
+    }
+
+    @Test
+    public void shouldNotMergeNotificationsOfDifferentTasksOrTypes() {
+        List<TaskNotification> batch = Arrays.asList(
+                TaskNotification.builder().chainTaskId("chainTaskId1")
+                        .taskNotificationType(TaskNotificationType.PLEASE_REVEAL)
+                        .workersAddress(Collections.singletonList(WALLET_WORKER_1)).build(),
+                TaskNotification.builder().chainTaskId("chainTaskId1")
+                        .taskNotificationType(TaskNotificationType.PLEASE_ABORT_CONSENSUS_REACHED)
+                        .workersAddress(Collections.singletonList(WALLET_WORKER_2)).build(),
+                TaskNotification.builder().chainTaskId("chainTaskId2")
+                        .taskNotificationType(TaskNotificationType.PLEASE_REVEAL)
+                        .workersAddress(Collections.singletonList(WALLET_WORKER_1)).build());
+
+        assertThat(NotificationService.coalesce(batch)).hasSize(3);
+    }
+
+    @Test
+    public void shouldDropNotificationsSupersededByCompleted() {
+        TaskNotification completed = TaskNotification.builder().chainTaskId("chainTaskId1")
+                .taskNotificationType(TaskNotificationType.COMPLETED)
+                .workersAddress(Collections.emptyList()).build();
+        TaskNotification otherTask = TaskNotification.builder().chainTaskId("chainTaskId2")
+                .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                .workersAddress(Collections.singletonList(WALLET_WORKER_2)).build();
+        List<TaskNotification> batch = Arrays.asList(
+                TaskNotification.builder().chainTaskId("chainTaskId1")
+                        .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                        .workersAddress(Collections.singletonList(WALLET_WORKER_1)).build(),
+                otherTask,
+                completed);
+
+        assertThat(NotificationService.coalesce(batch)).containsExactly(otherTask, completed);
+    }
+
+    @Test
+    public void shouldKeepMergedNotificationAtItsFirstPlace() {
+        TaskNotification uploadWorker1 = TaskNotification.builder().chainTaskId("chainTaskId1")
+                .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                .workersAddress(Collections.singletonList(WALLET_WORKER_1)).build();
+        TaskNotification otherTaskWorker1 = TaskNotification.builder().chainTaskId("chainTaskId2")
+                .taskNotificationType(TaskNotificationType.PLEASE_REVEAL)
+                .workersAddress(Collections.singletonList(WALLET_WORKER_1)).build();
+        TaskNotification uploadWorker2 = TaskNotification.builder().chainTaskId("chainTaskId1")
+                .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                .workersAddress(Collections.singletonList(WALLET_WORKER_2)).build();
+
+        List<TaskNotification> coalesced =
+                NotificationService.coalesce(Arrays.asList(uploadWorker1, otherTaskWorker1, uploadWorker2));
+
+        assertThat(coalesced).hasSize(2);
+        assertThat(coalesced.get(0).getWorkersAddress()).containsExactly(WALLET_WORKER_1, WALLET_WORKER_2);
+        assertThat(coalesced.get(1)).isEqualTo(otherTaskWorker1);
+    }
+
+    @Test
+    public void shouldNotMergeOverNotificationForSameWorker() {
+        TaskNotification uploadWorker1 = TaskNotification.builder().chainTaskId("chainTaskId1")
+                .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                .workersAddress(Collections.singletonList(WALLET_WORKER_1)).build();
+        TaskNotification otherTaskWorker2 = TaskNotification.builder().chainTaskId("chainTaskId2")
+                .taskNotificationType(TaskNotificationType.PLEASE_REVEAL)
+                .workersAddress(Collections.singletonList(WALLET_WORKER_2)).build();
+        TaskNotification uploadWorker2 = TaskNotification.builder().chainTaskId("chainTaskId1")
+                .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                .workersAddress(Collections.singletonList(WALLET_WORKER_2)).build();
+
+        assertThat(NotificationService.coalesce(Arrays.asList(uploadWorker1, otherTaskWorker2, uploadWorker2)))
+                .containsExactly(uploadWorker1, otherTaskWorker2, uploadWorker2);
+    }
+
+    @Test
+    public void shouldSendSingleMessageToWorkerListeningToBatches() {
+        mockWorkerListeningToBatches(WALLET_WORKER_1);
+        List<TaskNotification> batch = Arrays.asList(
+                TaskNotification.builder().chainTaskId("chainTaskId1")
+                        .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                        .workersAddress(Arrays.asList(WALLET_WORKER_1, WALLET_WORKER_2)).build(),
+                TaskNotification.builder().chainTaskId("chainTaskId2")
+                        .taskNotificationType(TaskNotificationType.PLEASE_REVEAL)
+                        .workersAddress(Arrays.asList(WALLET_WORKER_1, WALLET_WORKER_2)).build());
+
+        notificationService.dispatch(batch);
+
+        Mockito.verify(sender, Mockito.times(1))
+                .send(eq("/user/" + WALLET_WORKER_1 + "/queue/task-batch"), any(Message.class));
+        Mockito.verify(sender, Mockito.never())
+                .send(eq("/user/" + WALLET_WORKER_1 + "/queue/task"), any(Message.class));
+        Mockito.verify(sender, Mockito.times(2))
+                .send(eq("/user/" + WALLET_WORKER_2 + "/queue/task"), any(Message.class));
+        assertThat(notificationService.getSentCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldSendTargetedNotificationRightAwayWhenOutboxIsFull() {
+        ArrayBlockingQueue<Object> outbox = new ArrayBlockingQueue<>(1);
+        outbox.add(new Object());
+        ReflectionTestUtils.setField(notificationService, "outbox", outbox);
+
+        notificationService.sendTaskNotification(TaskNotification.builder().chainTaskId("chainTaskId")
+                .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                .workersAddress(Collections.singletonList(WALLET_WORKER_1)).build());
+
+        Mockito.verify(sender, Mockito.times(1))
+                .send(eq("/user/" + WALLET_WORKER_1 + "/queue/task"), any(Message.class));
+        assertThat(notificationService.getOverflowCount()).isZero();
+        assertThat(outbox).hasSize(1);
+    }
+
+    @Test
+    public void shouldDropBroadcastNotificationWhenOutboxIsFull() {
+        ArrayBlockingQueue<Object> outbox = new ArrayBlockingQueue<>(1);
+        outbox.add(new Object());
+        ReflectionTestUtils.setField(notificationService, "outbox", outbox);
+
+        notificationService.sendTaskNotification(TaskNotification.builder().chainTaskId("chainTaskId")
+                .taskNotificationType(TaskNotificationType.COMPLETED)
+                .workersAddress(Collections.emptyList()).build());
+
+        assertThat(notificationService.getOverflowCount()).isEqualTo(1);
+        Mockito.verify(sender, Mockito.never()).send(anyString(), any(Message.class));
+    }
+
+    @Test
+    public void shouldWaitForDispatcherBeforeFlushingOnStop() {
+        AtomicBoolean dispatcherDone = new AtomicBoolean();
+        Thread dispatcher = new Thread(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                // the batch being dispatched when interrupted
+                dispatcherDone.set(true);
+            }
+        });
+        dispatcher.start();
+        ReflectionTestUtils.setField(notificationService, "outbox", new ArrayBlockingQueue<>(1));
+        ReflectionTestUtils.setField(notificationService, "dispatcher", dispatcher);
+
+        notificationService.stop();
+
+        assertThat(dispatcher.isAlive()).isFalse();
+        assertThat(dispatcherDone).isTrue();
+    }
+
+    @Test
+    public void shouldDispatchBatchWithCoalescedNotifications() {
+        TaskNotification notification = TaskNotification.builder().chainTaskId("chainTaskId")
+                .taskNotificationType(TaskNotificationType.PLEASE_UPLOAD)
+                .workersAddress(Collections.singletonList(WALLET_WORKER_1)).build();
+
+        notificationService.dispatch(Arrays.asList(notification, notification));
+
+        Mockito.verify(sender, Mockito.times(1))
+                .send(eq("/user/" + WALLET_WORKER_1 + "/queue/task"), any(Message.class));
+        assertThat(notificationService.getCoalescedCount()).isEqualTo(1);
+        assertThat(notificationService.getSentCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSendContributionAuthorizationToWorkerReplicateQueue() {
+        ContributionAuthorization authorization = ContributionAuthorization.builder()
+                .workerWallet(WALLET_WORKER_1)
+                .chainTaskId("chainTaskId")
+                .build();
+
+        notificationService.sendContributionAuthorization(WALLET_WORKER_1, authorization);
+
+        Mockito.verify(sender, Mockito.times(1))
+                .convertAndSendToUser(WALLET_WORKER_1, "/queue/replicate", authorization);
+    }
+
+    private void mockWorkerListeningToBatches(String walletAddress) {
+        SimpUser user = Mockito.mock(SimpUser.class);
+        SimpSession session = Mockito.mock(SimpSession.class);
+        SimpSubscription subscription = Mockito.mock(SimpSubscription.class);
+        when(subscription.getDestination()).thenReturn(NotificationService.WORKER_TASK_BATCH_SUBSCRIPTION);
+        when(session.getSubscriptions()).thenReturn(Collections.singleton(subscription));
+        when(user.getSessions()).thenReturn(Collections.singleton(session));
+        when(simpUserRegistry.getUser(walletAddress)).thenReturn(user);
     }
-}
\ No newline at end of file
+}
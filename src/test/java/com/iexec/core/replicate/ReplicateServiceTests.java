@@ -5,10 +5,18 @@ import com.iexec.common.replicate.ReplicateStatus;
 import com.iexec.common.replicate.ReplicateStatusModifier;
 import com.iexec.core.chain.IexecHubService;
 import com.iexec.core.chain.Web3jService;
+import com.iexec.core.history.StatusHistoryService;
+import com.iexec.core.metrics.MetricsService;
+import com.iexec.core.worker.WorkerStatsService;
+import com.mongodb.client.result.UpdateResult;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.*;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
@@ -31,6 +39,9 @@ public class ReplicateServiceTests {
     @Mock
     private ReplicatesRepository replicatesRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
     @Mock
     private IexecHubService iexecHubService;
 
@@ -40,55 +51,63 @@ public class ReplicateServiceTests {
     @Mock
     private Web3jService web3jService;
 
-    @InjectMocks
+    @Mock
+    private StatusHistoryService statusHistoryService;
+
+    @Mock
+    private WorkerStatsService workerStatsService;
+
+    @Mock
+    private MetricsService metricsService;
+
     private ReplicatesService replicatesService;
 
     @Before
     public void init() {
         MockitoAnnotations.initMocks(this);
+        replicatesService = new ReplicatesService(new EmbeddedReplicatesStore(replicatesRepository, mongoTemplate),
+                iexecHubService, applicationEventPublisher, web3jService, statusHistoryService, workerStatsService,
+                metricsService);
     }
 
     @Test
-    public void shouldCreateNewReplicate() {
+    public void shouldReserveReplicate() {
         Replicate replicate1 = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
         replicate1.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
-        replicate1.updateStatus(ReplicateStatus.COMPUTED, ReplicateStatusModifier.WORKER);
-        Replicate replicate2 = new Replicate(WALLET_WORKER_2, CHAIN_TASK_ID);
-        replicate2.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
-
-        ArrayList<Replicate> list = new ArrayList<>();
-        list.add(replicate1);
-        list.add(replicate2);
-        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, list);
+        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, new ArrayList<>(Collections.singletonList(replicate1)));
         when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
-        when(replicatesRepository.save(any())).thenReturn(replicatesList);
-        replicatesService.addNewReplicate(CHAIN_TASK_ID, WALLET_WORKER_3);
-        Mockito.verify(replicatesRepository, Mockito.times(1))
-                .save(any());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ReplicatesList.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        Optional<Replicate> replicate = replicatesService.reserveReplicate(CHAIN_TASK_ID, WALLET_WORKER_2, 2, new Date(60000), null);
+
+        assertThat(replicate.isPresent()).isTrue();
+        assertThat(replicate.get().getWalletAddress()).isEqualTo(WALLET_WORKER_2);
+        Mockito.verify(mongoTemplate, Mockito.times(1)).updateFirst(any(Query.class), any(Update.class), eq(ReplicatesList.class));
+        Mockito.verify(replicatesRepository, Mockito.never()).save(any());
     }
 
     @Test
-    public void shouldNotCreateNewReplicate() {
+    public void shouldNotReserveReplicateSinceWorkerAlreadyParticipates() {
         Replicate replicate1 = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
-        replicate1.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
-        replicate1.updateStatus(ReplicateStatus.COMPUTED, ReplicateStatusModifier.WORKER);
-        Replicate replicate2 = new Replicate(WALLET_WORKER_2, CHAIN_TASK_ID);
-        replicate2.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
-
-        ArrayList<Replicate> list = new ArrayList<>();
-        list.add(replicate1);
-        list.add(replicate2);
-        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, list);
+        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, new ArrayList<>(Collections.singletonList(replicate1)));
         when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
-        when(replicatesRepository.save(any())).thenReturn(replicatesList);
 
-        replicatesService.addNewReplicate(CHAIN_TASK_ID, WALLET_WORKER_1);
-        Mockito.verify(replicatesRepository, Mockito.times(0))
-                .save(any());
+        assertThat(replicatesService.reserveReplicate(CHAIN_TASK_ID, WALLET_WORKER_1, 2, new Date(60000), null).isPresent()).isFalse();
+        Mockito.verify(mongoTemplate, Mockito.never()).updateFirst(any(Query.class), any(Update.class), eq(ReplicatesList.class));
+    }
 
-        replicatesService.addNewReplicate(CHAIN_TASK_ID, WALLET_WORKER_2);
-        Mockito.verify(replicatesRepository, Mockito.times(0))
-                .save(any());
+    @Test
+    public void shouldNotReserveReplicateSinceSlotsTakenByOtherWorkers() {
+        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID);
+        when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ReplicatesList.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThat(replicatesService.reserveReplicate(CHAIN_TASK_ID, WALLET_WORKER_1, 2, new Date(60000), null).isPresent()).isFalse();
+        // each attempt is a single conditional update, done again on the up-to-date replicates
+        Mockito.verify(replicatesRepository, Mockito.times(3)).findByChainTaskId(CHAIN_TASK_ID);
+        Mockito.verify(mongoTemplate, Mockito.times(3)).updateFirst(any(Query.class), any(Update.class), eq(ReplicatesList.class));
     }
 
     @Test
@@ -154,30 +173,16 @@ public class ReplicateServiceTests {
 
     @Test
     public void shouldHaveWorkerAlreadyContributed() {
-        Replicate replicate1 = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
-        replicate1.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
-        replicate1.updateStatus(ReplicateStatus.COMPUTED, ReplicateStatusModifier.WORKER);
-        Replicate replicate2 = new Replicate(WALLET_WORKER_2, CHAIN_TASK_ID);
-        replicate2.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
-
-        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, Arrays.asList(replicate1, replicate2));
-
-        when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
+        when(replicatesRepository.existsByChainTaskIdAndReplicatesWalletAddress(CHAIN_TASK_ID, WALLET_WORKER_1))
+                .thenReturn(true);
         assertThat(replicatesService.hasWorkerAlreadyParticipated(CHAIN_TASK_ID, WALLET_WORKER_1)).isTrue();
-        assertThat(replicatesService.hasWorkerAlreadyParticipated(CHAIN_TASK_ID, WALLET_WORKER_2)).isTrue();
+        Mockito.verify(replicatesRepository, Mockito.never()).findByChainTaskId(CHAIN_TASK_ID);
     }
 
     @Test
     public void shouldNotHaveWorkerAlreadyContributed() {
-        Replicate replicate1 = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
-        replicate1.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
-        replicate1.updateStatus(ReplicateStatus.COMPUTED, ReplicateStatusModifier.WORKER);
-        Replicate replicate2 = new Replicate(WALLET_WORKER_2, CHAIN_TASK_ID);
-        replicate2.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
-
-        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, Arrays.asList(replicate1, replicate2));
-
-        when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
+        when(replicatesRepository.existsByChainTaskIdAndReplicatesWalletAddress(CHAIN_TASK_ID, WALLET_WORKER_3))
+                .thenReturn(false);
         assertThat(replicatesService.hasWorkerAlreadyParticipated(CHAIN_TASK_ID, WALLET_WORKER_3)).isFalse();
     }
 
@@ -384,6 +389,59 @@ public class ReplicateServiceTests {
         assertThat(res).isFalse();
     }
 
+    @Test
+    public void shouldNeedSpeculativeReplicateSinceReplicateWouldMissDeadline() {
+        enableSpeculativeReplicates(1);
+        Replicate lateReplicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        lateReplicate.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
+        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, Collections.singletonList(lateReplicate));
+        when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
+        when(workerStatsService.getExpectedContributionTime(WALLET_WORKER_1)).thenReturn(Optional.of(60000L));
+
+        Date contributionDeadline = new Date(new Date().getTime() + 1000);
+        assertThat(replicatesService.moreReplicatesNeeded(CHAIN_TASK_ID, 1, new Date(60000), contributionDeadline)).isTrue();
+    }
+
+    @Test
+    public void shouldNotNeedSpeculativeReplicateSinceReplicateWouldMeetDeadline() {
+        enableSpeculativeReplicates(1);
+        Replicate replicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        replicate.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
+        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, Collections.singletonList(replicate));
+        when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
+        when(workerStatsService.getExpectedContributionTime(WALLET_WORKER_1)).thenReturn(Optional.of(1000L));
+
+        Date contributionDeadline = new Date(new Date().getTime() + 60000);
+        assertThat(replicatesService.moreReplicatesNeeded(CHAIN_TASK_ID, 1, new Date(60000), contributionDeadline)).isFalse();
+    }
+
+    @Test
+    public void shouldNotNeedMoreSpeculativeReplicatesThanAllowed() {
+        enableSpeculativeReplicates(1);
+        Replicate lateReplicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        lateReplicate.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
+        Replicate speculativeReplicate = new Replicate(WALLET_WORKER_2, CHAIN_TASK_ID);
+        speculativeReplicate.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
+        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, Arrays.asList(lateReplicate, speculativeReplicate));
+        when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
+        when(workerStatsService.getExpectedContributionTime(WALLET_WORKER_1)).thenReturn(Optional.of(60000L));
+
+        Date contributionDeadline = new Date(new Date().getTime() + 1000);
+        assertThat(replicatesService.moreReplicatesNeeded(CHAIN_TASK_ID, 1, new Date(60000), contributionDeadline)).isFalse();
+    }
+
+    @Test
+    public void shouldNotNeedSpeculativeReplicateSinceDisabled() {
+        Replicate lateReplicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        lateReplicate.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
+        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, Collections.singletonList(lateReplicate));
+        when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
+        when(workerStatsService.getExpectedContributionTime(WALLET_WORKER_1)).thenReturn(Optional.of(60000L));
+
+        Date contributionDeadline = new Date(new Date().getTime() + 1000);
+        assertThat(replicatesService.moreReplicatesNeeded(CHAIN_TASK_ID, 1, new Date(60000), contributionDeadline)).isFalse();
+    }
+
     @Test
     public void shouldUpdateReplicateStatus(){
         Replicate replicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
@@ -408,6 +466,24 @@ public class ReplicateServiceTests {
         assertThat(argumentCaptor.getAllValues().get(0)).isEqualTo(new ReplicateComputedEvent(replicate));
         assertThat(argumentCaptor.getAllValues().get(1)).isEqualTo(new ReplicateUpdatedEvent(replicate.getChainTaskId(), ReplicateStatus.CONTRIBUTED));
         assertThat(replicatesList.getReplicates().get(0).getContributionHash()).isEqualTo(resultHash);
+        Mockito.verify(workerStatsService, Mockito.times(1)).addContributionTime(eq(WALLET_WORKER_1), anyLong());
+    }
+
+    @Test
+    public void shouldNoLongerCountStragglerAbortedOnConsensusReached() {
+        Replicate straggler = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        straggler.updateStatus(ReplicateStatus.COMPUTING, ReplicateStatusModifier.WORKER);
+        ReplicatesList replicatesList = new ReplicatesList(CHAIN_TASK_ID, Collections.singletonList(straggler));
+        when(replicatesRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(replicatesList));
+        when(replicatesRepository.save(replicatesList)).thenReturn(replicatesList);
+
+        replicatesService.updateReplicateStatus(CHAIN_TASK_ID, WALLET_WORKER_1,
+                ReplicateStatus.ABORTED_ON_CONSENSUS_REACHED, ReplicateStatusModifier.POOL_MANAGER);
+
+        assertThat(replicatesService.getNbReplicatesWithCurrentStatus(CHAIN_TASK_ID,
+                ReplicateStatus.getSuccessStatuses().toArray(new ReplicateStatus[0]))).isEqualTo(0);
+        // the worker of a replicate no longer computing gets its slot back
+        Mockito.verify(applicationEventPublisher, Mockito.times(1)).publishEvent(new ReplicateComputedEvent(straggler));
     }
 
     @Test
@@ -568,4 +644,9 @@ public class ReplicateServiceTests {
 
         assertThat(replicatesService.getNbOffChainReplicatesWithStatus(CHAIN_TASK_ID, CONTRIBUTED)).isEqualTo(0);
     }
-}
\ No newline at end of file
+
+    private void enableSpeculativeReplicates(int maxReplicates) {
+        ReflectionTestUtils.setField(replicatesService, "speculativeEnabled", true);
+        ReflectionTestUtils.setField(replicatesService, "speculativeMaxReplicates", maxReplicates);
+    }
+}
@@ -3,6 +3,7 @@ package com.iexec.core.replicate;
 import com.iexec.common.replicate.ReplicateStatus;
 import com.iexec.common.replicate.ReplicateStatusChange;
 import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.core.utils.StatusHistoryUtils;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -134,4 +135,24 @@ public class ReplicateTests {
         replicate.updateStatus(ReplicateStatus.COMPLETED, ReplicateStatusModifier.WORKER);
         assertThat(replicate.isBusyComputing()).isFalse();
     }
+
+    @Test
+    public void shouldKeepInlineStatusHistoryBoundedWhenRetryingUpload(){
+        Replicate replicate = new Replicate("worker", "taskId");
+        replicate.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
+        replicate.updateStatus(ReplicateStatus.CONTRIBUTED, ReplicateStatusModifier.WORKER);
+        replicate.updateStatus(ReplicateStatus.REVEALED, ReplicateStatusModifier.WORKER);
+        for (int i = 0; i < 50; i++) {
+            replicate.updateStatus(ReplicateStatus.RESULT_UPLOAD_REQUESTED, ReplicateStatusModifier.POOL_MANAGER);
+            replicate.updateStatus(ReplicateStatus.RESULT_UPLOAD_REQUEST_FAILED, ReplicateStatusModifier.WORKER);
+        }
+
+        assertThat(replicate.getStatusChangeList().size()).isLessThanOrEqualTo(1 + StatusHistoryUtils.RECENT_STATUS_CHANGES + ReplicateStatus.values().length);
+        assertThat(replicate.getStatusChangeList().get(0).getStatus()).isEqualTo(ReplicateStatus.CREATED);
+        assertThat(replicate.getCurrentStatus()).isEqualTo(ReplicateStatus.RESULT_UPLOAD_REQUEST_FAILED);
+        assertThat(replicate.getLastButOneStatus()).isEqualTo(ReplicateStatus.RESULT_UPLOAD_REQUESTED);
+        assertThat(replicate.containsContributedStatus()).isTrue();
+        assertThat(replicate.containsStatus(ReplicateStatus.REVEALED)).isTrue();
+    }
+
 }
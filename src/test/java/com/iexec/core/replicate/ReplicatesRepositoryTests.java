@@ -0,0 +1,60 @@
+package com.iexec.core.replicate;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// derived queries run against an embedded mongo
+@RunWith(SpringRunner.class)
+@DataMongoTest
+public class ReplicatesRepositoryTests {
+
+    private final static String CHAIN_TASK_ID = "chainTaskId";
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String WALLET_WORKER_2 = "0x2ab2674aa374fe6415d11f0a8fcbd8027fc1e6a9";
+    private final static String WALLET_WORKER_3 = "0x3a3406e69adf886c442ff1791cbf67cea679275d";
+
+    @Autowired
+    private ReplicatesRepository replicatesRepository;
+
+    @Before
+    public void init() {
+        replicatesRepository.deleteAll();
+        replicatesRepository.save(new ReplicatesList(CHAIN_TASK_ID, Arrays.asList(
+                new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID),
+                new Replicate(WALLET_WORKER_2, CHAIN_TASK_ID))));
+        replicatesRepository.save(new ReplicatesList("otherChainTaskId", Arrays.asList(
+                new Replicate(WALLET_WORKER_3, "otherChainTaskId"))));
+    }
+
+    @Test
+    public void shouldFindReplicateOfWorkerInReplicatesList() {
+        assertThat(replicatesRepository.existsByChainTaskIdAndReplicatesWalletAddress(CHAIN_TASK_ID, WALLET_WORKER_1))
+                .isTrue();
+        assertThat(replicatesRepository.existsByChainTaskIdAndReplicatesWalletAddress(CHAIN_TASK_ID, WALLET_WORKER_2))
+                .isTrue();
+    }
+
+    @Test
+    public void shouldNotFindReplicateOfWorkerOfAnotherTask() {
+        assertThat(replicatesRepository.existsByChainTaskIdAndReplicatesWalletAddress(CHAIN_TASK_ID, WALLET_WORKER_3))
+                .isFalse();
+        assertThat(replicatesRepository.existsByChainTaskIdAndReplicatesWalletAddress("unknown", WALLET_WORKER_1))
+                .isFalse();
+    }
+
+    // only the repository under test, the application itself needs a chain node
+    @Configuration
+    @EnableMongoRepositories(basePackageClasses = ReplicatesRepository.class)
+    static class RepositoryConfiguration {
+    }
+}
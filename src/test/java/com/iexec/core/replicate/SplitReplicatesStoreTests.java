@@ -0,0 +1,127 @@
+package com.iexec.core.replicate;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SplitReplicatesStoreTests {
+
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String WALLET_WORKER_2 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd249";
+    private final static String CHAIN_TASK_ID = "0x65bc5e94ed1486b940bd6cc0013c418efad58a0a52a3d08cee89faaa21970426";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private SplitReplicatesStore splitReplicatesStore;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+    }
+
+    @Test
+    public void shouldBuildReplicatesListFromReplicateDocuments() {
+        Replicate replicate1 = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        Replicate replicate2 = new Replicate(WALLET_WORKER_2, CHAIN_TASK_ID);
+        when(mongoTemplate.find(any(Query.class), eq(Replicate.class), eq(SplitReplicatesStore.REPLICATE_COLLECTION)))
+                .thenReturn(Arrays.asList(replicate1, replicate2));
+
+        Optional<ReplicatesList> replicatesList = splitReplicatesStore.getReplicatesList(CHAIN_TASK_ID);
+
+        assertThat(replicatesList.isPresent()).isTrue();
+        assertThat(replicatesList.get().getChainTaskId()).isEqualTo(CHAIN_TASK_ID);
+        assertThat(replicatesList.get().getReplicates()).containsExactly(replicate1, replicate2);
+    }
+
+    @Test
+    public void shouldReserveReplicateInNextSlot() {
+        Replicate replicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+
+        assertThat(splitReplicatesStore.reserveReplicate(CHAIN_TASK_ID, 1, replicate)).isTrue();
+
+        ArgumentCaptor<Document> document = ArgumentCaptor.forClass(Document.class);
+        Mockito.verify(mongoTemplate, Mockito.times(1)).insert(document.capture(), eq(SplitReplicatesStore.REPLICATE_COLLECTION));
+        assertThat(document.getValue().getInteger(SplitReplicatesStore.SLOT_FIELD)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotReserveReplicateWhenSlotOrWorkerTaken() {
+        Replicate replicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        when(mongoTemplate.insert(any(Document.class), eq(SplitReplicatesStore.REPLICATE_COLLECTION)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+
+        assertThat(splitReplicatesStore.reserveReplicate(CHAIN_TASK_ID, 1, replicate)).isFalse();
+        // nothing else was written, there is nothing to release
+        Mockito.verify(mongoTemplate, Mockito.never()).updateFirst(any(Query.class), any(Update.class), any(String.class));
+    }
+
+    @Test
+    public void shouldUpdateOnlyTheDocumentOfTheReplicate() {
+        Replicate replicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        mockUpdateResult(1);
+
+        splitReplicatesStore.updateReplicate(new ReplicatesList(CHAIN_TASK_ID), replicate);
+
+        Mockito.verify(mongoTemplate, Mockito.times(1)).updateFirst(any(Query.class), any(Update.class),
+                eq(SplitReplicatesStore.REPLICATE_COLLECTION));
+    }
+
+    @Test
+    public void shouldOnlyUpdateReplicateAsItWasRead() {
+        Replicate replicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        replicate.setVersion(3L);
+        replicate.updateStatus(ReplicateStatus.RUNNING, ReplicateStatusModifier.WORKER);
+        mockUpdateResult(1);
+
+        splitReplicatesStore.updateReplicate(new ReplicatesList(CHAIN_TASK_ID), replicate);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        Mockito.verify(mongoTemplate).updateFirst(query.capture(), update.capture(),
+                eq(SplitReplicatesStore.REPLICATE_COLLECTION));
+        assertThat(query.getValue().getQueryObject().get(SplitReplicatesStore.VERSION_FIELD)).isEqualTo(3L);
+        assertThat(update.getValue().getUpdateObject().get("$inc"))
+                .isEqualTo(new Document(SplitReplicatesStore.VERSION_FIELD, 1));
+    }
+
+    @Test(expected = OptimisticLockingFailureException.class)
+    public void shouldFailUpdateWhenReplicateUpdatedSinceRead() {
+        Replicate replicate = new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID);
+        replicate.updateStatus(ReplicateStatus.CONTRIBUTED, ReplicateStatusModifier.WORKER);
+        mockUpdateResult(0);
+        when(mongoTemplate.exists(any(Query.class), eq(SplitReplicatesStore.REPLICATE_COLLECTION))).thenReturn(true);
+
+        splitReplicatesStore.updateReplicate(new ReplicatesList(CHAIN_TASK_ID), replicate);
+    }
+
+    private void mockUpdateResult(long matchedCount) {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(SplitReplicatesStore.REPLICATE_COLLECTION)))
+                .thenReturn(UpdateResult.acknowledged(matchedCount, matchedCount, null));
+    }
+}
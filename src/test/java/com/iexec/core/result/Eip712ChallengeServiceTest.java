@@ -1,15 +1,20 @@
 package com.iexec.core.result;
 
 import com.iexec.common.result.eip712.Eip712Challenge;
+import com.iexec.core.security.AuthStore;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class Eip712ChallengeServiceTest {
 
+    @Mock
+    private AuthStore authStore;
+
     @InjectMocks
     private Eip712ChallengeService eip712ChallengeService;
 
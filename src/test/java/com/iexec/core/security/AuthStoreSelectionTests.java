@@ -0,0 +1,56 @@
+package com.iexec.core.security;
+
+import org.junit.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+public class AuthStoreSelectionTests {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(AuthStoreConfiguration.class);
+
+    @Test
+    public void shouldUseLocalStoreByDefault() {
+        contextRunner.run(context -> assertThat(context)
+                .hasSingleBean(LocalAuthStore.class)
+                .doesNotHaveBean(MongoAuthStore.class));
+    }
+
+    @Test
+    public void shouldUseMongoStoreWhenAsked() {
+        contextRunner.withPropertyValues("auth.store=mongo").run(context -> assertThat(context)
+                .hasSingleBean(MongoAuthStore.class)
+                .doesNotHaveBean(LocalAuthStore.class));
+    }
+
+    @Test
+    public void shouldUseMongoStoreWithClusterEnabled() {
+        contextRunner.withPropertyValues("auth.store=local", "cluster.enabled=true").run(context -> assertThat(context)
+                .hasSingleBean(MongoAuthStore.class)
+                .doesNotHaveBean(LocalAuthStore.class));
+    }
+
+    @Test
+    public void shouldUseMongoStoreWithPersistentSession() {
+        contextRunner.withPropertyValues("session.persistent=true").run(context -> assertThat(context)
+                .hasSingleBean(MongoAuthStore.class)
+                .doesNotHaveBean(LocalAuthStore.class));
+    }
+
+    @Configuration
+    @Import({LocalAuthStore.class, MongoAuthStore.class})
+    static class AuthStoreConfiguration {
+
+        @Bean
+        MongoTemplate mongoTemplate() {
+            return mock(MongoTemplate.class, RETURNS_DEEP_STUBS);
+        }
+    }
+}
@@ -11,7 +11,7 @@ public class ChallengeServiceTests {
     private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
     private final static String WALLET_WORKER_2 = "0x2a69b2eb604db8eba185df03ea4f5288dcbbd248";
 
-    private ChallengeService challengeService = new ChallengeService();
+    private ChallengeService challengeService = new ChallengeService(new LocalAuthStore());
 
     @Before
     public void init() { MockitoAnnotations.initMocks(this); }
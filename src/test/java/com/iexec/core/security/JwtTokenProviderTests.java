@@ -5,6 +5,7 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import io.jsonwebtoken.MalformedJwtException;
 
@@ -18,6 +19,9 @@ public class JwtTokenProviderTests {
     @Mock
     private ChallengeService challengeService;
 
+    @Spy
+    private AuthStore authStore = new LocalAuthStore();
+
     @InjectMocks
     private JwtTokenProvider jwtTokenProvider;
 
@@ -104,6 +108,19 @@ public class JwtTokenProviderTests {
         jwtTokenProvider.getWalletAddress("non.valid.token");
     }
 
+    @Test
+    public void isValidTokenTrueSinceSigningKeyShared() {
+        when(challengeService.getChallenge(WALLET_WORKER)).thenReturn("challenge");
+
+        jwtTokenProvider.init();
+        String token = jwtTokenProvider.createToken(WALLET_WORKER);
+        // another scheduler (or this one restarted) sharing the same store
+        JwtTokenProvider otherJwtTokenProvider = new JwtTokenProvider(challengeService, authStore);
+        otherJwtTokenProvider.init();
+
+        assertThat(otherJwtTokenProvider.isValidToken(token)).isTrue();
+    }
+
     @Test
     public void shouldGetCorrectWalletAddressFromBearerToken() {
         when(challengeService.getChallenge(WALLET_WORKER)).thenReturn("challenge");
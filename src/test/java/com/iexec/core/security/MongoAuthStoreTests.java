@@ -0,0 +1,85 @@
+package com.iexec.core.security;
+
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MongoAuthStoreTests {
+
+    private final static String WALLET_WORKER = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private MongoAuthStore mongoAuthStore;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        mongoAuthStore = new MongoAuthStore(mongoTemplate);
+    }
+
+    @Test
+    public void shouldGetChallengeStoredByAnotherScheduler() {
+        mockStoredValue("storedChallenge", new Date(new Date().getTime() + AuthStore.CHALLENGE_VALIDITY));
+
+        String challenge = mongoAuthStore.putChallengeIfAbsent(WALLET_WORKER, "newChallenge");
+
+        assertThat(challenge).isEqualTo("storedChallenge");
+    }
+
+    @Test
+    public void shouldCacheChallenge() {
+        mockStoredValue("storedChallenge", new Date(new Date().getTime() + AuthStore.CHALLENGE_VALIDITY));
+
+        mongoAuthStore.putChallengeIfAbsent(WALLET_WORKER, "newChallenge");
+        String challenge = mongoAuthStore.putChallengeIfAbsent(WALLET_WORKER, "otherChallenge");
+
+        assertThat(challenge).isEqualTo("storedChallenge");
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq(MongoAuthStore.AUTH_COLLECTION));
+    }
+
+    @Test
+    public void shouldReadSigningKeyStoredConcurrently() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(MongoAuthStore.AUTH_COLLECTION)))
+                .thenThrow(new DuplicateKeyException("stored concurrently"));
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq(MongoAuthStore.AUTH_COLLECTION)))
+                .thenReturn(new Document("value", "storedKey"));
+
+        assertThat(mongoAuthStore.putSigningKeyIfAbsent("newKey")).isEqualTo("storedKey");
+        assertThat(mongoAuthStore.putSigningKeyIfAbsent("otherKey")).isEqualTo("storedKey");
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(Document.class), eq(MongoAuthStore.AUTH_COLLECTION));
+    }
+
+    @Test
+    public void shouldUseEip712ChallengeOnce() {
+        when(mongoTemplate.remove(any(Query.class), eq(MongoAuthStore.AUTH_COLLECTION)))
+                .thenReturn(DeleteResult.acknowledged(1), DeleteResult.acknowledged(0));
+
+        assertThat(mongoAuthStore.removeEip712Challenge("eip712Challenge")).isTrue();
+        assertThat(mongoAuthStore.removeEip712Challenge("eip712Challenge")).isFalse();
+    }
+
+    private void mockStoredValue(String value, Date expirationDate) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(MongoAuthStore.AUTH_COLLECTION)))
+                .thenReturn(new Document("value", value).append("expirationDate", expirationDate));
+    }
+}
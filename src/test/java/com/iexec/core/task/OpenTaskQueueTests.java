@@ -0,0 +1,102 @@
+package com.iexec.core.task;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OpenTaskQueueTests {
+
+    @Test
+    public void shouldPutTaskClosestToDeadlineFirst() {
+        OpenTaskQueue queue = new OpenTaskQueue();
+        queue.put(getTask("late", TaskStatus.RUNNING, 3000, 2));
+        queue.put(getTask("early", TaskStatus.INITIALIZED, 1000, 2));
+        queue.put(getTask("noDeadline", TaskStatus.INITIALIZED, 0, 2));
+
+        assertThat(queue.peek()).contains("early");
+        assertThat(queue.getChainTaskIds()).containsExactly("early", "late", "noDeadline");
+    }
+
+    @Test
+    public void shouldPutTaskMissingMoreReplicatesFirstForSameDeadline() {
+        OpenTaskQueue queue = new OpenTaskQueue();
+        queue.put(getTask("task1", TaskStatus.RUNNING, 1000, 2));
+        queue.put(getTask("task2", TaskStatus.RUNNING, 1000, 2));
+
+        queue.onReplicateReserved("task1", 0);
+
+        assertThat(queue.getChainTaskIds()).containsExactly("task2", "task1");
+    }
+
+    @Test
+    public void shouldKeepReservedReplicatesWhenTaskStaysOpen() {
+        OpenTaskQueue queue = new OpenTaskQueue();
+        queue.put(getTask("task1", TaskStatus.INITIALIZED, 1000, 2));
+        queue.put(getTask("task2", TaskStatus.INITIALIZED, 1000, 2));
+        queue.onReplicateReserved("task1", 0);
+
+        queue.put(getTask("task1", TaskStatus.RUNNING, 1000, 2));
+
+        assertThat(queue.getChainTaskIds()).containsExactly("task2", "task1");
+    }
+
+    @Test
+    public void shouldRemoveTaskNoLongerOpen() {
+        OpenTaskQueue queue = new OpenTaskQueue();
+        queue.put(getTask("task1", TaskStatus.RUNNING, 1000, 2));
+
+        queue.put(getTask("task1", TaskStatus.CONSENSUS_REACHED, 1000, 2));
+
+        assertThat(queue.size()).isEqualTo(0);
+        assertThat(queue.peek()).isEmpty();
+    }
+
+    @Test
+    public void shouldNotSupplyTaskMissingNoReplicateUntilNextPeriod() {
+        OpenTaskQueue queue = new OpenTaskQueue();
+        Task task = getTask("task1", TaskStatus.RUNNING, 1000, 2);
+        task.setTimeRef(new Date(100));
+        queue.put(task);
+
+        queue.onReplicateReserved("task1", 1000);
+
+        assertThat(queue.getChainTaskIdsToSupply(1050)).isEmpty();
+        assertThat(queue.getChainTaskIdsToSupply(1100)).containsExactly("task1");
+        queue.onNoReplicateNeeded("task1", 1100);
+        assertThat(queue.getChainTaskIdsToSupply(1150)).isEmpty();
+    }
+
+    @Test
+    public void shouldSupplyTaskAgainWhenReplicateReleased() {
+        OpenTaskQueue queue = new OpenTaskQueue();
+        Task task = getTask("task1", TaskStatus.RUNNING, 1000, 2);
+        task.setTimeRef(new Date(100));
+        queue.put(task);
+        queue.onReplicateReserved("task1", 1000);
+
+        queue.onReplicateReleased("task1");
+
+        assertThat(queue.getChainTaskIdsToSupply(1050)).containsExactly("task1");
+    }
+
+    @Test
+    public void shouldKeepSupplyingTaskStillMissingReplicates() {
+        OpenTaskQueue queue = new OpenTaskQueue();
+        Task task = getTask("task1", TaskStatus.RUNNING, 1000, 2);
+        task.setTimeRef(new Date(100));
+        queue.put(task);
+
+        queue.onNoReplicateNeeded("task1", 1000);
+
+        assertThat(queue.getChainTaskIdsToSupply(1050)).containsExactly("task1");
+    }
+
+    private static Task getTask(String chainTaskId, TaskStatus status, long deadline, int trust) {
+        Task task = new Task("dappName", "commandLine", trust, chainTaskId);
+        task.setContributionDeadline(deadline > 0 ? new Date(deadline) : null);
+        task.setCurrentStatus(status);
+        return task;
+    }
+}
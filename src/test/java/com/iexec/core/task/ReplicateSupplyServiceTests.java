@@ -0,0 +1,217 @@
+package com.iexec.core.task;
+
+import com.iexec.common.chain.ContributionAuthorization;
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.core.chain.SignatureService;
+import com.iexec.core.pubsub.NotificationService;
+import com.iexec.core.replicate.Replicate;
+import com.iexec.core.replicate.ReplicatesService;
+import com.iexec.core.worker.Worker;
+import com.iexec.core.worker.WorkerService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class ReplicateSupplyServiceTests {
+
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String CHAIN_TASK_ID = "0x65bc5e94ed1486b940bd6cc0013c418efad58a0a52a3d08cee89faaa21970426";
+
+    private final static String DAPP_NAME = "dappName";
+    private final static String COMMAND_LINE = "commandLine";
+    private final String noSgxTag = "0x0";
+
+    @Mock
+    private TaskService taskService;
+
+    @Mock
+    private WorkerService workerService;
+
+    @Mock
+    private ReplicatesService replicatesService;
+
+    @Mock
+    private SignatureService signatureService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private SimpUserRegistry simpUserRegistry;
+
+    @InjectMocks
+    private ReplicateSupplyService replicateSupplyService;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void shouldGetAuthorizationOfAvailableReplicate() {
+        Task task = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        task.setTag(noSgxTag);
+        ContributionAuthorization authorization = ContributionAuthorization.builder()
+                .workerWallet(WALLET_WORKER_1).chainTaskId(CHAIN_TASK_ID).build();
+
+        when(taskService.getAvailableReplicate(WALLET_WORKER_1))
+                .thenReturn(Optional.of(new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID)));
+        when(taskService.getTaskByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+        when(signatureService.createAuthorization(WALLET_WORKER_1, CHAIN_TASK_ID, false)).thenReturn(authorization);
+
+        assertThat(replicateSupplyService.getAuthorizationOfAvailableReplicate(WALLET_WORKER_1))
+                .isEqualTo(Optional.of(authorization));
+    }
+
+    @Test
+    public void shouldNotGetAuthorizationSinceNoReplicateAvailable() {
+        when(taskService.getAvailableReplicate(WALLET_WORKER_1)).thenReturn(Optional.empty());
+
+        assertThat(replicateSupplyService.getAuthorizationOfAvailableReplicate(WALLET_WORKER_1).isPresent()).isFalse();
+        Mockito.verify(signatureService, Mockito.never()).createAuthorization(anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void shouldNotOfferReplicateToWorkerNotListening() {
+        Worker worker = Worker.builder().walletAddress(WALLET_WORKER_1).cpuNb(2)
+                .computingChainTaskIds(new ArrayList<>()).build();
+        when(workerService.getAliveWorkers()).thenReturn(Collections.singletonList(worker));
+        when(simpUserRegistry.getUser(WALLET_WORKER_1)).thenReturn(null);
+
+        replicateSupplyService.pushReplicatesToListeningWorkers();
+
+        Mockito.verify(taskService, Mockito.never()).getAvailableReplicate(anyString());
+        Mockito.verify(notificationService, Mockito.never()).sendContributionAuthorization(anyString(), any());
+    }
+
+    @Test
+    public void shouldOfferReplicatesUntilNoMoreAvailable() {
+        Task task = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        task.setTag(noSgxTag);
+        Worker worker = Worker.builder().walletAddress(WALLET_WORKER_1).cpuNb(4)
+                .computingChainTaskIds(new ArrayList<>()).build();
+        ContributionAuthorization authorization = ContributionAuthorization.builder()
+                .workerWallet(WALLET_WORKER_1).chainTaskId(CHAIN_TASK_ID).build();
+
+        when(workerService.getAliveWorkers()).thenReturn(Collections.singletonList(worker));
+        mockListeningWorker(WALLET_WORKER_1);
+        when(taskService.getAvailableReplicate(WALLET_WORKER_1))
+                .thenReturn(Optional.of(new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID)))
+                .thenReturn(Optional.empty());
+        when(taskService.getTaskByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+        when(signatureService.createAuthorization(WALLET_WORKER_1, CHAIN_TASK_ID, false)).thenReturn(authorization);
+
+        replicateSupplyService.pushReplicatesToListeningWorkers();
+
+        Mockito.verify(taskService, Mockito.times(2)).getAvailableReplicate(WALLET_WORKER_1);
+        Mockito.verify(notificationService, Mockito.times(1)).sendContributionAuthorization(WALLET_WORKER_1, authorization);
+    }
+
+    @Test
+    public void shouldNotOfferReplicateToBusyWorker() {
+        Worker worker = Worker.builder().walletAddress(WALLET_WORKER_1).cpuNb(1)
+                .computingChainTaskIds(new ArrayList<>(Collections.singletonList(CHAIN_TASK_ID))).build();
+        when(workerService.getAliveWorkers()).thenReturn(Collections.singletonList(worker));
+        mockListeningWorker(WALLET_WORKER_1);
+
+        replicateSupplyService.pushReplicatesToListeningWorkers();
+
+        Mockito.verify(taskService, Mockito.never()).getAvailableReplicate(anyString());
+    }
+
+    @Test
+    public void shouldServeParkedRequestWhenReplicateBecomesAvailable() {
+        Task task = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        task.setTag(noSgxTag);
+        ContributionAuthorization authorization = ContributionAuthorization.builder()
+                .workerWallet(WALLET_WORKER_1).chainTaskId(CHAIN_TASK_ID).build();
+
+        DeferredResult<ResponseEntity> deferredResult = replicateSupplyService.parkRequest(WALLET_WORKER_1, 10000);
+        assertThat(deferredResult.hasResult()).isFalse();
+
+        when(taskService.getAvailableReplicate(WALLET_WORKER_1))
+                .thenReturn(Optional.of(new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID)));
+        when(taskService.getTaskByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+        when(signatureService.createAuthorization(WALLET_WORKER_1, CHAIN_TASK_ID, false)).thenReturn(authorization);
+
+        replicateSupplyService.serveParkedRequests();
+
+        assertThat(deferredResult.getResult()).isEqualTo(ResponseEntity.ok(authorization));
+        assertThat(replicateSupplyService.getNbParkedRequests()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReleaseReplicateWhenParkedRequestExpiredWhileReserving() {
+        Task task = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        task.setTag(noSgxTag);
+        ContributionAuthorization authorization = ContributionAuthorization.builder()
+                .workerWallet(WALLET_WORKER_1).chainTaskId(CHAIN_TASK_ID).build();
+
+        DeferredResult<ResponseEntity> deferredResult = replicateSupplyService.parkRequest(WALLET_WORKER_1, 10000);
+        when(taskService.getAvailableReplicate(WALLET_WORKER_1)).thenAnswer(invocation -> {
+            // the request times out while the replicate is being reserved
+            deferredResult.setResult(ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+            return Optional.of(new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID));
+        });
+        when(taskService.getTaskByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+        when(signatureService.createAuthorization(WALLET_WORKER_1, CHAIN_TASK_ID, false)).thenReturn(authorization);
+
+        replicateSupplyService.serveParkedRequests();
+
+        Mockito.verify(workerService).removeChainTaskIdFromWorker(CHAIN_TASK_ID, WALLET_WORKER_1);
+        Mockito.verify(replicatesService).updateReplicateStatus(CHAIN_TASK_ID, WALLET_WORKER_1,
+                ReplicateStatus.WORKER_LOST, ReplicateStatusModifier.POOL_MANAGER);
+    }
+
+    @Test
+    public void shouldKeepParkedRequestWhenNoReplicateAvailable() {
+        DeferredResult<ResponseEntity> deferredResult = replicateSupplyService.parkRequest(WALLET_WORKER_1, 10000);
+        when(taskService.getAvailableReplicate(WALLET_WORKER_1)).thenReturn(Optional.empty());
+
+        replicateSupplyService.serveParkedRequests();
+
+        assertThat(deferredResult.hasResult()).isFalse();
+        assertThat(replicateSupplyService.getNbParkedRequests()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldAnswerPreviousParkedRequestOfSameWorkerWithNoContent() {
+        DeferredResult<ResponseEntity> first = replicateSupplyService.parkRequest(WALLET_WORKER_1, 10000);
+        DeferredResult<ResponseEntity> second = replicateSupplyService.parkRequest(WALLET_WORKER_1, 10000);
+
+        assertThat(first.getResult()).isEqualTo(ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+        assertThat(second.hasResult()).isFalse();
+        assertThat(replicateSupplyService.getNbParkedRequests()).isEqualTo(1);
+    }
+
+    private void mockListeningWorker(String walletAddress) {
+        SimpUser user = Mockito.mock(SimpUser.class);
+        SimpSession session = Mockito.mock(SimpSession.class);
+        SimpSubscription subscription = Mockito.mock(SimpSubscription.class);
+        when(subscription.getDestination()).thenReturn(NotificationService.WORKER_REPLICATE_SUBSCRIPTION);
+        when(session.getSubscriptions()).thenReturn(Collections.singleton(subscription));
+        when(user.getSessions()).thenReturn(Collections.singleton(session));
+        when(simpUserRegistry.getUser(walletAddress)).thenReturn(user);
+    }
+}
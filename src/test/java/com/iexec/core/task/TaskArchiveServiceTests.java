@@ -0,0 +1,104 @@
+package com.iexec.core.task;
+
+import com.iexec.core.cluster.ClusterConfiguration;
+import com.iexec.core.cluster.LeaderElectionService;
+import com.iexec.core.replicate.ReplicatesService;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class TaskArchiveServiceTests {
+
+    private final static String CHAIN_TASK_ID = "0x65bc5e94ed1486b940bd6cc0013c418efad58a0a52a3d08cee89faaa21970426";
+    private final static long RETENTION = 60000;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ReplicatesService replicatesService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    // standalone scheduler, always the leader
+    @Spy
+    private LeaderElectionService leaderElectionService = new LeaderElectionService(new ClusterConfiguration(), null, null);
+
+    @InjectMocks
+    private TaskArchiveService taskArchiveService;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(taskArchiveService, "retention", RETENTION);
+        ReflectionTestUtils.setField(taskArchiveService, "batchSize", 10);
+    }
+
+    @Test
+    public void shouldArchiveTaskFinishedBeforeRetention() {
+        Task task = getFinishedTask(CHAIN_TASK_ID, new Date(new Date().getTime() - 2 * RETENTION));
+        when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(Collections.singletonList(task));
+
+        taskArchiveService.archiveFinishedTasks();
+
+        Mockito.verify(replicatesService, Mockito.times(1)).archiveReplicatesList(CHAIN_TASK_ID);
+        Mockito.verify(mongoTemplate, Mockito.times(1)).insert(task, TaskArchiveService.TASK_ARCHIVE_COLLECTION);
+        Mockito.verify(taskRepository, Mockito.times(1)).delete(task);
+    }
+
+    @Test
+    public void shouldOnlyReadBatchOfTasksFinishedBeforeRetention() {
+        ReflectionTestUtils.setField(taskArchiveService, "batchSize", 1);
+        Date retentionLimit = new Date(new Date().getTime() - RETENTION);
+
+        Query query = taskArchiveService.getTasksToArchiveQuery(retentionLimit);
+
+        assertThat(query.getLimit()).isEqualTo(1);
+        Document statusChange = (Document) ((Document) query.getQueryObject().get("dateStatusList")).get("$elemMatch");
+        assertThat(((Document) statusChange.get("date")).get("$lt")).isEqualTo(retentionLimit);
+        assertThat(query.getQueryObject().get("currentStatus"))
+                .isEqualTo(new Document("$in", TaskStatus.getFinalStatuses()));
+    }
+
+    @Test
+    public void shouldKeepTaskInHotCollectionIfReplicatesArchivingFails() {
+        Task task = getFinishedTask(CHAIN_TASK_ID, new Date(new Date().getTime() - 2 * RETENTION));
+        Mockito.doThrow(new RuntimeException("mongo down")).when(replicatesService).archiveReplicatesList(CHAIN_TASK_ID);
+
+        assertThat(taskArchiveService.archiveTask(task)).isFalse();
+        Mockito.verify(taskRepository, Mockito.never()).delete(any(Task.class));
+    }
+
+    @Test
+    public void shouldGetArchivedTask() {
+        Task task = getFinishedTask(CHAIN_TASK_ID, new Date());
+        when(mongoTemplate.findOne(any(Query.class), eq(Task.class), eq(TaskArchiveService.TASK_ARCHIVE_COLLECTION)))
+                .thenReturn(task);
+
+        assertThat(taskArchiveService.getArchivedTask(CHAIN_TASK_ID)).contains(task);
+    }
+
+    private static Task getFinishedTask(String chainTaskId, Date finishedDate) {
+        Task task = new Task("dappName", "commandLine", 2, chainTaskId);
+        task.getDateStatusList().add(new TaskStatusChange(finishedDate, TaskStatus.COMPLETED));
+        task.setCurrentStatus(TaskStatus.COMPLETED);
+        return task;
+    }
+}
@@ -0,0 +1,48 @@
+package com.iexec.core.task;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// derived queries run against an embedded mongo
+@RunWith(SpringRunner.class)
+@DataMongoTest
+public class TaskRepositoryTests {
+
+    private final static String CHAIN_DEAL_ID = "0xd82223e5feff6720792ffed1665e980da95e5d32b177332013eaba8edc07f31c";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Before
+    public void init() {
+        taskRepository.deleteAll();
+        taskRepository.save(new Task(CHAIN_DEAL_ID, 1, "dappName", "commandLine", 3, new Date(), "tag"));
+    }
+
+    @Test
+    public void shouldFindTaskOfDealAtIndex() {
+        assertThat(taskRepository.existsByChainDealIdAndTaskIndex(CHAIN_DEAL_ID, 1)).isTrue();
+    }
+
+    @Test
+    public void shouldNotFindTaskAtAnotherIndexOrOfAnotherDeal() {
+        assertThat(taskRepository.existsByChainDealIdAndTaskIndex(CHAIN_DEAL_ID, 0)).isFalse();
+        assertThat(taskRepository.existsByChainDealIdAndTaskIndex("otherChainDealId", 1)).isFalse();
+    }
+
+    // only the repository under test, the application itself needs a chain node
+    @Configuration
+    @EnableMongoRepositories(basePackageClasses = TaskRepository.class)
+    static class RepositoryConfiguration {
+    }
+}
@@ -4,8 +4,17 @@ import com.iexec.common.chain.*;
 import com.iexec.common.replicate.ReplicateStatus;
 import com.iexec.common.replicate.ReplicateStatusModifier;
 import com.iexec.core.chain.IexecHubService;
+import com.iexec.core.cluster.ClusterConfiguration;
+import com.iexec.core.cluster.LeaderElectionService;
+import com.iexec.core.cluster.PartitionService;
+import com.iexec.core.cluster.TaskUpdateRequestService;
+import com.iexec.core.history.StatusHistoryService;
+import com.iexec.core.metrics.MetricsService;
 import com.iexec.core.replicate.Replicate;
 import com.iexec.core.replicate.ReplicatesService;
+import com.iexec.core.task.lifecycle.TaskLifecycleService;
+import com.iexec.core.task.placement.DeadlineFirstPlacementPolicy;
+import com.iexec.core.task.placement.PlacementPolicy;
 import com.iexec.core.utils.DateTimeUtils;
 import com.iexec.core.worker.Worker;
 import com.iexec.core.worker.WorkerService;
@@ -16,6 +25,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
@@ -25,7 +35,10 @@ import static com.iexec.core.utils.DateTimeUtils.sleep;
 import static org.assertj.core.api.Assertions.anyOf;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
 
 public class TaskServiceTests {
@@ -55,6 +68,34 @@ public class TaskServiceTests {
     @Mock
     private ApplicationEventPublisher applicationEventPublisher;
 
+    @Spy
+    private TaskRegistry taskRegistry = new TaskRegistry();
+
+    @Mock
+    private StatusHistoryService statusHistoryService;
+
+    @Mock
+    private TaskArchiveService taskArchiveService;
+
+    @Spy
+    private PlacementPolicy placementPolicy = new DeadlineFirstPlacementPolicy();
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private TaskLifecycleService taskLifecycleService;
+
+    // standalone scheduler, owning every task
+    @Spy
+    private PartitionService partitionService = new PartitionService(new ClusterConfiguration(), null, null);
+
+    @Mock
+    private LeaderElectionService leaderElectionService;
+
+    @Mock
+    private TaskUpdateRequestService taskUpdateRequestService;
+
     @InjectMocks
     private TaskService taskService;
 
@@ -80,6 +121,16 @@ public class TaskServiceTests {
         assertThat(optional).isEqualTo(Optional.of(task));
     }
 
+    @Test
+    public void shouldGetArchivedTaskWhenNotInHotCollection() {
+        Task task = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        task.changeStatus(COMPLETED);
+        when(taskRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.empty());
+        when(taskArchiveService.getArchivedTask(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+
+        assertThat(taskService.getTaskByChainTaskId(CHAIN_TASK_ID)).isEqualTo(Optional.of(task));
+    }
+
     @Test
     public void shouldAddTask() {
         Task task = new Task(CHAIN_DEAL_ID, 0, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
@@ -93,15 +144,18 @@ public class TaskServiceTests {
 
     @Test
     public void shouldNotAddTask() {
-        Task task = new Task(CHAIN_DEAL_ID, 0, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
-        task.changeStatus(TaskStatus.INITIALIZED);
-
-        ArrayList<Task> list = new ArrayList<>();
-        list.add(task);
+        when(taskRepository.existsByChainDealIdAndTaskIndex(CHAIN_DEAL_ID, 0)).thenReturn(true);
+        Optional<Task> saved = taskService.addTask(CHAIN_DEAL_ID, 0, DAPP_NAME, COMMAND_LINE, 2, timeRef, "0x0");
+        assertThat(saved).isEqualTo(Optional.empty());
+    }
 
-        when(taskRepository.findByChainDealIdAndTaskIndex(CHAIN_DEAL_ID, 0)).thenReturn(list);
+    @Test
+    public void shouldNotAddTaskAlreadyArchived() {
+        when(taskRepository.existsByChainDealIdAndTaskIndex(CHAIN_DEAL_ID, 0)).thenReturn(false);
+        when(taskArchiveService.isArchived(CHAIN_DEAL_ID, 0)).thenReturn(true);
         Optional<Task> saved = taskService.addTask(CHAIN_DEAL_ID, 0, DAPP_NAME, COMMAND_LINE, 2, timeRef, "0x0");
         assertThat(saved).isEqualTo(Optional.empty());
+        Mockito.verify(taskRepository, Mockito.never()).save(any());
     }
 
     @Test
@@ -111,21 +165,132 @@ public class TaskServiceTests {
         Task task = new Task(CHAIN_DEAL_ID, 0, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
         task.changeStatus(status);
 
-        List<Task> taskList = new ArrayList<>();
-        taskList.add(task);
-
-        when(taskRepository.findByCurrentStatus(status)).thenReturn(taskList);
+        taskRegistry.put(task);
 
         List<Task> foundTasks = taskService.findByCurrentStatus(status);
 
-        assertThat(foundTasks).isEqualTo(taskList);
+        assertThat(foundTasks).hasSize(1);
+        assertThat(foundTasks.get(0).getChainTaskId()).isEqualTo(task.getChainTaskId());
         assertThat(foundTasks.get(0).getCurrentStatus()).isEqualTo(status);
+        Mockito.verify(taskRepository, Mockito.never()).findByCurrentStatus(status);
+    }
+
+    @Test
+    public void shouldRemoveTaskFromRegistryWhenFinalStatusReached() {
+        Task task = new Task(CHAIN_DEAL_ID, 0, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
+        task.changeStatus(FINALIZED);
+        taskRegistry.put(task);
+
+        task.changeStatus(COMPLETED);
+        taskRegistry.put(task);
+
+        assertThat(taskService.findByCurrentStatus(FINALIZED)).isEmpty();
+        assertThat(taskRegistry.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldMoveTaskToNewStatusBucketInRegistry() {
+        Task task = new Task(CHAIN_DEAL_ID, 0, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
+        task.changeStatus(INITIALIZED);
+        taskRegistry.put(task);
+
+        task.changeStatus(RUNNING);
+        taskRegistry.put(task);
+
+        assertThat(taskService.findByCurrentStatus(INITIALIZED)).isEmpty();
+        assertThat(taskService.findByCurrentStatus(RUNNING)).hasSize(1);
+    }
+
+    @Test
+    public void shouldNotExposeTaskStoredInRegistry() {
+        Task task = new Task(CHAIN_DEAL_ID, 0, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
+        task.changeStatus(INITIALIZED);
+        taskRegistry.put(task);
+
+        taskService.findByCurrentStatus(INITIALIZED).get(0).changeStatus(RUNNING);
+
+        assertThat(taskService.findByCurrentStatus(INITIALIZED)).hasSize(1);
+        assertThat(taskService.findByCurrentStatus(RUNNING)).isEmpty();
+    }
+
+    @Test
+    public void shouldGetOpenTasksClosestToDeadlineFirst() {
+        Task late = new Task(DAPP_NAME, COMMAND_LINE, 2, "lateChainTaskId");
+        late.setContributionDeadline(new Date(2000));
+        late.changeStatus(RUNNING);
+        Task early = new Task(DAPP_NAME, COMMAND_LINE, 2, "earlyChainTaskId");
+        early.setContributionDeadline(new Date(1000));
+        early.changeStatus(INITIALIZED);
+        Task notOpen = new Task(DAPP_NAME, COMMAND_LINE, 2, "notOpenChainTaskId");
+        notOpen.setContributionDeadline(new Date(500));
+        notOpen.changeStatus(CONSENSUS_REACHED);
+
+        taskRegistry.put(late);
+        taskRegistry.put(early);
+        taskRegistry.put(notOpen);
+
+        assertThat(taskRegistry.getOpenTasksByPriority()).extracting(Task::getChainTaskId)
+                .containsExactly("earlyChainTaskId", "lateChainTaskId");
+    }
+
+    @Test
+    public void shouldNotOverwriteNewerTaskOnRegistryRefresh() {
+        doReturn(true).when(partitionService).isClusterEnabled();
+        Task task = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        task.changeStatus(RUNNING);
+        task.setVersion(2L);
+        taskRegistry.put(task);
+        Task staleTask = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        staleTask.changeStatus(INITIALIZED);
+        staleTask.setVersion(1L);
+        when(taskRepository.findByCurrentStatus(TaskStatus.getNonFinalStatuses()))
+                .thenReturn(Collections.singletonList(staleTask));
+
+        taskService.refreshTaskRegistry();
+
+        assertThat(taskService.findByCurrentStatus(RUNNING)).hasSize(1);
+        assertThat(taskService.findByCurrentStatus(INITIALIZED)).isEmpty();
+    }
+
+    @Test
+    public void shouldKeepReservedReplicatesOnRegistryRefresh() {
+        doReturn(true).when(partitionService).isClusterEnabled();
+        Task task1 = new Task(DAPP_NAME, COMMAND_LINE, 2, "chainTaskId1");
+        task1.setContributionDeadline(new Date(1000));
+        task1.changeStatus(RUNNING);
+        task1.setVersion(1L);
+        Task task2 = new Task(DAPP_NAME, COMMAND_LINE, 2, "chainTaskId2");
+        task2.setContributionDeadline(new Date(1000));
+        task2.changeStatus(RUNNING);
+        task2.setVersion(1L);
+        taskRegistry.put(task1);
+        taskRegistry.put(task2);
+        taskRegistry.onReplicateReserved("chainTaskId1");
+        task1.setVersion(2L);
+        when(taskRepository.findByCurrentStatus(TaskStatus.getNonFinalStatuses()))
+                .thenReturn(Arrays.asList(task1, task2));
+
+        taskService.refreshTaskRegistry();
+
+        assertThat(taskRegistry.getOpenChainTaskIds()).containsExactly("chainTaskId2", "chainTaskId1");
+    }
+
+    @Test
+    public void shouldRemoveTaskFinalizedElsewhereOnRegistryRefresh() {
+        doReturn(true).when(partitionService).isClusterEnabled();
+        Task task = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        task.changeStatus(RUNNING);
+        taskRegistry.put(task);
+        when(taskRepository.findByCurrentStatus(TaskStatus.getNonFinalStatuses())).thenReturn(Collections.emptyList());
+
+        taskService.refreshTaskRegistry();
+
+        assertThat(taskRegistry.size()).isEqualTo(0);
     }
 
     @Test
     public void shouldNotFindByCurrentStatus() {
         TaskStatus status = TaskStatus.INITIALIZED;
-        when(taskRepository.findByCurrentStatus(status)).thenReturn(Collections.emptyList());
 
         List<Task> foundTasks = taskService.findByCurrentStatus(status);
 
@@ -287,6 +452,139 @@ public class TaskServiceTests {
         assertThat(task.getDateStatusList().get(4).getStatus()).isEqualTo(INITIALIZED);
     }
 
+    // Tests on the cluster routing of the updates
+
+    @Test
+    public void shouldHandOverToLeaderSinceTaskWaitsForTransaction() {
+        Task task = new Task(CHAIN_DEAL_ID, 1, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
+        task.changeStatus(RECEIVED);
+        task.setChainTaskId(CHAIN_TASK_ID);
+
+        when(taskRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+        doReturn(true).when(partitionService).isClusterEnabled();
+        doReturn(true).when(partitionService).isOwner(CHAIN_TASK_ID);
+        when(leaderElectionService.isLeader()).thenReturn(false);
+
+        taskService.tryUpgradeTaskStatus(CHAIN_TASK_ID);
+
+        assertThat(task.getCurrentStatus()).isEqualTo(RECEIVED);
+        Mockito.verify(taskUpdateRequestService).requestLeaderUpdate(CHAIN_TASK_ID);
+        Mockito.verify(iexecHubService, Mockito.never()).initialize(any(), Mockito.anyInt());
+    }
+
+    @Test
+    public void shouldHandOverToOwnerSinceLeaderDoesNotOwnTask() {
+        Task task = new Task(CHAIN_DEAL_ID, 1, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
+        task.changeStatus(INITIALIZED);
+        task.setChainTaskId(CHAIN_TASK_ID);
+
+        when(taskRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+        doReturn(true).when(partitionService).isClusterEnabled();
+        doReturn(false).when(partitionService).isOwner(CHAIN_TASK_ID);
+        when(leaderElectionService.isLeader()).thenReturn(true);
+
+        taskService.tryUpgradeTaskStatus(CHAIN_TASK_ID);
+
+        Mockito.verify(taskUpdateRequestService).requestUpdate(CHAIN_TASK_ID);
+        Mockito.verify(taskRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    public void shouldFinalizeOnLeaderTaskUploadedOnNonLeaderOwner() {
+        Task task = new Task(CHAIN_DEAL_ID, 1, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
+        task.changeStatus(RESULT_UPLOADING);
+        task.setChainTaskId(CHAIN_TASK_ID);
+        ChainTask chainTask = ChainTask.builder().revealCounter(1).build();
+
+        when(taskRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+        when(replicatesService.getNbReplicatesContainingStatus(CHAIN_TASK_ID, ReplicateStatus.RESULT_UPLOADED)).thenReturn(1);
+        when(replicatesService.getNbReplicatesContainingStatus(CHAIN_TASK_ID, ReplicateStatus.REVEALED)).thenReturn(1);
+        when(iexecHubService.canFinalize(CHAIN_TASK_ID)).thenReturn(true);
+        when(iexecHubService.getChainTask(any())).thenReturn(Optional.of(chainTask));
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.finalizeTask(any(), any())).thenReturn(Optional.of(new ChainReceipt()));
+        doReturn(true).when(partitionService).isClusterEnabled();
+        doReturn(true).when(partitionService).isOwner(CHAIN_TASK_ID);
+
+        // the owner stops once the result is uploaded
+        when(leaderElectionService.isLeader()).thenReturn(false);
+        taskService.tryUpgradeTaskStatus(CHAIN_TASK_ID);
+
+        assertThat(task.getCurrentStatus()).isEqualTo(RESULT_UPLOADED);
+        Mockito.verify(taskUpdateRequestService).requestLeaderUpdate(CHAIN_TASK_ID);
+        Mockito.verify(iexecHubService, Mockito.never()).finalizeTask(any(), any());
+
+        // the leader takes the update request
+        when(leaderElectionService.isLeader()).thenReturn(true);
+        taskService.tryUpgradeTaskStatus(CHAIN_TASK_ID);
+
+        assertThat(task.getCurrentStatus()).isEqualTo(COMPLETED);
+        Mockito.verify(iexecHubService).finalizeTask(any(), any());
+    }
+
+    @Test
+    public void shouldPutTaskBackToResultUploadedWhenLeadershipLostBeforeFinalize() {
+        Task task = new Task(CHAIN_DEAL_ID, 1, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
+        task.changeStatus(RESULT_UPLOADED);
+        task.setChainTaskId(CHAIN_TASK_ID);
+        ChainTask chainTask = ChainTask.builder().revealCounter(1).build();
+
+        when(taskRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+        when(replicatesService.getNbReplicatesContainingStatus(CHAIN_TASK_ID, ReplicateStatus.REVEALED)).thenReturn(1);
+        when(iexecHubService.canFinalize(CHAIN_TASK_ID)).thenReturn(true);
+        when(iexecHubService.getChainTask(any())).thenReturn(Optional.of(chainTask));
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.finalizeTask(any(), any())).thenReturn(Optional.empty());
+        doReturn(true).when(partitionService).isClusterEnabled();
+        // lost while the transaction was waiting
+        when(leaderElectionService.isLeader()).thenReturn(true, true, false);
+
+        taskService.tryUpgradeTaskStatus(CHAIN_TASK_ID);
+
+        assertThat(task.getCurrentStatus()).isEqualTo(RESULT_UPLOADED);
+        assertThat(task.getDateStatusList()).extracting(TaskStatusChange::getStatus).doesNotContain(FINALIZE_FAILED);
+        Mockito.verify(taskUpdateRequestService).requestLeaderUpdate(CHAIN_TASK_ID);
+    }
+
+    @Test
+    public void shouldPutTaskBackToConsensusReachedWhenLeadershipLostBeforeReopen() {
+        Task task = new Task(DAPP_NAME, COMMAND_LINE, 3, CHAIN_TASK_ID);
+        task.changeStatus(CONSENSUS_REACHED);
+        task.setRevealDeadline(new Date(new Date().getTime() - 10));
+
+        when(replicatesService.getNbReplicatesWithCurrentStatus(CHAIN_TASK_ID, ReplicateStatus.REVEALED)).thenReturn(0);
+        when(iexecHubService.canReopen(CHAIN_TASK_ID)).thenReturn(true);
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.reOpen(CHAIN_TASK_ID)).thenReturn(Optional.empty());
+        doReturn(true).when(partitionService).isClusterEnabled();
+        when(leaderElectionService.isLeader()).thenReturn(true, false);
+
+        taskService.consensusReached2Reopened(task);
+
+        assertThat(task.getCurrentStatus()).isEqualTo(CONSENSUS_REACHED);
+        Mockito.verify(taskUpdateRequestService).requestLeaderUpdate(CHAIN_TASK_ID);
+    }
+
+    @Test
+    public void shouldNotSaveInitializingWhenLeadershipLostBeforeInitialize() {
+        Task task = new Task(CHAIN_DEAL_ID, 1, DAPP_NAME, COMMAND_LINE, 2, timeRef, noSgxTag);
+        task.changeStatus(RECEIVED);
+        task.setChainTaskId(CHAIN_TASK_ID);
+
+        when(taskRepository.findByChainTaskId(CHAIN_TASK_ID)).thenReturn(Optional.of(task));
+        when(iexecHubService.canInitialize(CHAIN_DEAL_ID, 1)).thenReturn(true);
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        doReturn(true).when(partitionService).isClusterEnabled();
+        // lost while reading the chain
+        when(leaderElectionService.isLeader()).thenReturn(true, false);
+
+        taskService.tryUpgradeTaskStatus(CHAIN_TASK_ID);
+
+        assertThat(task.getCurrentStatus()).isEqualTo(RECEIVED);
+        Mockito.verify(taskUpdateRequestService).requestLeaderUpdate(CHAIN_TASK_ID);
+        Mockito.verify(iexecHubService, Mockito.never()).initialize(any(), Mockito.anyInt());
+    }
+
     // Tests on received2Initialized transition
 
     @Test
@@ -412,6 +710,7 @@ public class TaskServiceTests {
 
         taskService.tryUpgradeTaskStatus(CHAIN_TASK_ID);
         assertThat(task.getCurrentStatus()).isEqualTo(RUNNING);
+        Mockito.verify(metricsService, Mockito.times(1)).recordTaskStatusDuration(Mockito.eq(INITIALIZED), Mockito.anyLong());
     }
 
     @Test
@@ -938,8 +1237,7 @@ public class TaskServiceTests {
                 .build();
 
         when(workerService.getWorker(Mockito.anyString())).thenReturn(Optional.of(existingWorker));
-        when(taskRepository.findByCurrentStatus(Arrays.asList(INITIALIZED, RUNNING)))
-                .thenReturn(new ArrayList<>());
+        doReturn(new ArrayList<>()).when(taskRegistry).getOpenTasksByPriority();
 
         Optional<Replicate> optional = taskService.getAvailableReplicate(WALLET_WORKER_1);
         assertThat(optional.isPresent()).isFalse();
@@ -959,8 +1257,7 @@ public class TaskServiceTests {
         runningTask1.changeStatus(RUNNING);
 
         when(workerService.getWorker(WALLET_WORKER_1)).thenReturn(Optional.of(existingWorker));
-        when(taskRepository.findByCurrentStatus(Arrays.asList(INITIALIZED, RUNNING)))
-                .thenReturn(Collections.singletonList(runningTask1));
+        doReturn(Collections.singletonList(runningTask1)).when(taskRegistry).getOpenTasksByPriority();
 
         Optional<Replicate> optional = taskService.getAvailableReplicate(WALLET_WORKER_1);
         assertThat(optional.isPresent()).isFalse();
@@ -980,10 +1277,11 @@ public class TaskServiceTests {
         runningTask1.changeStatus(RUNNING);
 
         when(workerService.canAcceptMoreWorks(WALLET_WORKER_1)).thenReturn(true);
-        when(taskRepository.findByCurrentStatus(Arrays.asList(INITIALIZED, RUNNING)))
-                .thenReturn(Collections.singletonList(runningTask1));
+        doReturn(Collections.singletonList(runningTask1)).when(taskRegistry).getOpenTasksByPriority();
         when(workerService.getWorker(WALLET_WORKER_1)).thenReturn(Optional.of(existingWorker));
-        when(replicatesService.hasWorkerAlreadyParticipated(CHAIN_TASK_ID, WALLET_WORKER_1)).thenReturn(true);
+        when(replicatesService.reserveReplicate(CHAIN_TASK_ID, WALLET_WORKER_1,
+                runningTask1.getNumWorkersNeeded(), runningTask1.getTimeRef(),
+                runningTask1.getContributionDeadline())).thenReturn(Optional.empty());
 
         Optional<Replicate> optional = taskService.getAvailableReplicate(WALLET_WORKER_1);
         assertThat(optional.isPresent()).isFalse();
@@ -1002,11 +1300,11 @@ public class TaskServiceTests {
         runningTask1.changeStatus(RUNNING);
 
         when(workerService.canAcceptMoreWorks(WALLET_WORKER_1)).thenReturn(true);
-        when(taskRepository.findByCurrentStatus(Arrays.asList(INITIALIZED, RUNNING)))
-                .thenReturn(Collections.singletonList(runningTask1));
+        doReturn(Collections.singletonList(runningTask1)).when(taskRegistry).getOpenTasksByPriority();
         when(workerService.getWorker(WALLET_WORKER_1)).thenReturn(Optional.of(existingWorker));
-        when(replicatesService.hasWorkerAlreadyParticipated(CHAIN_TASK_ID, WALLET_WORKER_1)).thenReturn(false);
-        when(replicatesService.moreReplicatesNeeded(CHAIN_TASK_ID, runningTask1.getNumWorkersNeeded(), timeRef)).thenReturn(false);
+        when(replicatesService.reserveReplicate(CHAIN_TASK_ID, WALLET_WORKER_1,
+                runningTask1.getNumWorkersNeeded(), runningTask1.getTimeRef(),
+                runningTask1.getContributionDeadline())).thenReturn(Optional.empty());
 
         Optional<Replicate> optional = taskService.getAvailableReplicate(WALLET_WORKER_1);
         assertThat(optional.isPresent()).isFalse();
@@ -1026,22 +1324,66 @@ public class TaskServiceTests {
         runningTask1.changeStatus(RUNNING);
 
         when(workerService.canAcceptMoreWorks(WALLET_WORKER_1)).thenReturn(true);
-        when(taskRepository.findByCurrentStatus(Arrays.asList(INITIALIZED, RUNNING)))
-                .thenReturn(Collections.singletonList(runningTask1));
+        doReturn(Collections.singletonList(runningTask1)).when(taskRegistry).getOpenTasksByPriority();
         when(workerService.getWorker(WALLET_WORKER_1)).thenReturn(Optional.of(existingWorker));
-        when(replicatesService.hasWorkerAlreadyParticipated(CHAIN_TASK_ID, WALLET_WORKER_1)).thenReturn(false);
-        when(replicatesService.moreReplicatesNeeded(CHAIN_TASK_ID, runningTask1.getNumWorkersNeeded(), runningTask1.getTimeRef())).thenReturn(true);
-
-        when(replicatesService.getReplicate(CHAIN_TASK_ID, WALLET_WORKER_1)).thenReturn(
+        when(replicatesService.reserveReplicate(CHAIN_TASK_ID, WALLET_WORKER_1,
+                runningTask1.getNumWorkersNeeded(), runningTask1.getTimeRef(),
+                runningTask1.getContributionDeadline())).thenReturn(
                 Optional.of(new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID)));
 
         Optional<Replicate> optional = taskService.getAvailableReplicate(WALLET_WORKER_1);
 
         assertThat(optional.isPresent()).isTrue();
 
-        Mockito.verify(replicatesService, Mockito.times(1))
-                .addNewReplicate(CHAIN_TASK_ID, WALLET_WORKER_1);
         Mockito.verify(workerService, Mockito.times(1))
                 .addChainTaskIdToWorker(CHAIN_TASK_ID, WALLET_WORKER_1);
+        // the open tasks are already by earliest deadline
+        Mockito.verify(placementPolicy, Mockito.never()).order(any(), any());
+    }
+
+    @Test
+    public void shouldNotReserveReplicateOfTaskMissingNoReplicate() {
+        Worker existingWorker = Worker.builder()
+                .id("1")
+                .walletAddress(WALLET_WORKER_1)
+                .cpuNb(2)
+                .lastAliveDate(new Date())
+                .build();
+        Task runningTask = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        runningTask.setTimeRef(timeRef);
+        runningTask.changeStatus(RUNNING);
+        taskRegistry.put(runningTask);
+        taskRegistry.onReplicateReserved(CHAIN_TASK_ID);
+        when(workerService.canAcceptMoreWorks(WALLET_WORKER_1)).thenReturn(true);
+        when(workerService.getWorker(WALLET_WORKER_1)).thenReturn(Optional.of(existingWorker));
+
+        Optional<Replicate> optional = taskService.getAvailableReplicate(WALLET_WORKER_1);
+
+        assertThat(optional).isEmpty();
+        Mockito.verify(replicatesService, Mockito.never()).reserveReplicate(any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldReserveReplicateOfTaskAgainWhenReplicateFailed() {
+        Worker existingWorker = Worker.builder()
+                .id("1")
+                .walletAddress(WALLET_WORKER_1)
+                .cpuNb(2)
+                .lastAliveDate(new Date())
+                .build();
+        Task runningTask = new Task(DAPP_NAME, COMMAND_LINE, 2, CHAIN_TASK_ID);
+        runningTask.setTimeRef(timeRef);
+        runningTask.changeStatus(RUNNING);
+        taskRegistry.put(runningTask);
+        taskRegistry.onReplicateReserved(CHAIN_TASK_ID);
+        when(workerService.canAcceptMoreWorks(WALLET_WORKER_1)).thenReturn(true);
+        when(workerService.getWorker(WALLET_WORKER_1)).thenReturn(Optional.of(existingWorker));
+        when(replicatesService.reserveReplicate(eq(CHAIN_TASK_ID), eq(WALLET_WORKER_1), anyInt(), any(), any()))
+                .thenReturn(Optional.of(new Replicate(WALLET_WORKER_1, CHAIN_TASK_ID)));
+
+        taskService.onReplicateFailed(CHAIN_TASK_ID);
+        Optional<Replicate> optional = taskService.getAvailableReplicate(WALLET_WORKER_1);
+
+        assertThat(optional).isPresent();
     }
 }
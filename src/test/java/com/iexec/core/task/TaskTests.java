@@ -1,6 +1,7 @@
 package com.iexec.core.task;
 
 
+import com.iexec.core.utils.StatusHistoryUtils;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -128,4 +129,23 @@ public class TaskTests {
         assertThat(task.isConsensusReachedSinceMultiplePeriods(1)).isFalse();
     }
 
+    @Test
+    public void shouldKeepInlineStatusHistoryBoundedWhenLooping(){
+        Task task = new Task(DAPP_NAME, COMMAND_LINE, 2);
+        task.changeStatus(TaskStatus.INITIALIZED);
+        task.changeStatus(TaskStatus.RUNNING);
+        for (int i = 0; i < 50; i++) {
+            task.changeStatus(TaskStatus.CONSENSUS_REACHED);
+            task.changeStatus(TaskStatus.REOPENING);
+            task.changeStatus(TaskStatus.REOPENED);
+            task.changeStatus(TaskStatus.INITIALIZED);
+        }
+
+        assertThat(task.getDateStatusList().size()).isLessThanOrEqualTo(1 + StatusHistoryUtils.RECENT_STATUS_CHANGES + TaskStatus.values().length);
+        assertThat(task.getDateStatusList().get(0).getStatus()).isEqualTo(TaskStatus.RECEIVED);
+        assertThat(task.getCurrentStatus()).isEqualTo(TaskStatus.INITIALIZED);
+        assertThat(task.getLatestStatusChange().getStatus()).isEqualTo(TaskStatus.INITIALIZED);
+        assertThat(task.getDateOfStatus(TaskStatus.RUNNING)).isPresent();
+    }
+
 }
@@ -0,0 +1,123 @@
+package com.iexec.core.task.lifecycle;
+
+import com.iexec.core.task.Task;
+import com.iexec.core.task.TaskStatus;
+import com.iexec.core.task.TaskStatusChange;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TaskLifecycleServiceTests {
+
+    private final static String CHAIN_DEAL_ID = "0xd82223e5feff6720792ffed1665e980da95e5d32b177332013eaba8edc07f31c";
+    private final static String DAPP_NAME = "dappName";
+
+    private TaskLifecycleService taskLifecycleService;
+
+    @Before
+    public void init() {
+        taskLifecycleService = new TaskLifecycleService();
+        ReflectionTestUtils.setField(taskLifecycleService, "slowFactor", 3d);
+        ReflectionTestUtils.setField(taskLifecycleService, "minSamples", 5);
+        ReflectionTestUtils.setField(taskLifecycleService, "maxDapps", 1);
+        ReflectionTestUtils.setField(taskLifecycleService, "slowPhasesCapacity", 2);
+    }
+
+    @Test
+    public void shouldRecordPhaseEndedByStatusChange() {
+        taskLifecycleService.onTaskStatusChange(buildTask(DAPP_NAME,
+                new TaskStatusChange(new Date(1000), TaskStatus.RECEIVED),
+                new TaskStatusChange(new Date(1500), TaskStatus.INITIALIZING),
+                new TaskStatusChange(new Date(4000), TaskStatus.INITIALIZED)));
+
+        TaskLifecycleModel lifecycle = taskLifecycleService.getTaskLifecycle();
+        PhaseStatistics initialization = lifecycle.getPhases().get(TaskPhase.INITIALIZATION);
+        assertThat(initialization.getCount()).isEqualTo(1);
+        assertThat(initialization.getMax()).isBetween(2970L, 3030L);
+        assertThat(lifecycle.getPhases().get(TaskPhase.ASSIGNMENT).getCount()).isEqualTo(0);
+        assertThat(lifecycle.getPhasesByDapp().get(DAPP_NAME)).containsOnlyKeys(TaskPhase.INITIALIZATION);
+    }
+
+    @Test
+    public void shouldMeasurePhaseFromLatestStartStatus() {
+        // reopened task: the reveal is measured from the second consensus
+        taskLifecycleService.onTaskStatusChange(buildTask(DAPP_NAME,
+                new TaskStatusChange(new Date(1000), TaskStatus.CONSENSUS_REACHED),
+                new TaskStatusChange(new Date(5000), TaskStatus.REOPENED),
+                new TaskStatusChange(new Date(9000), TaskStatus.CONSENSUS_REACHED),
+                new TaskStatusChange(new Date(10000), TaskStatus.AT_LEAST_ONE_REVEALED)));
+
+        assertThat(taskLifecycleService.getTaskLifecycle().getPhases().get(TaskPhase.REVEAL).getMax())
+                .isBetween(990L, 1010L);
+    }
+
+    @Test
+    public void shouldNotRecordPhaseWithoutStartStatus() {
+        taskLifecycleService.onTaskStatusChange(buildTask(DAPP_NAME,
+                new TaskStatusChange(new Date(1000), TaskStatus.RESULT_UPLOADING),
+                new TaskStatusChange(new Date(2000), TaskStatus.RESULT_UPLOADED)));
+
+        assertThat(taskLifecycleService.getTaskLifecycle().getPhases().get(TaskPhase.UPLOAD).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldFlagSlowPhaseOnceEnoughSamples() {
+        for (int i = 0; i < 5; i++) {
+            recordAssignment(DAPP_NAME, 1000);
+        }
+        assertThat(taskLifecycleService.getSlowPhases()).isEmpty();
+
+        recordAssignment(DAPP_NAME, 10000);
+
+        List<SlowPhase> slowPhases = taskLifecycleService.getSlowPhases();
+        assertThat(slowPhases).hasSize(1);
+        assertThat(slowPhases.get(0).getPhase()).isEqualTo(TaskPhase.ASSIGNMENT);
+        assertThat(slowPhases.get(0).getChainDealId()).isEqualTo(CHAIN_DEAL_ID);
+        assertThat(slowPhases.get(0).getDappName()).isEqualTo(DAPP_NAME);
+    }
+
+    @Test
+    public void shouldKeepOnlyLatestSlowPhases() {
+        for (int i = 0; i < 5; i++) {
+            recordAssignment(DAPP_NAME, 1000);
+        }
+        recordAssignment(DAPP_NAME, 10000);
+        recordAssignment(DAPP_NAME, 20000);
+        recordAssignment(DAPP_NAME, 30000);
+
+        assertThat(taskLifecycleService.getSlowPhases()).extracting(SlowPhase::getDuration)
+                .containsExactly(20000L, 30000L);
+    }
+
+    @Test
+    public void shouldBoundNumberOfDappsWithOwnHistograms() {
+        recordAssignment(DAPP_NAME, 1000);
+        recordAssignment("otherDappName", 1000);
+
+        TaskLifecycleModel lifecycle = taskLifecycleService.getTaskLifecycle();
+        assertThat(lifecycle.getPhasesByDapp()).containsOnlyKeys(DAPP_NAME);
+        assertThat(lifecycle.getPhases().get(TaskPhase.ASSIGNMENT).getCount()).isEqualTo(2);
+    }
+
+    private void recordAssignment(String dappName, long duration) {
+        taskLifecycleService.onTaskStatusChange(buildTask(dappName,
+                new TaskStatusChange(new Date(0), TaskStatus.INITIALIZED),
+                new TaskStatusChange(new Date(duration), TaskStatus.RUNNING)));
+    }
+
+    private Task buildTask(String dappName, TaskStatusChange... statusChanges) {
+        return Task.builder()
+                .chainDealId(CHAIN_DEAL_ID)
+                .dappName(dappName)
+                .currentStatus(statusChanges[statusChanges.length - 1].getStatus())
+                .dateStatusList(new ArrayList<>(Arrays.asList(statusChanges)))
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.iexec.core.task.listener;
+
+import com.iexec.common.replicate.ReplicateStatus;
+import com.iexec.common.replicate.ReplicateStatusModifier;
+import com.iexec.core.cluster.PartitionService;
+import com.iexec.core.pubsub.NotificationService;
+import com.iexec.core.replicate.Replicate;
+import com.iexec.core.replicate.ReplicatesService;
+import com.iexec.core.task.ReplicateSupplyService;
+import com.iexec.core.task.TaskExecutorEngine;
+import com.iexec.core.task.TaskService;
+import com.iexec.core.task.event.ConsensusReachedEvent;
+import com.iexec.core.worker.WorkerService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class TaskListenersTests {
+
+    private final static String CHAIN_TASK_ID = "chainTaskId";
+    private final static String WALLET_WINNER = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String WALLET_STRAGGLER = "0x2ab2674aa374fe6415d11f0a8fcbd8027fc1e6a9";
+    private final static String WALLET_LOST = "0x3a3406e69adf886c442ff1791cbf67cea679275d";
+    private final static String CONSENSUS = "consensus";
+
+    @Mock
+    private TaskExecutorEngine taskExecutorEngine;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private ReplicatesService replicatesService;
+
+    @Mock
+    private WorkerService workerService;
+
+    @Mock
+    private ReplicateSupplyService replicateSupplyService;
+
+    @Mock
+    private TaskService taskService;
+
+    @Mock
+    private PartitionService partitionService;
+
+    @InjectMocks
+    private TaskListeners taskListeners;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void shouldAbortStragglersOnConsensusReached() {
+        Replicate winner = new Replicate(WALLET_WINNER, CHAIN_TASK_ID);
+        winner.updateStatus(ReplicateStatus.CONTRIBUTED, ReplicateStatusModifier.WORKER);
+        winner.setContributionHash(CONSENSUS);
+        Replicate straggler = new Replicate(WALLET_STRAGGLER, CHAIN_TASK_ID);
+        straggler.updateStatus(ReplicateStatus.COMPUTING, ReplicateStatusModifier.WORKER);
+        Replicate lost = new Replicate(WALLET_LOST, CHAIN_TASK_ID);
+        lost.updateStatus(ReplicateStatus.WORKER_LOST, ReplicateStatusModifier.POOL_MANAGER);
+        when(replicatesService.getReplicates(CHAIN_TASK_ID)).thenReturn(Arrays.asList(winner, straggler, lost));
+
+        taskListeners.onTaskConsensusReached(new ConsensusReachedEvent(CHAIN_TASK_ID, CONSENSUS));
+
+        Mockito.verify(replicatesService, Mockito.times(1)).updateReplicateStatus(CHAIN_TASK_ID, WALLET_STRAGGLER,
+                ReplicateStatus.ABORTED_ON_CONSENSUS_REACHED, ReplicateStatusModifier.POOL_MANAGER);
+        Mockito.verify(replicatesService, Mockito.never()).updateReplicateStatus(eq(CHAIN_TASK_ID), eq(WALLET_WINNER),
+                any(), any());
+        Mockito.verify(replicatesService, Mockito.never()).updateReplicateStatus(eq(CHAIN_TASK_ID), eq(WALLET_LOST),
+                any(), any());
+    }
+}
@@ -0,0 +1,84 @@
+package com.iexec.core.task.placement;
+
+import com.iexec.core.task.Task;
+import com.iexec.core.worker.Worker;
+import com.iexec.core.worker.WorkerService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class PlacementPolicyTests {
+
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String NO_SGX_TAG = "0x0";
+    private final static String SGX_TAG = "0x0000000000000000000000000000000000000000000000000000000000000001";
+
+    @Mock
+    private WorkerService workerService;
+
+    private Worker worker;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        worker = Worker.builder().walletAddress(WALLET_WORKER_1).cpuNb(2)
+                .participatingChainTaskIds(Collections.emptyList()).build();
+    }
+
+    @Test
+    public void shouldOrderByEarliestDeadline() {
+        Task late = getTask("late", "dapp", NO_SGX_TAG, 1, 2000);
+        Task early = getTask("early", "dapp", NO_SGX_TAG, 1, 1000);
+        Task noDeadline = getTask("noDeadline", "dapp", NO_SGX_TAG, 1, 0);
+
+        assertThat(new DeadlineFirstPlacementPolicy().order(worker, Arrays.asList(noDeadline, late, early)))
+                .containsExactly(early, late, noDeadline);
+    }
+
+    @Test
+    public void shouldOrderByLeastStaffedThenDeadline() {
+        Task loaded = getTask("loaded", "dapp", NO_SGX_TAG, 1, 1000);
+        Task empty1 = getTask("empty1", "dapp", NO_SGX_TAG, 1, 3000);
+        Task empty2 = getTask("empty2", "dapp", NO_SGX_TAG, 1, 2000);
+        when(workerService.getNbParticipatingWorkers("loaded")).thenReturn(1);
+
+        assertThat(new LeastStaffedPlacementPolicy(workerService).order(worker, Arrays.asList(loaded, empty1, empty2)))
+                .containsExactly(empty2, empty1, loaded);
+    }
+
+    @Test
+    public void shouldOrderByHighestTrustThenDeadline() {
+        Task lowTrust = getTask("lowTrust", "dapp", NO_SGX_TAG, 1, 1000);
+        Task highTrust = getTask("highTrust", "dapp", NO_SGX_TAG, 10, 2000);
+
+        assertThat(new TrustWeightedPlacementPolicy().order(worker, Arrays.asList(lowTrust, highTrust)))
+                .containsExactly(highTrust, lowTrust);
+    }
+
+    @Test
+    public void shouldOrderByAffinityWithRunningTasksThenDeadline() {
+        Task running = getTask("running", "dapp1", SGX_TAG, 1, 500);
+        Task sameDappAndTag = getTask("sameDappAndTag", "dapp1", SGX_TAG, 1, 3000);
+        Task sameTag = getTask("sameTag", "dapp2", SGX_TAG, 1, 2000);
+        Task other = getTask("other", "dapp2", NO_SGX_TAG, 1, 1000);
+        worker.setParticipatingChainTaskIds(Collections.singletonList("running"));
+
+        assertThat(new TagAffinityPlacementPolicy().order(worker, Arrays.asList(other, sameTag, sameDappAndTag, running)))
+                .containsExactly(running, sameDappAndTag, sameTag, other);
+    }
+
+    private static Task getTask(String chainTaskId, String dappName, String tag, int trust, long deadline) {
+        Task task = new Task(dappName, "commandLine", trust, chainTaskId);
+        task.setTag(tag);
+        task.setContributionDeadline(deadline > 0 ? new Date(deadline) : null);
+        return task;
+    }
+}
@@ -0,0 +1,95 @@
+package com.iexec.core.tracing;
+
+import brave.Span;
+import brave.Tracing;
+import brave.propagation.TraceContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TracingServiceTests {
+
+    private List<zipkin2.Span> reportedSpans;
+    private Tracing tracing;
+    private TracingService tracingService;
+
+    @Before
+    public void init() {
+        reportedSpans = new CopyOnWriteArrayList<>();
+        tracing = Tracing.newBuilder().spanReporter(reportedSpans::add).build();
+        tracingService = new TracingService(tracing);
+    }
+
+    @After
+    public void close() {
+        tracing.close();
+    }
+
+    @Test
+    public void shouldReportSpanAroundAction() {
+        assertThat(tracingService.inSpan("rpc viewTask", () -> "chainTask")).isEqualTo("chainTask");
+
+        assertThat(reportedSpans).hasSize(1);
+        assertThat(reportedSpans.get(0).name()).isEqualTo("rpc viewtask");
+    }
+
+    @Test
+    public void shouldReportFailedAction() {
+        assertThatThrownBy(() -> tracingService.inSpanCallable("rpc initialize", () -> {
+            throw new IllegalStateException("reverted");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(reportedSpans).hasSize(1);
+        assertThat(reportedSpans.get(0).tags()).containsKey("error");
+    }
+
+    @Test
+    public void shouldPropagateContextToOtherThread() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicReference<TraceContext> contextInExecutor = new AtomicReference<>();
+
+        tracingService.runInSpan("update-task", () -> executor.execute(tracingService.wrap(
+                () -> contextInExecutor.set(tracingService.getCurrentContext()))), "chainTaskId", "0x1");
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(contextInExecutor.get()).isNotNull();
+        assertThat(contextInExecutor.get().traceIdString()).isEqualTo(reportedSpans.get(0).traceId());
+        assertThat(reportedSpans.get(0).tags()).containsEntry("chainTaskId", "0x1");
+    }
+
+    @Test
+    public void shouldRunInChildSpanOfCapturedContext() {
+        AtomicReference<TraceContext> captured = new AtomicReference<>();
+        tracingService.runInSpan("send-notification", () -> captured.set(tracingService.getCurrentContext()));
+
+        tracingService.runInSpan("dispatch-notifications", captured.get(), () -> {
+        });
+
+        assertThat(reportedSpans).hasSize(2);
+        assertThat(reportedSpans.get(1).traceId()).isEqualTo(reportedSpans.get(0).traceId());
+        assertThat(reportedSpans.get(1).parentId()).isEqualTo(reportedSpans.get(0).id());
+    }
+
+    @Test
+    public void shouldNotStartChildSpanOutOfTrace() {
+        assertThat(tracingService.startChildSpan("mongo find")).isNull();
+
+        tracingService.runInSpan("update-task", () -> {
+            Span span = tracingService.startChildSpan("mongo find");
+            assertThat(span).isNotNull();
+            span.finish();
+        });
+        assertThat(reportedSpans).hasSize(2);
+    }
+}
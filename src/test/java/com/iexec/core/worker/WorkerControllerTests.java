@@ -0,0 +1,68 @@
+package com.iexec.core.worker;
+
+import com.iexec.core.chain.ChainConfig;
+import com.iexec.core.chain.CredentialsService;
+import com.iexec.core.configuration.SessionService;
+import com.iexec.core.configuration.WorkerConfiguration;
+import com.iexec.core.security.ChallengeService;
+import com.iexec.core.security.JwtTokenProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class WorkerControllerTests {
+
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String BEARER_TOKEN = "Bearer token";
+    private final static String SESSION_ID = "sessionId";
+
+    @Mock
+    private WorkerService workerService;
+
+    @Mock
+    private ChainConfig chainConfig;
+
+    @Mock
+    private CredentialsService credentialsService;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private ChallengeService challengeService;
+
+    @Mock
+    private WorkerConfiguration workerConfiguration;
+
+    @Mock
+    private SessionService sessionService;
+
+    @InjectMocks
+    private WorkerController workerController;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    // a burst of pings (e.g. a worker catching up after a network outage) is never answered 429
+    @Test
+    public void shouldNeverRateLimitPings() {
+        when(jwtTokenProvider.getWalletAddressFromBearerToken(BEARER_TOKEN)).thenReturn(WALLET_WORKER_1);
+        when(workerService.updateLastAlive(WALLET_WORKER_1))
+                .thenReturn(Optional.of(Worker.builder().walletAddress(WALLET_WORKER_1).build()));
+        when(sessionService.getSessionId()).thenReturn(SESSION_ID);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(workerController.ping(BEARER_TOKEN).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.iexec.core.worker;
 
+import com.iexec.core.cluster.ClusterConfiguration;
 import org.junit.Before;
 import org.junit.Test;
+import org.bson.Document;
 import org.mockito.*;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -10,13 +17,28 @@ import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 public class WorkerServiceTests {
 
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String WALLET_WORKER_2 = "0x2ab2674aa374fe6415d11f0a8fcbd8027fc1e6a9";
+
     @Mock
     private WorkerRepository workerRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Spy
+    private WorkerAssignmentIndex workerAssignmentIndex = new WorkerAssignmentIndex();
+
+    // standalone scheduler
+    @Spy
+    private ClusterConfiguration clusterConfiguration = new ClusterConfiguration();
+
     @InjectMocks
     private WorkerService workerService;
 
@@ -78,35 +100,33 @@ public class WorkerServiceTests {
                 .walletAddress(walletAddress)
                 .lastAliveDate(oldLastAlive)
                 .build();
-        when(workerRepository.findByWalletAddress(walletAddress)).thenReturn(Optional.of(worker));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(worker);
 
         // call
         Optional<Worker> updatedWorker = workerService.updateLastAlive(walletAddress);
 
-        // check argument passed to the save method
-        ArgumentCaptor<Worker> argument = ArgumentCaptor.forClass(Worker.class);
-        Mockito.verify(workerRepository).save(argument.capture());
-        assertThat(argument.getValue().getId()).isEqualTo(worker.getId());
-        assertThat(argument.getValue().getName()).isEqualTo(worker.getName());
-        // check that the save method was called with a lastAlive parameter updated less than a second ago
-        Date now = new Date();
-        long duration = now.getTime() - argument.getValue().getLastAliveDate().getTime();
-        long diffInSeconds = TimeUnit.MILLISECONDS.toSeconds(duration);
-        assertThat(diffInSeconds).isEqualTo(0);
+        // check that only the lastAlive date is set, to a date less than a second ago
+        ArgumentCaptor<Update> argument = ArgumentCaptor.forClass(Update.class);
+        Mockito.verify(mongoTemplate).findAndModify(any(Query.class), argument.capture(),
+                any(FindAndModifyOptions.class), eq(Worker.class));
+        Document set = (Document) argument.getValue().getUpdateObject().get("$set");
+        assertThat(set.keySet()).containsExactly("lastAliveDate");
+        long duration = new Date().getTime() - ((Date) set.get("lastAliveDate")).getTime();
+        assertThat(TimeUnit.MILLISECONDS.toSeconds(duration)).isEqualTo(0);
+        Mockito.verify(workerRepository, Mockito.never()).save(any());
 
         // check object returned by the method
         assertThat(updatedWorker.isPresent()).isTrue();
         assertThat(updatedWorker.get().getId()).isEqualTo(worker.getId());
         assertThat(updatedWorker.get().getName()).isEqualTo(worker.getName());
-        duration = now.getTime() - updatedWorker.get().getLastAliveDate().getTime();
-        diffInSeconds = TimeUnit.MILLISECONDS.toSeconds(duration);
-        assertThat(diffInSeconds).isEqualTo(0);
     }
 
     @Test
     public void shouldNotFindWorkerForUpdateLastAlive() {
         String walletAddress = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
-        when(workerRepository.findByWalletAddress(walletAddress)).thenReturn(Optional.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(null);
 
         Optional<Worker> optional = workerService.updateLastAlive(walletAddress);
         assertThat(optional.isPresent()).isFalse();
@@ -134,190 +154,129 @@ public class WorkerServiceTests {
 
     @Test
     public void shouldAddTaskIdToWorker(){
-        String workerName = "worker1";
-        String walletAddress = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
-        Worker existingWorker = Worker.builder()
-                .id("1")
-                .name(workerName)
-                .walletAddress(walletAddress)
-                .os("Linux")
-                .cpu("x86")
-                .cpuNb(8)
-                .lastAliveDate(new Date())
-                .participatingChainTaskIds(new ArrayList<>(Arrays.asList("task1", "task2")))
-                .computingChainTaskIds(new ArrayList<>(Arrays.asList("task1", "task2")))
-                .build();
-
-        when(workerRepository.findByWalletAddress(walletAddress)).thenReturn(Optional.of(existingWorker));
-        when(workerRepository.save(existingWorker)).thenReturn(existingWorker);
-
-        Optional<Worker> addedWorker = workerService.addChainTaskIdToWorker("task3", walletAddress);
-        assertThat(addedWorker.isPresent()).isTrue();
-        Worker worker = addedWorker.get();
-        assertThat(worker.getParticipatingChainTaskIds().size()).isEqualTo(3);
-        assertThat(worker.getParticipatingChainTaskIds().get(2)).isEqualTo("task3");
-        assertThat(worker.getComputingChainTaskIds().size()).isEqualTo(3);
-        assertThat(worker.getComputingChainTaskIds().get(2)).isEqualTo("task3");
+        workerAssignmentIndex.load(Collections.singletonList(getDummyWorker(WALLET_WORKER_1, 3,
+                new ArrayList<>(Arrays.asList("task1", "task2")), new ArrayList<>(Arrays.asList("task1", "task2")))));
+        Worker updatedWorker = getDummyWorker(WALLET_WORKER_1, 3,
+                Arrays.asList("task1", "task2", "task3"), Arrays.asList("task1", "task2", "task3"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(updatedWorker);
+
+        Optional<Worker> addedWorker = workerService.addChainTaskIdToWorker("task3", WALLET_WORKER_1);
+        assertThat(addedWorker).isEqualTo(Optional.of(updatedWorker));
+
+        Document addToSet = (Document) captureUpdate().getUpdateObject().get("$addToSet");
+        assertThat(addToSet.get("participatingChainTaskIds")).isEqualTo("task3");
+        assertThat(addToSet.get("computingChainTaskIds")).isEqualTo("task3");
+        Mockito.verify(workerRepository, Mockito.never()).save(any());
+
+        assertThat(workerAssignmentIndex.getNbFreeSlots(WALLET_WORKER_1)).isEqualTo(0);
+        assertThat(workerAssignmentIndex.getWalletAddresses("task3")).containsExactly(WALLET_WORKER_1);
     }
 
     @Test
     public void shouldNotAddTaskIdToWorker(){
-        when(workerRepository.findByWalletAddress(Mockito.anyString())).thenReturn(Optional.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(null);
         Optional<Worker> addedWorker = workerService.addChainTaskIdToWorker("task1", "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248");
         assertThat(addedWorker.isPresent()).isFalse();
     }
 
     @Test
     public void shouldRemoveTaskIdFromWorker(){
-        String workerName = "worker1";
-        String walletAddress = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
-        Worker existingWorker = Worker.builder()
-                .id("1")
-                .name(workerName)
-                .walletAddress(walletAddress)
-                .os("Linux")
-                .cpu("x86")
-                .cpuNb(8)
-                .lastAliveDate(new Date())
-                .participatingChainTaskIds(new ArrayList<>(Arrays.asList("task1", "task2")))
-                .computingChainTaskIds(new ArrayList<>(Arrays.asList("task1", "task2")))
-                .build();
-
-        when(workerRepository.findByWalletAddress(walletAddress)).thenReturn(Optional.of(existingWorker));
-        when(workerRepository.save(existingWorker)).thenReturn(existingWorker);
-
-        Optional<Worker> removedWorker = workerService.removeChainTaskIdFromWorker("task2", walletAddress);
-        assertThat(removedWorker.isPresent()).isTrue();
-        Worker worker = removedWorker.get();
-        assertThat(worker.getParticipatingChainTaskIds().size()).isEqualTo(1);
-        assertThat(worker.getParticipatingChainTaskIds().get(0)).isEqualTo("task1");
-        assertThat(worker.getComputingChainTaskIds().size()).isEqualTo(1);
-        assertThat(worker.getComputingChainTaskIds().get(0)).isEqualTo("task1");
+        workerAssignmentIndex.load(Collections.singletonList(getDummyWorker(WALLET_WORKER_1, 2,
+                Arrays.asList("task1", "task2"), Arrays.asList("task1", "task2"))));
+        Worker updatedWorker = getDummyWorker(WALLET_WORKER_1, 2,
+                Collections.singletonList("task1"), Collections.singletonList("task1"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(updatedWorker);
+
+        Optional<Worker> removedWorker = workerService.removeChainTaskIdFromWorker("task2", WALLET_WORKER_1);
+        assertThat(removedWorker).isEqualTo(Optional.of(updatedWorker));
+
+        Document pull = (Document) captureUpdate().getUpdateObject().get("$pull");
+        assertThat(pull.get("participatingChainTaskIds")).isEqualTo("task2");
+        assertThat(pull.get("computingChainTaskIds")).isEqualTo("task2");
+
+        assertThat(workerAssignmentIndex.getNbFreeSlots(WALLET_WORKER_1)).isEqualTo(1);
+        assertThat(workerAssignmentIndex.getWalletAddresses("task2")).isEmpty();
     }
 
     @Test
     public void shouldNotRemoveTaskIdWorkerNotFound(){
-        when(workerRepository.findByWalletAddress(Mockito.anyString())).thenReturn(Optional.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(null);
         Optional<Worker> addedWorker = workerService.removeChainTaskIdFromWorker("task1", "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248");
         assertThat(addedWorker.isPresent()).isFalse();
     }
 
     @Test
     public void shouldNotRemoveAnythingSinceTaskIdNotFound(){
-        String workerName = "worker1";
-        String walletAddress = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
-        List<String> participatingIds = new ArrayList<>(Arrays.asList("task1", "task2"));
-        List<String> computingIds = new ArrayList<>(Arrays.asList("task1", "task2"));
-        Worker existingWorker = Worker.builder()
-                .id("1")
-                .name(workerName)
-                .walletAddress(walletAddress)
-                .os("Linux")
-                .cpu("x86")
-                .cpuNb(8)
-                .lastAliveDate(new Date())
-                .participatingChainTaskIds(participatingIds)
-                .computingChainTaskIds(computingIds)
-                .build();
+        workerAssignmentIndex.load(Collections.singletonList(getDummyWorker(WALLET_WORKER_1, 3,
+                Arrays.asList("task1", "task2"), Arrays.asList("task1", "task2"))));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(getDummyWorker(WALLET_WORKER_1, 3, Arrays.asList("task1", "task2"), Arrays.asList("task1", "task2")));
 
-        when(workerRepository.findByWalletAddress(walletAddress)).thenReturn(Optional.of(existingWorker));
-        when(workerRepository.save(existingWorker)).thenReturn(existingWorker);
-
-        Optional<Worker> removedWorker = workerService.removeChainTaskIdFromWorker("dummyTaskId", walletAddress);
+        Optional<Worker> removedWorker = workerService.removeChainTaskIdFromWorker("dummyTaskId", WALLET_WORKER_1);
         assertThat(removedWorker.isPresent()).isTrue();
-        Worker worker = removedWorker.get();
-        assertThat(worker.getParticipatingChainTaskIds().size()).isEqualTo(2);
-        assertThat(worker.getParticipatingChainTaskIds()).isEqualTo(participatingIds);
 
-        assertThat(worker.getComputingChainTaskIds().size()).isEqualTo(2);
-        assertThat(worker.getComputingChainTaskIds()).isEqualTo(computingIds);
+        assertThat(workerAssignmentIndex.getNbFreeSlots(WALLET_WORKER_1)).isEqualTo(1);
+        assertThat(workerAssignmentIndex.getWalletAddresses("task1")).containsExactly(WALLET_WORKER_1);
+        assertThat(workerAssignmentIndex.getWalletAddresses("task2")).containsExactly(WALLET_WORKER_1);
     }
 
     @Test
     public void shouldRemoveComputedChainTaskIdFromWorker(){
-        String workerName = "worker1";
-        String walletAddress = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
-        List<String> participatingIds = new ArrayList<>(Arrays.asList("task1", "task2"));
-        List<String> computingIds = new ArrayList<>(Arrays.asList("task1", "task2"));
-        Worker existingWorker = Worker.builder()
-                .id("1")
-                .name(workerName)
-                .walletAddress(walletAddress)
-                .os("Linux")
-                .cpu("x86")
-                .cpuNb(8)
-                .lastAliveDate(new Date())
-                .participatingChainTaskIds(participatingIds)
-                .computingChainTaskIds(computingIds)
-                .build();
-
-        when(workerRepository.findByWalletAddress(walletAddress)).thenReturn(Optional.of(existingWorker));
-        when(workerRepository.save(existingWorker)).thenReturn(existingWorker);
-
-        Optional<Worker> removedWorker = workerService.removeComputedChainTaskIdFromWorker("task1", walletAddress);
-        assertThat(removedWorker.isPresent()).isTrue();
-        Worker worker = removedWorker.get();
-        assertThat(worker.getParticipatingChainTaskIds().size()).isEqualTo(2);
-        assertThat(worker.getParticipatingChainTaskIds()).isEqualTo(participatingIds);
-
-        assertThat(worker.getComputingChainTaskIds().size()).isEqualTo(1);
-        assertThat(worker.getComputingChainTaskIds().get(0)).isEqualTo("task2");
+        workerAssignmentIndex.load(Collections.singletonList(getDummyWorker(WALLET_WORKER_1, 2,
+                Arrays.asList("task1", "task2"), Arrays.asList("task1", "task2"))));
+        Worker updatedWorker = getDummyWorker(WALLET_WORKER_1, 2,
+                Arrays.asList("task1", "task2"), Collections.singletonList("task2"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(updatedWorker);
+
+        Optional<Worker> removedWorker = workerService.removeComputedChainTaskIdFromWorker("task1", WALLET_WORKER_1);
+        assertThat(removedWorker).isEqualTo(Optional.of(updatedWorker));
+
+        Document pull = (Document) captureUpdate().getUpdateObject().get("$pull");
+        assertThat(pull.keySet()).containsExactly("computingChainTaskIds");
+
+        // the worker still participates in the task but has a free slot again
+        assertThat(workerAssignmentIndex.getNbFreeSlots(WALLET_WORKER_1)).isEqualTo(1);
+        assertThat(workerAssignmentIndex.getWalletAddresses("task1")).containsExactly(WALLET_WORKER_1);
     }
 
     @Test
     public void shouldNotRemoveComputedChainTaskIdFromWorkerSinceWorkerNotFound(){
-        String workerName = "worker1";
-        String walletAddress = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
-        List<String> participatingIds = new ArrayList<>(Arrays.asList("task1", "task2"));
-        List<String> computingIds = new ArrayList<>(Arrays.asList("task1", "task2"));
-        Worker existingWorker = Worker.builder()
-                .id("1")
-                .name(workerName)
-                .walletAddress(walletAddress)
-                .os("Linux")
-                .cpu("x86")
-                .cpuNb(8)
-                .lastAliveDate(new Date())
-                .participatingChainTaskIds(participatingIds)
-                .computingChainTaskIds(computingIds)
-                .build();
-
-        when(workerRepository.findByWalletAddress(walletAddress)).thenReturn(Optional.empty());
-        when(workerRepository.save(existingWorker)).thenReturn(existingWorker);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(null);
 
-        Optional<Worker> removedWorker = workerService.removeComputedChainTaskIdFromWorker("task1", walletAddress);
+        Optional<Worker> removedWorker = workerService.removeComputedChainTaskIdFromWorker("task1", WALLET_WORKER_1);
         assertThat(removedWorker.isPresent()).isFalse();
     }
 
     @Test
     public void shouldNotRemoveComputedChainTaskIdFromWorkerSinceChainTaskIdNotFound(){
-        String workerName = "worker1";
-        String walletAddress = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
-        List<String> participatingIds = new ArrayList<>(Arrays.asList("task1", "task2"));
-        List<String> computingIds = new ArrayList<>(Arrays.asList("task1", "task2"));
-        Worker existingWorker = Worker.builder()
-                .id("1")
-                .name(workerName)
-                .walletAddress(walletAddress)
-                .os("Linux")
-                .cpu("x86")
-                .cpuNb(8)
-                .lastAliveDate(new Date())
-                .participatingChainTaskIds(participatingIds)
-                .computingChainTaskIds(computingIds)
-                .build();
-
-        when(workerRepository.findByWalletAddress(walletAddress)).thenReturn(Optional.of(existingWorker));
-        when(workerRepository.save(existingWorker)).thenReturn(existingWorker);
+        workerAssignmentIndex.load(Collections.singletonList(getDummyWorker(WALLET_WORKER_1, 3,
+                Arrays.asList("task1", "task2"), Arrays.asList("task1", "task2"))));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Worker.class)))
+                .thenReturn(getDummyWorker(WALLET_WORKER_1, 3, Arrays.asList("task1", "task2"), Arrays.asList("task1", "task2")));
 
-        Optional<Worker> removedWorker = workerService.removeComputedChainTaskIdFromWorker("dummyTaskId", walletAddress);
+        Optional<Worker> removedWorker = workerService.removeComputedChainTaskIdFromWorker("dummyTaskId", WALLET_WORKER_1);
         assertThat(removedWorker.isPresent()).isTrue();
-        Worker worker = removedWorker.get();
-        assertThat(worker.getParticipatingChainTaskIds().size()).isEqualTo(2);
-        assertThat(worker.getParticipatingChainTaskIds()).isEqualTo(participatingIds);
+        assertThat(workerAssignmentIndex.getNbFreeSlots(WALLET_WORKER_1)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRemoveTaskIdFromAllItsWorkers(){
+        workerAssignmentIndex.load(Arrays.asList(
+                getDummyWorker(WALLET_WORKER_1, 1, Collections.singletonList("task1"), Collections.singletonList("task1")),
+                getDummyWorker(WALLET_WORKER_2, 1, Collections.singletonList("task1"), Collections.emptyList())));
 
-        assertThat(worker.getComputingChainTaskIds().size()).isEqualTo(2);
-        assertThat(worker.getComputingChainTaskIds()).isEqualTo(computingIds);
+        workerService.removeChainTaskIdFromWorkers("task1");
+
+        Mockito.verify(mongoTemplate, Mockito.times(1)).updateMulti(any(Query.class), any(Update.class), eq(Worker.class));
+        assertThat(workerAssignmentIndex.getWalletAddresses("task1")).isEmpty();
+        assertThat(workerAssignmentIndex.getNbFreeSlots(WALLET_WORKER_1)).isEqualTo(1);
+        assertThat(workerAssignmentIndex.getNbFreeSlots(WALLET_WORKER_2)).isEqualTo(1);
     }
 
     @Test
@@ -401,6 +360,46 @@ public class WorkerServiceTests {
         assertThat(canAccept).isFalse();
     }
 
+    @Test
+    public void shouldNotReadWorkerAgainOnceIndexed() {
+        Worker worker = getDummyWorker(WALLET_WORKER_1, 3,
+                Arrays.asList("task1", "task2"), Arrays.asList("task1", "task2"));
+        when(workerRepository.findByWalletAddress(WALLET_WORKER_1)).thenReturn(Optional.of(worker));
+
+        assertThat(workerService.canAcceptMoreWorks(WALLET_WORKER_1)).isTrue();
+        assertThat(workerService.canAcceptMoreWorks(WALLET_WORKER_1)).isTrue();
+        Mockito.verify(workerRepository, Mockito.times(1)).findByWalletAddress(WALLET_WORKER_1);
+    }
+
+    @Test
+    public void shouldReadWorkerOnEachCheckWithClusterEnabled() {
+        ReflectionTestUtils.setField(clusterConfiguration, "enabled", true);
+        Worker worker = getDummyWorker(WALLET_WORKER_1, 1,
+                Collections.singletonList("task1"), Collections.singletonList("task1"));
+        // the computing task has then been released by another scheduler
+        Worker releasedWorker = getDummyWorker(WALLET_WORKER_1, 1,
+                Collections.singletonList("task1"), Collections.emptyList());
+        when(workerRepository.findByWalletAddress(WALLET_WORKER_1))
+                .thenReturn(Optional.of(worker), Optional.of(releasedWorker));
+
+        assertThat(workerService.canAcceptMoreWorks(WALLET_WORKER_1)).isFalse();
+        assertThat(workerService.canAcceptMoreWorks(WALLET_WORKER_1)).isTrue();
+        Mockito.verify(workerRepository, Mockito.times(2)).findByWalletAddress(WALLET_WORKER_1);
+    }
+
+    @Test
+    public void shouldRefreshIndexOnlyWithClusterEnabled() {
+        workerService.refreshWorkerAssignmentIndex();
+        Mockito.verify(workerRepository, Mockito.never()).findAll();
+
+        ReflectionTestUtils.setField(clusterConfiguration, "enabled", true);
+        when(workerRepository.findAll()).thenReturn(Collections.singletonList(getDummyWorker(WALLET_WORKER_1, 2,
+                Collections.singletonList("task1"), Collections.singletonList("task1"))));
+        workerService.refreshWorkerAssignmentIndex();
+
+        assertThat(workerService.getNbParticipatingWorkers("task1")).isEqualTo(1);
+    }
+
     @Test
     public void shouldNotAcceptMoreWorksSinceSaturatedCpus() {
         String walletAddress = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
@@ -414,6 +413,13 @@ public class WorkerServiceTests {
         assertThat(workerService.canAcceptMoreWorks(walletAddress)).isFalse();
     }
 
+    private Update captureUpdate() {
+        ArgumentCaptor<Update> argument = ArgumentCaptor.forClass(Update.class);
+        Mockito.verify(mongoTemplate).findAndModify(any(Query.class), argument.capture(),
+                any(FindAndModifyOptions.class), eq(Worker.class));
+        return argument.getValue();
+    }
+
     List<Worker> getDummyWorkers(int n) {
 
         List<Worker> dummyWorkers = new ArrayList<>();
@@ -0,0 +1,48 @@
+package com.iexec.core.worker;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WorkerStatsServiceTests {
+
+    private final static String WALLET_WORKER_1 = "0x1a69b2eb604db8eba185df03ea4f5288dcbbd248";
+    private final static String WALLET_WORKER_2 = "0x2ab2674aa374fe6415d11f0a8fcbd8027fc1e6a9";
+
+    private WorkerStatsService workerStatsService;
+
+    @Before
+    public void init() {
+        workerStatsService = new WorkerStatsService();
+    }
+
+    @Test
+    public void shouldNotGetExpectedContributionTimeOfUnknownWorker() {
+        assertThat(workerStatsService.getExpectedContributionTime(WALLET_WORKER_1).isPresent()).isFalse();
+    }
+
+    @Test
+    public void shouldGetFirstContributionTimeAsExpected() {
+        workerStatsService.addContributionTime(WALLET_WORKER_1, 10000);
+
+        assertThat(workerStatsService.getExpectedContributionTime(WALLET_WORKER_1)).contains(10000L);
+        assertThat(workerStatsService.getExpectedContributionTime(WALLET_WORKER_2).isPresent()).isFalse();
+    }
+
+    @Test
+    public void shouldWeighLatestContributionTime() {
+        workerStatsService.addContributionTime(WALLET_WORKER_1, 10000);
+        workerStatsService.addContributionTime(WALLET_WORKER_1, 20000);
+
+        // 0.3 * 20000 + 0.7 * 10000
+        assertThat(workerStatsService.getExpectedContributionTime(WALLET_WORKER_1)).contains(13000L);
+    }
+
+    @Test
+    public void shouldIgnoreNegativeContributionTime() {
+        workerStatsService.addContributionTime(WALLET_WORKER_1, -1);
+
+        assertThat(workerStatsService.getExpectedContributionTime(WALLET_WORKER_1).isPresent()).isFalse();
+    }
+}